@@ -449,6 +449,16 @@ public class Block {
 
 	}
 
+	/**+
+	 * Returns true if addCollisionBoxesToList adds exactly the
+	 * whole block space, lets World.getCollisionBoxes skip the
+	 * call for solid blocks
+	 */
+	public boolean isFullCollisionCube() {
+		return this.isFullCube() && this.minX == 0.0D && this.minY == 0.0D && this.minZ == 0.0D && this.maxX == 1.0D
+				&& this.maxY == 1.0D && this.maxZ == 1.0D;
+	}
+
 	public AxisAlignedBB getCollisionBoundingBox(World var1, BlockPos blockpos, IBlockState var3) {
 		return new AxisAlignedBB((double) blockpos.getX() + this.minX, (double) blockpos.getY() + this.minY,
 				(double) blockpos.getZ() + this.minZ, (double) blockpos.getX() + this.maxX,
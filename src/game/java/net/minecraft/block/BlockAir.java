@@ -39,6 +39,10 @@ public class BlockAir extends Block {
 		return -1;
 	}
 
+	public boolean isFullCollisionCube() {
+		return false;
+	}
+
 	public AxisAlignedBB getCollisionBoundingBox(World worldIn, BlockPos pos, IBlockState state) {
 		return null;
 	}
@@ -63,6 +63,10 @@ public class BlockEndPortalFrame extends Block {
 		this.setBlockBounds(0.0F, 0.0F, 0.0F, 1.0F, 0.8125F, 1.0F);
 	}
 
+	public boolean isFullCollisionCube() {
+		return false;
+	}
+
 	/**+
 	 * Add all collision boxes of this Block to the list that
 	 * intersect with the given mask.
@@ -35,6 +35,10 @@ public class BlockSoulSand extends Block {
 		this.setCreativeTab(CreativeTabs.tabBlock);
 	}
 
+	public boolean isFullCollisionCube() {
+		return false;
+	}
+
 	public AxisAlignedBB getCollisionBoundingBox(World var1, BlockPos blockpos, IBlockState var3) {
 		float f = 0.125F;
 		return new AxisAlignedBB((double) blockpos.getX(), (double) blockpos.getY(), (double) blockpos.getZ(),
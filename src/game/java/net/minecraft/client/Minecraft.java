@@ -6,8 +6,11 @@ import static net.lax1dude.eaglercraft.v1_8.internal.PlatformOpenGL._wglBindFram
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -47,6 +50,7 @@ import net.lax1dude.eaglercraft.v1_8.minecraft.GuiScreenGenericErrorMessage;
 import net.lax1dude.eaglercraft.v1_8.notifications.ServerNotificationRenderer;
 import net.lax1dude.eaglercraft.v1_8.opengl.EaglerMeshLoader;
 import net.lax1dude.eaglercraft.v1_8.opengl.EaglercraftGPU;
+import net.lax1dude.eaglercraft.v1_8.opengl.GPUPassTimer;
 import net.lax1dude.eaglercraft.v1_8.opengl.GlStateManager;
 import net.lax1dude.eaglercraft.v1_8.opengl.ImageData;
 import net.lax1dude.eaglercraft.v1_8.opengl.WorldRenderer;
@@ -63,6 +67,7 @@ import net.lax1dude.eaglercraft.v1_8.profanity_filter.GuiScreenContentWarning;
 import net.lax1dude.eaglercraft.v1_8.profile.EaglerProfile;
 import net.lax1dude.eaglercraft.v1_8.profile.GuiScreenEditProfile;
 import net.lax1dude.eaglercraft.v1_8.profile.SkinPreviewRenderer;
+import net.lax1dude.eaglercraft.v1_8.profiler.Profiler;
 import net.lax1dude.eaglercraft.v1_8.socket.AddressResolver;
 import net.lax1dude.eaglercraft.v1_8.socket.EaglercraftNetworkManager;
 import net.lax1dude.eaglercraft.v1_8.socket.RateLimitTracker;
@@ -271,6 +276,7 @@ public class Minecraft implements IThreadListener {
 	long systemTime = getSystemTime();
 	private int joinPlayerCounter;
 	public final FrameTimer field_181542_y = new FrameTimer();
+	public final Profiler mcProfiler = new Profiler();
 	long field_181543_z = System.nanoTime();
 	private final boolean jvm64bit;
 	private EaglercraftNetworkManager myNetworkManager;
@@ -315,6 +321,7 @@ public class Minecraft implements IThreadListener {
 	 * Profiler currently displayed in the debug screen pie chart
 	 */
 	private String debugProfilerName = "root";
+	private boolean toggleProfilerTrace = false;
 	public int joinWorldTickCounter = 0;
 	private int dontPauseTimer = 0;
 	public int bungeeOutdatedMsgTimer = 0;
@@ -818,6 +825,7 @@ public class Minecraft implements IThreadListener {
 	 */
 	private void runGameLoop() throws IOException {
 		long i = System.nanoTime();
+		this.mcProfiler.startSection("root");
 		if (Display.isCloseRequested()) {
 			this.shutdown();
 		}
@@ -833,12 +841,14 @@ public class Minecraft implements IThreadListener {
 			this.timer.updateTimer();
 		}
 
+		this.mcProfiler.startSection("scheduledExecutables");
 		synchronized (this.scheduledTasks) {
 			while (!this.scheduledTasks.isEmpty()) {
 				Util.func_181617_a((FutureTask) this.scheduledTasks.remove(0), logger);
 			}
 		}
 
+		this.mcProfiler.endStartSection("tick");
 		long l = System.nanoTime();
 
 		if (this.timer.elapsedTicks > 1) {
@@ -858,12 +868,20 @@ public class Minecraft implements IThreadListener {
 			this.runTick();
 		}
 
+		if (this.thePlayer != null && this.thePlayer.sendQueue != null) {
+			this.thePlayer.sendQueue.getNetworkManager().flushSendQueue();
+		}
+
 		long i1 = System.nanoTime() - l;
+		this.mcProfiler.endStartSection("preRenderErrors");
 		this.checkGLError("Pre render");
+		this.mcProfiler.endStartSection("sound");
 		this.mcSoundHandler.setListener(this.thePlayer, this.timer.renderPartialTicks);
+		this.mcProfiler.endStartSection("render");
 
 		if (!Display.contextLost()) {
 			EaglercraftGPU.optimize();
+			GPUPassTimer.beginFrame();
 			_wglBindFramebuffer(0x8D40, null);
 			GlStateManager.viewport(0, 0, this.displayWidth, this.displayHeight);
 			GlStateManager.clearColor(0.0f, 0.0f, 0.0f, 1.0f);
@@ -878,12 +896,20 @@ public class Minecraft implements IThreadListener {
 				this.entityRenderer.func_181560_a(this.timer.renderPartialTicks, i);
 			}
 
+			GPUPassTimer.beginPass("overlay");
 			this.guiAchievement.updateAchievementWindow();
 			this.touchOverlayRenderer.render(displayWidth, displayHeight, scaledResolution);
+			if (this.mcProfiler.profilingEnabled && this.gameSettings.showDebugInfo
+					&& this.gameSettings.showDebugProfilerChart && !this.gameSettings.hideGUI) {
+				this.displayDebugInfo();
+			}
+			GPUPassTimer.endFrame();
 			GlStateManager.popMatrix();
 		}
 
+		this.mcProfiler.endStartSection("display");
 		this.updateDisplay();
+		this.mcProfiler.endSection();
 		this.checkGLError("Post render");
 
 		++this.fpsCounter;
@@ -907,10 +933,201 @@ public class Minecraft implements IThreadListener {
 		}
 
 		if (this.isFramerateLimitBelowMax()) {
+			this.mcProfiler.startSection("sync");
 			Display.sync(this.getLimitFramerate());
+			this.mcProfiler.endSection();
 		}
 
 		Mouse.tickCursorShape();
+		this.mcProfiler.endSection();
+		this.updateProfilerState();
+	}
+
+	/**+
+	 * Turns the profiler on or off after the frame, so that no
+	 * section is open when it changes
+	 */
+	private void updateProfilerState() {
+		if (this.toggleProfilerTrace) {
+			this.toggleProfilerTrace = false;
+			if (this.mcProfiler.isTracing()) {
+				String s = this.mcProfiler.stopTrace("Client", 1);
+				String s1 = "client-trace-" + (new SimpleDateFormat("yyyy-MM-dd_HH.mm.ss")).format(new Date()) + ".json";
+				EagRuntime.downloadFileWithName(s1, s.getBytes(StandardCharsets.UTF_8));
+				this.ingameGUI.getChatGUI()
+						.printChatMessage(new ChatComponentTranslation("profiler.traceSaved", new Object[] { s1 }));
+			} else {
+				this.mcProfiler.startTrace(262144);
+				this.ingameGUI.getChatGUI().printChatMessage(new ChatComponentTranslation("profiler.traceStarted"));
+			}
+		}
+
+		if (this.mcProfiler.isTracing()
+				|| this.gameSettings.showDebugInfo && this.gameSettings.showDebugProfilerChart) {
+			if (!this.mcProfiler.profilingEnabled) {
+				this.mcProfiler.clearProfiling();
+				this.mcProfiler.profilingEnabled = true;
+			}
+		} else {
+			this.mcProfiler.profilingEnabled = false;
+			this.prevFrameTime = System.nanoTime();
+		}
+
+		GPUPassTimer.setEnabled(DebugFramebufferView.debugViewShown
+				|| this.gameSettings.showDebugInfo && this.gameSettings.showDebugProfilerChart);
+	}
+
+	/**+
+	 * Update debugProfilerName in response to number keys in debug
+	 * screen
+	 */
+	private void updateDebugProfilerName(int keyCount) {
+		List<Profiler.Result> list = this.mcProfiler.getProfilingData(this.debugProfilerName);
+		if (list != null && !list.isEmpty()) {
+			Profiler.Result profiler$result = (Profiler.Result) list.remove(0);
+			if (keyCount == 0) {
+				if (profiler$result.name.length() > 0) {
+					int i = this.debugProfilerName.lastIndexOf(".");
+					if (i >= 0) {
+						this.debugProfilerName = this.debugProfilerName.substring(0, i);
+					}
+				}
+			} else {
+				--keyCount;
+				if (keyCount < list.size()
+						&& !((Profiler.Result) list.get(keyCount)).name.equals("unspecified")) {
+					if (this.debugProfilerName.length() > 0) {
+						this.debugProfilerName = this.debugProfilerName + ".";
+					}
+
+					this.debugProfilerName = this.debugProfilerName + ((Profiler.Result) list.get(keyCount)).name;
+				}
+			}
+
+		}
+	}
+
+	/**+
+	 * Draws the profiler pie chart of the section selected with
+	 * the number keys
+	 */
+	private void displayDebugInfo() {
+		List<Profiler.Result> list = this.mcProfiler.getProfilingData(this.debugProfilerName);
+		if (list == null || list.isEmpty()) {
+			return;
+		}
+
+		Profiler.Result profiler$result = (Profiler.Result) list.remove(0);
+		GlStateManager.clear(GL_DEPTH_BUFFER_BIT);
+		GlStateManager.matrixMode(GL_PROJECTION);
+		GlStateManager.enableColorMaterial();
+		GlStateManager.loadIdentity();
+		GlStateManager.ortho(0.0D, (double) this.displayWidth, (double) this.displayHeight, 0.0D, 1000.0D, 3000.0D);
+		GlStateManager.matrixMode(GL_MODELVIEW);
+		GlStateManager.loadIdentity();
+		GlStateManager.translate(0.0F, 0.0F, -2000.0F);
+		GlStateManager.disableTexture2D();
+		Tessellator tessellator = Tessellator.getInstance();
+		WorldRenderer worldrenderer = tessellator.getWorldRenderer();
+		short short1 = 160;
+		int i = this.displayWidth - short1 - 10;
+		int j = this.displayHeight - short1 * 2;
+		GlStateManager.enableBlend();
+		worldrenderer.begin(7, DefaultVertexFormats.POSITION_COLOR);
+		worldrenderer.pos((double) ((float) i - (float) short1 * 1.1F),
+				(double) ((float) j - (float) short1 * 0.6F - 16.0F), 0.0D).color(200, 0, 0, 0).endVertex();
+		worldrenderer.pos((double) ((float) i - (float) short1 * 1.1F), (double) (j + short1 * 2), 0.0D)
+				.color(200, 0, 0, 0).endVertex();
+		worldrenderer.pos((double) ((float) i + (float) short1 * 1.1F), (double) (j + short1 * 2), 0.0D)
+				.color(200, 0, 0, 0).endVertex();
+		worldrenderer.pos((double) ((float) i + (float) short1 * 1.1F),
+				(double) ((float) j - (float) short1 * 0.6F - 16.0F), 0.0D).color(200, 0, 0, 0).endVertex();
+		tessellator.draw();
+		GlStateManager.disableBlend();
+		double d0 = 0.0D;
+
+		for (int k = 0; k < list.size(); ++k) {
+			Profiler.Result profiler$result1 = (Profiler.Result) list.get(k);
+			int l = MathHelper.floor_double(profiler$result1.percentOfParent / 4.0D) + 1;
+			worldrenderer.begin(6, DefaultVertexFormats.POSITION_COLOR);
+			int i1 = profiler$result1.getColor();
+			int j1 = i1 >> 16 & 255;
+			int k1 = i1 >> 8 & 255;
+			int l1 = i1 & 255;
+			worldrenderer.pos((double) i, (double) j, 0.0D).color(j1, k1, l1, 255).endVertex();
+
+			for (int i2 = l; i2 >= 0; --i2) {
+				float f = (float) ((d0 + profiler$result1.percentOfParent * (double) i2 / (double) l)
+						* 3.1415927410125732D * 2.0D / 100.0D);
+				float f1 = MathHelper.sin(f) * (float) short1;
+				float f2 = MathHelper.cos(f) * (float) short1 * 0.5F;
+				worldrenderer.pos((double) ((float) i + f1), (double) ((float) j - f2), 0.0D)
+						.color(j1, k1, l1, 255).endVertex();
+			}
+
+			tessellator.draw();
+			worldrenderer.begin(5, DefaultVertexFormats.POSITION_COLOR);
+
+			for (int l2 = l; l2 >= 0; --l2) {
+				float f3 = (float) ((d0 + profiler$result1.percentOfParent * (double) l2 / (double) l)
+						* 3.1415927410125732D * 2.0D / 100.0D);
+				float f4 = MathHelper.sin(f3) * (float) short1;
+				float f5 = MathHelper.cos(f3) * (float) short1 * 0.5F;
+				worldrenderer.pos((double) ((float) i + f4), (double) ((float) j - f5), 0.0D)
+						.color(j1 >> 1, k1 >> 1, l1 >> 1, 255).endVertex();
+				worldrenderer.pos((double) ((float) i + f4), (double) ((float) j - f5 + 10.0F), 0.0D)
+						.color(j1 >> 1, k1 >> 1, l1 >> 1, 255).endVertex();
+			}
+
+			tessellator.draw();
+			d0 += profiler$result1.percentOfParent;
+		}
+
+		GlStateManager.enableTexture2D();
+		String s = "";
+		if (!profiler$result.name.equals("unspecified")) {
+			s = s + "[0] ";
+		}
+
+		if (profiler$result.name.length() == 0) {
+			s = s + "ROOT ";
+		} else {
+			s = s + profiler$result.name + " ";
+		}
+
+		int k2 = 16777215;
+		this.fontRendererObj.drawStringWithShadow(s, (float) (i - short1), (float) (j - short1 / 2 - 16), k2);
+		this.fontRendererObj.drawStringWithShadow(s = formatPercentage(profiler$result.percentOfTotal),
+				(float) (i + short1 - this.fontRendererObj.getStringWidth(s)), (float) (j - short1 / 2 - 16), k2);
+
+		for (int j3 = 0; j3 < list.size(); ++j3) {
+			Profiler.Result profiler$result2 = (Profiler.Result) list.get(j3);
+			String s1 = "";
+			if (profiler$result2.name.equals("unspecified")) {
+				s1 = s1 + "[?] ";
+			} else {
+				s1 = s1 + "[" + (j3 + 1) + "] ";
+			}
+
+			s1 = s1 + profiler$result2.name;
+			this.fontRendererObj.drawStringWithShadow(s1, (float) (i - short1), (float) (j + short1 / 2 + j3 * 8 + 20),
+					profiler$result2.getColor());
+			this.fontRendererObj.drawStringWithShadow(s1 = formatPercentage(profiler$result2.percentOfParent),
+					(float) (i + short1 - 50 - this.fontRendererObj.getStringWidth(s1)),
+					(float) (j + short1 / 2 + j3 * 8 + 20), profiler$result2.getColor());
+			this.fontRendererObj.drawStringWithShadow(s1 = formatPercentage(profiler$result2.percentOfTotal),
+					(float) (i + short1 - this.fontRendererObj.getStringWidth(s1)),
+					(float) (j + short1 / 2 + j3 * 8 + 20), profiler$result2.getColor());
+		}
+
+		if (GPUPassTimer.isSupported()) {
+			DebugFramebufferView.renderGPUTimings((int) ((float) i - (float) short1 * 1.1F) - 10,
+					(int) ((float) j - (float) short1 * 0.6F - 16.0F), true);
+		}
+	}
+
+	private static String formatPercentage(double d) {
+		return HString.format("%.2f", new Object[] { Double.valueOf(d) }) + "%";
 	}
 
 	public void updateDisplay() {
@@ -1197,13 +1414,17 @@ public class Minecraft implements IThreadListener {
 			}
 		}
 
+		this.mcProfiler.startSection("gui");
 		if (!this.isGamePaused) {
 			this.ingameGUI.updateTick();
 		}
 
+		this.mcProfiler.endStartSection("voice");
 		VoiceClientController.tickVoiceClient(this);
 
+		this.mcProfiler.endStartSection("pick");
 		this.entityRenderer.getMouseOver(1.0F);
+		this.mcProfiler.endStartSection("gameMode");
 		if (!this.isGamePaused && this.theWorld != null) {
 			this.playerController.updateController();
 		}
@@ -1212,12 +1433,15 @@ public class Minecraft implements IThreadListener {
 			this.thePlayer.sendQueue.getEaglerMessageController().flush();
 		}
 
+		this.mcProfiler.endStartSection("textures");
 		if (!this.isGamePaused) {
 			this.renderEngine.tick();
 			GlStateManager.viewport(0, 0, displayWidth, displayHeight); // to be safe
 			GlStateManager.enableAlpha();
 		}
 
+		this.mcProfiler.endSection();
+
 		if (this.currentScreen == null && this.thePlayer != null) {
 			if (this.thePlayer.getHealth() <= 0.0F) {
 				this.displayGuiScreen((GuiScreen) null);
@@ -1281,6 +1505,7 @@ public class Minecraft implements IThreadListener {
 			}
 		}
 
+		this.mcProfiler.startSection("input");
 		if (this.currentScreen == null || this.currentScreen.allowUserInput) {
 
 			boolean touched;
@@ -1455,7 +1680,7 @@ public class Minecraft implements IThreadListener {
 						}
 
 						if (k == 38 && Keyboard.isKeyDown(61)) {
-							;
+							this.toggleProfilerTrace = true;
 						}
 
 						if (k == 22 && Keyboard.isKeyDown(61)) {
@@ -1508,6 +1733,18 @@ public class Minecraft implements IThreadListener {
 							this.gameSettings.smoothCamera = !this.gameSettings.smoothCamera;
 						}
 					}
+
+					if (this.gameSettings.showDebugInfo && this.gameSettings.showDebugProfilerChart) {
+						if (k == 11) {
+							this.updateDebugProfilerName(0);
+						}
+
+						for (int j1 = 0; j1 < 9; ++j1) {
+							if (k == 2 + j1) {
+								this.updateDebugProfilerName(j1 + 1);
+							}
+						}
+					}
 				}
 			}
 
@@ -1609,6 +1846,7 @@ public class Minecraft implements IThreadListener {
 							&& this.inGameHasFocus && !useTouch);
 		}
 
+		this.mcProfiler.endSection();
 		if (this.theWorld != null) {
 			if (this.thePlayer != null) {
 				++this.joinPlayerCounter;
@@ -1618,14 +1856,17 @@ public class Minecraft implements IThreadListener {
 				}
 			}
 
+			this.mcProfiler.startSection("gameRenderer");
 			if (!this.isGamePaused) {
 				this.entityRenderer.updateRenderer();
 			}
 
+			this.mcProfiler.endStartSection("levelRenderer");
 			if (!this.isGamePaused) {
 				this.renderGlobal.updateClouds();
 			}
 
+			this.mcProfiler.endStartSection("level");
 			if (!this.isGamePaused) {
 				if (this.theWorld.getLastLightningBolt() > 0) {
 					this.theWorld.setLastLightningBolt(this.theWorld.getLastLightningBolt() - 1);
@@ -1634,16 +1875,20 @@ public class Minecraft implements IThreadListener {
 				this.theWorld.updateEntities();
 			}
 			this.eagskullCommand.tick();
+			this.mcProfiler.endSection();
 		} else if (this.entityRenderer.isShaderActive()) {
 			this.entityRenderer.func_181022_b();
 		}
 
+		this.mcProfiler.startSection("sound");
 		if (!this.isGamePaused) {
 			this.mcMusicTicker.update();
 			this.mcSoundHandler.update();
 		}
 
+		this.mcProfiler.endSection();
 		if (this.theWorld != null) {
+			this.mcProfiler.startSection("level");
 			if (!this.isGamePaused) {
 				this.theWorld.setAllowedSpawnTypes(this.theWorld.getDifficulty() != EnumDifficulty.PEACEFUL, true);
 
@@ -1662,16 +1907,22 @@ public class Minecraft implements IThreadListener {
 				}
 			}
 
+			this.mcProfiler.endStartSection("animateTick");
 			if (!this.isGamePaused && this.theWorld != null) {
 				this.theWorld.doVoidFogParticles(MathHelper.floor_double(this.thePlayer.posX),
 						MathHelper.floor_double(this.thePlayer.posY), MathHelper.floor_double(this.thePlayer.posZ));
 			}
 
+			this.mcProfiler.endStartSection("particles");
 			if (!this.isGamePaused) {
 				this.effectRenderer.updateEffects();
 			}
+
+			this.mcProfiler.endSection();
 		} else if (this.myNetworkManager != null) {
+			this.mcProfiler.startSection("pendingConnection");
 			this.myNetworkManager.processReceivedPackets();
+			this.mcProfiler.endSection();
 		}
 
 		if (this.theWorld != null) {
@@ -1829,7 +2080,8 @@ public class Minecraft implements IThreadListener {
 		EaglerProfile.clearServerSkinOverride();
 		PauseMenuCustomizeState.reset();
 		SingleplayerServerController.launchEaglercraftServer(folderName, gameSettings.difficulty.getDifficultyId(),
-				Math.max(gameSettings.renderDistanceChunks, 2), worldSettingsIn);
+				Math.max(gameSettings.renderDistanceChunks, 2), worldSettingsIn, gameSettings.batchedLighting,
+				gameSettings.terrainGenThreads);
 		EagRuntime.setMCServerWindowGlobal("singleplayer");
 		this.displayGuiScreen(new GuiScreenIntegratedServerBusy(
 				new GuiScreenSingleplayerConnecting(new GuiMainMenu(), "Connecting to " + folderName),
@@ -2205,7 +2457,8 @@ public class Minecraft implements IThreadListener {
 		});
 		theCrash.getCategory().addCrashSectionCallable("Profiler Position", new Callable<String>() {
 			public String call() throws Exception {
-				return "N/A (disabled)";
+				return Minecraft.this.mcProfiler.profilingEnabled ? Minecraft.this.mcProfiler.getNameOfLastSection()
+						: "N/A (disabled)";
 			}
 		});
 		if (this.theWorld != null) {
@@ -404,6 +404,14 @@ public class GuiOverlayDebug extends Gui {
 			if (DynamicLightsStateManager.isDynamicLightsRender()) {
 				arraylist.add(6, DynamicLightsStateManager.getF3String());
 			}
+			String terrainRegionsInfo = this.mc.renderGlobal.getDebugInfoTerrainRegions();
+			if (terrainRegionsInfo != null) {
+				arraylist.add(3, terrainRegionsInfo);
+			}
+			String occlusionInfo = this.mc.renderGlobal.getDebugInfoOcclusion();
+			if (occlusionInfo != null) {
+				arraylist.add(terrainRegionsInfo != null ? 4 : 3, occlusionInfo);
+			}
 			if (this.mc.theWorld != null && this.mc.theWorld.isBlockLoaded(blockpos)) {
 				Chunk chunk = this.mc.theWorld.getChunkFromBlockCoords(blockpos);
 				arraylist.add("Biome: " + chunk.getBiome(blockpos, null).biomeName);
@@ -3,6 +3,7 @@ package net.minecraft.client.gui;
 import java.io.IOException;
 
 import net.lax1dude.eaglercraft.v1_8.Display;
+import net.lax1dude.eaglercraft.v1_8.minecraft.ChunkOcclusionCuller;
 import net.lax1dude.eaglercraft.v1_8.opengl.EaglercraftGPU;
 import net.lax1dude.eaglercraft.v1_8.opengl.ext.dynamiclights.DynamicLightsStateManager;
 import net.lax1dude.eaglercraft.v1_8.recording.ScreenRecordingController;
@@ -50,7 +51,8 @@ public class GuiVideoSettings extends GuiScreen {
 			GameSettings.Options.ENTITY_SHADOWS, GameSettings.Options.FOG, GameSettings.Options.EAGLER_DYNAMIC_LIGHTS,
 			GameSettings.Options.FULLSCREEN, GameSettings.Options.FNAW_SKINS, GameSettings.Options.HUD_FPS,
 			GameSettings.Options.HUD_COORDS, GameSettings.Options.HUD_PLAYER, GameSettings.Options.HUD_STATS,
-			GameSettings.Options.HUD_WORLD, GameSettings.Options.HUD_24H, GameSettings.Options.CHUNK_FIX };
+			GameSettings.Options.HUD_WORLD, GameSettings.Options.HUD_24H, GameSettings.Options.CHUNK_FIX,
+			GameSettings.Options.OCCLUSION_CULLING };
 
 	public GuiVideoSettings(GuiScreen parentScreenIn, GameSettings gameSettingsIn) {
 		this.parentGuiScreen = parentScreenIn;
@@ -84,6 +86,15 @@ public class GuiVideoSettings extends GuiScreen {
 				btn.enabled = false;
 			}
 		}
+		if (!ChunkOcclusionCuller.isSupported()) {
+			GuiOptionButton btn = ((GuiOptionsRowList) optionsRowList)
+					.getButtonFor(GameSettings.Options.OCCLUSION_CULLING);
+			if (btn != null) {
+				btn.displayString = I18n.format(GameSettings.Options.OCCLUSION_CULLING.getEnumString()) + ": "
+						+ I18n.format("options.off");
+				btn.enabled = false;
+			}
+		}
 		if (!Display.supportsFullscreen()) {
 			GuiOptionButton btn = ((GuiOptionsRowList) optionsRowList).getButtonFor(GameSettings.Options.FULLSCREEN);
 			if (btn != null) {
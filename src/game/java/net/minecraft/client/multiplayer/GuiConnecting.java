@@ -164,7 +164,10 @@ public class GuiConnecting extends GuiScreen {
 						if (ConnectionHandshake.attemptHandshake(this.mc, webSocket, this, previousGuiScreen,
 								currentPassword, allowPlaintext, allowCookies, cookieData)) {
 							logger.info("Handshake Success");
-							this.networkManager = new WebSocketNetworkManager(webSocket);
+							WebSocketNetworkManager wsNetworkManager = new WebSocketNetworkManager(webSocket);
+							wsNetworkManager.setNegotiatedFraming(ConnectionHandshake.framingFlags,
+									ConnectionHandshake.framingCompressionThreshold);
+							this.networkManager = wsNetworkManager;
 							this.networkManager.setPluginInfo(ConnectionHandshake.pluginBrand,
 									ConnectionHandshake.pluginVersion);
 							mc.bungeeOutdatedMsgTimer = 80;
@@ -1,6 +1,7 @@
 package net.minecraft.client.multiplayer;
 
 import net.lax1dude.eaglercraft.v1_8.EaglercraftRandom;
+import net.lax1dude.eaglercraft.v1_8.profiler.Profiler;
 import java.util.Set;
 import java.util.concurrent.Callable;
 
@@ -75,9 +76,9 @@ public class WorldClient extends World {
 	private final Set<ChunkCoordIntPair> previousActiveChunkSet = Sets.newHashSet();
 
 	public WorldClient(NetHandlerPlayClient parNetHandlerPlayClient, WorldSettings parWorldSettings, int parInt1,
-			EnumDifficulty parEnumDifficulty) {
+			EnumDifficulty parEnumDifficulty, Profiler parProfiler) {
 		super(new SaveHandlerMP(), new WorldInfo(parWorldSettings, "MpServer"),
-				WorldProvider.getProviderForDimension(parInt1), true);
+				WorldProvider.getProviderForDimension(parInt1), parProfiler, true);
 		this.sendQueue = parNetHandlerPlayClient;
 		this.getWorldInfo().setDifficulty(parEnumDifficulty);
 		this.setSpawnPoint(new BlockPos(8, 64, 8));
@@ -348,7 +348,8 @@ public class NetHandlerPlayClient implements INetHandlerPlayClient {
 	public void handleJoinGame(S01PacketJoinGame packetIn) {
 		this.gameController.playerController = new PlayerControllerMP(this.gameController, this);
 		this.clientWorldController = new WorldClient(this, new WorldSettings(0L, packetIn.getGameType(), false,
-				packetIn.isHardcoreMode(), packetIn.getWorldType()), packetIn.getDimension(), packetIn.getDifficulty());
+				packetIn.isHardcoreMode(), packetIn.getWorldType()), packetIn.getDimension(), packetIn.getDifficulty(),
+				this.gameController.mcProfiler);
 		this.gameController.gameSettings.difficulty = packetIn.getDifficulty();
 		this.gameController.loadWorld(this.clientWorldController);
 		this.gameController.thePlayer.dimension = packetIn.getDimension();
@@ -1001,7 +1002,7 @@ public class NetHandlerPlayClient implements INetHandlerPlayClient {
 			Scoreboard scoreboard = this.clientWorldController.getScoreboard();
 			this.clientWorldController = new WorldClient(this, new WorldSettings(0L, packetIn.getGameType(), false,
 					this.gameController.theWorld.getWorldInfo().isHardcoreModeEnabled(), packetIn.getWorldType()),
-					packetIn.getDimensionID(), packetIn.getDifficulty());
+					packetIn.getDimensionID(), packetIn.getDifficulty(), this.gameController.mcProfiler);
 			this.clientWorldController.setWorldScoreboard(scoreboard);
 			this.gameController.loadWorld(this.clientWorldController);
 			this.gameController.thePlayer.dimension = packetIn.getDimensionID();
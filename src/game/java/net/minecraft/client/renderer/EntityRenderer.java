@@ -21,6 +21,7 @@ import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
 import net.lax1dude.eaglercraft.v1_8.opengl.EaglercraftGPU;
 import net.lax1dude.eaglercraft.v1_8.opengl.EffectPipelineFXAA;
+import net.lax1dude.eaglercraft.v1_8.opengl.GPUPassTimer;
 import net.lax1dude.eaglercraft.v1_8.opengl.GameOverlayFramebuffer;
 import net.lax1dude.eaglercraft.v1_8.opengl.GlStateManager;
 import net.lax1dude.eaglercraft.v1_8.opengl.OpenGlHelper;
@@ -884,6 +885,7 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 			this.prevFrameTime = Minecraft.getSystemTime();
 		}
 
+		this.mc.mcProfiler.startSection("mouse");
 		if (this.mc.inGameHasFocus && flag) {
 			this.mc.mouseHelper.mouseXYChange();
 			float f = this.mc.gameSettings.mouseSensitivity * 0.6F + 0.2F;
@@ -913,6 +915,7 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 			}
 		}
 
+		this.mc.mcProfiler.endSection();
 		if (!this.mc.skipRenderWorld) {
 			anaglyphEnable = this.mc.gameSettings.anaglyph;
 			final ScaledResolution scaledresolution = mc.scaledResolution;
@@ -926,8 +929,11 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 				i = Math.max(i, 60);
 				long j = System.nanoTime() - parLong1;
 				long k = Math.max((long) (1000000000 / i / 4) - j, 0L);
+				this.mc.mcProfiler.startSection("level");
 				this.renderWorld(parFloat1, System.nanoTime() + k);
 				this.renderEndNanoTime = System.nanoTime();
+				this.mc.mcProfiler.endStartSection("gui");
+				GPUPassTimer.beginPass("gui");
 				final boolean b = !this.mc.gameSettings.hideGUI || this.mc.currentScreen != null;
 				if (b) {
 					GlStateManager.alphaFunc(GL_GREATER, 0.1F);
@@ -976,6 +982,8 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 								3 + this.mc.ingameGUI.overlayDebug.playerOffset, parFloat1);
 					}
 				}
+				GPUPassTimer.endPass();
+				this.mc.mcProfiler.endSection();
 			} else {
 				GlStateManager.viewport(0, 0, this.mc.displayWidth, this.mc.displayHeight);
 				GlStateManager.matrixMode(GL_PROJECTION);
@@ -989,6 +997,8 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 			this.mc.notifRenderer.renderOverlay(j1, k1);
 
 			if (this.mc.currentScreen != null) {
+				this.mc.mcProfiler.startSection("screen");
+				GPUPassTimer.beginPass("screen");
 				GlStateManager.clear(GL_DEPTH_BUFFER_BIT);
 				float f = 1.0f;
 				final float[] ff = new float[] { 1.0f };
@@ -1047,6 +1057,8 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 				}
 
 				this.mc.voiceOverlay.drawOverlay();
+				GPUPassTimer.endPass();
+				this.mc.mcProfiler.endSection();
 			}
 		}
 	}
@@ -1104,12 +1116,15 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 	}
 
 	public void renderWorld(float partialTicks, long finishTimeNano) {
+		this.mc.mcProfiler.startSection("lightTex");
 		this.updateLightmap(partialTicks);
 		if (this.mc.getRenderViewEntity() == null) {
 			this.mc.setRenderViewEntity(this.mc.thePlayer);
 		}
 
+		this.mc.mcProfiler.endStartSection("pick");
 		this.getMouseOver(partialTicks);
+		this.mc.mcProfiler.endSection();
 
 		boolean fxaa = !this.mc.gameSettings.shaders
 				&& ((this.mc.gameSettings.fxaa == 0 && this.mc.gameSettings.fancyGraphics)
@@ -1146,6 +1161,7 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 			}
 		} else {
 			if (this.mc.gameSettings.shaders) {
+				this.mc.mcProfiler.startSection("deferred");
 				try {
 					this.eaglercraftShaders(partialTicks, finishTimeNano);
 				} catch (Throwable t) {
@@ -1154,8 +1170,11 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 					EaglerDeferredPipeline.instance.resetContextStateAfterException();
 					logger.error("Suspending shaders...");
 					EaglerDeferredPipeline.isSuspended = true;
-
+					this.mc.mcProfiler.clearProfiling();
+					this.mc.mcProfiler.profilingEnabled = false;
+					GPUPassTimer.endPass();
 				}
+				this.mc.mcProfiler.endSection();
 				mc.effectRenderer.acceleratedParticleRenderer = EffectRenderer.vanillaAcceleratedParticleRenderer;
 			} else {
 				mc.effectRenderer.acceleratedParticleRenderer = EaglercraftGPU.checkInstancingCapable()
@@ -1175,7 +1194,9 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 		}
 
 		if (fxaa) {
+			GPUPassTimer.beginPass("fxaa");
 			EffectPipelineFXAA.end();
+			GPUPassTimer.endPass();
 		}
 	}
 
@@ -1184,15 +1205,19 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 		EffectRenderer effectrenderer = this.mc.effectRenderer;
 		boolean flag = this.isDrawBlockOutline();
 		GlStateManager.enableCull();
+		this.mc.mcProfiler.startSection("clear");
+		GPUPassTimer.beginPass("clear");
 		GlStateManager.viewport(0, 0, this.mc.displayWidth, this.mc.displayHeight);
 		this.updateFogColor(partialTicks);
 		GlStateManager.clear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+		this.mc.mcProfiler.endStartSection("camera");
 		this.setupCameraTransform(partialTicks, pass);
 		boolean isDynamicLights = DynamicLightsStateManager.isDynamicLightsRender();
 		if (isDynamicLights) {
 			DynamicLightsStateManager.setupInverseViewMatrix();
 		}
 		ActiveRenderInfo.updateRenderInfo(this.mc.thePlayer, this.mc.gameSettings.thirdPersonView == 2);
+		this.mc.mcProfiler.endStartSection("frustum");
 		Frustum frustum = new Frustum();
 		Entity entity = this.mc.getRenderViewEntity();
 		double d0 = entity.lastTickPosX + (entity.posX - entity.lastTickPosX) * (double) partialTicks;
@@ -1203,6 +1228,8 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 		TileEntityRendererDispatcher.staticPlayerZ = d2;
 		frustum.setPosition(d0, d1, d2);
 		if (this.mc.gameSettings.renderDistanceChunks >= 4) {
+			this.mc.mcProfiler.endStartSection("sky");
+			GPUPassTimer.beginPass("sky");
 			this.setupFog(-1, partialTicks);
 			GlStateManager.matrixMode(GL_PROJECTION);
 			GlStateManager.loadIdentity();
@@ -1218,21 +1245,29 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 			GlStateManager.matrixMode(GL_MODELVIEW);
 		}
 
+		this.mc.mcProfiler.endStartSection("fog");
+		GPUPassTimer.beginPass("clouds");
 		this.setupFog(0, partialTicks);
 		GlStateManager.shadeModel(GL_SMOOTH);
 		if (entity.posY + (double) entity.getEyeHeight() < 128.0D) {
 			this.renderCloudsCheck(renderglobal, partialTicks, pass);
 		}
 
+		this.mc.mcProfiler.endStartSection("prepareterrain");
+		GPUPassTimer.endPass();
 		this.setupFog(0, partialTicks);
 		this.mc.getTextureManager().bindTexture(TextureMap.locationBlocksTexture);
 		RenderHelper.disableStandardItemLighting();
+		this.mc.mcProfiler.endStartSection("terrain_setup");
 		renderglobal.setupTerrain(entity, (double) partialTicks, frustum, this.frameCount++,
 				this.mc.thePlayer.isSpectator());
 		if (pass == 0 || pass == 2) {
+			this.mc.mcProfiler.endStartSection("updatechunks");
 			this.mc.renderGlobal.updateChunks(finishTimeNano);
 		}
 
+		this.mc.mcProfiler.endStartSection("terrain");
+		GPUPassTimer.beginPass("terrain");
 		GlStateManager.matrixMode(GL_MODELVIEW);
 		GlStateManager.pushMatrix();
 		GlStateManager.disableAlpha();
@@ -1250,6 +1285,8 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 			GlStateManager.popMatrix();
 			GlStateManager.pushMatrix();
 			RenderHelper.enableStandardItemLighting();
+			this.mc.mcProfiler.endStartSection("entities");
+			GPUPassTimer.beginPass("entities");
 			renderglobal.renderEntities(entity, frustum, partialTicks);
 			RenderHelper.disableStandardItemLighting();
 			this.disableLightmap();
@@ -1285,6 +1322,7 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 			}
 		}
 
+		this.mc.mcProfiler.endStartSection("destroyProgress");
 		GlStateManager.enableBlend();
 		GlStateManager.tryBlendFuncSeparate(GL_SRC_ALPHA, 1, 1, 0);
 		this.mc.getTextureManager().getTexture(TextureMap.locationBlocksTexture).setBlurMipmap(false, false);
@@ -1294,9 +1332,12 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 		GlStateManager.disableBlend();
 		if (!this.debugView) {
 			this.enableLightmap();
+			this.mc.mcProfiler.endStartSection("litParticles");
+			GPUPassTimer.beginPass("particles");
 			effectrenderer.renderLitParticles(entity, partialTicks);
 			RenderHelper.disableStandardItemLighting();
 			this.setupFog(0, partialTicks);
+			this.mc.mcProfiler.endStartSection("particles");
 			if (isDynamicLights) {
 				DynamicLightsStateManager.bindAcceleratedEffectRenderer(effectrenderer);
 				DynamicLightsStateManager.reportForwardRenderObjectPosition2(0.0f, 0.0f, 0.0f);
@@ -1310,6 +1351,8 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 
 		GlStateManager.depthMask(false);
 		GlStateManager.enableCull();
+		this.mc.mcProfiler.endStartSection("weather");
+		GPUPassTimer.beginPass("weather");
 		this.renderRainSnow(partialTicks);
 		GlStateManager.depthMask(true);
 		renderglobal.renderWorldBorder(entity, partialTicks);
@@ -1317,6 +1360,8 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 		GlStateManager.enableCull();
 		GlStateManager.tryBlendFuncSeparate(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA, 1, 0);
 		GlStateManager.alphaFunc(GL_GREATER, 0.1F);
+		this.mc.mcProfiler.endStartSection("translucent");
+		GPUPassTimer.beginPass("translucent");
 		this.setupFog(0, partialTicks);
 		GlStateManager.enableBlend();
 		GlStateManager.depthMask(false);
@@ -1329,15 +1374,21 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 		GlStateManager.disableBlend();
 		GlStateManager.disableFog();
 		if (entity.posY + (double) entity.getEyeHeight() >= 128.0D) {
+			this.mc.mcProfiler.endStartSection("aboveClouds");
+			GPUPassTimer.beginPass("clouds");
 			this.renderCloudsCheck(renderglobal, partialTicks, pass);
 		}
 
 		if (this.renderHand) {
+			this.mc.mcProfiler.endStartSection("hand");
+			GPUPassTimer.beginPass("hand");
 			GlStateManager.clear(GL_DEPTH_BUFFER_BIT);
 			this.renderHand(partialTicks, pass);
 			this.renderWorldDirections(partialTicks);
 		}
 
+		this.mc.mcProfiler.endSection();
+		GPUPassTimer.endPass();
 	}
 
 	private void updateDynamicLightListEagler(float partialTicks) {
@@ -1952,6 +2003,7 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 
 		// if (mc.gameSettings.renderDistanceChunks >= 4) vanilla shows sky not fog
 
+		mc.mcProfiler.startSection("terrain_setup");
 		mc.renderGlobal.setupTerrain(entity, (double) partialTicks, frustum, frameCount++, mc.thePlayer.isSpectator());
 
 		// clear some state:
@@ -1964,12 +2016,15 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 
 		// vanilla solid chunks pass:
 
+		mc.mcProfiler.endStartSection("gbuffer");
 		EaglerDeferredPipeline.instance.beginDrawDeferred();
 		EaglerDeferredPipeline.instance.beginDrawMainGBuffer();
 
 		EaglerDeferredPipeline.instance.beginDrawMainGBufferTerrain();
 
+		mc.mcProfiler.startSection("updatechunks");
 		mc.renderGlobal.updateChunks(finishTimeNano);
+		mc.mcProfiler.endSection();
 
 		mc.renderGlobal.renderBlockLayer(EnumWorldBlockLayer.SOLID, (double) partialTicks, 2, entity);
 		GlStateManager.enableAlpha();
@@ -1988,6 +2043,7 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 
 		// vanilla solid entities:
 
+		mc.mcProfiler.endStartSection("entities");
 		EaglerDeferredPipeline.instance.beginDrawMainGBufferEntities();
 		if (conf.is_rendering_dynamicLights) {
 			DynamicLightManager.setIsRenderingLights(true);
@@ -2024,6 +2080,7 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 		NameTagRenderer.doRenderNameTags = false;
 
 		EaglerDeferredPipeline.instance.endDrawMainGBuffer();
+		mc.mcProfiler.endStartSection("shadows");
 
 		// calculate sun matrix and angle:
 
@@ -2428,10 +2485,12 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 			}
 		}
 
+		mc.mcProfiler.endStartSection("lighting");
 		EaglerDeferredPipeline.instance.combineGBuffersAndIlluminate();
 
 		if (conf.is_rendering_useEnvMap) {
 			DeferredStateManager.forwardCallbackHandler = null;
+			mc.mcProfiler.endStartSection("envMap");
 			EaglerDeferredPipeline.instance.beginDrawEnvMap();
 			GlStateManager.enableCull();
 
@@ -2501,6 +2560,7 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 		}
 
 		if (conf.is_rendering_realisticWater) {
+			mc.mcProfiler.endStartSection("waterMask");
 			EaglerDeferredPipeline.instance.beginDrawRealisticWaterMask();
 			enableLightmap();
 			mc.renderGlobal.renderBlockLayer(EnumWorldBlockLayer.REALISTIC_WATER, (double) partialTicks, 2, entity);
@@ -2568,6 +2628,7 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 			DeferredStateManager.enableFogExp(ds, true, 1.0f, 1.0f, 1.0f, 1.0f, ff, ff, ff, 1.0f);
 		}
 
+		mc.mcProfiler.endStartSection("translucent");
 		EaglerDeferredPipeline.instance.beginDrawHDRTranslucent();
 		DeferredStateManager.setDefaultMaterialConstants();
 
@@ -2645,6 +2706,7 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 		GlStateManager.disableBlend();
 
 		if (renderHand) {
+			mc.mcProfiler.endStartSection("hand");
 			EaglerDeferredPipeline.instance.beginDrawHandOverlay();
 			DeferredStateManager.reportForwardRenderObjectPosition2(0.0f, 0.0f, 0.0f);
 			DeferredStateManager.forwardCallbackHandler = DeferredStateManager.forwardCallbackGBuffer;
@@ -2672,7 +2734,9 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 
 		EaglerDeferredPipeline.instance.endDrawHDRTranslucent();
 
+		mc.mcProfiler.endStartSection("post");
 		EaglerDeferredPipeline.instance.endDrawDeferred();
+		mc.mcProfiler.endStartSection("overlay");
 
 		GlStateManager.setActiveTexture(GL_TEXTURE1);
 		this.mc.getTextureManager().bindTexture(this.locationLightMap);
@@ -2720,6 +2784,7 @@ public class EntityRenderer implements IResourceManagerReloadListener {
 			GlStateManager.disableLighting();
 			mc.renderGlobal.renderWorldBorder(entity, partialTicks);
 		}
+		mc.mcProfiler.endSection();
 	}
 
 	public boolean renderHeldItemLight(EntityLivingBase entityLiving, float mag) {
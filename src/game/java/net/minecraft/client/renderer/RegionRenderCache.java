@@ -6,9 +6,13 @@ import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.MathHelper;
 import net.minecraft.util.Vec3i;
 import net.minecraft.world.ChunkCache;
+import net.minecraft.world.EnumSkyBlock;
 import net.minecraft.world.World;
+import net.minecraft.world.biome.BiomeGenBase;
 import net.minecraft.world.chunk.Chunk;
 
 /**+
@@ -36,6 +40,10 @@ public class RegionRenderCache extends ChunkCache {
 	private final BlockPos position;
 	private int[] combinedLights;
 	private IBlockState[] blockStates;
+	private boolean isSnapshot = false;
+	private TileEntity[] tileEntities = null;
+	private byte[] lightSnapshot = null;
+	private BiomeGenBase[] biomeSnapshot = null;
 
 	public RegionRenderCache(World worldIn, BlockPos posFromIn, BlockPos posToIn, int subIn) {
 		super(worldIn, posFromIn, posToIn, subIn);
@@ -46,7 +54,83 @@ public class RegionRenderCache extends ChunkCache {
 		this.blockStates = new IBlockState[8000];
 	}
 
+	/**
+	 * Copies every block state, tile entity, light value and biome the chunk
+	 * mesher can reach into this cache so the cache can be read from a thread
+	 * other than the one that owns the world, must be called on the thread
+	 * that owns the world
+	 */
+	public void snapshotRegion() {
+		if (this.hasExtendedLevels) {
+			this.isSnapshot = true;
+			return;
+		}
+		BlockPos tmp = new BlockPos(0, 0, 0);
+		int x0 = this.position.x + 1;
+		int y0 = this.position.y + 1;
+		int z0 = this.position.z + 1;
+		for (int x = 0; x < 18; ++x) {
+			tmp.x = x0 + x;
+			for (int z = 0; z < 18; ++z) {
+				tmp.z = z0 + z;
+				for (int y = 0; y < 18; ++y) {
+					tmp.y = y0 + y;
+					int i = this.getPositionIndexFaster(tmp);
+					IBlockState iblockstate = this.blockStates[i];
+					if (iblockstate == null) {
+						iblockstate = this.getBlockStateRawFaster(tmp);
+						this.blockStates[i] = iblockstate;
+					}
+					if (iblockstate.getBlock().hasTileEntity() && tmp.y >= 0 && tmp.y < 256) {
+						TileEntity tileentity = this.chunkArray[(tmp.x >> 4) - this.chunkX][(tmp.z >> 4)
+								- this.chunkZ].getTileEntity(tmp, Chunk.EnumCreateEntityType.QUEUED);
+						if (tileentity != null) {
+							if (this.tileEntities == null) {
+								this.tileEntities = new TileEntity[8000];
+							}
+							this.tileEntities[i] = tileentity;
+						}
+					}
+				}
+			}
+		}
+		// light is captured with a one block border around the region, blocks
+		// with neighbor brightness on the edge of the region read past it
+		this.lightSnapshot = new byte[10648];
+		BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+		for (int x = 0; x < 22; ++x) {
+			for (int z = 0; z < 22; ++z) {
+				for (int y = 0; y < 22; ++y) {
+					mutable.func_181079_c(this.position.x + x - 1, this.position.y + y - 1,
+							this.position.z + z - 1);
+					this.lightSnapshot[x * 484 + z * 22 + y] = (byte) (super.getLightFor(EnumSkyBlock.SKY, mutable) << 4
+							| super.getLightFor(EnumSkyBlock.BLOCK, mutable));
+				}
+			}
+		}
+		this.biomeSnapshot = new BiomeGenBase[400];
+		for (int x = 0; x < 20; ++x) {
+			for (int z = 0; z < 20; ++z) {
+				mutable.func_181079_c(this.position.x + x, 0, this.position.z + z);
+				this.biomeSnapshot[x * 20 + z] = super.getBiomeGenForCoords(mutable);
+			}
+		}
+		this.isSnapshot = true;
+	}
+
 	public TileEntity getTileEntity(BlockPos blockpos) {
+		if (this.isSnapshot) {
+			if (this.tileEntities == null) {
+				return null;
+			}
+			int i = blockpos.getX() - this.position.getX();
+			int j = blockpos.getY() - this.position.getY();
+			int k = blockpos.getZ() - this.position.getZ();
+			if (i < 0 || j < 0 || k < 0 || i >= 20 || j >= 20 || k >= 20) {
+				return null;
+			}
+			return this.tileEntities[i * 400 + k * 20 + j];
+		}
 		int i = (blockpos.getX() >> 4) - this.chunkX;
 		int j = (blockpos.getZ() >> 4) - this.chunkZ;
 		return this.chunkArray[i][j].getTileEntity(blockpos, Chunk.EnumCreateEntityType.QUEUED);
@@ -56,13 +140,76 @@ public class RegionRenderCache extends ChunkCache {
 		int j = this.getPositionIndex(blockpos);
 		int k = this.combinedLights[j];
 		if (k == -1) {
-			k = super.getCombinedLight(blockpos, i);
+			if (this.lightSnapshot != null) {
+				int l = this.getLightForSnapshot(EnumSkyBlock.SKY, blockpos);
+				int i1 = this.getLightForSnapshot(EnumSkyBlock.BLOCK, blockpos);
+				if (i1 < i) {
+					i1 = i;
+				}
+				k = l << 20 | i1 << 4;
+			} else {
+				k = super.getCombinedLight(blockpos, i);
+			}
 			this.combinedLights[j] = k;
 		}
 
 		return k;
 	}
 
+	/**
+	 * Same as ChunkCache.getLightForExt but only reads the light snapshot
+	 */
+	private int getLightForSnapshot(EnumSkyBlock type, BlockPos blockpos) {
+		if (type == EnumSkyBlock.SKY && this.worldObj.provider.getHasNoSky()) {
+			return Chunk.getNoSkyLightValue();
+		} else if (blockpos.getY() >= 0 && blockpos.getY() < 256) {
+			if (this.getBlockState(blockpos).getBlock().getUseNeighborBrightness()) {
+				int l = 0;
+				EnumFacing[] facings = EnumFacing._VALUES;
+				BlockPos tmp = new BlockPos(0, 0, 0);
+				for (int i = 0; i < facings.length; ++i) {
+					int k = this.getLightFor(type, blockpos.offsetEvenFaster(facings[i], tmp));
+					if (k > l) {
+						l = k;
+					}
+					if (l >= 15) {
+						return l;
+					}
+				}
+				return l;
+			} else {
+				return this.getLightFor(type, blockpos);
+			}
+		} else {
+			return type.defaultLightValue;
+		}
+	}
+
+	public int getLightFor(EnumSkyBlock type, BlockPos blockpos) {
+		if (this.lightSnapshot != null) {
+			int i = blockpos.getX() - this.position.getX() + 1;
+			int j = blockpos.getY() - this.position.getY() + 1;
+			int k = blockpos.getZ() - this.position.getZ() + 1;
+			if (i >= 0 && j >= 0 && k >= 0 && i < 22 && j < 22 && k < 22) {
+				int l = this.lightSnapshot[i * 484 + k * 22 + j];
+				return type == EnumSkyBlock.SKY ? (l >> 4) & 15
+						: (type == EnumSkyBlock.BLOCK ? l & 15 : type.defaultLightValue);
+			}
+			// the live world may be modified while the snapshot is being read
+			return type.defaultLightValue;
+		}
+		return super.getLightFor(type, blockpos);
+	}
+
+	public BiomeGenBase getBiomeGenForCoords(BlockPos blockpos) {
+		if (this.biomeSnapshot != null) {
+			int i = MathHelper.clamp_int(blockpos.getX() - this.position.getX(), 0, 19);
+			int j = MathHelper.clamp_int(blockpos.getZ() - this.position.getZ(), 0, 19);
+			return this.biomeSnapshot[i * 20 + j];
+		}
+		return super.getBiomeGenForCoords(blockpos);
+	}
+
 	public IBlockState getBlockState(BlockPos blockpos) {
 		int i = this.getPositionIndex(blockpos);
 		IBlockState iblockstate = this.blockStates[i];
@@ -42,4 +42,10 @@ public class RegionRenderCacheBuilder {
 	public WorldRenderer getWorldRendererByLayerId(int id) {
 		return this.worldRenderers[id];
 	}
+
+	public void free() {
+		for (int i = 0; i < this.worldRenderers.length; ++i) {
+			this.worldRenderers[i].free();
+		}
+	}
 }
\ No newline at end of file
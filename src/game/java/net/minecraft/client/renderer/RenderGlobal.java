@@ -3,9 +3,7 @@ package net.minecraft.client.renderer;
 import static net.lax1dude.eaglercraft.v1_8.opengl.RealOpenGLEnums.*;
 
 import java.util.Collection;
-import java.util.EnumSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -23,8 +21,11 @@ import com.google.common.collect.Sets;
 
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+import net.lax1dude.eaglercraft.v1_8.minecraft.ChunkOcclusionCuller;
 import net.lax1dude.eaglercraft.v1_8.minecraft.ChunkUpdateManager;
+import net.lax1dude.eaglercraft.v1_8.minecraft.ChunkVisibilityGraph;
 import net.lax1dude.eaglercraft.v1_8.minecraft.EaglerTextureAtlasSprite;
+import net.lax1dude.eaglercraft.v1_8.minecraft.TerrainRegionManager;
 import net.lax1dude.eaglercraft.v1_8.opengl.EaglercraftGPU;
 import net.lax1dude.eaglercraft.v1_8.opengl.GlStateManager;
 import net.lax1dude.eaglercraft.v1_8.opengl.VertexFormat;
@@ -137,6 +138,11 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 	private List<RenderGlobal.ContainerLocalRenderInformation> renderInfos = Lists.newArrayListWithCapacity(69696);
 	private final Set<TileEntity> field_181024_n = Sets.newHashSet();
 	private ViewFrustum viewFrustum;
+	private ChunkVisibilityGraph visibilityGraph;
+	private RenderGlobal.ContainerLocalRenderInformation[] renderInfoSlots;
+	private Set<EnumFacing> cameraVisibleFacings = null;
+	private BlockPos cameraVisibleFacingsPos = null;
+	private CompiledChunk cameraVisibleFacingsChunk = null;
 	/**+
 	 * The star GL Call list
 	 */
@@ -167,6 +173,8 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 	private float lastViewProjMatrixFOV = Float.MIN_VALUE;
 	private final ChunkUpdateManager renderDispatcher = new ChunkUpdateManager();
 	private ChunkRenderContainer renderContainer;
+	private TerrainRegionManager terrainRegions = null;
+	private final ChunkOcclusionCuller occlusionCuller = new ChunkOcclusionCuller();
 	private int renderDistanceChunks = -1;
 	/**+
 	 * Render entities startup counter (init value=2)
@@ -403,8 +411,31 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 				this.field_181024_n.clear();
 			}
 
+			if (this.terrainRegions != null) {
+				this.terrainRegions.destroy();
+				this.terrainRegions = null;
+			}
+			if (mc.gameSettings.terrainRegionBuffers && !mc.gameSettings.shaders
+					&& !mc.gameSettings.enableDynamicLights) {
+				this.terrainRegions = new TerrainRegionManager();
+			}
+			this.renderDispatcher.setTerrainRegions(this.terrainRegions);
+			((RenderList) this.renderContainer).setTerrainRegions(this.terrainRegions);
+			this.occlusionCuller.reset();
+
 			this.viewFrustum = new ViewFrustum(this.theWorld, this.mc.gameSettings.renderDistanceChunks, this,
 					this.renderChunkFactory);
+			RenderChunk[] chunks = this.viewFrustum.renderChunks;
+			this.visibilityGraph = new ChunkVisibilityGraph(chunks, this.viewFrustum.countChunksX,
+					this.viewFrustum.countChunksY, this.viewFrustum.countChunksZ, this.renderDistanceChunks);
+			this.renderInfoSlots = new RenderGlobal.ContainerLocalRenderInformation[chunks.length];
+			for (int i = 0; i < chunks.length; ++i) {
+				this.renderInfoSlots[i] = new RenderGlobal.ContainerLocalRenderInformation(chunks[i]);
+			}
+			this.renderInfos.clear();
+			this.cameraVisibleFacings = null;
+			this.cameraVisibleFacingsPos = null;
+			this.cameraVisibleFacingsChunk = null;
 			if (this.theWorld != null) {
 				Entity entity = this.mc.getRenderViewEntity();
 				if (entity != null) {
@@ -805,6 +836,34 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 						Integer.valueOf(this.renderDistanceChunks), this.renderDispatcher.getDebugInfo() });
 	}
 
+	/**
+	 * Returns null if the terrain is not batched into regions
+	 */
+	public String getDebugInfoTerrainRegions() {
+		return this.terrainRegions != null ? this.terrainRegions.getDebugInfo() : null;
+	}
+
+	/**
+	 * Called by RenderChunk when a new compiled chunk changes which of its
+	 * faces can be seen through each other
+	 */
+	public void onChunkVisibilityChanged(RenderChunk renderChunk) {
+		if (this.visibilityGraph != null) {
+			this.visibilityGraph.onChunkVisibilityChanged(renderChunk);
+		}
+	}
+
+	/**
+	 * Returns null if occlusion culling is not active
+	 */
+	public String getDebugInfoOcclusion() {
+		return this.occlusionCuller.isActive() ? this.occlusionCuller.getDebugInfo() : null;
+	}
+
+	public TerrainRegionManager getTerrainRegions() {
+		return this.terrainRegions;
+	}
+
 	/**+
 	 * Gets the entities info for use on the Debug screen
 	 */
@@ -819,6 +878,7 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 			this.loadRenderers();
 		}
 
+		this.mc.mcProfiler.startSection("camera");
 		double d0 = viewEntity.posX - this.frustumUpdatePosX;
 		double d1 = viewEntity.posY - this.frustumUpdatePosY;
 		double d2 = viewEntity.posZ - this.frustumUpdatePosZ;
@@ -832,11 +892,13 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 			this.frustumUpdatePosChunkY = viewEntity.chunkCoordY;
 			this.frustumUpdatePosChunkZ = viewEntity.chunkCoordZ;
 			this.viewFrustum.updateChunkPositions(viewEntity.posX, viewEntity.posZ);
+			this.visibilityGraph.markDirty();
 		}
 
 		double d3 = viewEntity.lastTickPosX + (viewEntity.posX - viewEntity.lastTickPosX) * partialTicks;
 		double d4 = viewEntity.lastTickPosY + (viewEntity.posY - viewEntity.lastTickPosY) * partialTicks;
 		double d5 = viewEntity.lastTickPosZ + (viewEntity.posZ - viewEntity.lastTickPosZ) * partialTicks;
+		this.mc.mcProfiler.endStartSection("renderlistcamera");
 		this.renderContainer.initialize(d3, d4, d5);
 		if (this.debugFixedClippingHelper != null) {
 			Frustum frustum = new Frustum(this.debugFixedClippingHelper);
@@ -845,6 +907,10 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 			camera = frustum;
 		}
 
+		this.mc.mcProfiler.endStartSection("cull");
+		this.renderDispatcher.updateView(camera, d3, d4 + (double) viewEntity.getEyeHeight(), d5,
+				viewEntity.rotationYaw, viewEntity.rotationPitch);
+
 		BlockPos blockpos1 = new BlockPos(d3, d4 + (double) viewEntity.getEyeHeight(), d5);
 		RenderChunk renderchunk = this.viewFrustum.getRenderChunk(blockpos1);
 		BlockPos blockpos = new BlockPos(MathHelper.floor_double(d3 / 16.0D) * 16,
@@ -862,79 +928,47 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 		this.lastViewEntityYaw = (double) viewEntity.rotationYaw;
 		this.lastViewProjMatrixFOV = this.mc.entityRenderer.currentProjMatrixFOV;
 		boolean flag = this.debugFixedClippingHelper != null;
+		this.mc.mcProfiler.endStartSection("iteration");
 		if (!flag && this.displayListEntitiesDirty) {
 			this.displayListEntitiesDirty = false;
-			this.renderInfos = Lists.newArrayList();
-			LinkedList linkedlist = Lists.newLinkedList();
+			this.renderInfos.clear();
 			boolean flag1 = this.mc.renderChunksMany;
+			boolean flag2 = false;
 			if (renderchunk != null) {
-				boolean flag2 = false;
-				RenderGlobal.ContainerLocalRenderInformation renderglobal$containerlocalrenderinformation3 = new RenderGlobal.ContainerLocalRenderInformation(
-						renderchunk, (EnumFacing) null, 0);
-				Set set1 = this.getVisibleFacings(blockpos1);
-				if (set1.size() == 1) {
-					Vector3f vector3f = this.getViewVector(viewEntity, partialTicks);
-					EnumFacing enumfacing = EnumFacing.getFacingFromVector(vector3f.x, vector3f.y, vector3f.z)
-							.getOpposite();
-					set1.remove(enumfacing);
+				CompiledChunk compiledchunk = renderchunk.getCompiledChunk();
+				if (this.cameraVisibleFacings == null || !blockpos1.equals(this.cameraVisibleFacingsPos)
+						|| compiledchunk != this.cameraVisibleFacingsChunk) {
+					this.cameraVisibleFacings = this.getVisibleFacings(blockpos1);
+					this.cameraVisibleFacingsPos = blockpos1;
+					this.cameraVisibleFacingsChunk = compiledchunk;
 				}
 
+				Set<EnumFacing> set1 = this.cameraVisibleFacings;
 				if (set1.isEmpty()) {
 					flag2 = true;
+				} else if (set1.size() == 1) {
+					Vector3f vector3f = this.getViewVector(viewEntity, partialTicks);
+					EnumFacing enumfacing = EnumFacing.getFacingFromVector(vector3f.x, vector3f.y, vector3f.z)
+							.getOpposite();
+					flag2 = set1.contains(enumfacing);
 				}
 
-				if (flag2 && !playerSpectator) {
-					this.renderInfos.add(renderglobal$containerlocalrenderinformation3);
-				} else {
-					if (playerSpectator && this.theWorld.getBlockState(blockpos1).getBlock().isOpaqueCube()) {
+				if (playerSpectator) {
+					flag2 = false;
+					if (this.theWorld.getBlockState(blockpos1).getBlock().isOpaqueCube()) {
 						flag1 = false;
 					}
-
-					renderchunk.setFrameIndex(frameCount);
-					linkedlist.add(renderglobal$containerlocalrenderinformation3);
-				}
-			} else {
-				int i = blockpos1.getY() > 0 ? 248 : 8;
-
-				for (int j = -this.renderDistanceChunks; j <= this.renderDistanceChunks; ++j) {
-					for (int k = -this.renderDistanceChunks; k <= this.renderDistanceChunks; ++k) {
-						RenderChunk renderchunk1 = this.viewFrustum
-								.getRenderChunk(new BlockPos((j << 4) + 8, i, (k << 4) + 8));
-						if (renderchunk1 != null
-								&& ((ICamera) camera).isBoundingBoxInFrustum(renderchunk1.boundingBox)) {
-							renderchunk1.setFrameIndex(frameCount);
-							linkedlist.add(new RenderGlobal.ContainerLocalRenderInformation(renderchunk1,
-									(EnumFacing) null, 0));
-						}
-					}
 				}
 			}
 
-			while (!linkedlist.isEmpty()) {
-				RenderGlobal.ContainerLocalRenderInformation renderglobal$containerlocalrenderinformation1 = (RenderGlobal.ContainerLocalRenderInformation) linkedlist
-						.poll();
-				RenderChunk renderchunk3 = renderglobal$containerlocalrenderinformation1.renderChunk;
-				EnumFacing enumfacing2 = renderglobal$containerlocalrenderinformation1.facing;
-				BlockPos blockpos2 = renderchunk3.getPosition();
-				this.renderInfos.add(renderglobal$containerlocalrenderinformation1);
-				EnumFacing[] facings = EnumFacing._VALUES;
-				for (int i = 0; i < facings.length; ++i) {
-					EnumFacing enumfacing1 = facings[i];
-					RenderChunk renderchunk2 = this.func_181562_a(blockpos, renderchunk3, enumfacing1);
-					if ((!flag1 || !renderglobal$containerlocalrenderinformation1.setFacing // TODO:
-							.contains(enumfacing1.getOpposite()))
-							&& (!flag1 || enumfacing2 == null
-									|| renderchunk3.getCompiledChunk().isVisible(enumfacing2.getOpposite(),
-											enumfacing1))
-							&& renderchunk2 != null && renderchunk2.setFrameIndex(frameCount)
-							&& ((ICamera) camera).isBoundingBoxInFrustum(renderchunk2.boundingBox)) {
-						RenderGlobal.ContainerLocalRenderInformation renderglobal$containerlocalrenderinformation = new RenderGlobal.ContainerLocalRenderInformation(
-								renderchunk2, enumfacing1, renderglobal$containerlocalrenderinformation1.counter + 1);
-						renderglobal$containerlocalrenderinformation.setFacing
-								.addAll(renderglobal$containerlocalrenderinformation1.setFacing);
-						renderglobal$containerlocalrenderinformation.setFacing.add(enumfacing1);
-						linkedlist.add(renderglobal$containerlocalrenderinformation);
-					}
+			this.visibilityGraph.update(blockpos, renderchunk, blockpos1.getY(), flag2, flag1);
+
+			for (int ii = 0, ll = this.visibilityGraph.getCount(); ii < ll; ++ii) {
+				RenderGlobal.ContainerLocalRenderInformation renderglobal$containerlocalrenderinformation = this.renderInfoSlots[this.visibilityGraph
+						.getSlotAt(ii)];
+				if (this.visibilityGraph.isCameraChunkAt(ii) || ((ICamera) camera)
+						.isBoundingBoxInFrustum(renderglobal$containerlocalrenderinformation.renderChunk.boundingBox)) {
+					this.renderInfos.add(renderglobal$containerlocalrenderinformation);
 				}
 			}
 		}
@@ -944,6 +978,7 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 			this.debugFixTerrainFrustum = false;
 		}
 
+		this.mc.mcProfiler.endStartSection("rebuildNear");
 		Set set = this.chunksToUpdate;
 		this.chunksToUpdate = Sets.newLinkedHashSet();
 
@@ -964,6 +999,7 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 		}
 
 		this.chunksToUpdate.addAll(set);
+		this.mc.mcProfiler.endSection();
 	}
 
 	private boolean isPositionInRenderChunk(BlockPos pos, RenderChunk renderChunkIn) {
@@ -998,17 +1034,6 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 		return visgraph.func_178609_b(pos);
 	}
 
-	private RenderChunk func_181562_a(BlockPos parBlockPos, RenderChunk parRenderChunk, EnumFacing parEnumFacing) {
-		BlockPos blockpos = parRenderChunk.func_181701_a(parEnumFacing);
-		return MathHelper
-				.abs_int(parBlockPos.getX() - blockpos.getX()) > this.renderDistanceChunks * 16
-						? null
-						: (blockpos.getY() >= 0 && blockpos.getY() < 256
-								? (MathHelper.abs_int(parBlockPos.getZ() - blockpos.getZ()) > this.renderDistanceChunks
-										* 16 ? null : this.viewFrustum.getRenderChunk(blockpos))
-								: null);
-	}
-
 	private void fixTerrainFrustum(double x, double y, double z) {
 		this.debugFixedClippingHelper = new ClippingHelperImpl();
 		((ClippingHelperImpl) this.debugFixedClippingHelper).init();
@@ -1082,6 +1107,13 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 			}
 		}
 
+		if (blockLayerIn == EnumWorldBlockLayer.SOLID) {
+			this.occlusionCuller.beginFrame(pass == 2 && this.mc.gameSettings.occlusionCulling,
+					this.renderContainer.viewEntityX, this.renderContainer.viewEntityY,
+					this.renderContainer.viewEntityZ, entityIn.rotationYaw, entityIn.rotationPitch);
+		}
+
+		boolean occlusion = this.occlusionCuller.isActive();
 		int l = 0;
 		boolean flag = blockLayerIn == EnumWorldBlockLayer.TRANSLUCENT;
 		int i1 = flag ? this.renderInfos.size() - 1 : 0;
@@ -1092,12 +1124,32 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 			RenderChunk renderchunk = ((RenderGlobal.ContainerLocalRenderInformation) this.renderInfos
 					.get(j)).renderChunk;
 			if (!renderchunk.getCompiledChunk().isLayerEmpty(blockLayerIn)) {
+				if (occlusion && this.occlusionCuller.isOccluded(renderchunk)) {
+					this.occlusionCuller.countSavedDraw();
+					continue;
+				}
 				++l;
 				this.renderContainer.addRenderChunk(renderchunk, blockLayerIn);
 			}
 		}
 
 		this.renderBlockLayer(blockLayerIn);
+
+		if (occlusion && blockLayerIn == EnumWorldBlockLayer.CUTOUT) {
+			// all opaque terrain is in the depth buffer now, results are read next frame
+			for (int ii = 0, ll = this.renderInfos.size(); ii < ll; ++ii) {
+				RenderChunk renderchunk = this.renderInfos.get(ii).renderChunk;
+				CompiledChunk compiledchunk = renderchunk.getCompiledChunk();
+				if (compiledchunk != CompiledChunk.DUMMY && !compiledchunk.isEmpty()) {
+					if (this.occlusionCuller.isOccluded(renderchunk)) {
+						this.occlusionCuller.countCulledSection();
+					}
+					this.occlusionCuller.queryChunk(renderchunk);
+				}
+			}
+			this.occlusionCuller.endQueries();
+		}
+
 		return l;
 	}
 
@@ -1759,7 +1811,9 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 	}
 
 	public void updateChunks(long finishTimeNano) {
+		this.mc.mcProfiler.startSection("dispatcher");
 		this.displayListEntitiesDirty |= this.renderDispatcher.updateChunks(finishTimeNano);
+		this.mc.mcProfiler.endStartSection("queue");
 		if (!this.chunksToUpdate.isEmpty()) {
 			Iterator iterator = this.chunksToUpdate.iterator();
 
@@ -1777,6 +1831,8 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 				}
 			}
 		}
+
+		this.mc.mcProfiler.endSection();
 	}
 
 	public void renderWorldBorder(Entity partialTicks, float parFloat1) {
@@ -2477,15 +2533,9 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 
 	class ContainerLocalRenderInformation {
 		final RenderChunk renderChunk;
-		final EnumFacing facing;
-		final Set<EnumFacing> setFacing;
-		final int counter;
 
-		private ContainerLocalRenderInformation(RenderChunk renderChunkIn, EnumFacing facingIn, int counterIn) {
-			this.setFacing = EnumSet.noneOf(EnumFacing.class);
+		private ContainerLocalRenderInformation(RenderChunk renderChunkIn) {
 			this.renderChunk = renderChunkIn;
-			this.facing = facingIn;
-			this.counter = counterIn;
 		}
 	}
 
@@ -1,5 +1,6 @@
 package net.minecraft.client.renderer;
 
+import net.lax1dude.eaglercraft.v1_8.minecraft.TerrainRegionManager;
 import net.lax1dude.eaglercraft.v1_8.opengl.EaglercraftGPU;
 import net.lax1dude.eaglercraft.v1_8.opengl.GlStateManager;
 import net.minecraft.client.renderer.chunk.ListedRenderChunk;
@@ -26,15 +27,33 @@ import net.minecraft.util.EnumWorldBlockLayer;
  * 
  */
 public class RenderList extends ChunkRenderContainer {
+	private TerrainRegionManager terrainRegions = null;
+
+	public void setTerrainRegions(TerrainRegionManager terrainRegions) {
+		this.terrainRegions = terrainRegions;
+	}
+
+	public void initialize(double viewEntityXIn, double viewEntityYIn, double viewEntityZIn) {
+		super.initialize(viewEntityXIn, viewEntityYIn, viewEntityZIn);
+		if (this.terrainRegions != null) {
+			this.terrainRegions.beginFrame();
+		}
+	}
+
 	public void renderChunkLayer(EnumWorldBlockLayer enumworldblocklayer) {
 		if (this.initialized) {
-			for (int i = 0, l = this.renderChunks.size(); i < l; ++i) {
-				ListedRenderChunk listedrenderchunk = (ListedRenderChunk) this.renderChunks.get(i);
-				GlStateManager.pushMatrix();
-				this.preRenderChunk(listedrenderchunk, enumworldblocklayer);
-				EaglercraftGPU.glCallList(
-						listedrenderchunk.getDisplayList(enumworldblocklayer, listedrenderchunk.getCompiledChunk()));
-				GlStateManager.popMatrix();
+			if (this.terrainRegions != null) {
+				this.terrainRegions.renderLayer(enumworldblocklayer, this.renderChunks, this.viewEntityX,
+						this.viewEntityY, this.viewEntityZ);
+			} else {
+				for (int i = 0, l = this.renderChunks.size(); i < l; ++i) {
+					ListedRenderChunk listedrenderchunk = (ListedRenderChunk) this.renderChunks.get(i);
+					GlStateManager.pushMatrix();
+					this.preRenderChunk(listedrenderchunk, enumworldblocklayer);
+					EaglercraftGPU.glCallList(listedrenderchunk.getDisplayList(enumworldblocklayer,
+							listedrenderchunk.getCompiledChunk()));
+					GlStateManager.popMatrix();
+				}
 			}
 
 			GlStateManager.resetColor();
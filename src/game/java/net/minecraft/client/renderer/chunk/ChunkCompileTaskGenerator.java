@@ -1,11 +1,16 @@
 package net.minecraft.client.renderer.chunk;
 
 import java.util.List;
+import java.util.Set;
 
 import com.google.common.collect.Lists;
 
 import net.lax1dude.eaglercraft.v1_8.opengl.ext.deferred.DeferredStateManager;
+import net.minecraft.client.renderer.BlockRendererDispatcher;
+import net.minecraft.client.renderer.RegionRenderCache;
 import net.minecraft.client.renderer.RegionRenderCacheBuilder;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.BlockPos;
 import net.minecraft.util.EnumWorldBlockLayer;
 
 /**+
@@ -34,10 +39,17 @@ public class ChunkCompileTaskGenerator {
 	private final ChunkCompileTaskGenerator.Type type;
 	private RegionRenderCacheBuilder regionRenderCacheBuilder;
 	private CompiledChunk compiledChunk;
-	private ChunkCompileTaskGenerator.Status status = ChunkCompileTaskGenerator.Status.PENDING;
-	private boolean finished;
+	private volatile ChunkCompileTaskGenerator.Status status = ChunkCompileTaskGenerator.Status.PENDING;
+	private volatile boolean finished;
+	private RegionRenderCache regionRenderCache;
+	private BlockPos regionRenderCachePos;
+	private BlockRendererDispatcher blockRendererDispatcher;
+	private Set<TileEntity> globalTileEntities;
 	public long goddamnFuckingTimeout = 0l;
 	public long time = 0;
+	public float queuePriority = 0.0f;
+	public int queueIndex = -1;
+	public long queueTime = 0l;
 
 	public ChunkCompileTaskGenerator(RenderChunk renderChunkIn, ChunkCompileTaskGenerator.Type typeIn) {
 		this.renderChunk = renderChunkIn;
@@ -68,6 +80,40 @@ public class ChunkCompileTaskGenerator {
 		this.regionRenderCacheBuilder = regionRenderCacheBuilderIn;
 	}
 
+	/**
+	 * Used to compile the chunk from a snapshot instead of reading the world
+	 * directly, the position is the position of the RenderChunk when the
+	 * snapshot was taken
+	 */
+	public void setRegionRenderCache(RegionRenderCache regionRenderCacheIn, BlockPos pos) {
+		this.regionRenderCache = regionRenderCacheIn;
+		this.regionRenderCachePos = pos;
+	}
+
+	public RegionRenderCache getRegionRenderCache() {
+		return this.regionRenderCache;
+	}
+
+	public BlockPos getRegionRenderCachePos() {
+		return this.regionRenderCachePos;
+	}
+
+	public BlockRendererDispatcher getBlockRendererDispatcher() {
+		return this.blockRendererDispatcher;
+	}
+
+	public void setBlockRendererDispatcher(BlockRendererDispatcher blockRendererDispatcherIn) {
+		this.blockRendererDispatcher = blockRendererDispatcherIn;
+	}
+
+	public Set<TileEntity> getGlobalTileEntities() {
+		return this.globalTileEntities;
+	}
+
+	public void setGlobalTileEntities(Set<TileEntity> globalTileEntitiesIn) {
+		this.globalTileEntities = globalTileEntitiesIn;
+	}
+
 	public void setStatus(ChunkCompileTaskGenerator.Status statusIn) {
 		this.status = statusIn;
 	}
@@ -84,6 +84,22 @@ public class CompiledChunk {
 		return this.setVisibility.isVisible(enumfacing, enumfacing1);
 	}
 
+	/**+
+	 * True if every pair of faces that can be seen through each other
+	 * in this chunk can also be in the other one, and vice versa
+	 */
+	public boolean hasSameVisibility(CompiledChunk other) {
+		EnumFacing[] facings = EnumFacing._VALUES;
+		for (int i = 0; i < facings.length; ++i) {
+			for (int j = i; j < facings.length; ++j) {
+				if (this.isVisible(facings[i], facings[j]) != other.isVisible(facings[i], facings[j])) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
 	public void setVisibility(SetVisibility visibility) {
 		this.setVisibility = visibility;
 	}
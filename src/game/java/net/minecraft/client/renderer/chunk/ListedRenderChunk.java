@@ -1,5 +1,6 @@
 package net.minecraft.client.renderer.chunk;
 
+import net.lax1dude.eaglercraft.v1_8.minecraft.TerrainRegionManager;
 import net.lax1dude.eaglercraft.v1_8.opengl.EaglercraftGPU;
 import net.minecraft.client.renderer.GLAllocation;
 import net.minecraft.client.renderer.RenderGlobal;
@@ -29,6 +30,8 @@ import net.minecraft.world.World;
  */
 public class ListedRenderChunk extends RenderChunk {
 	private final int[] baseDisplayList;
+	private final TerrainRegionManager terrainRegions;
+	private final TerrainRegionManager.Allocation[] regionAllocations;
 
 	public ListedRenderChunk(World worldIn, RenderGlobal renderGlobalIn, BlockPos pos, int indexIn) {
 		super(worldIn, renderGlobalIn, pos, indexIn);
@@ -36,25 +39,65 @@ public class ListedRenderChunk extends RenderChunk {
 		for (int i = 0; i < this.baseDisplayList.length; ++i) {
 			this.baseDisplayList[i] = GLAllocation.generateDisplayLists();
 		}
+		this.terrainRegions = renderGlobalIn.getTerrainRegions();
+		this.regionAllocations = this.terrainRegions != null
+				? new TerrainRegionManager.Allocation[EnumWorldBlockLayer._VALUES.length]
+				: null;
 	}
 
 	public int getDisplayList(EnumWorldBlockLayer layer, CompiledChunk parCompiledChunk) {
 		return !parCompiledChunk.isLayerEmpty(layer) ? this.baseDisplayList[layer.ordinal()] : -1;
 	}
 
+	public TerrainRegionManager.Allocation getRegionAllocation(int layer) {
+		return this.regionAllocations != null ? this.regionAllocations[layer] : null;
+	}
+
+	public void setRegionAllocation(int layer, TerrainRegionManager.Allocation alloc) {
+		this.regionAllocations[layer] = alloc;
+	}
+
+	protected int getVertexOriginMask() {
+		return this.terrainRegions != null ? TerrainRegionManager.REGION_MASK : -1;
+	}
+
+	public void setPosition(BlockPos pos) {
+		super.setPosition(pos);
+		this.freeRegionAllocations();
+	}
+
 	public void deleteGlResources() {
 		super.deleteGlResources();
 		for (int i = 0; i < this.baseDisplayList.length; ++i) {
 			GLAllocation.deleteDisplayLists(this.baseDisplayList[i]);
 		}
+		this.freeRegionAllocations();
+	}
+
+	private void freeRegionAllocations() {
+		if (this.regionAllocations != null) {
+			for (int i = 0; i < this.regionAllocations.length; ++i) {
+				if (this.regionAllocations[i] != null) {
+					this.terrainRegions.free(this.regionAllocations[i]);
+					this.regionAllocations[i] = null;
+				}
+			}
+		}
 	}
 
-	public void rebuildChunk(float x, float y, float z, ChunkCompileTaskGenerator generator) {
-		super.rebuildChunk(x, y, z, generator);
+	/**
+	 * Called on the render thread after the chunk was uploaded, releases the
+	 * GPU memory of every layer that ended up empty
+	 */
+	public void flushEmptyLayers(CompiledChunk compiledChunk) {
 		EnumWorldBlockLayer[] layers = EnumWorldBlockLayer._VALUES;
 		for (int i = 0; i < layers.length; ++i) {
-			if (generator.getCompiledChunk().isLayerEmpty(layers[i])) {
+			if (compiledChunk.isLayerEmpty(layers[i])) {
 				EaglercraftGPU.flushDisplayList(this.baseDisplayList[i]);
+				if (this.regionAllocations != null && this.regionAllocations[i] != null) {
+					this.terrainRegions.free(this.regionAllocations[i]);
+					this.regionAllocations[i] = null;
+				}
 			}
 		}
 	}
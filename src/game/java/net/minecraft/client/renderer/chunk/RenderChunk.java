@@ -73,6 +73,12 @@ public class RenderChunk {
 	public ShadowFrustumState shadowLOD0InFrustum = ShadowFrustumState.OUTSIDE;
 	public ShadowFrustumState shadowLOD1InFrustum = ShadowFrustumState.OUTSIDE;
 	public ShadowFrustumState shadowLOD2InFrustum = ShadowFrustumState.OUTSIDE;
+	public int occlusionSerial = 0;
+	public boolean occlusionQueryPending = false;
+	public boolean occlusionOccluded = false;
+	public int occlusionQueryFrame = -1;
+	public int occlusionResultFrame = -1;
+	public int occlusionResultEpoch = -1;
 	private EnumMap<EnumFacing, BlockPos> field_181702_p = Maps.newEnumMap(EnumFacing.class);
 
 	public RenderChunk(World worldIn, RenderGlobal renderGlobalIn, BlockPos blockPosIn, int indexIn) {
@@ -98,6 +104,8 @@ public class RenderChunk {
 		this.stopCompileTask();
 		this.position = pos;
 		this.boundingBox = new AxisAlignedBB(pos, pos.add(16, 16, 16));
+		++this.occlusionSerial;
+		this.occlusionResultEpoch = -1;
 
 		EnumFacing[] facings = EnumFacing._VALUES;
 		for (int i = 0; i < facings.length; ++i) {
@@ -133,15 +141,24 @@ public class RenderChunk {
 	public void rebuildChunk(float x, float y, float z, ChunkCompileTaskGenerator generator) {
 		CompiledChunk compiledchunk = new CompiledChunk();
 		boolean flag = true;
-		BlockPos blockpos = this.position;
-		BlockPos blockpos1 = blockpos.add(15, 15, 15);
+		BlockPos blockpos;
+		BlockPos blockpos1;
 
 		RegionRenderCache regionrendercache;
 		if (generator.getStatus() != ChunkCompileTaskGenerator.Status.COMPILING) {
 			return;
 		}
 
-		regionrendercache = new RegionRenderCache(this.world, blockpos.add(-1, -1, -1), blockpos1.add(1, 1, 1), 1);
+		regionrendercache = generator.getRegionRenderCache();
+		if (regionrendercache != null) {
+			blockpos = generator.getRegionRenderCachePos();
+			blockpos1 = blockpos.add(15, 15, 15);
+		} else {
+			blockpos = this.position;
+			blockpos1 = blockpos.add(15, 15, 15);
+			regionrendercache = new RegionRenderCache(this.world, blockpos.add(-1, -1, -1), blockpos1.add(1, 1, 1),
+					1);
+		}
 		generator.setCompiledChunk(compiledchunk);
 
 		VisGraph visgraph = new VisGraph();
@@ -149,7 +166,10 @@ public class RenderChunk {
 		if (!regionrendercache.extendedLevelsInChunkCache()) {
 			++renderChunksUpdated;
 			boolean[] aboolean = new boolean[EnumWorldBlockLayer._VALUES.length];
-			BlockRendererDispatcher blockrendererdispatcher = Minecraft.getMinecraft().getBlockRendererDispatcher();
+			BlockRendererDispatcher blockrendererdispatcher = generator.getBlockRendererDispatcher();
+			if (blockrendererdispatcher == null) {
+				blockrendererdispatcher = Minecraft.getMinecraft().getBlockRendererDispatcher();
+			}
 
 			for (BlockPos blockpos$mutableblockpos : BlockPos.getAllInBox(blockpos, blockpos1)) {
 				IBlockState iblockstate = regionrendercache.getBlockStateFaster(blockpos$mutableblockpos);
@@ -213,7 +233,14 @@ public class RenderChunk {
 		}
 
 		compiledchunk.setVisibility(visgraph.computeVisibility());
+		generator.setGlobalTileEntities(hashset);
+	}
 
+	/**
+	 * Must be called from the render thread after the chunk is compiled, the
+	 * chunk may have been compiled on a different thread
+	 */
+	public void updateGlobalTileEntities(Set<TileEntity> hashset) {
 		HashSet hashset1 = Sets.newHashSet(hashset);
 		HashSet hashset2 = Sets.newHashSet(this.field_181056_j);
 		hashset1.removeAll(this.field_181056_j);
@@ -221,7 +248,18 @@ public class RenderChunk {
 		this.field_181056_j.clear();
 		this.field_181056_j.addAll(hashset);
 		this.renderGlobal.func_181023_a(hashset2, hashset1);
+	}
 
+	/**
+	 * Takes a snapshot of the blocks around this chunk so it can be compiled
+	 * on a worker thread
+	 */
+	public void snapshotRegion(ChunkCompileTaskGenerator generator) {
+		BlockPos blockpos = this.position;
+		RegionRenderCache regionrendercache = new RegionRenderCache(this.world, blockpos.add(-1, -1, -1),
+				blockpos.add(16, 16, 16), 1);
+		regionrendercache.snapshotRegion();
+		generator.setRegionRenderCache(regionrendercache, blockpos);
 	}
 
 	protected void finishCompileTask() {
@@ -250,7 +288,17 @@ public class RenderChunk {
 				(DeferredStateManager.isDeferredRenderer() || DynamicLightsStateManager.isDynamicLightsRender())
 						? VertexFormat.BLOCK_SHADERS
 						: DefaultVertexFormats.BLOCK);
-		worldRendererIn.setTranslation((double) (-pos.getX()), (double) (-pos.getY()), (double) (-pos.getZ()));
+		int mask = this.getVertexOriginMask();
+		worldRendererIn.setTranslation((double) (-(pos.getX() & mask)), (double) (-(pos.getY() & mask)),
+				(double) (-(pos.getZ() & mask)));
+	}
+
+	/**
+	 * Mask applied to the chunk position to get the origin its vertices are
+	 * relative to, overridden when the terrain is batched into regions
+	 */
+	protected int getVertexOriginMask() {
+		return -1;
 	}
 
 	private void postRenderBlocks(EnumWorldBlockLayer layer, float x, float y, float z, WorldRenderer worldRendererIn,
@@ -288,12 +336,16 @@ public class RenderChunk {
 	}
 
 	public void setCompiledChunk(CompiledChunk compiledChunkIn) {
+		CompiledChunk prev = this.compiledChunk;
 		this.compiledChunk = compiledChunkIn;
+		if (prev != compiledChunkIn && !prev.hasSameVisibility(compiledChunkIn)) {
+			this.renderGlobal.onChunkVisibilityChanged(this);
+		}
 	}
 
 	public void stopCompileTask() {
 		this.finishCompileTask();
-		this.compiledChunk = CompiledChunk.DUMMY;
+		this.setCompiledChunk(CompiledChunk.DUMMY);
 	}
 
 	public void deleteGlResources() {
@@ -199,6 +199,14 @@ public class GameSettings {
 	public boolean hudStats = false;
 	public boolean hud24h = false;
 	public boolean chunkFix = true;
+	public boolean occlusionCulling = false;
+	public int chunkUpdateThreads = 0;
+	public int chunkUploadBudget = 8;
+	public boolean terrainRegionBuffers = false;
+	public boolean compactChunkVertices = false;
+	public boolean networkPacketBatching = true;
+	public boolean batchedLighting = true;
+	public int terrainGenThreads = 2;
 	public boolean fog = true;
 	public int fxaa = 0;
 	public boolean shaders = false;
@@ -461,6 +469,10 @@ public class GameSettings {
 			this.chunkFix = !this.chunkFix;
 		}
 
+		if (parOptions == GameSettings.Options.OCCLUSION_CULLING) {
+			this.occlusionCulling = !this.occlusionCulling;
+		}
+
 		if (parOptions == GameSettings.Options.FOG) {
 			this.fog = !this.fog;
 		}
@@ -559,6 +571,8 @@ public class GameSettings {
 			return this.hud24h;
 		case CHUNK_FIX:
 			return this.chunkFix;
+		case OCCLUSION_CULLING:
+			return this.occlusionCulling;
 		case FOG:
 			return this.fog;
 		case FULLSCREEN:
@@ -961,6 +975,38 @@ public class GameSettings {
 						this.chunkFix = astring[1].equals("true");
 					}
 
+					if (astring[0].equals("occlusionCulling")) {
+						this.occlusionCulling = astring[1].equals("true");
+					}
+
+					if (astring[0].equals("chunkUpdateThreads")) {
+						this.chunkUpdateThreads = Integer.parseInt(astring[1]);
+					}
+
+					if (astring[0].equals("chunkUploadBudget")) {
+						this.chunkUploadBudget = Integer.parseInt(astring[1]);
+					}
+
+					if (astring[0].equals("terrainRegionBuffers")) {
+						this.terrainRegionBuffers = astring[1].equals("true");
+					}
+
+					if (astring[0].equals("compactChunkVertices")) {
+						this.compactChunkVertices = astring[1].equals("true");
+					}
+
+					if (astring[0].equals("networkPacketBatching")) {
+						this.networkPacketBatching = astring[1].equals("true");
+					}
+
+					if (astring[0].equals("batchedLighting")) {
+						this.batchedLighting = astring[1].equals("true");
+					}
+
+					if (astring[0].equals("terrainGenThreads")) {
+						this.terrainGenThreads = Integer.parseInt(astring[1]);
+					}
+
 					if (astring[0].equals("fog")) {
 						this.fog = astring[1].equals("true");
 					}
@@ -1190,6 +1236,14 @@ public class GameSettings {
 			printwriter.println("hudStats:" + this.hudStats);
 			printwriter.println("hud24h:" + this.hud24h);
 			printwriter.println("chunkFix:" + this.chunkFix);
+			printwriter.println("occlusionCulling:" + this.occlusionCulling);
+			printwriter.println("chunkUpdateThreads:" + this.chunkUpdateThreads);
+			printwriter.println("chunkUploadBudget:" + this.chunkUploadBudget);
+			printwriter.println("terrainRegionBuffers:" + this.terrainRegionBuffers);
+			printwriter.println("compactChunkVertices:" + this.compactChunkVertices);
+			printwriter.println("networkPacketBatching:" + this.networkPacketBatching);
+			printwriter.println("batchedLighting:" + this.batchedLighting);
+			printwriter.println("terrainGenThreads:" + this.terrainGenThreads);
 			printwriter.println("fog:" + this.fog);
 			printwriter.println("fxaa:" + this.fxaa);
 			printwriter.println("shaders:" + this.shaders);
@@ -1344,6 +1398,7 @@ public class GameSettings {
 		HUD_COORDS("options.hud.coords", false, true), HUD_STATS("options.hud.stats", false, true),
 		HUD_WORLD("options.hud.world", false, true), HUD_PLAYER("options.hud.player", false, true),
 		HUD_24H("options.hud.24h", false, true), CHUNK_FIX("options.chunkFix", false, true),
+		OCCLUSION_CULLING("options.occlusionCulling", false, true),
 		FOG("options.fog", false, true), FXAA("options.fxaa", false, false),
 		FULLSCREEN("options.fullscreen", false, true),
 		FNAW_SKINS("options.skinCustomisation.enableFNAWSkins", false, true),
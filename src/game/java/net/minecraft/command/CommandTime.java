@@ -1,6 +1,10 @@
 package net.minecraft.command;
 
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.List;
+
+import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerIntegratedServerWorker;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.BlockPos;
 import net.minecraft.world.WorldServer;
@@ -26,6 +30,9 @@ import net.minecraft.world.WorldServer;
  * 
  */
 public class CommandTime extends CommandBase {
+	private static final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH.mm.ss");
+	private long debugStartTime;
+	private int debugStartTick;
 
 	/**+
 	 * Gets the name of the command
@@ -75,6 +82,11 @@ public class CommandTime extends CommandBase {
 				return;
 			}
 
+			if (parArrayOfString[0].equals("debug")) {
+				this.processDebug(parICommandSender, parArrayOfString);
+				return;
+			}
+
 			if (parArrayOfString[0].equals("query")) {
 				if (parArrayOfString[1].equals("daytime")) {
 					int j = (int) (parICommandSender.getEntityWorld().getWorldTime() % 2147483647L);
@@ -101,12 +113,51 @@ public class CommandTime extends CommandBase {
 	 * Return a list of options when the user types TAB
 	 */
 	public List<String> addTabCompletionOptions(ICommandSender var1, String[] astring, BlockPos var3) {
-		return astring.length == 1 ? getListOfStringsMatchingLastWord(astring, new String[] { "set", "add", "query" })
+		return astring.length == 1
+				? getListOfStringsMatchingLastWord(astring, new String[] { "set", "add", "query", "debug" })
 				: (astring.length == 2 && astring[0].equals("set")
 						? getListOfStringsMatchingLastWord(astring, new String[] { "day", "night" })
 						: (astring.length == 2 && astring[0].equals("query")
 								? getListOfStringsMatchingLastWord(astring, new String[] { "daytime", "gametime" })
-								: null));
+								: (astring.length == 2 && astring[0].equals("debug")
+										? getListOfStringsMatchingLastWord(astring, new String[] { "start", "stop" })
+										: null)));
+	}
+
+	/**+
+	 * Starts or stops profiling the server tick, the recorded trace
+	 * is sent to the client to be saved when profiling stops
+	 */
+	private void processDebug(ICommandSender parICommandSender, String[] parArrayOfString) throws CommandException {
+		if (parArrayOfString.length != 2) {
+			throw new WrongUsageException("commands.time.usage", new Object[0]);
+		}
+
+		MinecraftServer minecraftserver = MinecraftServer.getServer();
+		if (parArrayOfString[1].equals("start")) {
+			notifyOperators(parICommandSender, this, "commands.debug.start", new Object[0]);
+			minecraftserver.enableProfiling();
+			this.debugStartTime = MinecraftServer.getCurrentTimeMillis();
+			this.debugStartTick = minecraftserver.getTickCounter();
+		} else if (parArrayOfString[1].equals("stop")) {
+			if (!minecraftserver.theProfiler.profilingEnabled) {
+				throw new CommandException("commands.debug.notStarted", new Object[0]);
+			}
+
+			long i = MinecraftServer.getCurrentTimeMillis() - this.debugStartTime;
+			int j = minecraftserver.getTickCounter() - this.debugStartTick;
+			String s = minecraftserver.theProfiler.stopTrace("Integrated Server", 2);
+			if (s != null) {
+				EaglerIntegratedServerWorker.sendProfilerTrace(
+						"server-trace-" + dateFormat.format(new Date()) + ".json", s);
+			}
+
+			minecraftserver.theProfiler.profilingEnabled = false;
+			notifyOperators(parICommandSender, this, "commands.debug.stop",
+					new Object[] { Float.valueOf((float) i / 1000.0F), Integer.valueOf(j) });
+		} else {
+			throw new WrongUsageException("commands.time.usage", new Object[0]);
+		}
 	}
 
 	/**+
@@ -7,7 +7,6 @@ import java.util.Map;
 
 import org.apache.commons.lang3.ObjectUtils;
 
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import net.minecraft.crash.CrashReport;
@@ -46,7 +45,18 @@ public class DataWatcher {
 	 */
 	private boolean isBlank = true;
 	private static final Map<Class<?>, Integer> dataTypes = Maps.newHashMap();
-	private final Map<Integer, DataWatcher.WatchableObject> watchedObjects = Maps.newHashMap();
+	/**+
+	 * Watched objects indexed by their id, watchedMask has a bit
+	 * set for every id in use and objectMask for every id that is
+	 * not stored as a primitive
+	 */
+	private final DataWatcher.WatchableObject[] watchedObjects = new DataWatcher.WatchableObject[32];
+	private int watchedMask;
+	private int objectMask;
+	/**+
+	 * Bit set of the ids that changed since the last metadata packet
+	 */
+	private int dirtyMask;
 	private boolean objectChanged;
 
 	public DataWatcher(Entity owner) {
@@ -59,13 +69,10 @@ public class DataWatcher {
 			throw new IllegalArgumentException("Unknown data type: " + object.getClass());
 		} else if (id > 31) {
 			throw new IllegalArgumentException("Data value id is too big with " + id + "! (Max is " + 31 + ")");
-		} else if (this.watchedObjects.containsKey(Integer.valueOf(id))) {
+		} else if ((this.watchedMask & 1 << id) != 0) {
 			throw new IllegalArgumentException("Duplicate id value for " + id + "!");
 		} else {
-			DataWatcher.WatchableObject datawatcher$watchableobject = new DataWatcher.WatchableObject(
-					integer.intValue(), id, object);
-			this.watchedObjects.put(Integer.valueOf(id), datawatcher$watchableobject);
-			this.isBlank = false;
+			this.putWatchedObject(new DataWatcher.WatchableObject(integer.intValue(), id, object));
 		}
 	}
 
@@ -74,9 +81,19 @@ public class DataWatcher {
 	 * specified data type.
 	 */
 	public void addObjectByDataType(int id, int type) {
-		DataWatcher.WatchableObject datawatcher$watchableobject = new DataWatcher.WatchableObject(type, id,
-				(Object) null);
-		this.watchedObjects.put(Integer.valueOf(id), datawatcher$watchableobject);
+		this.putWatchedObject(new DataWatcher.WatchableObject(type, id, (Object) null));
+	}
+
+	private void putWatchedObject(DataWatcher.WatchableObject object) {
+		int id = object.getDataValueId();
+		this.watchedObjects[id] = object;
+		this.watchedMask |= 1 << id;
+		if (object.isPrimitive()) {
+			this.objectMask &= ~(1 << id);
+		} else {
+			this.objectMask |= 1 << id;
+		}
+		this.dirtyMask |= 1 << id;
 		this.isBlank = false;
 	}
 
@@ -84,22 +101,22 @@ public class DataWatcher {
 	 * gets the bytevalue of a watchable object
 	 */
 	public byte getWatchableObjectByte(int id) {
-		return ((Byte) this.getWatchedObject(id).getObject()).byteValue();
+		return (byte) this.getWatchedObject(id).primitiveValue;
 	}
 
 	public short getWatchableObjectShort(int id) {
-		return ((Short) this.getWatchedObject(id).getObject()).shortValue();
+		return (short) this.getWatchedObject(id).primitiveValue;
 	}
 
 	/**+
 	 * gets a watchable object and returns it as a Integer
 	 */
 	public int getWatchableObjectInt(int id) {
-		return ((Integer) this.getWatchedObject(id).getObject()).intValue();
+		return this.getWatchedObject(id).primitiveValue;
 	}
 
 	public float getWatchableObjectFloat(int id) {
-		return ((Float) this.getWatchedObject(id).getObject()).floatValue();
+		return Float.intBitsToFloat(this.getWatchedObject(id).primitiveValue);
 	}
 
 	/**+
@@ -122,7 +139,7 @@ public class DataWatcher {
 	private DataWatcher.WatchableObject getWatchedObject(int id) {
 		DataWatcher.WatchableObject datawatcher$watchableobject;
 		try {
-			datawatcher$watchableobject = (DataWatcher.WatchableObject) this.watchedObjects.get(Integer.valueOf(id));
+			datawatcher$watchableobject = this.watchedObjects[id];
 		} catch (Throwable throwable) {
 			CrashReport crashreport = CrashReport.makeCrashReport(throwable, "Getting synched entity data");
 			CrashReportCategory crashreportcategory = crashreport.makeCategory("Synched entity data");
@@ -138,17 +155,49 @@ public class DataWatcher {
 
 	public <T> void updateObject(int id, T newData) {
 		DataWatcher.WatchableObject datawatcher$watchableobject = this.getWatchedObject(id);
-		if (ObjectUtils.notEqual(newData, datawatcher$watchableobject.getObject())) {
+		if (datawatcher$watchableobject.isPrimitive()) {
+			this.updatePrimitive(datawatcher$watchableobject, toPrimitive(datawatcher$watchableobject.getObjectType(), newData));
+		} else if (ObjectUtils.notEqual(newData, datawatcher$watchableobject.getObject())) {
 			datawatcher$watchableobject.setObject(newData);
-			this.owner.onDataWatcherUpdate(id);
-			datawatcher$watchableobject.setWatched(true);
-			this.objectChanged = true;
+			this.markChanged(id);
+		}
+
+	}
+
+	/**+
+	 * Typed versions of updateObject that don't box the value
+	 */
+	public void updateObjectByte(int id, byte newData) {
+		this.updatePrimitive(this.getWatchedObject(id), newData);
+	}
+
+	public void updateObjectShort(int id, short newData) {
+		this.updatePrimitive(this.getWatchedObject(id), newData);
+	}
+
+	public void updateObjectInt(int id, int newData) {
+		this.updatePrimitive(this.getWatchedObject(id), newData);
+	}
+
+	public void updateObjectFloat(int id, float newData) {
+		this.updatePrimitive(this.getWatchedObject(id), Float.floatToIntBits(newData));
+	}
+
+	private void updatePrimitive(DataWatcher.WatchableObject object, int newData) {
+		if (object.primitiveValue != newData) {
+			object.primitiveValue = newData;
+			this.markChanged(object.getDataValueId());
 		}
+	}
 
+	private void markChanged(int id) {
+		this.owner.onDataWatcherUpdate(id);
+		this.dirtyMask |= 1 << id;
+		this.objectChanged = true;
 	}
 
 	public void setObjectWatched(int id) {
-		this.getWatchedObject(id).watched = true;
+		this.dirtyMask |= 1 << id;
 		this.objectChanged = true;
 	}
 
@@ -176,40 +225,82 @@ public class DataWatcher {
 	}
 
 	public List<DataWatcher.WatchableObject> getChanged() {
-		ArrayList arraylist = null;
+		return this.getWatchedList(this.takeChangedMask());
+	}
+
+	/**+
+	 * Returns the bit set of objects that changed since the last
+	 * call and clears it, or 0 if nothing changed
+	 */
+	public int takeChangedMask() {
+		int i = 0;
 		if (this.objectChanged) {
-			for (DataWatcher.WatchableObject datawatcher$watchableobject : this.watchedObjects.values()) {
-				if (datawatcher$watchableobject.isWatched()) {
-					datawatcher$watchableobject.setWatched(false);
-					if (arraylist == null) {
-						arraylist = Lists.newArrayList();
-					}
-
-					arraylist.add(datawatcher$watchableobject);
+			i = this.dirtyMask;
+			this.dirtyMask = 0;
+		}
+
+		this.objectChanged = false;
+		return i;
+	}
+
+	public int getWatchedMask() {
+		return this.watchedMask;
+	}
+
+	/**+
+	 * Copies the current values of the objects in the mask, in
+	 * order of their ids. Keys get the type and id byte, values the
+	 * primitive values and objects (if not null) the others, item
+	 * stacks are copied since the server keeps mutating the originals
+	 */
+	public void copyValues(int mask, byte[] keys, int[] values, Object[] objects) {
+		int j = 0;
+		for (int i = mask & this.watchedMask; i != 0; i &= i - 1) {
+			DataWatcher.WatchableObject datawatcher$watchableobject = this.watchedObjects[Integer
+					.numberOfTrailingZeros(i)];
+			keys[j] = (byte) (datawatcher$watchableobject.getObjectType() << 5
+					| datawatcher$watchableobject.getDataValueId() & 31);
+			if (datawatcher$watchableobject.isPrimitive()) {
+				values[j] = datawatcher$watchableobject.primitiveValue;
+			} else if (objects != null) {
+				Object object = datawatcher$watchableobject.getObject();
+				if (datawatcher$watchableobject.getObjectType() == 5) {
+					object = ItemStack.copyItemStack((ItemStack) object);
 				}
+				objects[j] = object;
 			}
+			++j;
 		}
+	}
 
-		this.objectChanged = false;
-		return arraylist;
+	/**+
+	 * Returns true if any object in the mask is not stored as a
+	 * primitive
+	 */
+	public boolean hasObjectValues(int mask) {
+		return (mask & this.objectMask) != 0;
 	}
 
 	public void writeTo(PacketBuffer buffer) throws IOException {
-		for (DataWatcher.WatchableObject datawatcher$watchableobject : this.watchedObjects.values()) {
-			writeWatchableObjectToPacketBuffer(buffer, datawatcher$watchableobject);
+		for (int i = this.watchedMask; i != 0; i &= i - 1) {
+			writeWatchableObjectToPacketBuffer(buffer, this.watchedObjects[Integer.numberOfTrailingZeros(i)]);
 		}
 		buffer.writeByte(127);
 	}
 
 	public List<DataWatcher.WatchableObject> getAllWatched() {
-		ArrayList arraylist = null;
+		return this.getWatchedList(this.watchedMask);
+	}
 
-		for (DataWatcher.WatchableObject datawatcher$watchableobject : this.watchedObjects.values()) {
-			if (arraylist == null) {
-				arraylist = Lists.newArrayList();
-			}
+	private List<DataWatcher.WatchableObject> getWatchedList(int mask) {
+		mask &= this.watchedMask;
+		if (mask == 0) {
+			return null;
+		}
 
-			arraylist.add(datawatcher$watchableobject);
+		ArrayList<DataWatcher.WatchableObject> arraylist = new ArrayList<>(Integer.bitCount(mask));
+		for (int i = mask; i != 0; i &= i - 1) {
+			arraylist.add(this.watchedObjects[Integer.numberOfTrailingZeros(i)]);
 		}
 
 		return arraylist;
@@ -222,36 +313,45 @@ public class DataWatcher {
 	 */
 	private static void writeWatchableObjectToPacketBuffer(PacketBuffer buffer, DataWatcher.WatchableObject object)
 			throws IOException {
-		int i = (object.getObjectType() << 5 | object.getDataValueId() & 31) & 255;
-		buffer.writeByte(i);
-		switch (object.getObjectType()) {
+		writeValueToPacketBuffer(buffer, object.getObjectType() << 5 | object.getDataValueId() & 31,
+				object.primitiveValue, object.isPrimitive() ? null : object.getObject());
+	}
+
+	/**+
+	 * Writes one entry given its type and id byte, the primitive
+	 * value is used for types 0 to 3 and the object for the others
+	 */
+	public static void writeValueToPacketBuffer(PacketBuffer buffer, int key, int value, Object object)
+			throws IOException {
+		buffer.writeByte(key & 255);
+		switch ((key & 224) >> 5) {
 		case 0:
-			buffer.writeByte(((Byte) object.getObject()).byteValue());
+			buffer.writeByte(value);
 			break;
 		case 1:
-			buffer.writeShort(((Short) object.getObject()).shortValue());
+			buffer.writeShort(value);
 			break;
 		case 2:
-			buffer.writeInt(((Integer) object.getObject()).intValue());
+			buffer.writeInt(value);
 			break;
 		case 3:
-			buffer.writeFloat(((Float) object.getObject()).floatValue());
+			buffer.writeInt(value);
 			break;
 		case 4:
-			buffer.writeString((String) object.getObject());
+			buffer.writeString((String) object);
 			break;
 		case 5:
-			ItemStack itemstack = (ItemStack) object.getObject();
+			ItemStack itemstack = (ItemStack) object;
 			buffer.writeItemStackToBuffer(itemstack);
 			break;
 		case 6:
-			BlockPos blockpos = (BlockPos) object.getObject();
+			BlockPos blockpos = (BlockPos) object;
 			buffer.writeInt(blockpos.getX());
 			buffer.writeInt(blockpos.getY());
 			buffer.writeInt(blockpos.getZ());
 			break;
 		case 7:
-			Rotations rotations = (Rotations) object.getObject();
+			Rotations rotations = (Rotations) object;
 			buffer.writeFloat(rotations.getX());
 			buffer.writeFloat(rotations.getY());
 			buffer.writeFloat(rotations.getZ());
@@ -266,11 +366,11 @@ public class DataWatcher {
 	 */
 	public static List<DataWatcher.WatchableObject> readWatchedListFromPacketBuffer(PacketBuffer buffer)
 			throws IOException {
-		ArrayList arraylist = null;
+		ArrayList<DataWatcher.WatchableObject> arraylist = null;
 
 		for (byte b0 = buffer.readByte(); b0 != 127; b0 = buffer.readByte()) {
 			if (arraylist == null) {
-				arraylist = Lists.newArrayList();
+				arraylist = new ArrayList<>();
 			}
 
 			int i = (b0 & 224) >> 5;
@@ -318,10 +418,10 @@ public class DataWatcher {
 
 		for (int i = 0, l = parList.size(); i < l; ++i) {
 			DataWatcher.WatchableObject datawatcher$watchableobject = parList.get(i);
-			DataWatcher.WatchableObject datawatcher$watchableobject1 = (DataWatcher.WatchableObject) this.watchedObjects
-					.get(Integer.valueOf(datawatcher$watchableobject.getDataValueId()));
+			DataWatcher.WatchableObject datawatcher$watchableobject1 = this.watchedObjects[datawatcher$watchableobject
+					.getDataValueId()];
 			if (datawatcher$watchableobject1 != null) {
-				datawatcher$watchableobject1.setObject(datawatcher$watchableobject.getObject());
+				datawatcher$watchableobject1.copyFrom(datawatcher$watchableobject);
 				this.owner.onDataWatcherUpdate(datawatcher$watchableobject.getDataValueId());
 			}
 		}
@@ -348,17 +448,35 @@ public class DataWatcher {
 		dataTypes.put(Rotations.class, Integer.valueOf(7));
 	}
 
+	private static int toPrimitive(int type, Object object) {
+		switch (type) {
+		case 0:
+			return ((Byte) object).byteValue();
+		case 1:
+			return ((Short) object).shortValue();
+		case 2:
+			return ((Integer) object).intValue();
+		default:
+			return Float.floatToIntBits(((Float) object).floatValue());
+		}
+	}
+
 	public static class WatchableObject {
 		private final int objectType;
 		private final int dataValueId;
+		/**+
+		 * Holds the value of byte, short, int and float objects, the
+		 * float is stored as its raw bits
+		 */
+		private int primitiveValue;
 		private Object watchedObject;
-		private boolean watched;
 
 		public WatchableObject(int type, int id, Object object) {
 			this.dataValueId = id;
-			this.watchedObject = object;
 			this.objectType = type;
-			this.watched = true;
+			if (object != null || type > 3) {
+				this.setObject(object);
+			}
 		}
 
 		public int getDataValueId() {
@@ -366,23 +484,47 @@ public class DataWatcher {
 		}
 
 		public void setObject(Object object) {
-			this.watchedObject = object;
+			if (this.objectType <= 3) {
+				this.primitiveValue = toPrimitive(this.objectType, object);
+			} else {
+				this.watchedObject = object;
+			}
+		}
+
+		public void setPrimitiveValue(int value) {
+			this.primitiveValue = value;
+		}
+
+		/**+
+		 * Copies the value of another object with the same type, used
+		 * by the client to apply metadata packets without boxing
+		 */
+		void copyFrom(WatchableObject object) {
+			this.primitiveValue = object.primitiveValue;
+			this.watchedObject = object.watchedObject;
 		}
 
 		public Object getObject() {
-			return this.watchedObject;
+			switch (this.objectType) {
+			case 0:
+				return Byte.valueOf((byte) this.primitiveValue);
+			case 1:
+				return Short.valueOf((short) this.primitiveValue);
+			case 2:
+				return Integer.valueOf(this.primitiveValue);
+			case 3:
+				return Float.valueOf(Float.intBitsToFloat(this.primitiveValue));
+			default:
+				return this.watchedObject;
+			}
 		}
 
 		public int getObjectType() {
 			return this.objectType;
 		}
 
-		public boolean isWatched() {
-			return this.watched;
-		}
-
-		public void setWatched(boolean watched) {
-			this.watched = watched;
+		public boolean isPrimitive() {
+			return this.objectType <= 3;
 		}
 	}
 }
\ No newline at end of file
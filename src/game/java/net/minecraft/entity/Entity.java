@@ -4,6 +4,7 @@ import java.util.List;
 import net.lax1dude.eaglercraft.v1_8.EaglercraftRandom;
 import net.lax1dude.eaglercraft.v1_8.EaglercraftUUID;
 import net.lax1dude.eaglercraft.v1_8.HString;
+import net.lax1dude.eaglercraft.v1_8.minecraft.CollisionBoxBuffer;
 import net.lax1dude.eaglercraft.v1_8.opengl.ext.deferred.DynamicLightManager;
 import net.lax1dude.eaglercraft.v1_8.opengl.ext.dynamiclights.DynamicLightsStateManager;
 import net.lax1dude.eaglercraft.v1_8.profanity_filter.ProfanityFilter;
@@ -106,6 +107,7 @@ public abstract class Entity implements ICommandSender {
 	public boolean velocityChanged;
 	protected boolean isInWeb;
 	private boolean isOutsideBorder;
+	private CollisionBoxBuffer collisionBoxes;
 	public boolean isDead;
 	public float width;
 	public float height;
@@ -447,6 +449,23 @@ public abstract class Entity implements ICommandSender {
 		return this.worldObj.getCollidingBoundingBoxes(this, bb).isEmpty() && !this.worldObj.isAnyLiquid(bb);
 	}
 
+	/**+
+	 * Returns the collision box buffer of this entity, it is only
+	 * valid until the next collision query
+	 */
+	protected CollisionBoxBuffer getCollisionBoxBuffer() {
+		if (this.collisionBoxes == null) {
+			this.collisionBoxes = new CollisionBoxBuffer();
+		}
+		return this.collisionBoxes;
+	}
+
+	private boolean isCollisionFree(AxisAlignedBB bb) {
+		CollisionBoxBuffer buffer = this.getCollisionBoxBuffer();
+		this.worldObj.getCollisionBoxes(this, bb, buffer);
+		return buffer.isEmpty();
+	}
+
 	/**+
 	 * Tries to moves the entity by the passed in displacement.
 	 * Args: x, y, z
@@ -475,9 +494,8 @@ public abstract class Entity implements ICommandSender {
 			boolean flag = this.onGround && this.isSneaking() && this instanceof EntityPlayer;
 			if (flag) {
 				double d6;
-				for (d6 = 0.05D; x != 0.0D && this.worldObj
-						.getCollidingBoundingBoxes(this, this.getEntityBoundingBox().offset(x, -1.0D, 0.0D))
-						.isEmpty(); d3 = x) {
+				for (d6 = 0.05D; x != 0.0D
+						&& this.isCollisionFree(this.getEntityBoundingBox().offset(x, -1.0D, 0.0D)); d3 = x) {
 					if (x < d6 && x >= -d6) {
 						x = 0.0D;
 					} else if (x > 0.0D) {
@@ -487,9 +505,8 @@ public abstract class Entity implements ICommandSender {
 					}
 				}
 
-				for (; z != 0.0D && this.worldObj
-						.getCollidingBoundingBoxes(this, this.getEntityBoundingBox().offset(0.0D, -1.0D, z))
-						.isEmpty(); d5 = z) {
+				for (; z != 0.0D
+						&& this.isCollisionFree(this.getEntityBoundingBox().offset(0.0D, -1.0D, z)); d5 = z) {
 					if (z < d6 && z >= -d6) {
 						z = 0.0D;
 					} else if (z > 0.0D) {
@@ -500,9 +517,7 @@ public abstract class Entity implements ICommandSender {
 				}
 
 				for (; x != 0.0D && z != 0.0D
-						&& this.worldObj
-								.getCollidingBoundingBoxes(this, this.getEntityBoundingBox().offset(x, -1.0D, z))
-								.isEmpty(); d5 = z) {
+						&& this.isCollisionFree(this.getEntityBoundingBox().offset(x, -1.0D, z)); d5 = z) {
 					if (x < d6 && x >= -d6) {
 						x = 0.0D;
 					} else if (x > 0.0D) {
@@ -522,26 +537,20 @@ public abstract class Entity implements ICommandSender {
 				}
 			}
 
-			List<AxisAlignedBB> list1 = this.worldObj.getCollidingBoundingBoxes(this,
-					this.getEntityBoundingBox().addCoord(x, y, z));
+			CollisionBoxBuffer list1 = this.getCollisionBoxBuffer();
+			this.worldObj.getCollisionBoxes(this, this.getEntityBoundingBox().addCoord(x, y, z), list1);
 			AxisAlignedBB axisalignedbb = this.getEntityBoundingBox();
 
-			for (int i = 0, l = list1.size(); i < l; ++i) {
-				y = list1.get(i).calculateYOffset(this.getEntityBoundingBox(), y);
-			}
+			y = list1.calculateYOffset(this.getEntityBoundingBox(), y);
 
 			this.setEntityBoundingBox(this.getEntityBoundingBox().offset(0.0D, y, 0.0D));
 			boolean flag1 = this.onGround || d4 != y && d4 < 0.0D;
 
-			for (int i = 0, l = list1.size(); i < l; ++i) {
-				x = list1.get(i).calculateXOffset(this.getEntityBoundingBox(), x);
-			}
+			x = list1.calculateXOffset(this.getEntityBoundingBox(), x);
 
 			this.setEntityBoundingBox(this.getEntityBoundingBox().offset(x, 0.0D, 0.0D));
 
-			for (int i = 0, l = list1.size(); i < l; ++i) {
-				z = list1.get(i).calculateZOffset(this.getEntityBoundingBox(), z);
-			}
+			z = list1.calculateZOffset(this.getEntityBoundingBox(), z);
 
 			this.setEntityBoundingBox(this.getEntityBoundingBox().offset(0.0D, 0.0D, z));
 			if (this.stepHeight > 0.0F && flag1 && (d3 != x || d5 != z)) {
@@ -551,51 +560,39 @@ public abstract class Entity implements ICommandSender {
 				AxisAlignedBB axisalignedbb3 = this.getEntityBoundingBox();
 				this.setEntityBoundingBox(axisalignedbb);
 				y = (double) this.stepHeight;
-				List<AxisAlignedBB> list = this.worldObj.getCollidingBoundingBoxes(this,
-						this.getEntityBoundingBox().addCoord(d3, y, d5));
+				CollisionBoxBuffer list = list1;
+				this.worldObj.getCollisionBoxes(this, this.getEntityBoundingBox().addCoord(d3, y, d5), list);
 				AxisAlignedBB axisalignedbb4 = this.getEntityBoundingBox();
 				AxisAlignedBB axisalignedbb5 = axisalignedbb4.addCoord(d3, 0.0D, d5);
 				double d9 = y;
 
-				for (int i = 0, l = list.size(); i < l; ++i) {
-					d9 = list.get(i).calculateYOffset(axisalignedbb5, d9);
-				}
+				d9 = list.calculateYOffset(axisalignedbb5, d9);
 
 				axisalignedbb4 = axisalignedbb4.offset(0.0D, d9, 0.0D);
 				double d15 = d3;
 
-				for (int i = 0, l = list.size(); i < l; ++i) {
-					d15 = list.get(i).calculateXOffset(axisalignedbb4, d15);
-				}
+				d15 = list.calculateXOffset(axisalignedbb4, d15);
 
 				axisalignedbb4 = axisalignedbb4.offset(d15, 0.0D, 0.0D);
 				double d16 = d5;
 
-				for (int i = 0, l = list.size(); i < l; ++i) {
-					d16 = list.get(i).calculateZOffset(axisalignedbb4, d16);
-				}
+				d16 = list.calculateZOffset(axisalignedbb4, d16);
 
 				axisalignedbb4 = axisalignedbb4.offset(0.0D, 0.0D, d16);
 				AxisAlignedBB axisalignedbb14 = this.getEntityBoundingBox();
 				double d17 = y;
 
-				for (int i = 0, l = list.size(); i < l; ++i) {
-					d17 = list.get(i).calculateYOffset(axisalignedbb14, d17);
-				}
+				d17 = list.calculateYOffset(axisalignedbb14, d17);
 
 				axisalignedbb14 = axisalignedbb14.offset(0.0D, d17, 0.0D);
 				double d18 = d3;
 
-				for (int i = 0, l = list.size(); i < l; ++i) {
-					d18 = list.get(i).calculateXOffset(axisalignedbb14, d18);
-				}
+				d18 = list.calculateXOffset(axisalignedbb14, d18);
 
 				axisalignedbb14 = axisalignedbb14.offset(d18, 0.0D, 0.0D);
 				double d19 = d5;
 
-				for (int i = 0, l = list.size(); i < l; ++i) {
-					d19 = list.get(i).calculateZOffset(axisalignedbb14, d19);
-				}
+				d19 = list.calculateZOffset(axisalignedbb14, d19);
 
 				axisalignedbb14 = axisalignedbb14.offset(0.0D, 0.0D, d19);
 				double d20 = d15 * d15 + d16 * d16;
@@ -612,9 +609,7 @@ public abstract class Entity implements ICommandSender {
 					this.setEntityBoundingBox(axisalignedbb14);
 				}
 
-				for (int i = 0, l = list.size(); i < l; ++i) {
-					y = list.get(i).calculateYOffset(this.getEntityBoundingBox(), y);
-				}
+				y = list.calculateYOffset(this.getEntityBoundingBox(), y);
 
 				this.setEntityBoundingBox(this.getEntityBoundingBox().offset(0.0D, y, 0.0D));
 				if (d11 * d11 + d8 * d8 >= x * x + z * z) {
@@ -796,7 +791,7 @@ public abstract class Entity implements ICommandSender {
 	 * When set to true the entity will not play sounds.
 	 */
 	public void setSilent(boolean isSilent) {
-		this.dataWatcher.updateObject(4, Byte.valueOf((byte) (isSilent ? 1 : 0)));
+		this.dataWatcher.updateObjectByte(4, (byte) (isSilent ? 1 : 0));
 	}
 
 	/**+
@@ -1858,9 +1853,9 @@ public abstract class Entity implements ICommandSender {
 	protected void setFlag(int flag, boolean set) {
 		byte b0 = this.dataWatcher.getWatchableObjectByte(0);
 		if (set) {
-			this.dataWatcher.updateObject(0, Byte.valueOf((byte) (b0 | 1 << flag)));
+			this.dataWatcher.updateObjectByte(0, (byte) (b0 | 1 << flag));
 		} else {
-			this.dataWatcher.updateObject(0, Byte.valueOf((byte) (b0 & ~(1 << flag))));
+			this.dataWatcher.updateObjectByte(0, (byte) (b0 & ~(1 << flag)));
 		}
 
 	}
@@ -1870,7 +1865,7 @@ public abstract class Entity implements ICommandSender {
 	}
 
 	public void setAir(int air) {
-		this.dataWatcher.updateObject(1, Short.valueOf((short) air));
+		this.dataWatcher.updateObjectShort(1, (short) air);
 	}
 
 	/**+
@@ -2243,7 +2238,7 @@ public abstract class Entity implements ICommandSender {
 	}
 
 	public void setAlwaysRenderNameTag(boolean alwaysRenderNameTag) {
-		this.dataWatcher.updateObject(3, Byte.valueOf((byte) (alwaysRenderNameTag ? 1 : 0)));
+		this.dataWatcher.updateObjectByte(3, (byte) (alwaysRenderNameTag ? 1 : 0));
 	}
 
 	public boolean getAlwaysRenderNameTag() {
@@ -135,7 +135,7 @@ public abstract class EntityAgeable extends EntityCreature {
 	 * value the Entity is considered a child.
 	 */
 	public void setGrowingAge(int age) {
-		this.dataWatcher.updateObject(12, Byte.valueOf((byte) MathHelper.clamp_int(age, -1, 1)));
+		this.dataWatcher.updateObjectByte(12, (byte) MathHelper.clamp_int(age, -1, 1));
 		this.growingAge = age;
 		this.setScaleForAge(this.isChild());
 	}
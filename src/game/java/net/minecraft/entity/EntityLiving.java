@@ -1049,7 +1049,7 @@ public abstract class EntityLiving extends EntityLivingBase {
 	 * Set whether this Entity's AI is disabled
 	 */
 	public void setNoAI(boolean disable) {
-		this.dataWatcher.updateObject(15, Byte.valueOf((byte) (disable ? 1 : 0)));
+		this.dataWatcher.updateObjectByte(15, (byte) (disable ? 1 : 0));
 	}
 
 	/**+
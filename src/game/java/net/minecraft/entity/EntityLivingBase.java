@@ -1,15 +1,14 @@
 package net.minecraft.entity;
 
-import com.google.common.base.Predicate;
-import com.google.common.base.Predicates;
 import com.google.common.collect.Maps;
 
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 import net.lax1dude.eaglercraft.v1_8.EaglercraftRandom;
 import net.lax1dude.eaglercraft.v1_8.EaglercraftUUID;
+import net.lax1dude.eaglercraft.v1_8.minecraft.EntityQuerySite;
+import net.lax1dude.eaglercraft.v1_8.minecraft.EntityVisitor;
 import net.minecraft.block.Block;
 import net.minecraft.block.material.Material;
 import net.minecraft.block.state.IBlockState;
@@ -46,7 +45,6 @@ import net.minecraft.util.AxisAlignedBB;
 import net.minecraft.util.BlockPos;
 import net.minecraft.util.CombatTracker;
 import net.minecraft.util.DamageSource;
-import net.minecraft.util.EntitySelectors;
 import net.minecraft.util.EnumParticleTypes;
 import net.minecraft.util.MathHelper;
 import net.minecraft.util.Vec3;
@@ -74,6 +72,13 @@ import net.minecraft.world.WorldServer;
  * 
  */
 public abstract class EntityLivingBase extends Entity {
+	private static final EntityQuerySite collideQuery = EntityQuerySite.create("livingCollide");
+	private final EntityVisitor<Entity> collideVisitor = (entity) -> {
+		if (entity.canBePushed()) {
+			this.collideWithEntity(entity);
+		}
+		return true;
+	};
 	private static final EaglercraftUUID sprintingSpeedBoostModifierUUID = EaglercraftUUID
 			.fromString("662A6B8D-DA3E-4C1C-8813-96EA6097278D");
 	private static final AttributeModifier sprintingSpeedBoostModifier = (new AttributeModifier(
@@ -559,9 +564,9 @@ public abstract class EntityLivingBase extends Entity {
 			this.setInvisible(false);
 		} else {
 			int i = PotionHelper.calcPotionLiquidColor(this.activePotionsMap.values());
-			this.dataWatcher.updateObject(8,
-					Byte.valueOf((byte) (PotionHelper.getAreAmbient(this.activePotionsMap.values()) ? 1 : 0)));
-			this.dataWatcher.updateObject(7, Integer.valueOf(i));
+			this.dataWatcher.updateObjectByte(8,
+					(byte) (PotionHelper.getAreAmbient(this.activePotionsMap.values()) ? 1 : 0));
+			this.dataWatcher.updateObjectInt(7, i);
 			this.setInvisible(this.isPotionActive(Potion.invisibility.id));
 		}
 
@@ -571,8 +576,8 @@ public abstract class EntityLivingBase extends Entity {
 	 * Resets the potion effect color and ambience metadata values
 	 */
 	protected void resetPotionEffectMetadata() {
-		this.dataWatcher.updateObject(8, Byte.valueOf((byte) 0));
-		this.dataWatcher.updateObject(7, Integer.valueOf(0));
+		this.dataWatcher.updateObjectByte(8, (byte) 0);
+		this.dataWatcher.updateObjectInt(7, 0);
 	}
 
 	public void clearActivePotions() {
@@ -708,7 +713,7 @@ public abstract class EntityLivingBase extends Entity {
 	}
 
 	public void setHealth(float health) {
-		this.dataWatcher.updateObject(6, Float.valueOf(MathHelper.clamp_float(health, 0.0F, this.getMaxHealth())));
+		this.dataWatcher.updateObjectFloat(6, MathHelper.clamp_float(health, 0.0F, this.getMaxHealth()));
 	}
 
 	/**+
@@ -1087,7 +1092,7 @@ public abstract class EntityLivingBase extends Entity {
 	 * rendering those
 	 */
 	public final void setArrowCountInEntity(int count) {
-		this.dataWatcher.updateObject(9, Byte.valueOf((byte) count));
+		this.dataWatcher.updateObjectByte(9, (byte) count);
 	}
 
 	/**+
@@ -1665,19 +1670,9 @@ public abstract class EntityLivingBase extends Entity {
 	}
 
 	protected void collideWithNearbyEntities() {
-		List list = this.worldObj.getEntitiesInAABBexcluding(this,
+		this.worldObj.visitEntitiesWithinAABBExcludingEntity(collideQuery, this,
 				this.getEntityBoundingBox().expand(0.20000000298023224D, 0.0D, 0.20000000298023224D),
-				Predicates.and(EntitySelectors.NOT_SPECTATING, new Predicate<Entity>() {
-					public boolean apply(Entity entity1) {
-						return entity1.canBePushed();
-					}
-				}));
-		if (!list.isEmpty()) {
-			for (int i = 0; i < list.size(); ++i) {
-				Entity entity = (Entity) list.get(i);
-				this.collideWithEntity(entity);
-			}
-		}
+				this.collideVisitor);
 
 	}
 
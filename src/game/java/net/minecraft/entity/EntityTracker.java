@@ -2,7 +2,10 @@ package net.minecraft.entity;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.collect.Maps;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import net.minecraft.crash.CrashReport;
@@ -24,6 +27,7 @@ import net.minecraft.entity.item.EntityXPOrb;
 import net.minecraft.entity.passive.EntityBat;
 import net.minecraft.entity.passive.EntitySquid;
 import net.minecraft.entity.passive.IAnimals;
+import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.entity.projectile.EntityArrow;
 import net.minecraft.entity.projectile.EntityEgg;
@@ -34,11 +38,14 @@ import net.minecraft.entity.projectile.EntitySmallFireball;
 import net.minecraft.entity.projectile.EntitySnowball;
 import net.minecraft.network.Packet;
 import net.minecraft.util.IntHashMap;
+import net.minecraft.util.MathHelper;
 import net.minecraft.util.ReportedException;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.chunk.Chunk;
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerMinecraftServer;
+import net.lax1dude.eaglercraft.v1_8.sp.server.SpatialCellIndex;
 
 /**+
  * This portion of EaglercraftX contains deobfuscated Minecraft 1.8 source code.
@@ -73,6 +80,18 @@ public class EntityTracker {
 	 */
 	private IntHashMap<EntityTrackerEntry> trackedEntityHashTable = new IntHashMap();
 	private int maxTrackingDistanceThreshold;
+	/**+
+	 * Tracked entries by their encoded position and players by their
+	 * position, so range checks only have to consider the cells nearby
+	 */
+	private final SpatialCellIndex<EntityTrackerEntry> entryCells = new SpatialCellIndex<>(5);
+	private final SpatialCellIndex<EntityPlayerMP> playerCells = new SpatialCellIndex<>(5);
+	/**+
+	 * The entries each player is currently tracking
+	 */
+	private final Map<EntityPlayerMP, Set<EntityTrackerEntry>> trackedByPlayer = Maps.newHashMap();
+	private final List<EntityPlayerMP> tmpPlayerList = Lists.newArrayList();
+	private final List<EntityTrackerEntry> tmpEntryList = Lists.newArrayList();
 
 	public EntityTracker(WorldServer theWorldIn) {
 		this.theWorld = theWorldIn;
@@ -84,12 +103,8 @@ public class EntityTracker {
 		if (parEntity instanceof EntityPlayerMP) {
 			this.trackEntity(parEntity, 512, 2);
 			EntityPlayerMP entityplayermp = (EntityPlayerMP) parEntity;
-
-			for (EntityTrackerEntry entitytrackerentry : this.trackedEntities) {
-				if (entitytrackerentry.trackedEntity != entityplayermp) {
-					entitytrackerentry.updatePlayerEntity(entityplayermp);
-				}
-			}
+			this.updatePlayerCell(entityplayermp);
+			this.updateEntriesNear(entityplayermp);
 		} else if (parEntity instanceof EntityFishHook) {
 			this.addEntityToTracker(parEntity, 64, 5, true);
 		} else if (parEntity instanceof EntityArrow) {
@@ -165,8 +180,12 @@ public class EntityTracker {
 
 			EntityTrackerEntry entitytrackerentry = new EntityTrackerEntry(entityIn, trackingRange, updateFrequency,
 					sendVelocityUpdates);
+			entitytrackerentry.tracker = this;
 			this.trackedEntities.add(entitytrackerentry);
 			this.trackedEntityHashTable.addKey(entityIn.getEntityId(), entitytrackerentry);
+			entitytrackerentry.trackerCellX = this.entryCells.toCell(entitytrackerentry.encodedPosX / 32);
+			entitytrackerentry.trackerCellZ = this.entryCells.toCell(entitytrackerentry.encodedPosZ / 32);
+			this.entryCells.add(entitytrackerentry, entitytrackerentry.trackerCellX, entitytrackerentry.trackerCellZ);
 			entitytrackerentry.updatePlayerEntities(this.theWorld.playerEntities);
 		} catch (Throwable throwable) {
 			CrashReport crashreport = CrashReport.makeCrashReport(throwable, "Adding entity to track");
@@ -199,9 +218,16 @@ public class EntityTracker {
 	public void untrackEntity(Entity entityIn) {
 		if (entityIn instanceof EntityPlayerMP) {
 			EntityPlayerMP entityplayermp = (EntityPlayerMP) entityIn;
-
-			for (EntityTrackerEntry entitytrackerentry : this.trackedEntities) {
-				entitytrackerentry.removeFromTrackedPlayers(entityplayermp);
+			Set<EntityTrackerEntry> set = this.trackedByPlayer.get(entityplayermp);
+			if (set != null) {
+				List<EntityTrackerEntry> lst = this.tmpEntryList;
+				lst.clear();
+				lst.addAll(set);
+				for (int i = 0, l = lst.size(); i < l; ++i) {
+					lst.get(i).removeFromTrackedPlayers(entityplayermp);
+				}
+				lst.clear();
+				this.trackedByPlayer.remove(entityplayermp);
 			}
 		}
 
@@ -209,43 +235,161 @@ public class EntityTracker {
 				.removeObject(entityIn.getEntityId());
 		if (entitytrackerentry1 != null) {
 			this.trackedEntities.remove(entitytrackerentry1);
+			this.entryCells.remove(entitytrackerentry1, entitytrackerentry1.trackerCellX,
+					entitytrackerentry1.trackerCellZ);
+			if (entitytrackerentry1.playerCellIndexed) {
+				this.playerCells.remove((EntityPlayerMP) entitytrackerentry1.trackedEntity,
+						entitytrackerentry1.playerCellX, entitytrackerentry1.playerCellZ);
+				entitytrackerentry1.playerCellIndexed = false;
+			}
 			entitytrackerentry1.sendDestroyEntityPacketToTrackedPlayers();
+			List<EntityPlayerMP> lst = this.tmpPlayerList;
+			int start = lst.size();
+			lst.addAll(entitytrackerentry1.trackingPlayers);
+			for (int i = start, l = lst.size(); i < l; ++i) {
+				this.onStopTracking(entitytrackerentry1, lst.get(i));
+			}
+			while (lst.size() > start) {
+				lst.remove(lst.size() - 1);
+			}
+			entitytrackerentry1.tracker = null;
 		}
 
 	}
 
 	public void updateTrackedEntities() {
+		long start = System.nanoTime();
+		this.theWorld.theProfiler.startSection("playerCells");
+		List<EntityPlayer> players = this.theWorld.playerEntities;
+		for (int i = 0, l = players.size(); i < l; ++i) {
+			this.updatePlayerCell((EntityPlayerMP) players.get(i));
+		}
+
+		this.theWorld.theProfiler.endStartSection("entries");
 		ArrayList arraylist = Lists.newArrayList();
 
 		for (EntityTrackerEntry entitytrackerentry : this.trackedEntities) {
-			entitytrackerentry.updatePlayerList(this.theWorld.playerEntities);
+			entitytrackerentry.updatePlayerList(players);
+			int cx = this.entryCells.toCell(entitytrackerentry.encodedPosX / 32);
+			int cz = this.entryCells.toCell(entitytrackerentry.encodedPosZ / 32);
+			if (cx != entitytrackerentry.trackerCellX || cz != entitytrackerentry.trackerCellZ) {
+				this.entryCells.move(entitytrackerentry, entitytrackerentry.trackerCellX,
+						entitytrackerentry.trackerCellZ, cx, cz);
+				entitytrackerentry.trackerCellX = cx;
+				entitytrackerentry.trackerCellZ = cz;
+			}
 			if (entitytrackerentry.playerEntitiesUpdated
 					&& entitytrackerentry.trackedEntity instanceof EntityPlayerMP) {
 				arraylist.add((EntityPlayerMP) entitytrackerentry.trackedEntity);
 			}
 		}
 
+		this.theWorld.theProfiler.endStartSection("players");
 		for (int i = 0; i < arraylist.size(); ++i) {
-			EntityPlayerMP entityplayermp = (EntityPlayerMP) arraylist.get(i);
+			this.updateEntriesNear((EntityPlayerMP) arraylist.get(i));
+		}
 
-			for (EntityTrackerEntry entitytrackerentry1 : this.trackedEntities) {
-				if (entitytrackerentry1.trackedEntity != entityplayermp) {
-					entitytrackerentry1.updatePlayerEntity(entityplayermp);
-				}
+		this.theWorld.theProfiler.endSection();
+		EaglerMinecraftServer.counterTrackerNanos += System.nanoTime() - start;
+	}
+
+	/**+
+	 * Same as calling updatePlayerEntity on the entry for every
+	 * player in the world, but only visits the players that are
+	 * tracking it or are within its tracking range
+	 */
+	void updatePlayersNear(EntityTrackerEntry entry) {
+		List<EntityPlayerMP> lst = this.tmpPlayerList;
+		int start = lst.size();
+		lst.addAll(entry.trackingPlayers);
+		int x = entry.encodedPosX / 32;
+		int z = entry.encodedPosZ / 32;
+		int r = entry.trackingDistanceThreshold;
+		int tracking = lst.size();
+		this.playerCells.collect(x - r, z - r, x + r, z + r, lst);
+		for (int i = tracking, l = lst.size(); i < l; ++i) {
+			EntityPlayerMP entityplayermp = lst.get(i);
+			if (!entry.trackingPlayers.contains(entityplayermp)) {
+				entry.updatePlayerEntity(entityplayermp);
 			}
 		}
+		for (int i = start; i < tracking; ++i) {
+			entry.updatePlayerEntity(lst.get(i));
+		}
+		EaglerMinecraftServer.counterTrackerChecks += lst.size() - start;
+		while (lst.size() > start) {
+			lst.remove(lst.size() - 1);
+		}
+	}
 
+	/**+
+	 * Same as calling updatePlayerEntity on every entry with the
+	 * player, but only visits the entries that the player is
+	 * tracking or could be in range of the player
+	 */
+	private void updateEntriesNear(EntityPlayerMP player) {
+		List<EntityTrackerEntry> lst = this.tmpEntryList;
+		lst.clear();
+		Set<EntityTrackerEntry> set = this.trackedByPlayer.get(player);
+		if (set != null) {
+			lst.addAll(set);
+		}
+		int tracking = lst.size();
+		int x = MathHelper.floor_double(player.posX);
+		int z = MathHelper.floor_double(player.posZ);
+		int r = this.maxTrackingDistanceThreshold;
+		this.entryCells.collect(x - r, z - r, x + r, z + r, lst);
+		for (int i = 0, l = lst.size(); i < l; ++i) {
+			EntityTrackerEntry entry = lst.get(i);
+			if (entry.trackedEntity != player && (i < tracking || !entry.trackingPlayers.contains(player))) {
+				entry.updatePlayerEntity(player);
+			}
+		}
+		EaglerMinecraftServer.counterTrackerChecks += lst.size();
+		lst.clear();
 	}
 
-	public void func_180245_a(EntityPlayerMP parEntityPlayerMP) {
-		for (EntityTrackerEntry entitytrackerentry : this.trackedEntities) {
-			if (entitytrackerentry.trackedEntity == parEntityPlayerMP) {
-				entitytrackerentry.updatePlayerEntities(this.theWorld.playerEntities);
+	private void updatePlayerCell(EntityPlayerMP player) {
+		EntityTrackerEntry entry = this.trackedEntityHashTable.lookup(player.getEntityId());
+		if (entry != null) {
+			int cx = this.playerCells.toCell(MathHelper.floor_double(player.posX));
+			int cz = this.playerCells.toCell(MathHelper.floor_double(player.posZ));
+			if (!entry.playerCellIndexed) {
+				this.playerCells.add(player, cx, cz);
+				entry.playerCellIndexed = true;
+			} else if (cx != entry.playerCellX || cz != entry.playerCellZ) {
+				this.playerCells.move(player, entry.playerCellX, entry.playerCellZ, cx, cz);
 			} else {
-				entitytrackerentry.updatePlayerEntity(parEntityPlayerMP);
+				return;
 			}
+			entry.playerCellX = cx;
+			entry.playerCellZ = cz;
+		}
+	}
+
+	void onStartTracking(EntityTrackerEntry entry, EntityPlayerMP player) {
+		Set<EntityTrackerEntry> set = this.trackedByPlayer.get(player);
+		if (set == null) {
+			set = Sets.newHashSet();
+			this.trackedByPlayer.put(player, set);
 		}
+		set.add(entry);
+	}
 
+	void onStopTracking(EntityTrackerEntry entry, EntityPlayerMP player) {
+		Set<EntityTrackerEntry> set = this.trackedByPlayer.get(player);
+		if (set != null) {
+			set.remove(entry);
+		}
+	}
+
+	public void func_180245_a(EntityPlayerMP parEntityPlayerMP) {
+		EntityTrackerEntry entitytrackerentry = this.trackedEntityHashTable.lookup(parEntityPlayerMP.getEntityId());
+		if (entitytrackerentry != null) {
+			entitytrackerentry.updatePlayerEntities(this.theWorld.playerEntities);
+		}
+		this.updatePlayerCell(parEntityPlayerMP);
+		this.updateEntriesNear(parEntityPlayerMP);
 	}
 
 	public void sendToAllTrackingEntity(Entity entityIn, Packet parPacket) {
@@ -267,8 +411,15 @@ public class EntityTracker {
 	}
 
 	public void removePlayerFromTrackers(EntityPlayerMP parEntityPlayerMP) {
-		for (EntityTrackerEntry entitytrackerentry : this.trackedEntities) {
-			entitytrackerentry.removeTrackedPlayerSymmetric(parEntityPlayerMP);
+		Set<EntityTrackerEntry> set = this.trackedByPlayer.get(parEntityPlayerMP);
+		if (set != null) {
+			List<EntityTrackerEntry> lst = this.tmpEntryList;
+			lst.clear();
+			lst.addAll(set);
+			for (int i = 0, l = lst.size(); i < l; ++i) {
+				lst.get(i).removeTrackedPlayerSymmetric(parEntityPlayerMP);
+			}
+			lst.clear();
 		}
 
 	}
@@ -283,4 +434,4 @@ public class EntityTracker {
 		}
 
 	}
-}
\ No newline at end of file
+}
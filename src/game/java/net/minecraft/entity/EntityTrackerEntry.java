@@ -109,6 +109,16 @@ public class EntityTrackerEntry {
 	 * receiving position updates for this entity.
 	 */
 	public Set<EntityPlayerMP> trackingPlayers = Sets.newHashSet();
+	/**+
+	 * The tracker that owns this entry, it is notified when players
+	 * start or stop tracking the entity so it can index them
+	 */
+	EntityTracker tracker;
+	int trackerCellX;
+	int trackerCellZ;
+	int playerCellX;
+	int playerCellZ;
+	boolean playerCellIndexed;
 
 	public EntityTrackerEntry(Entity trackedEntityIn, int trackingDistanceThresholdIn, int updateFrequencyIn,
 			boolean sendVelocityUpdatesIn) {
@@ -144,7 +154,11 @@ public class EntityTrackerEntry {
 			this.lastTrackedEntityPosZ = this.trackedEntity.posZ;
 			this.firstUpdateDone = true;
 			this.playerEntitiesUpdated = true;
-			this.updatePlayerEntities(parList);
+			if (this.tracker != null) {
+				this.tracker.updatePlayersNear(this);
+			} else {
+				this.updatePlayerEntities(parList);
+			}
 		}
 
 		if (this.field_85178_v != this.trackedEntity.ridingEntity
@@ -334,9 +348,11 @@ public class EntityTrackerEntry {
 	}
 
 	public void removeFromTrackedPlayers(EntityPlayerMP playerMP) {
-		if (this.trackingPlayers.contains(playerMP)) {
+		if (this.trackingPlayers.remove(playerMP)) {
 			playerMP.removeEntity(this.trackedEntity);
-			this.trackingPlayers.remove(playerMP);
+			if (this.tracker != null) {
+				this.tracker.onStopTracking(this, playerMP);
+			}
 		}
 
 	}
@@ -347,6 +363,9 @@ public class EntityTrackerEntry {
 				if (!this.trackingPlayers.contains(playerMP)
 						&& (this.isPlayerWatchingThisChunk(playerMP) || this.trackedEntity.forceSpawn)) {
 					this.trackingPlayers.add(playerMP);
+					if (this.tracker != null) {
+						this.tracker.onStartTracking(this, playerMP);
+					}
 					Packet packet = this.func_151260_c();
 					playerMP.playerNetServerHandler.sendPacket(packet);
 					if (!this.trackedEntity.getDataWatcher().getIsBlank()) {
@@ -417,9 +436,11 @@ public class EntityTrackerEntry {
 						}
 					}
 				}
-			} else if (this.trackingPlayers.contains(playerMP)) {
-				this.trackingPlayers.remove(playerMP);
+			} else if (this.trackingPlayers.remove(playerMP)) {
 				playerMP.removeEntity(this.trackedEntity);
+				if (this.tracker != null) {
+					this.tracker.onStopTracking(this, playerMP);
+				}
 			}
 
 		}
@@ -547,9 +568,11 @@ public class EntityTrackerEntry {
 	 * player to destroy us from their world.
 	 */
 	public void removeTrackedPlayerSymmetric(EntityPlayerMP playerMP) {
-		if (this.trackingPlayers.contains(playerMP)) {
-			this.trackingPlayers.remove(playerMP);
+		if (this.trackingPlayers.remove(playerMP)) {
 			playerMP.removeEntity(this.trackedEntity);
+			if (this.tracker != null) {
+				this.tracker.onStopTracking(this, playerMP);
+			}
 		}
 
 	}
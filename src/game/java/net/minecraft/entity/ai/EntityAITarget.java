@@ -167,7 +167,12 @@ public abstract class EntityAITarget extends EntityAIBase {
 				}
 
 				if (this.targetSearchStatus == 0) {
-					this.targetSearchStatus = this.canEasilyReach(target) ? 1 : 2;
+					boolean flag = this.canEasilyReach(target);
+					if (this.taskOwner.getNavigator().isPathDeferred()) {
+						return false;
+					}
+
+					this.targetSearchStatus = flag ? 1 : 2;
 				}
 
 				if (this.targetSearchStatus == 2) {
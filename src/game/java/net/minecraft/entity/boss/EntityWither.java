@@ -553,7 +553,7 @@ public class EntityWither extends EntityMob implements IBossDisplayData, IRanged
 	}
 
 	public void setInvulTime(int parInt1) {
-		this.dataWatcher.updateObject(20, Integer.valueOf(parInt1));
+		this.dataWatcher.updateObjectInt(20, parInt1);
 	}
 
 	/**+
@@ -568,7 +568,7 @@ public class EntityWither extends EntityMob implements IBossDisplayData, IRanged
 	 * Updates the target entity ID
 	 */
 	public void updateWatchedTargetId(int targetOffset, int newId) {
-		this.dataWatcher.updateObject(17 + targetOffset, Integer.valueOf(newId));
+		this.dataWatcher.updateObjectInt(17 + targetOffset, newId);
 	}
 
 	/**+
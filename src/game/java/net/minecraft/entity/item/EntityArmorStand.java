@@ -659,7 +659,7 @@ public class EntityArmorStand extends EntityLivingBase {
 			b0 = (byte) (b0 & -2);
 		}
 
-		this.dataWatcher.updateObject(10, Byte.valueOf(b0));
+		this.dataWatcher.updateObjectByte(10, b0);
 	}
 
 	public boolean isSmall() {
@@ -674,7 +674,7 @@ public class EntityArmorStand extends EntityLivingBase {
 			b0 = (byte) (b0 & -3);
 		}
 
-		this.dataWatcher.updateObject(10, Byte.valueOf(b0));
+		this.dataWatcher.updateObjectByte(10, b0);
 	}
 
 	public boolean hasNoGravity() {
@@ -689,7 +689,7 @@ public class EntityArmorStand extends EntityLivingBase {
 			b0 = (byte) (b0 & -5);
 		}
 
-		this.dataWatcher.updateObject(10, Byte.valueOf(b0));
+		this.dataWatcher.updateObjectByte(10, b0);
 	}
 
 	public boolean getShowArms() {
@@ -704,7 +704,7 @@ public class EntityArmorStand extends EntityLivingBase {
 			b0 = (byte) (b0 & -9);
 		}
 
-		this.dataWatcher.updateObject(10, Byte.valueOf(b0));
+		this.dataWatcher.updateObjectByte(10, b0);
 	}
 
 	public boolean hasNoBasePlate() {
@@ -719,7 +719,7 @@ public class EntityArmorStand extends EntityLivingBase {
 			b0 = (byte) (b0 & -17);
 		}
 
-		this.dataWatcher.updateObject(10, Byte.valueOf(b0));
+		this.dataWatcher.updateObjectByte(10, b0);
 	}
 
 	public boolean func_181026_s() {
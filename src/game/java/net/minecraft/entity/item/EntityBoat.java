@@ -497,7 +497,7 @@ public class EntityBoat extends Entity {
 	 * Sets the damage taken from the last hit.
 	 */
 	public void setDamageTaken(float parFloat1) {
-		this.dataWatcher.updateObject(19, Float.valueOf(parFloat1));
+		this.dataWatcher.updateObjectFloat(19, parFloat1);
 	}
 
 	/**+
@@ -512,7 +512,7 @@ public class EntityBoat extends Entity {
 	 * was hit.
 	 */
 	public void setTimeSinceHit(int parInt1) {
-		this.dataWatcher.updateObject(17, Integer.valueOf(parInt1));
+		this.dataWatcher.updateObjectInt(17, parInt1);
 	}
 
 	/**+
@@ -526,7 +526,7 @@ public class EntityBoat extends Entity {
 	 * Sets the forward direction of the entity.
 	 */
 	public void setForwardDirection(int parInt1) {
-		this.dataWatcher.updateObject(18, Integer.valueOf(parInt1));
+		this.dataWatcher.updateObjectInt(18, parInt1);
 	}
 
 	/**+
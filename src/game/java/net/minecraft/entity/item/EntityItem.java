@@ -1,8 +1,9 @@
 package net.minecraft.entity.item;
 
-import java.util.List;
 
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
+import net.lax1dude.eaglercraft.v1_8.minecraft.EntityQuerySite;
+import net.lax1dude.eaglercraft.v1_8.minecraft.EntityVisitor;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
 import net.minecraft.block.material.Material;
 import net.minecraft.client.Minecraft;
@@ -42,6 +43,11 @@ import net.minecraft.world.World;
  */
 public class EntityItem extends Entity {
 	private static final Logger logger = LogManager.getLogger();
+	private static final EntityQuerySite mergeQuery = EntityQuerySite.create("itemMerge");
+	private final EntityVisitor<EntityItem> mergeVisitor = (entityitem) -> {
+		this.combineItems(entityitem);
+		return true;
+	};
 	private int age;
 	private int delayBeforeCanPickup;
 	private int health;
@@ -152,11 +158,8 @@ public class EntityItem extends Entity {
 	 * together
 	 */
 	private void searchForOtherItemsNearby() {
-		List<EntityItem> lst = this.worldObj.getEntitiesWithinAABB(EntityItem.class,
-				this.getEntityBoundingBox().expand(0.5D, 0.0D, 0.5D));
-		for (int i = 0, l = lst.size(); i < l; ++i) {
-			this.combineItems(lst.get(i));
-		}
+		this.worldObj.visitEntitiesWithinAABB(mergeQuery, EntityItem.class,
+				this.getEntityBoundingBox().expand(0.5D, 0.0D, 0.5D), this.mergeVisitor);
 
 	}
 
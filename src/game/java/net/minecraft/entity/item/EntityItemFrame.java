@@ -179,7 +179,7 @@ public class EntityItemFrame extends EntityHanging {
 	}
 
 	private void func_174865_a(int parInt1, boolean parFlag) {
-		this.getDataWatcher().updateObject(9, Byte.valueOf((byte) (parInt1 % 8)));
+		this.getDataWatcher().updateObjectByte(9, (byte) (parInt1 % 8));
 		if (parFlag && this.hangingPosition != null) {
 			this.worldObj.updateComparatorOutputLevel(this.hangingPosition, Blocks.air);
 		}
@@ -843,7 +843,7 @@ public abstract class EntityMinecart extends Entity implements IWorldNameable {
 	 * Decreases over time. The cart breaks when this is over 40.
 	 */
 	public void setDamage(float parFloat1) {
-		this.dataWatcher.updateObject(19, Float.valueOf(parFloat1));
+		this.dataWatcher.updateObjectFloat(19, parFloat1);
 	}
 
 	/**+
@@ -859,7 +859,7 @@ public abstract class EntityMinecart extends Entity implements IWorldNameable {
 	 * attacked.
 	 */
 	public void setRollingAmplitude(int parInt1) {
-		this.dataWatcher.updateObject(17, Integer.valueOf(parInt1));
+		this.dataWatcher.updateObjectInt(17, parInt1);
 	}
 
 	/**+
@@ -875,7 +875,7 @@ public abstract class EntityMinecart extends Entity implements IWorldNameable {
 	 * attacked. Can be 1 or -1.
 	 */
 	public void setRollingDirection(int parInt1) {
-		this.dataWatcher.updateObject(18, Integer.valueOf(parInt1));
+		this.dataWatcher.updateObjectInt(18, parInt1);
 	}
 
 	/**+
@@ -907,12 +907,12 @@ public abstract class EntityMinecart extends Entity implements IWorldNameable {
 	}
 
 	public void func_174899_a(IBlockState parIBlockState) {
-		this.getDataWatcher().updateObject(20, Integer.valueOf(Block.getStateId(parIBlockState)));
+		this.getDataWatcher().updateObjectInt(20, Block.getStateId(parIBlockState));
 		this.setHasDisplayTile(true);
 	}
 
 	public void setDisplayTileOffset(int parInt1) {
-		this.getDataWatcher().updateObject(21, Integer.valueOf(parInt1));
+		this.getDataWatcher().updateObjectInt(21, parInt1);
 		this.setHasDisplayTile(true);
 	}
 
@@ -921,7 +921,7 @@ public abstract class EntityMinecart extends Entity implements IWorldNameable {
 	}
 
 	public void setHasDisplayTile(boolean parFlag) {
-		this.getDataWatcher().updateObject(22, Byte.valueOf((byte) (parFlag ? 1 : 0)));
+		this.getDataWatcher().updateObjectByte(22, (byte) (parFlag ? 1 : 0));
 	}
 
 	/**+
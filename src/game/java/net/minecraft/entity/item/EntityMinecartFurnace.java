@@ -178,9 +178,9 @@ public class EntityMinecartFurnace extends EntityMinecart {
 
 	protected void setMinecartPowered(boolean parFlag) {
 		if (parFlag) {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) (this.dataWatcher.getWatchableObjectByte(16) | 1)));
+			this.dataWatcher.updateObjectByte(16, (byte) (this.dataWatcher.getWatchableObjectByte(16) | 1));
 		} else {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) (this.dataWatcher.getWatchableObjectByte(16) & -2)));
+			this.dataWatcher.updateObjectByte(16, (byte) (this.dataWatcher.getWatchableObjectByte(16) & -2));
 		}
 
 	}
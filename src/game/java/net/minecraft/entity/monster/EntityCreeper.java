@@ -116,7 +116,7 @@ public class EntityCreeper extends EntityMob {
 	 */
 	public void readEntityFromNBT(NBTTagCompound nbttagcompound) {
 		super.readEntityFromNBT(nbttagcompound);
-		this.dataWatcher.updateObject(17, Byte.valueOf((byte) (nbttagcompound.getBoolean("powered") ? 1 : 0)));
+		this.dataWatcher.updateObjectByte(17, (byte) (nbttagcompound.getBoolean("powered") ? 1 : 0));
 		if (nbttagcompound.hasKey("Fuse", 99)) {
 			this.fuseTime = nbttagcompound.getShort("Fuse");
 		}
@@ -229,7 +229,7 @@ public class EntityCreeper extends EntityMob {
 	 * Sets the state of creeper, -1 to idle and 1 to be 'in fuse'
 	 */
 	public void setCreeperState(int state) {
-		this.dataWatcher.updateObject(16, Byte.valueOf((byte) state));
+		this.dataWatcher.updateObjectByte(16, (byte) state);
 	}
 
 	/**+
@@ -237,7 +237,7 @@ public class EntityCreeper extends EntityMob {
 	 */
 	public void onStruckByLightning(EntityLightningBolt entitylightningbolt) {
 		super.onStruckByLightning(entitylightningbolt);
-		this.dataWatcher.updateObject(17, Byte.valueOf((byte) 1));
+		this.dataWatcher.updateObjectByte(17, (byte) 1);
 	}
 
 	/**+
@@ -280,7 +280,7 @@ public class EntityCreeper extends EntityMob {
 	}
 
 	public void ignite() {
-		this.dataWatcher.updateObject(18, Byte.valueOf((byte) 1));
+		this.dataWatcher.updateObjectByte(18, (byte) 1);
 	}
 
 	/**+
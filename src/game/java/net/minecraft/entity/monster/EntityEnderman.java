@@ -328,7 +328,7 @@ public class EntityEnderman extends EntityMob {
 	 * Sets this enderman's held block state
 	 */
 	public void setHeldBlockState(IBlockState state) {
-		this.dataWatcher.updateObject(16, Short.valueOf((short) (Block.getStateId(state) & '\uffff')));
+		this.dataWatcher.updateObjectShort(16, (short) (Block.getStateId(state) & '\uffff'));
 	}
 
 	/**+
@@ -386,7 +386,7 @@ public class EntityEnderman extends EntityMob {
 	}
 
 	public void setScreaming(boolean screaming) {
-		this.dataWatcher.updateObject(18, Byte.valueOf((byte) (screaming ? 1 : 0)));
+		this.dataWatcher.updateObjectByte(18, (byte) (screaming ? 1 : 0));
 	}
 
 	public static void bootstrap() {
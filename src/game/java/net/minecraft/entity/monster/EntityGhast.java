@@ -64,7 +64,7 @@ public class EntityGhast extends EntityFlying implements IMob {
 	}
 
 	public void setAttacking(boolean parFlag) {
-		this.dataWatcher.updateObject(16, Byte.valueOf((byte) (parFlag ? 1 : 0)));
+		this.dataWatcher.updateObjectByte(16, (byte) (parFlag ? 1 : 0));
 	}
 
 	public int getFireballStrength() {
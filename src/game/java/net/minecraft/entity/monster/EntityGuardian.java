@@ -142,9 +142,9 @@ public class EntityGuardian extends EntityMob {
 	private void setSyncedFlag(int flagId, boolean state) {
 		int i = this.dataWatcher.getWatchableObjectInt(16);
 		if (state) {
-			this.dataWatcher.updateObject(16, Integer.valueOf(i | flagId));
+			this.dataWatcher.updateObjectInt(16, i | flagId);
 		} else {
-			this.dataWatcher.updateObject(16, Integer.valueOf(i & ~flagId));
+			this.dataWatcher.updateObjectInt(16, i & ~flagId);
 		}
 
 	}
@@ -190,7 +190,7 @@ public class EntityGuardian extends EntityMob {
 	}
 
 	private void setTargetedEntity(int entityId) {
-		this.dataWatcher.updateObject(17, Integer.valueOf(entityId));
+		this.dataWatcher.updateObjectInt(17, entityId);
 	}
 
 	public boolean hasTargetedEntity() {
@@ -266,9 +266,9 @@ public class EntityIronGolem extends EntityGolem {
 	public void setPlayerCreated(boolean parFlag) {
 		byte b0 = this.dataWatcher.getWatchableObjectByte(16);
 		if (parFlag) {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) (b0 | 1)));
+			this.dataWatcher.updateObjectByte(16, (byte) (b0 | 1));
 		} else {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) (b0 & -2)));
+			this.dataWatcher.updateObjectByte(16, (byte) (b0 & -2));
 		}
 
 	}
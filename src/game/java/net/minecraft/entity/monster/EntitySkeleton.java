@@ -342,7 +342,7 @@ public class EntitySkeleton extends EntityMob implements IRangedAttackMob {
 	 * Set this skeleton's type.
 	 */
 	public void setSkeletonType(int parInt1) {
-		this.dataWatcher.updateObject(13, Byte.valueOf((byte) parInt1));
+		this.dataWatcher.updateObjectByte(13, (byte) parInt1);
 		this.isImmuneToFire = parInt1 == 1;
 		if (parInt1 == 1) {
 			this.setSize(0.72F, 2.535F);
@@ -68,7 +68,7 @@ public class EntitySlime extends EntityLiving implements IMob {
 	}
 
 	protected void setSlimeSize(int size) {
-		this.dataWatcher.updateObject(16, Byte.valueOf((byte) size));
+		this.dataWatcher.updateObjectByte(16, (byte) size);
 		this.setSize(0.51000005F * (float) size, 0.51000005F * (float) size);
 		this.setPosition(this.posX, this.posY, this.posZ);
 		this.getEntityAttribute(SharedMonsterAttributes.maxHealth).setBaseValue((double) (size * size));
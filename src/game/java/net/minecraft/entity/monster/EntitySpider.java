@@ -185,7 +185,7 @@ public class EntitySpider extends EntityMob {
 			b0 = (byte) (b0 & -2);
 		}
 
-		this.dataWatcher.updateObject(16, Byte.valueOf(b0));
+		this.dataWatcher.updateObjectByte(16, b0);
 	}
 
 	/**+
@@ -101,7 +101,7 @@ public class EntityWitch extends EntityMob implements IRangedAttackMob {
 	 * Set whether this witch is aggressive at an entity.
 	 */
 	public void setAggressive(boolean aggressive) {
-		this.getDataWatcher().updateObject(21, Byte.valueOf((byte) (aggressive ? 1 : 0)));
+		this.getDataWatcher().updateObjectByte(21, (byte) (aggressive ? 1 : 0));
 	}
 
 	/**+
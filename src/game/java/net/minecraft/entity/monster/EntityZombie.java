@@ -176,7 +176,7 @@ public class EntityZombie extends EntityMob {
 	 * Set whether this zombie is a child.
 	 */
 	public void setChild(boolean childZombie) {
-		this.getDataWatcher().updateObject(12, Byte.valueOf((byte) (childZombie ? 1 : 0)));
+		this.getDataWatcher().updateObjectByte(12, (byte) (childZombie ? 1 : 0));
 		if (this.worldObj != null && !this.worldObj.isRemote) {
 			IAttributeInstance iattributeinstance = this.getEntityAttribute(SharedMonsterAttributes.movementSpeed);
 			iattributeinstance.removeModifier(babySpeedBoostModifier);
@@ -199,7 +199,7 @@ public class EntityZombie extends EntityMob {
 	 * Set whether this zombie is a villager.
 	 */
 	public void setVillager(boolean villager) {
-		this.getDataWatcher().updateObject(13, Byte.valueOf((byte) (villager ? 1 : 0)));
+		this.getDataWatcher().updateObjectByte(13, (byte) (villager ? 1 : 0));
 	}
 
 	/**+
@@ -587,7 +587,7 @@ public class EntityZombie extends EntityMob {
 	 */
 	protected void startConversion(int ticks) {
 		this.conversionTime = ticks;
-		this.getDataWatcher().updateObject(14, Byte.valueOf((byte) 1));
+		this.getDataWatcher().updateObjectByte(14, (byte) 1);
 		this.removePotionEffect(Potion.weakness.id);
 		this.addPotionEffect(new PotionEffect(Potion.damageBoost.id, ticks,
 				Math.min(this.worldObj.getDifficulty().getDifficultyId() - 1, 0)));
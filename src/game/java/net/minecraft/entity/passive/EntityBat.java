@@ -106,9 +106,9 @@ public class EntityBat extends EntityAmbientCreature {
 	public void setIsBatHanging(boolean isHanging) {
 		byte b0 = this.dataWatcher.getWatchableObjectByte(16);
 		if (isHanging) {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) (b0 | 1)));
+			this.dataWatcher.updateObjectByte(16, (byte) (b0 | 1));
 		} else {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) (b0 & -2)));
+			this.dataWatcher.updateObjectByte(16, (byte) (b0 & -2));
 		}
 
 	}
@@ -221,7 +221,7 @@ public class EntityBat extends EntityAmbientCreature {
 	 */
 	public void readEntityFromNBT(NBTTagCompound nbttagcompound) {
 		super.readEntityFromNBT(nbttagcompound);
-		this.dataWatcher.updateObject(16, Byte.valueOf(nbttagcompound.getByte("BatFlags")));
+		this.dataWatcher.updateObjectByte(16, nbttagcompound.getByte("BatFlags"));
 	}
 
 	/**+
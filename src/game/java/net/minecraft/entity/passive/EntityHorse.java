@@ -136,7 +136,7 @@ public class EntityHorse extends EntityAnimal implements IInvBasic {
 	}
 
 	public void setHorseType(int type) {
-		this.dataWatcher.updateObject(19, Byte.valueOf((byte) type));
+		this.dataWatcher.updateObjectByte(19, (byte) type);
 		this.resetTexturePrefix();
 	}
 
@@ -149,7 +149,7 @@ public class EntityHorse extends EntityAnimal implements IInvBasic {
 	}
 
 	public void setHorseVariant(int variant) {
-		this.dataWatcher.updateObject(20, Integer.valueOf(variant));
+		this.dataWatcher.updateObjectInt(20, variant);
 		this.resetTexturePrefix();
 	}
 
@@ -197,9 +197,9 @@ public class EntityHorse extends EntityAnimal implements IInvBasic {
 	private void setHorseWatchableBoolean(int parInt1, boolean parFlag) {
 		int i = this.dataWatcher.getWatchableObjectInt(16);
 		if (parFlag) {
-			this.dataWatcher.updateObject(16, Integer.valueOf(i | parInt1));
+			this.dataWatcher.updateObjectInt(16, i | parInt1);
 		} else {
-			this.dataWatcher.updateObject(16, Integer.valueOf(i & ~parInt1));
+			this.dataWatcher.updateObjectInt(16, i & ~parInt1);
 		}
 
 	}
@@ -313,7 +313,7 @@ public class EntityHorse extends EntityAnimal implements IInvBasic {
 	 * ItemStack(Items.iron_horse_armor))
 	 */
 	public void setHorseArmorStack(ItemStack itemStackIn) {
-		this.dataWatcher.updateObject(22, Integer.valueOf(this.getHorseArmorIndex(itemStackIn)));
+		this.dataWatcher.updateObjectInt(22, this.getHorseArmorIndex(itemStackIn));
 		this.resetTexturePrefix();
 	}
 
@@ -270,7 +270,7 @@ public class EntityOcelot extends EntityTameable {
 	}
 
 	public void setTameSkin(int skinId) {
-		this.dataWatcher.updateObject(18, Byte.valueOf((byte) skinId));
+		this.dataWatcher.updateObjectByte(18, (byte) skinId);
 	}
 
 	/**+
@@ -179,9 +179,9 @@ public class EntityPig extends EntityAnimal {
 	 */
 	public void setSaddled(boolean saddled) {
 		if (saddled) {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) 1));
+			this.dataWatcher.updateObjectByte(16, (byte) 1);
 		} else {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) 0));
+			this.dataWatcher.updateObjectByte(16, (byte) 0);
 		}
 
 	}
@@ -387,7 +387,7 @@ public class EntityRabbit extends EntityAnimal {
 			}
 		}
 
-		this.dataWatcher.updateObject(18, Byte.valueOf((byte) rabbitTypeId));
+		this.dataWatcher.updateObjectByte(18, (byte) rabbitTypeId);
 	}
 
 	/**+
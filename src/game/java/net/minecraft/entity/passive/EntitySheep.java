@@ -253,7 +253,7 @@ public class EntitySheep extends EntityAnimal {
 	 */
 	public void setFleeceColor(EnumDyeColor color) {
 		byte b0 = this.dataWatcher.getWatchableObjectByte(16);
-		this.dataWatcher.updateObject(16, Byte.valueOf((byte) (b0 & 240 | color.getMetadata() & 15)));
+		this.dataWatcher.updateObjectByte(16, (byte) (b0 & 240 | color.getMetadata() & 15));
 	}
 
 	/**+
@@ -269,9 +269,9 @@ public class EntitySheep extends EntityAnimal {
 	public void setSheared(boolean sheared) {
 		byte b0 = this.dataWatcher.getWatchableObjectByte(16);
 		if (sheared) {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) (b0 | 16)));
+			this.dataWatcher.updateObjectByte(16, (byte) (b0 | 16));
 		} else {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) (b0 & -17)));
+			this.dataWatcher.updateObjectByte(16, (byte) (b0 & -17));
 		}
 
 	}
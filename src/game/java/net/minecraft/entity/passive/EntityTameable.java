@@ -139,9 +139,9 @@ public abstract class EntityTameable extends EntityAnimal implements IEntityOwna
 	public void setTamed(boolean tamed) {
 		byte b0 = this.dataWatcher.getWatchableObjectByte(16);
 		if (tamed) {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) (b0 | 4)));
+			this.dataWatcher.updateObjectByte(16, (byte) (b0 | 4));
 		} else {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) (b0 & -5)));
+			this.dataWatcher.updateObjectByte(16, (byte) (b0 & -5));
 		}
 
 		this.setupTamedAI();
@@ -157,9 +157,9 @@ public abstract class EntityTameable extends EntityAnimal implements IEntityOwna
 	public void setSitting(boolean sitting) {
 		byte b0 = this.dataWatcher.getWatchableObjectByte(16);
 		if (sitting) {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) (b0 | 1)));
+			this.dataWatcher.updateObjectByte(16, (byte) (b0 | 1));
 		} else {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) (b0 & -2)));
+			this.dataWatcher.updateObjectByte(16, (byte) (b0 & -2));
 		}
 
 	}
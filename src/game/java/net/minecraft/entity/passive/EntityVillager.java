@@ -529,7 +529,7 @@ public class EntityVillager extends EntityAgeable implements IMerchant, INpc {
 	}
 
 	public void setProfession(int professionId) {
-		this.dataWatcher.updateObject(16, Integer.valueOf(professionId));
+		this.dataWatcher.updateObjectInt(16, professionId);
 	}
 
 	public int getProfession() {
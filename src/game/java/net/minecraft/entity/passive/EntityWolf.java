@@ -120,7 +120,7 @@ public class EntityWolf extends EntityTameable {
 	}
 
 	protected void updateAITasks() {
-		this.dataWatcher.updateObject(18, Float.valueOf(this.getHealth()));
+		this.dataWatcher.updateObjectFloat(18, this.getHealth());
 	}
 
 	protected void entityInit() {
@@ -468,9 +468,9 @@ public class EntityWolf extends EntityTameable {
 	public void setAngry(boolean angry) {
 		byte b0 = this.dataWatcher.getWatchableObjectByte(16);
 		if (angry) {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) (b0 | 2)));
+			this.dataWatcher.updateObjectByte(16, (byte) (b0 | 2));
 		} else {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) (b0 & -3)));
+			this.dataWatcher.updateObjectByte(16, (byte) (b0 & -3));
 		}
 
 	}
@@ -480,7 +480,7 @@ public class EntityWolf extends EntityTameable {
 	}
 
 	public void setCollarColor(EnumDyeColor collarcolor) {
-		this.dataWatcher.updateObject(20, Byte.valueOf((byte) (collarcolor.getDyeDamage() & 15)));
+		this.dataWatcher.updateObjectByte(20, (byte) (collarcolor.getDyeDamage() & 15));
 	}
 
 	public EntityWolf createChild(EntityAgeable var1) {
@@ -496,9 +496,9 @@ public class EntityWolf extends EntityTameable {
 
 	public void setBegging(boolean beg) {
 		if (beg) {
-			this.dataWatcher.updateObject(19, Byte.valueOf((byte) 1));
+			this.dataWatcher.updateObjectByte(19, (byte) 1);
 		} else {
-			this.dataWatcher.updateObject(19, Byte.valueOf((byte) 0));
+			this.dataWatcher.updateObjectByte(19, (byte) 0);
 		}
 
 	}
@@ -583,7 +583,7 @@ public abstract class EntityPlayer extends EntityLivingBase implements ICommandS
 	 * Set player's score
 	 */
 	public void setScore(int parInt1) {
-		this.dataWatcher.updateObject(18, Integer.valueOf(parInt1));
+		this.dataWatcher.updateObjectInt(18, parInt1);
 	}
 
 	/**+
@@ -591,7 +591,7 @@ public abstract class EntityPlayer extends EntityLivingBase implements ICommandS
 	 */
 	public void addScore(int parInt1) {
 		int i = this.getScore();
-		this.dataWatcher.updateObject(18, Integer.valueOf(i + parInt1));
+		this.dataWatcher.updateObjectInt(18, i + parInt1);
 	}
 
 	/**+
@@ -1831,7 +1831,7 @@ public abstract class EntityPlayer extends EntityLivingBase implements ICommandS
 
 		this.xpSeed = entityplayer.xpSeed;
 		this.theInventoryEnderChest = entityplayer.theInventoryEnderChest;
-		this.getDataWatcher().updateObject(10, Byte.valueOf(entityplayer.getDataWatcher().getWatchableObjectByte(10)));
+		this.getDataWatcher().updateObjectByte(10, entityplayer.getDataWatcher().getWatchableObjectByte(10));
 	}
 
 	/**+
@@ -1965,7 +1965,7 @@ public abstract class EntityPlayer extends EntityLivingBase implements ICommandS
 			f = 0.0F;
 		}
 
-		this.getDataWatcher().updateObject(17, Float.valueOf(f));
+		this.getDataWatcher().updateObjectFloat(17, f);
 	}
 
 	public float getAbsorptionAmount() {
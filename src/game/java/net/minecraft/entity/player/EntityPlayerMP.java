@@ -324,6 +324,7 @@ public class EntityPlayerMP extends EntityPlayer implements ICrafting {
 			}
 
 			if (!arraylist.isEmpty()) {
+				this.worldObj.flushLightUpdates();
 				if (arraylist.size() == 1) {
 					this.playerNetServerHandler
 							.sendPacket(new S21PacketChunkData((Chunk) arraylist.get(0), true, '\uffff'));
@@ -1048,7 +1049,7 @@ public class EntityPlayerMP extends EntityPlayer implements ICrafting {
 		this.chatVisibility = packetIn.getChatVisibility();
 		this.chatColours = packetIn.isColorsEnabled();
 		this.mcServer.getConfigurationManager().updatePlayerViewDistance(this, packetIn.getViewDistance());
-		this.getDataWatcher().updateObject(10, Byte.valueOf((byte) packetIn.getModelPartFlags()));
+		this.getDataWatcher().updateObjectByte(10, (byte) packetIn.getModelPartFlags());
 	}
 
 	public EntityPlayer.EnumChatVisibility getChatVisibility() {
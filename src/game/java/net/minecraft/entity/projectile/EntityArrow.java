@@ -547,9 +547,9 @@ public class EntityArrow extends Entity implements IProjectile {
 	public void setIsCritical(boolean critical) {
 		byte b0 = this.dataWatcher.getWatchableObjectByte(16);
 		if (critical) {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) (b0 | 1)));
+			this.dataWatcher.updateObjectByte(16, (byte) (b0 | 1));
 		} else {
-			this.dataWatcher.updateObject(16, Byte.valueOf((byte) (b0 & -2)));
+			this.dataWatcher.updateObjectByte(16, (byte) (b0 & -2));
 		}
 
 	}
@@ -151,6 +151,6 @@ public class EntityWitherSkull extends EntityFireball {
 	 * wither boss.
 	 */
 	public void setInvulnerable(boolean invulnerable) {
-		this.dataWatcher.updateObject(10, Byte.valueOf((byte) (invulnerable ? 1 : 0)));
+		this.dataWatcher.updateObjectByte(10, (byte) (invulnerable ? 1 : 0));
 	}
 }
\ No newline at end of file
@@ -97,6 +97,22 @@ public class CompressedStreamTools {
 		writeTag(parNBTTagCompound, parDataOutput);
 	}
 
+	/**+
+	 * Reads the payload of a tag whose type id and name have already
+	 * been consumed, used by streaming readers that only want part
+	 * of a compound built as tags
+	 */
+	public static NBTBase readTagPayload(byte id, String key, DataInput parDataInput, int depth) throws IOException {
+		return NBTTagCompound.readNBT(id, key, parDataInput, depth, NBTSizeTracker.INFINITE);
+	}
+
+	/**+
+	 * Writes the payload of a tag without its type id or name
+	 */
+	public static void writeTagPayload(NBTBase parNBTBase, DataOutput parDataOutput) throws IOException {
+		parNBTBase.write(parDataOutput);
+	}
+
 	private static void writeTag(NBTBase parNBTBase, DataOutput parDataOutput) throws IOException {
 		parDataOutput.writeByte(parNBTBase.getId());
 		if (parNBTBase.getId() != 0) {
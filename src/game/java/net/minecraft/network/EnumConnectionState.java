@@ -4,8 +4,10 @@ import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 import com.google.common.collect.Maps;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
+import java.util.function.Supplier;
 import net.minecraft.network.handshake.client.C00Handshake;
 import net.minecraft.network.login.client.C00PacketLoginStart;
 import net.minecraft.network.login.client.C01PacketEncryptionResponse;
@@ -132,121 +134,121 @@ import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
 public enum EnumConnectionState {
 	HANDSHAKING(-1) {
 		{
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C00Handshake.class);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C00Handshake.class, C00Handshake::new);
 		}
 	},
 	PLAY(0) {
 		{
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S00PacketKeepAlive.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S01PacketJoinGame.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S02PacketChat.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S03PacketTimeUpdate.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S04PacketEntityEquipment.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S05PacketSpawnPosition.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S06PacketUpdateHealth.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S07PacketRespawn.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S08PacketPlayerPosLook.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S09PacketHeldItemChange.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S0APacketUseBed.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S0BPacketAnimation.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S0CPacketSpawnPlayer.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S0DPacketCollectItem.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S0EPacketSpawnObject.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S0FPacketSpawnMob.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S10PacketSpawnPainting.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S11PacketSpawnExperienceOrb.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S12PacketEntityVelocity.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S13PacketDestroyEntities.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S14PacketEntity.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S14PacketEntity.S15PacketEntityRelMove.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S14PacketEntity.S16PacketEntityLook.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S14PacketEntity.S17PacketEntityLookMove.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S18PacketEntityTeleport.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S19PacketEntityHeadLook.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S19PacketEntityStatus.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S1BPacketEntityAttach.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S1CPacketEntityMetadata.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S1DPacketEntityEffect.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S1EPacketRemoveEntityEffect.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S1FPacketSetExperience.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S20PacketEntityProperties.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S21PacketChunkData.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S22PacketMultiBlockChange.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S23PacketBlockChange.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S24PacketBlockAction.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S25PacketBlockBreakAnim.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S26PacketMapChunkBulk.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S27PacketExplosion.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S28PacketEffect.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S29PacketSoundEffect.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S2APacketParticles.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S2BPacketChangeGameState.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S2CPacketSpawnGlobalEntity.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S2DPacketOpenWindow.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S2EPacketCloseWindow.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S2FPacketSetSlot.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S30PacketWindowItems.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S31PacketWindowProperty.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S32PacketConfirmTransaction.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S33PacketUpdateSign.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S34PacketMaps.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S35PacketUpdateTileEntity.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S36PacketSignEditorOpen.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S37PacketStatistics.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S38PacketPlayerListItem.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S39PacketPlayerAbilities.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S3APacketTabComplete.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S3BPacketScoreboardObjective.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S3CPacketUpdateScore.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S3DPacketDisplayScoreboard.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S3EPacketTeams.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S3FPacketCustomPayload.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S40PacketDisconnect.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S41PacketServerDifficulty.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S42PacketCombatEvent.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S43PacketCamera.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S44PacketWorldBorder.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S45PacketTitle.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S46PacketSetCompressionLevel.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S47PacketPlayerListHeaderFooter.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S48PacketResourcePackSend.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S49PacketUpdateEntityNBT.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C00PacketKeepAlive.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C01PacketChatMessage.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C02PacketUseEntity.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C03PacketPlayer.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C03PacketPlayer.C04PacketPlayerPosition.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C03PacketPlayer.C05PacketPlayerLook.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C03PacketPlayer.C06PacketPlayerPosLook.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C07PacketPlayerDigging.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C08PacketPlayerBlockPlacement.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C09PacketHeldItemChange.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C0APacketAnimation.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C0BPacketEntityAction.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C0CPacketInput.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C0DPacketCloseWindow.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C0EPacketClickWindow.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C0FPacketConfirmTransaction.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C10PacketCreativeInventoryAction.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C11PacketEnchantItem.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C12PacketUpdateSign.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C13PacketPlayerAbilities.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C14PacketTabComplete.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C15PacketClientSettings.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C16PacketClientStatus.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C17PacketCustomPayload.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C18PacketSpectate.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C19PacketResourcePackStatus.class);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S00PacketKeepAlive.class, S00PacketKeepAlive::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S01PacketJoinGame.class, S01PacketJoinGame::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S02PacketChat.class, S02PacketChat::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S03PacketTimeUpdate.class, S03PacketTimeUpdate::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S04PacketEntityEquipment.class, S04PacketEntityEquipment::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S05PacketSpawnPosition.class, S05PacketSpawnPosition::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S06PacketUpdateHealth.class, S06PacketUpdateHealth::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S07PacketRespawn.class, S07PacketRespawn::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S08PacketPlayerPosLook.class, S08PacketPlayerPosLook::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S09PacketHeldItemChange.class, S09PacketHeldItemChange::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S0APacketUseBed.class, S0APacketUseBed::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S0BPacketAnimation.class, S0BPacketAnimation::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S0CPacketSpawnPlayer.class, S0CPacketSpawnPlayer::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S0DPacketCollectItem.class, S0DPacketCollectItem::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S0EPacketSpawnObject.class, S0EPacketSpawnObject::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S0FPacketSpawnMob.class, S0FPacketSpawnMob::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S10PacketSpawnPainting.class, S10PacketSpawnPainting::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S11PacketSpawnExperienceOrb.class, S11PacketSpawnExperienceOrb::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S12PacketEntityVelocity.class, S12PacketEntityVelocity::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S13PacketDestroyEntities.class, S13PacketDestroyEntities::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S14PacketEntity.class, S14PacketEntity::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S14PacketEntity.S15PacketEntityRelMove.class, S14PacketEntity.S15PacketEntityRelMove::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S14PacketEntity.S16PacketEntityLook.class, S14PacketEntity.S16PacketEntityLook::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S14PacketEntity.S17PacketEntityLookMove.class, S14PacketEntity.S17PacketEntityLookMove::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S18PacketEntityTeleport.class, S18PacketEntityTeleport::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S19PacketEntityHeadLook.class, S19PacketEntityHeadLook::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S19PacketEntityStatus.class, S19PacketEntityStatus::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S1BPacketEntityAttach.class, S1BPacketEntityAttach::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S1CPacketEntityMetadata.class, S1CPacketEntityMetadata::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S1DPacketEntityEffect.class, S1DPacketEntityEffect::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S1EPacketRemoveEntityEffect.class, S1EPacketRemoveEntityEffect::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S1FPacketSetExperience.class, S1FPacketSetExperience::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S20PacketEntityProperties.class, S20PacketEntityProperties::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S21PacketChunkData.class, S21PacketChunkData::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S22PacketMultiBlockChange.class, S22PacketMultiBlockChange::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S23PacketBlockChange.class, S23PacketBlockChange::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S24PacketBlockAction.class, S24PacketBlockAction::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S25PacketBlockBreakAnim.class, S25PacketBlockBreakAnim::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S26PacketMapChunkBulk.class, S26PacketMapChunkBulk::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S27PacketExplosion.class, S27PacketExplosion::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S28PacketEffect.class, S28PacketEffect::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S29PacketSoundEffect.class, S29PacketSoundEffect::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S2APacketParticles.class, S2APacketParticles::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S2BPacketChangeGameState.class, S2BPacketChangeGameState::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S2CPacketSpawnGlobalEntity.class, S2CPacketSpawnGlobalEntity::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S2DPacketOpenWindow.class, S2DPacketOpenWindow::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S2EPacketCloseWindow.class, S2EPacketCloseWindow::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S2FPacketSetSlot.class, S2FPacketSetSlot::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S30PacketWindowItems.class, S30PacketWindowItems::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S31PacketWindowProperty.class, S31PacketWindowProperty::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S32PacketConfirmTransaction.class, S32PacketConfirmTransaction::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S33PacketUpdateSign.class, S33PacketUpdateSign::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S34PacketMaps.class, S34PacketMaps::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S35PacketUpdateTileEntity.class, S35PacketUpdateTileEntity::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S36PacketSignEditorOpen.class, S36PacketSignEditorOpen::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S37PacketStatistics.class, S37PacketStatistics::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S38PacketPlayerListItem.class, S38PacketPlayerListItem::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S39PacketPlayerAbilities.class, S39PacketPlayerAbilities::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S3APacketTabComplete.class, S3APacketTabComplete::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S3BPacketScoreboardObjective.class, S3BPacketScoreboardObjective::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S3CPacketUpdateScore.class, S3CPacketUpdateScore::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S3DPacketDisplayScoreboard.class, S3DPacketDisplayScoreboard::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S3EPacketTeams.class, S3EPacketTeams::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S3FPacketCustomPayload.class, S3FPacketCustomPayload::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S40PacketDisconnect.class, S40PacketDisconnect::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S41PacketServerDifficulty.class, S41PacketServerDifficulty::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S42PacketCombatEvent.class, S42PacketCombatEvent::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S43PacketCamera.class, S43PacketCamera::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S44PacketWorldBorder.class, S44PacketWorldBorder::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S45PacketTitle.class, S45PacketTitle::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S46PacketSetCompressionLevel.class, S46PacketSetCompressionLevel::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S47PacketPlayerListHeaderFooter.class, S47PacketPlayerListHeaderFooter::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S48PacketResourcePackSend.class, S48PacketResourcePackSend::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S49PacketUpdateEntityNBT.class, S49PacketUpdateEntityNBT::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C00PacketKeepAlive.class, C00PacketKeepAlive::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C01PacketChatMessage.class, C01PacketChatMessage::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C02PacketUseEntity.class, C02PacketUseEntity::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C03PacketPlayer.class, C03PacketPlayer::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C03PacketPlayer.C04PacketPlayerPosition.class, C03PacketPlayer.C04PacketPlayerPosition::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C03PacketPlayer.C05PacketPlayerLook.class, C03PacketPlayer.C05PacketPlayerLook::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C03PacketPlayer.C06PacketPlayerPosLook.class, C03PacketPlayer.C06PacketPlayerPosLook::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C07PacketPlayerDigging.class, C07PacketPlayerDigging::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C08PacketPlayerBlockPlacement.class, C08PacketPlayerBlockPlacement::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C09PacketHeldItemChange.class, C09PacketHeldItemChange::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C0APacketAnimation.class, C0APacketAnimation::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C0BPacketEntityAction.class, C0BPacketEntityAction::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C0CPacketInput.class, C0CPacketInput::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C0DPacketCloseWindow.class, C0DPacketCloseWindow::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C0EPacketClickWindow.class, C0EPacketClickWindow::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C0FPacketConfirmTransaction.class, C0FPacketConfirmTransaction::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C10PacketCreativeInventoryAction.class, C10PacketCreativeInventoryAction::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C11PacketEnchantItem.class, C11PacketEnchantItem::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C12PacketUpdateSign.class, C12PacketUpdateSign::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C13PacketPlayerAbilities.class, C13PacketPlayerAbilities::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C14PacketTabComplete.class, C14PacketTabComplete::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C15PacketClientSettings.class, C15PacketClientSettings::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C16PacketClientStatus.class, C16PacketClientStatus::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C17PacketCustomPayload.class, C17PacketCustomPayload::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C18PacketSpectate.class, C18PacketSpectate::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C19PacketResourcePackStatus.class, C19PacketResourcePackStatus::new);
 		}
 	},
 	LOGIN(2) {
 		{
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S00PacketDisconnect.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S01PacketEncryptionRequest.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S02PacketLoginSuccess.class);
-			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S03PacketEnableCompression.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C00PacketLoginStart.class);
-			this.registerPacket(EnumPacketDirection.SERVERBOUND, C01PacketEncryptionResponse.class);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S00PacketDisconnect.class, S00PacketDisconnect::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S01PacketEncryptionRequest.class, S01PacketEncryptionRequest::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S02PacketLoginSuccess.class, S02PacketLoginSuccess::new);
+			this.registerPacket(EnumPacketDirection.CLIENTBOUND, S03PacketEnableCompression.class, S03PacketEnableCompression::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C00PacketLoginStart.class, C00PacketLoginStart::new);
+			this.registerPacket(EnumPacketDirection.SERVERBOUND, C01PacketEncryptionResponse.class, C01PacketEncryptionResponse::new);
 		}
 	};
 
@@ -257,13 +259,18 @@ public enum EnumConnectionState {
 	private static final Map<Class<? extends Packet>, EnumConnectionState> STATES_BY_CLASS = Maps.newHashMap();
 	private final int id;
 	private final Map<EnumPacketDirection, BiMap<Integer, Class<? extends Packet>>> directionMaps;
+	@SuppressWarnings("unchecked")
+	private Supplier<? extends Packet>[] serverboundConstructors = new Supplier[0];
+	@SuppressWarnings("unchecked")
+	private Supplier<? extends Packet>[] clientboundConstructors = new Supplier[0];
 
 	private EnumConnectionState(int protocolId) {
 		this.directionMaps = Maps.newEnumMap(EnumPacketDirection.class);
 		this.id = protocolId;
 	}
 
-	protected EnumConnectionState registerPacket(EnumPacketDirection direction, Class<? extends Packet> packetClass) {
+	protected EnumConnectionState registerPacket(EnumPacketDirection direction, Class<? extends Packet> packetClass,
+			Supplier<? extends Packet> packetConstructor) {
 		Object object = (BiMap) this.directionMaps.get(direction);
 		if (object == null) {
 			object = HashBiMap.create();
@@ -276,7 +283,15 @@ public enum EnumConnectionState {
 			LogManager.getLogger().fatal(s);
 			throw new IllegalArgumentException(s);
 		} else {
-			((BiMap) object).put(Integer.valueOf(((BiMap) object).size()), packetClass);
+			int id = ((BiMap) object).size();
+			((BiMap) object).put(Integer.valueOf(id), packetClass);
+			if (direction == EnumPacketDirection.SERVERBOUND) {
+				serverboundConstructors = Arrays.copyOf(serverboundConstructors, id + 1);
+				serverboundConstructors[id] = packetConstructor;
+			} else {
+				clientboundConstructors = Arrays.copyOf(clientboundConstructors, id + 1);
+				clientboundConstructors[id] = packetConstructor;
+			}
 			return this;
 		}
 	}
@@ -287,8 +302,22 @@ public enum EnumConnectionState {
 
 	public Packet getPacket(EnumPacketDirection direction, int packetId)
 			throws IllegalAccessException, InstantiationException {
-		Class oclass = (Class) ((BiMap) this.directionMaps.get(direction)).get(Integer.valueOf(packetId));
-		return oclass == null ? null : (Packet) oclass.newInstance();
+		return createPacket(direction, packetId);
+	}
+
+	/**+
+	 * Creates a new packet from the constructor table instead of
+	 * using reflection, returns null if the ID is not registered
+	 */
+	public Packet createPacket(EnumPacketDirection direction, int packetId) {
+		Supplier<? extends Packet>[] ctors = direction == EnumPacketDirection.SERVERBOUND ? serverboundConstructors
+				: clientboundConstructors;
+		return packetId >= 0 && packetId < ctors.length ? ctors[packetId].get() : null;
+	}
+
+	public int getPacketCount(EnumPacketDirection direction) {
+		return direction == EnumPacketDirection.SERVERBOUND ? serverboundConstructors.length
+				: clientboundConstructors.length;
 	}
 
 	public int getId() {
@@ -322,12 +351,6 @@ public enum EnumConnectionState {
 								+ STATES_BY_CLASS.get(oclass) + " - can\'t reassign to " + enumconnectionstate);
 					}
 
-					try {
-						oclass.newInstance();
-					} catch (Throwable var10) {
-						throw new Error("Packet " + oclass + " fails instantiation checks! " + oclass);
-					}
-
 					STATES_BY_CLASS.put(oclass, enumconnectionstate);
 				}
 			}
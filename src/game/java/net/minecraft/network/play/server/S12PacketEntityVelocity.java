@@ -2,6 +2,7 @@ package net.minecraft.network.play.server;
 
 import java.io.IOException;
 
+import net.lax1dude.eaglercraft.v1_8.socket.IPooledPacket;
 import net.minecraft.entity.Entity;
 import net.minecraft.network.Packet;
 import net.minecraft.network.PacketBuffer;
@@ -27,7 +28,7 @@ import net.minecraft.network.play.INetHandlerPlayClient;
  * POSSIBILITY OF SUCH DAMAGE.
  * 
  */
-public class S12PacketEntityVelocity implements Packet<INetHandlerPlayClient> {
+public class S12PacketEntityVelocity implements Packet<INetHandlerPlayClient>, IPooledPacket {
 	private int entityID;
 	private int motionX;
 	private int motionY;
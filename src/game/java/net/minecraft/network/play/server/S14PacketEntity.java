@@ -2,6 +2,7 @@ package net.minecraft.network.play.server;
 
 import java.io.IOException;
 
+import net.lax1dude.eaglercraft.v1_8.socket.IPooledPacket;
 import net.minecraft.entity.Entity;
 import net.minecraft.network.Packet;
 import net.minecraft.network.PacketBuffer;
@@ -28,7 +29,7 @@ import net.minecraft.world.World;
  * POSSIBILITY OF SUCH DAMAGE.
  * 
  */
-public class S14PacketEntity implements Packet<INetHandlerPlayClient> {
+public class S14PacketEntity implements Packet<INetHandlerPlayClient>, IPooledPacket {
 	protected int entityId;
 	protected byte posX;
 	protected byte posY;
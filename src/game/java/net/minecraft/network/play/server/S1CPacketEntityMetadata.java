@@ -1,6 +1,7 @@
 package net.minecraft.network.play.server;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import net.minecraft.entity.DataWatcher;
@@ -31,16 +32,28 @@ import net.minecraft.network.play.INetHandlerPlayClient;
 public class S1CPacketEntityMetadata implements Packet<INetHandlerPlayClient> {
 	private int entityId;
 	private List<DataWatcher.WatchableObject> field_149378_b;
+	/**+
+	 * Snapshot of the watched values taken on the server, keys
+	 * hold the type and id byte and values the primitive values
+	 */
+	private byte[] keys;
+	private int[] values;
+	private Object[] objects;
 
 	public S1CPacketEntityMetadata() {
 	}
 
 	public S1CPacketEntityMetadata(int entityIdIn, DataWatcher parDataWatcher, boolean parFlag) {
 		this.entityId = entityIdIn;
-		if (parFlag) {
-			this.field_149378_b = parDataWatcher.getAllWatched();
-		} else {
-			this.field_149378_b = parDataWatcher.getChanged();
+		int i = parFlag ? parDataWatcher.getWatchedMask() : parDataWatcher.takeChangedMask();
+		if (i != 0) {
+			int j = Integer.bitCount(i);
+			this.keys = new byte[j];
+			this.values = new int[j];
+			if (parDataWatcher.hasObjectValues(i)) {
+				this.objects = new Object[j];
+			}
+			parDataWatcher.copyValues(i, this.keys, this.values, this.objects);
 		}
 
 	}
@@ -58,7 +71,15 @@ public class S1CPacketEntityMetadata implements Packet<INetHandlerPlayClient> {
 	 */
 	public void writePacketData(PacketBuffer parPacketBuffer) throws IOException {
 		parPacketBuffer.writeVarIntToBuffer(this.entityId);
-		DataWatcher.writeWatchedListToPacketBuffer(this.field_149378_b, parPacketBuffer);
+		if (this.keys != null) {
+			for (int i = 0; i < this.keys.length; ++i) {
+				DataWatcher.writeValueToPacketBuffer(parPacketBuffer, this.keys[i], this.values[i],
+						this.objects != null ? this.objects[i] : null);
+			}
+			parPacketBuffer.writeByte(127);
+		} else {
+			DataWatcher.writeWatchedListToPacketBuffer(this.field_149378_b, parPacketBuffer);
+		}
 	}
 
 	/**+
@@ -69,6 +90,21 @@ public class S1CPacketEntityMetadata implements Packet<INetHandlerPlayClient> {
 	}
 
 	public List<DataWatcher.WatchableObject> func_149376_c() {
+		if (this.field_149378_b == null && this.keys != null) {
+			ArrayList<DataWatcher.WatchableObject> arraylist = new ArrayList<>(this.keys.length);
+			for (int i = 0; i < this.keys.length; ++i) {
+				int j = (this.keys[i] & 224) >> 5;
+				DataWatcher.WatchableObject datawatcher$watchableobject = new DataWatcher.WatchableObject(j,
+						this.keys[i] & 31, null);
+				if (j <= 3) {
+					datawatcher$watchableobject.setPrimitiveValue(this.values[i]);
+				} else {
+					datawatcher$watchableobject.setObject(this.objects[i]);
+				}
+				arraylist.add(datawatcher$watchableobject);
+			}
+			this.field_149378_b = arraylist;
+		}
 		return this.field_149378_b;
 	}
 
@@ -5,9 +5,12 @@ import java.util.ArrayList;
 
 import com.google.common.collect.Lists;
 
+import net.lax1dude.eaglercraft.v1_8.socket.IPooledPacket;
 import net.minecraft.network.Packet;
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.network.play.INetHandlerPlayClient;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 
@@ -31,7 +34,7 @@ import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
  * POSSIBILITY OF SUCH DAMAGE.
  * 
  */
-public class S21PacketChunkData implements Packet<INetHandlerPlayClient> {
+public class S21PacketChunkData implements Packet<INetHandlerPlayClient>, IPooledPacket {
 	private int chunkX;
 	private int chunkZ;
 	private S21PacketChunkData.Extracted extractedData;
@@ -44,7 +47,7 @@ public class S21PacketChunkData implements Packet<INetHandlerPlayClient> {
 		this.chunkX = chunkIn.xPosition;
 		this.chunkZ = chunkIn.zPosition;
 		this.field_149279_g = parFlag;
-		this.extractedData = func_179756_a(chunkIn, parFlag, !chunkIn.getWorld().provider.getHasNoSky(), parInt1);
+		this.extractedData = getExtracted(chunkIn, parFlag, !chunkIn.getWorld().provider.getHasNoSky(), parInt1);
 	}
 
 	/**+
@@ -54,9 +57,16 @@ public class S21PacketChunkData implements Packet<INetHandlerPlayClient> {
 		this.chunkX = parPacketBuffer.readInt();
 		this.chunkZ = parPacketBuffer.readInt();
 		this.field_149279_g = parPacketBuffer.readBoolean();
-		this.extractedData = new S21PacketChunkData.Extracted();
+		if (this.extractedData == null) {
+			this.extractedData = new S21PacketChunkData.Extracted();
+		}
 		this.extractedData.dataSize = parPacketBuffer.readShort();
-		this.extractedData.data = parPacketBuffer.readByteArray();
+		int len = parPacketBuffer.readVarIntFromBuffer();
+		byte[] data = this.extractedData.data;
+		if (data == null || data.length != len) {
+			data = this.extractedData.data = new byte[len];
+		}
+		parPacketBuffer.readBytes(data);
 	}
 
 	/**+
@@ -135,6 +145,20 @@ public class S21PacketChunkData implements Packet<INetHandlerPlayClient> {
 		return s21packetchunkdata$extracted;
 	}
 
+	/**+
+	 * Returns the encoded chunk data, shared between every player the chunk
+	 * is sent to until it is modified again
+	 */
+	public static S21PacketChunkData.Extracted getExtracted(Chunk parChunk, boolean parFlag, boolean parFlag2,
+			int parInt1) {
+		World world = parChunk.getWorld();
+		if (world instanceof WorldServer) {
+			return ((WorldServer) world).getChunkPacketCache().getExtracted(parChunk, parFlag, parFlag2, parInt1);
+		} else {
+			return func_179756_a(parChunk, parFlag, parFlag2, parInt1);
+		}
+	}
+
 	private static int func_179757_a(byte[] parArrayOfByte, byte[] parArrayOfByte2, int parInt1) {
 		System.arraycopy(parArrayOfByte, 0, parArrayOfByte2, parInt1, parArrayOfByte.length);
 		return parInt1 + parArrayOfByte.length;
@@ -2,6 +2,7 @@ package net.minecraft.network.play.server;
 
 import java.io.IOException;
 
+import net.lax1dude.eaglercraft.v1_8.socket.IPooledPacket;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.network.Packet;
@@ -31,7 +32,7 @@ import net.minecraft.world.chunk.Chunk;
  * POSSIBILITY OF SUCH DAMAGE.
  * 
  */
-public class S22PacketMultiBlockChange implements Packet<INetHandlerPlayClient> {
+public class S22PacketMultiBlockChange implements Packet<INetHandlerPlayClient>, IPooledPacket {
 	private ChunkCoordIntPair chunkPosCoord;
 	private S22PacketMultiBlockChange.BlockUpdateData[] changedBlocks;
 
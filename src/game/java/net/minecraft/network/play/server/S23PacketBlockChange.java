@@ -2,6 +2,7 @@ package net.minecraft.network.play.server;
 
 import java.io.IOException;
 
+import net.lax1dude.eaglercraft.v1_8.socket.IPooledPacket;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.network.Packet;
@@ -30,7 +31,7 @@ import net.minecraft.world.World;
  * POSSIBILITY OF SUCH DAMAGE.
  * 
  */
-public class S23PacketBlockChange implements Packet<INetHandlerPlayClient> {
+public class S23PacketBlockChange implements Packet<INetHandlerPlayClient>, IPooledPacket {
 	private BlockPos blockPosition;
 	private IBlockState blockState;
 
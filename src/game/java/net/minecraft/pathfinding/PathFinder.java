@@ -1,5 +1,7 @@
 package net.minecraft.pathfinding;
 
+import net.lax1dude.eaglercraft.v1_8.EagRuntime;
+import net.lax1dude.eaglercraft.v1_8.sp.server.PathfindingService;
 import net.minecraft.entity.Entity;
 import net.minecraft.util.BlockPos;
 import net.minecraft.world.IBlockAccess;
@@ -35,6 +37,7 @@ public class PathFinder {
 	 */
 	private PathPoint[] pathOptions = new PathPoint[32];
 	private NodeProcessor nodeProcessor;
+	private int nodesExpanded;
 
 	public PathFinder(NodeProcessor nodeProcessorIn) {
 		this.nodeProcessor = nodeProcessorIn;
@@ -68,7 +71,22 @@ public class PathFinder {
 		this.nodeProcessor.initProcessor(blockaccess, entityIn);
 		PathPoint pathpoint = this.nodeProcessor.getPathPointTo(entityIn);
 		PathPoint pathpoint1 = this.nodeProcessor.getPathPointToCoords(entityIn, x, y, z);
-		PathEntity pathentity = this.addToPath(entityIn, pathpoint, pathpoint1, distance);
+		PathfindingService service = PathfindingService.get(entityIn.worldObj);
+		PathEntity pathentity;
+		if (service != null) {
+			PathfindingService.Request req = service.createRequest(this.nodeProcessor, entityIn, pathpoint, pathpoint1,
+					distance);
+			if (service.hasResult(req)) {
+				pathentity = service.getResult(req);
+			} else {
+				long start = EagRuntime.nanoTime();
+				this.nodesExpanded = 0;
+				pathentity = this.addToPath(entityIn, pathpoint, pathpoint1, distance);
+				service.addResult(req, pathentity, this.nodesExpanded, EagRuntime.nanoTime() - start);
+			}
+		} else {
+			pathentity = this.addToPath(entityIn, pathpoint, pathpoint1, distance);
+		}
 		this.nodeProcessor.postProcess();
 		return pathentity;
 	}
@@ -86,6 +104,7 @@ public class PathFinder {
 
 		while (!this.path.isPathEmpty()) {
 			PathPoint pathpoint1 = this.path.dequeue();
+			++this.nodesExpanded;
 			if (pathpoint1.equals(pathpointEnd)) {
 				return this.createEntityPath(pathpointStart, pathpointEnd);
 			}
@@ -123,7 +142,8 @@ public class PathFinder {
 	}
 
 	/**+
-	 * Returns a new PathEntity for a given start and end point
+	 * Returns a new PathEntity for a given start and end point, the
+	 * points are copied because the search points are pooled
 	 */
 	private PathEntity createEntityPath(PathPoint start, PathPoint end) {
 		int i = 1;
@@ -134,11 +154,10 @@ public class PathFinder {
 
 		PathPoint[] apathpoint = new PathPoint[i];
 		PathPoint pathpoint1 = end;
-		--i;
 
-		for (apathpoint[i] = end; pathpoint1.previous != null; apathpoint[i] = pathpoint1) {
+		while (--i >= 0) {
+			apathpoint[i] = new PathPoint(pathpoint1.xCoord, pathpoint1.yCoord, pathpoint1.zCoord);
 			pathpoint1 = pathpoint1.previous;
-			--i;
 		}
 
 		return new PathEntity(apathpoint);
@@ -1,6 +1,8 @@
 package net.minecraft.pathfinding;
 
 import java.util.List;
+
+import net.lax1dude.eaglercraft.v1_8.sp.server.PathfindingService;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLiving;
 import net.minecraft.entity.SharedMonsterAttributes;
@@ -47,6 +49,11 @@ public abstract class PathNavigate {
 	private Vec3 lastPosCheck = new Vec3(0.0D, 0.0D, 0.0D);
 	private float heightRequirement = 1.0F;
 	private final PathFinder pathFinder;
+	/**+
+	 * Set when the last path request was skipped because the world
+	 * ran out of pathfinding time this tick
+	 */
+	private boolean pathDeferred;
 
 	public PathNavigate(EntityLiving entitylivingIn, World worldIn) {
 		this.theEntity = entitylivingIn;
@@ -83,8 +90,11 @@ public abstract class PathNavigate {
 	 * Returns path to given BlockPos
 	 */
 	public PathEntity getPathToPos(BlockPos pos) {
+		this.pathDeferred = false;
 		if (!this.canNavigate()) {
 			return null;
+		} else if (this.isOverBudget()) {
+			return null;
 		} else {
 			float f = this.getPathSearchRange();
 			BlockPos blockpos = new BlockPos(this.theEntity);
@@ -95,6 +105,27 @@ public abstract class PathNavigate {
 		}
 	}
 
+	/**+
+	 * Returns true if the world has used up its pathfinding budget
+	 * for this tick, the navigator then keeps its current path
+	 */
+	private boolean isOverBudget() {
+		PathfindingService service = PathfindingService.get(this.worldObj);
+		if (service != null && service.deferRequest()) {
+			this.pathDeferred = true;
+			return true;
+		}
+		return false;
+	}
+
+	/**+
+	 * Returns true if the last path request was skipped because of
+	 * the pathfinding budget
+	 */
+	public boolean isPathDeferred() {
+		return this.pathDeferred;
+	}
+
 	/**+
 	 * Try to find and set a path to XYZ. Returns true if
 	 * successful. Args : x, y, z, speed
@@ -102,6 +133,9 @@ public abstract class PathNavigate {
 	public boolean tryMoveToXYZ(double x, double y, double z, double speedIn) {
 		PathEntity pathentity = this.getPathToXYZ((double) MathHelper.floor_double(x), (double) ((int) y),
 				(double) MathHelper.floor_double(z));
+		if (this.pathDeferred) {
+			return !this.noPath();
+		}
 		return this.setPath(pathentity, speedIn);
 	}
 
@@ -116,8 +150,11 @@ public abstract class PathNavigate {
 	 * Returns the path to the given EntityLiving. Args : entity
 	 */
 	public PathEntity getPathToEntityLiving(Entity entityIn) {
+		this.pathDeferred = false;
 		if (!this.canNavigate()) {
 			return null;
+		} else if (this.isOverBudget()) {
+			return null;
 		} else {
 			float f = this.getPathSearchRange();
 			BlockPos blockpos = (new BlockPos(this.theEntity)).up();
@@ -135,6 +172,9 @@ public abstract class PathNavigate {
 	 */
 	public boolean tryMoveToEntityLiving(Entity entityIn, double speedIn) {
 		PathEntity pathentity = this.getPathToEntityLiving(entityIn);
+		if (this.pathDeferred) {
+			return !this.noPath();
+		}
 		return pathentity != null ? this.setPath(pathentity, speedIn) : false;
 	}
 
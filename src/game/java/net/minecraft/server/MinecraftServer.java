@@ -14,6 +14,7 @@ import net.lax1dude.eaglercraft.v1_8.EagRuntime;
 import net.lax1dude.eaglercraft.v1_8.EaglercraftRandom;
 import net.lax1dude.eaglercraft.v1_8.EaglercraftUUID;
 import net.lax1dude.eaglercraft.v1_8.futures.FutureTask;
+import net.lax1dude.eaglercraft.v1_8.profiler.Profiler;
 import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerIntegratedServerWorker;
 import net.minecraft.command.CommandBase;
 import net.minecraft.command.CommandResultStats;
@@ -101,6 +102,7 @@ public abstract class MinecraftServer implements Runnable, ICommandSender, IThre
 	private String motd;
 	private int buildLimit;
 	private int maxPlayerIdleMinutes = 0;
+	public final Profiler theProfiler = new Profiler();
 	public final long[] tickTimeArray = new long[100];
 	public long[][] timeOfLastDimensionTick;
 	private String serverOwner;
@@ -322,6 +324,14 @@ public abstract class MinecraftServer implements Runnable, ICommandSender, IThre
 	 * server.
 	 */
 	public void stopServer() {
+		if (this.worldServers != null) {
+			for (int i = 0; i < this.worldServers.length; ++i) {
+				if (this.worldServers[i] != null) {
+					this.worldServers[i].shutdownTerrainGeneration();
+				}
+			}
+		}
+
 		if (!this.worldIsBeingDeleted) {
 			logger.info("Stopping server");
 
@@ -459,8 +469,12 @@ public abstract class MinecraftServer implements Runnable, ICommandSender, IThre
 		++this.tickCounter;
 		if (this.startProfiling) {
 			this.startProfiling = false;
+			this.theProfiler.profilingEnabled = true;
+			this.theProfiler.clearProfiling();
+			this.theProfiler.startTrace(262144);
 		}
 
+		this.theProfiler.startSection("root");
 		this.updateTimeLightAndEntities();
 
 		boolean loadSpawnChunks = this.worldServers[0].getWorldInfo().getGameRulesInstance()
@@ -475,31 +489,42 @@ public abstract class MinecraftServer implements Runnable, ICommandSender, IThre
 		}
 
 		if (this.tickCounter % 900 == 0) {
+			this.theProfiler.startSection("save");
 			this.serverConfigManager.saveAllPlayerData();
 			this.saveAllWorlds(true);
+			this.theProfiler.endSection();
 		}
 
 		this.tickTimeArray[this.tickCounter % 100] = EagRuntime.nanoTime() - i;
+		this.theProfiler.endSection();
 	}
 
 	public void updateTimeLightAndEntities() {
+		this.theProfiler.startSection("jobs");
 		synchronized (this.futureTaskQueue) {
 			while (!this.futureTaskQueue.isEmpty()) {
 				Util.func_181617_a((FutureTask) this.futureTaskQueue.poll(), logger);
 			}
 		}
 
+		this.theProfiler.endStartSection("levels");
+
 		for (int j = 0; j < this.worldServers.length; ++j) {
 			long i = EagRuntime.nanoTime();
 			if (j == 0 || this.getAllowNether()) {
 				WorldServer worldserver = this.worldServers[j];
+				this.theProfiler.startSection(worldserver.getWorldInfo().getWorldName());
 				if (this.tickCounter % 20 == 0) {
+					this.theProfiler.startSection("timeSync");
 					this.serverConfigManager.sendPacketToAllPlayersInDimension(
 							new S03PacketTimeUpdate(worldserver.getTotalWorldTime(), worldserver.getWorldTime(),
 									worldserver.getGameRules().getBoolean("doDaylightCycle")),
 							worldserver.provider.getDimensionId());
+					this.theProfiler.endSection();
 				}
 
+				this.theProfiler.startSection("tick");
+
 				try {
 					worldserver.tick();
 				} catch (Throwable throwable1) {
@@ -517,18 +542,26 @@ public abstract class MinecraftServer implements Runnable, ICommandSender, IThre
 					throw new ReportedException(crashreport1);
 				}
 
+				this.theProfiler.endStartSection("tracker");
 				worldserver.getEntityTracker().updateTrackedEntities();
+				this.theProfiler.endSection();
+				this.theProfiler.endSection();
 			}
 
 			this.timeOfLastDimensionTick[j][this.tickCounter % 100] = EagRuntime.nanoTime() - i;
 		}
 
+		this.theProfiler.endStartSection("connection");
 		EaglerIntegratedServerWorker.tick();
+		this.theProfiler.endStartSection("players");
 		this.serverConfigManager.onTick();
+		this.theProfiler.endStartSection("tickables");
 
 		for (int k = 0; k < this.playersOnline.size(); ++k) {
 			((ITickable) this.playersOnline.get(k)).update();
 		}
+
+		this.theProfiler.endSection();
 	}
 
 	public boolean getAllowNether() {
@@ -602,7 +635,9 @@ public abstract class MinecraftServer implements Runnable, ICommandSender, IThre
 	public CrashReport addServerInfoToCrashReport(CrashReport crashreport) {
 		crashreport.getCategory().addCrashSectionCallable("Profiler Position", new Callable<String>() {
 			public String call() throws Exception {
-				return "N/A (disabled)";
+				return MinecraftServer.this.theProfiler.profilingEnabled
+						? MinecraftServer.this.theProfiler.getNameOfLastSection()
+						: "N/A (disabled)";
 			}
 		});
 		if (this.serverConfigManager != null) {
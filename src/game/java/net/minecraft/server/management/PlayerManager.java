@@ -82,6 +82,7 @@ public class PlayerManager {
 	 * updates all the player instances that need to be updated
 	 */
 	public void updatePlayerInstances() {
+		this.theWorldServer.theProfiler.startSection("chunkUpdates");
 		long i = this.theWorldServer.getTotalWorldTime();
 		if (i - this.previousTotalWorldTime > 8000L) {
 			this.previousTotalWorldTime = i;
@@ -108,6 +109,7 @@ public class PlayerManager {
 			}
 		}
 
+		this.theWorldServer.theProfiler.endSection();
 	}
 
 	public boolean hasPlayerInstance(int chunkX, int chunkZ) {
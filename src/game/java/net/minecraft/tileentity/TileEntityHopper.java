@@ -1,6 +1,8 @@
 package net.minecraft.tileentity;
 
 import java.util.List;
+import net.lax1dude.eaglercraft.v1_8.minecraft.EntityQuerySite;
+import net.lax1dude.eaglercraft.v1_8.minecraft.EntityVisitor;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockChest;
 import net.minecraft.block.BlockHopper;
@@ -44,6 +46,8 @@ import net.minecraft.world.World;
  * 
  */
 public class TileEntityHopper extends TileEntityLockable implements IHopper, ITickable {
+	private static final EntityQuerySite captureQuery = EntityQuerySite.create("hopperCapture");
+	private static final TileEntityHopper.CaptureVisitor captureVisitor = new TileEntityHopper.CaptureVisitor();
 	private ItemStack[] inventory = new ItemStack[5];
 	private String customName;
 	private int transferCooldown = -1;
@@ -380,12 +384,16 @@ public class TileEntityHopper extends TileEntityLockable implements IHopper, ITi
 				}
 			}
 		} else {
-			List<EntityItem> list = func_181556_a(parIHopper.getWorld(), parIHopper.getXPos(),
-					parIHopper.getYPos() + 1.0D, parIHopper.getZPos());
-			for (int i = 0, l = list.size(); i < l; ++i) {
-				if (putDropInInventoryAllSlots(parIHopper, list.get(i))) {
-					return true;
-				}
+			double d0 = parIHopper.getXPos();
+			double d1 = parIHopper.getYPos() + 1.0D;
+			double d2 = parIHopper.getZPos();
+			captureVisitor.hopper = parIHopper;
+			boolean flag = parIHopper.getWorld().visitEntitiesWithinAABB(captureQuery, EntityItem.class,
+					new AxisAlignedBB(d0 - 0.5D, d1 - 0.5D, d2 - 0.5D, d0 + 0.5D, d1 + 0.5D, d2 + 0.5D),
+					captureVisitor);
+			captureVisitor.hopper = null;
+			if (!flag) {
+				return true;
 			}
 		}
 
@@ -652,4 +660,16 @@ public class TileEntityHopper extends TileEntityLockable implements IHopper, ITi
 		}
 
 	}
-}
\ No newline at end of file
+
+	/**+
+	 * Stops at the first item that could be put into the hopper,
+	 * one instance is reused for every hopper on the server thread
+	 */
+	private static class CaptureVisitor implements EntityVisitor<EntityItem> {
+		private IHopper hopper;
+
+		public boolean visit(EntityItem entityitem) {
+			return !entityitem.isEntityAlive() || !putDropInInventoryAllSlots(this.hopper, entityitem);
+		}
+	}
+}
@@ -129,6 +129,15 @@ public class ClassInheritanceMultiMap<T> extends AbstractSet<T> {
 		};
 	}
 
+	/**+
+	 * Returns the list of objects assignable to the class without
+	 * wrapping it in a filtered iterator, or null if it is empty.
+	 * The list must not be modified.
+	 */
+	public List<T> getListByClass(Class<?> clazz) {
+		return this.map.get(this.func_181157_b(clazz));
+	}
+
 	public Iterator<T> iterator() {
 		return this.field_181745_e.isEmpty() ? Iterators.emptyIterator()
 				: Iterators.unmodifiableIterator(this.field_181745_e.iterator());
@@ -10,10 +10,16 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 
+import net.lax1dude.eaglercraft.v1_8.EagRuntime;
 import net.lax1dude.eaglercraft.v1_8.EaglercraftRandom;
 import java.util.Set;
 import net.lax1dude.eaglercraft.v1_8.EaglercraftUUID;
 import net.lax1dude.eaglercraft.v1_8.HString;
+import net.lax1dude.eaglercraft.v1_8.minecraft.CollisionBoxBuffer;
+import net.lax1dude.eaglercraft.v1_8.minecraft.EntityQuerySite;
+import net.lax1dude.eaglercraft.v1_8.minecraft.EntityVisitor;
+import net.lax1dude.eaglercraft.v1_8.profiler.Profiler;
+import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerLightEngine;
 
 import java.util.concurrent.Callable;
 
@@ -52,6 +58,7 @@ import net.minecraft.world.biome.BiomeGenBase;
 import net.minecraft.world.biome.WorldChunkManager;
 import net.minecraft.world.border.WorldBorder;
 import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 import net.minecraft.world.chunk.IChunkProvider;
 import net.minecraft.world.gen.structure.StructureBoundingBox;
 import net.minecraft.world.storage.ISaveHandler;
@@ -145,9 +152,12 @@ public abstract class World implements IBlockAccess {
 	private boolean processingLoadedTiles;
 	private final WorldBorder worldBorder;
 	int[] lightUpdateBlockList;
+	protected EaglerLightEngine lightEngine = null;
 	public final boolean isRemote;
+	public final Profiler theProfiler;
 
-	protected World(ISaveHandler saveHandlerIn, WorldInfo info, WorldProvider providerIn, boolean client) {
+	protected World(ISaveHandler saveHandlerIn, WorldInfo info, WorldProvider providerIn, Profiler profilerIn,
+			boolean client) {
 		this.ambientTickCountdown = this.rand.nextInt(12000);
 		this.spawnHostileMobs = true;
 		this.spawnPeacefulMobs = true;
@@ -156,6 +166,7 @@ public abstract class World implements IBlockAccess {
 		this.worldInfo = info;
 		this.provider = providerIn;
 		this.worldBorder = providerIn.getWorldBorder();
+		this.theProfiler = profilerIn;
 		this.isRemote = client;
 	}
 
@@ -1105,6 +1116,134 @@ public abstract class World implements IBlockAccess {
 		return arraylist;
 	}
 
+	/**+
+	 * Same as getCollidingBoundingBoxes but the boxes are written
+	 * into a reusable buffer. Full cube blocks are added without
+	 * going through addCollisionBoxesToList and the chunk of each
+	 * column is only looked up once.
+	 */
+	public void getCollisionBoxes(Entity entityIn, AxisAlignedBB bb, CollisionBoxBuffer buffer) {
+		buffer.clear();
+		int i = MathHelper.floor_double(bb.minX);
+		int j = MathHelper.floor_double(bb.maxX + 1.0D);
+		int k = MathHelper.floor_double(bb.minY);
+		int l = MathHelper.floor_double(bb.maxY + 1.0D);
+		int i1 = MathHelper.floor_double(bb.minZ);
+		int j1 = MathHelper.floor_double(bb.maxZ + 1.0D);
+		WorldBorder worldborder = this.getWorldBorder();
+		boolean flag = entityIn.isOutsideBorder();
+		boolean flag1 = this.isInsideBorder(worldborder, entityIn);
+		boolean flag2 = false;
+		double borderMinX = worldborder.minX();
+		double borderMinZ = worldborder.minZ();
+		double borderMaxX = worldborder.maxX();
+		double borderMaxZ = worldborder.maxZ();
+		IBlockState iblockstate = Blocks.stone.getDefaultState();
+		IBlockState air = Blocks.air.getDefaultState();
+		BlockPos.MutableBlockPos blockpos$mutableblockpos = buffer.blockPos;
+		Chunk chunk = null;
+		int chunkX = 0;
+		int chunkZ = 0;
+		boolean chunkLoaded = false;
+
+		for (int k1 = i; k1 < j; ++k1) {
+			for (int l1 = i1; l1 < j1; ++l1) {
+				if (k1 < -30000000 || l1 < -30000000 || k1 >= 30000000 || l1 >= 30000000) {
+					continue;
+				}
+
+				int cx = k1 >> 4;
+				int cz = l1 >> 4;
+				if (chunk == null || cx != chunkX || cz != chunkZ) {
+					chunkX = cx;
+					chunkZ = cz;
+					chunkLoaded = this.isChunkLoaded(cx, cz, true);
+					chunk = chunkLoaded ? this.getChunkFromChunkCoords(cx, cz) : null;
+				}
+
+				if (!chunkLoaded) {
+					continue;
+				}
+
+				if (!flag2) {
+					flag2 = true;
+					if (flag && flag1) {
+						entityIn.setOutsideBorder(false);
+					} else if (!flag && !flag1) {
+						entityIn.setOutsideBorder(true);
+					}
+				}
+
+				boolean inBorder = (double) (k1 + 1) > borderMinX && (double) k1 < borderMaxX
+						&& (double) (l1 + 1) > borderMinZ && (double) l1 < borderMaxZ;
+				ExtendedBlockStorage[] storage = chunk.getBlockStorageArray();
+
+				for (int i2 = k - 1; i2 < l; ++i2) {
+					IBlockState iblockstate1 = iblockstate;
+					if (inBorder || !flag1) {
+						ExtendedBlockStorage extendedblockstorage = i2 >= 0 && (i2 >> 4) < storage.length
+								? storage[i2 >> 4]
+								: null;
+						iblockstate1 = extendedblockstorage != null
+								? extendedblockstorage.get(k1 & 15, i2 & 15, l1 & 15)
+								: air;
+					}
+
+					Block block = iblockstate1.getBlock();
+					if (block == Blocks.air) {
+						continue;
+					}
+
+					if (block.isFullCollisionCube()) {
+						if (bb.maxX > (double) k1 && bb.minX < (double) (k1 + 1) && bb.maxY > (double) i2
+								&& bb.minY < (double) (i2 + 1) && bb.maxZ > (double) l1
+								&& bb.minZ < (double) (l1 + 1)) {
+							buffer.add((double) k1, (double) i2, (double) l1, (double) (k1 + 1), (double) (i2 + 1),
+									(double) (l1 + 1));
+						}
+					} else {
+						blockpos$mutableblockpos.func_181079_c(k1, i2, l1);
+						block.addCollisionBoxesToList(this, blockpos$mutableblockpos, iblockstate1, bb,
+								buffer.getScratchBoxes(), entityIn);
+						buffer.addScratchBoxes();
+					}
+				}
+			}
+		}
+
+		double d0 = 0.25D;
+		AxisAlignedBB axisalignedbb1 = bb.expand(d0, d0, d0);
+		List<Entity> list = buffer.getScratchEntities();
+		int k2 = MathHelper.floor_double((axisalignedbb1.minX - 2.0D) / 16.0D);
+		int l2 = MathHelper.floor_double((axisalignedbb1.maxX + 2.0D) / 16.0D);
+		int i3 = MathHelper.floor_double((axisalignedbb1.minZ - 2.0D) / 16.0D);
+		int j3 = MathHelper.floor_double((axisalignedbb1.maxZ + 2.0D) / 16.0D);
+
+		for (int k3 = k2; k3 <= l2; ++k3) {
+			for (int l3 = i3; l3 <= j3; ++l3) {
+				if (this.isChunkLoaded(k3, l3, true)) {
+					this.getChunkFromChunkCoords(k3, l3).getEntitiesWithinAABBForEntity(entityIn, axisalignedbb1,
+							list, EntitySelectors.NOT_SPECTATING);
+				}
+			}
+		}
+
+		for (int j2 = 0, l4 = list.size(); j2 < l4; ++j2) {
+			Entity entity = list.get(j2);
+			AxisAlignedBB axisalignedbb = entity.getCollisionBoundingBox();
+			if (axisalignedbb != null && axisalignedbb.intersectsWith(bb)) {
+				buffer.add(axisalignedbb);
+			}
+
+			axisalignedbb = entityIn.getCollisionBox(entity);
+			if (axisalignedbb != null && axisalignedbb.intersectsWith(bb)) {
+				buffer.add(axisalignedbb);
+			}
+		}
+
+		list.clear();
+	}
+
 	public boolean isInsideBorder(WorldBorder worldBorderIn, Entity entityIn) {
 		double d0 = worldBorderIn.minX();
 		double d1 = worldBorderIn.minZ();
@@ -1353,6 +1492,9 @@ public abstract class World implements IBlockAccess {
 	 * Updates (and cleans up) entities and tile entities
 	 */
 	public void updateEntities() {
+		this.theProfiler.startSection("entities");
+		this.theProfiler.startSection("global");
+
 		for (int i = 0; i < this.weatherEffects.size(); ++i) {
 			Entity entity = (Entity) this.weatherEffects.get(i);
 
@@ -1376,6 +1518,7 @@ public abstract class World implements IBlockAccess {
 			}
 		}
 
+		this.theProfiler.endStartSection("remove");
 		this.loadedEntityList.removeAll(this.unloadedEntityList);
 
 		for (int k = 0; k < this.unloadedEntityList.size(); ++k) {
@@ -1392,6 +1535,7 @@ public abstract class World implements IBlockAccess {
 		}
 
 		this.unloadedEntityList.clear();
+		this.theProfiler.endStartSection("regular");
 
 		for (int i1 = 0; i1 < this.loadedEntityList.size(); ++i1) {
 			Entity entity2 = (Entity) this.loadedEntityList.get(i1);
@@ -1428,6 +1572,7 @@ public abstract class World implements IBlockAccess {
 
 		}
 
+		this.theProfiler.endStartSection("blockEntities");
 		this.processingLoadedTiles = true;
 		Iterator iterator = this.tickableTileEntities.iterator();
 
@@ -1464,6 +1609,7 @@ public abstract class World implements IBlockAccess {
 			this.tileEntitiesToBeRemoved.clear();
 		}
 
+		this.theProfiler.endStartSection("pendingBlockEntities");
 		if (!this.addedTileEntityList.isEmpty()) {
 			for (int j1 = 0; j1 < this.addedTileEntityList.size(); ++j1) {
 				TileEntity tileentity1 = (TileEntity) this.addedTileEntityList.get(j1);
@@ -1484,6 +1630,8 @@ public abstract class World implements IBlockAccess {
 			this.addedTileEntityList.clear();
 		}
 
+		this.theProfiler.endSection();
+		this.theProfiler.endSection();
 	}
 
 	public boolean addTileEntity(TileEntity tile) {
@@ -2302,6 +2450,9 @@ public abstract class World implements IBlockAccess {
 	}
 
 	public boolean checkLightFor(EnumSkyBlock lightType, BlockPos pos) {
+		if (this.lightEngine != null) {
+			return this.lightEngine.queueLightCheck(lightType, pos);
+		}
 		if (!this.isAreaLoaded(pos, 17, false)) {
 			return false;
 		} else {
@@ -2411,6 +2562,20 @@ public abstract class World implements IBlockAccess {
 		}
 	}
 
+	/**+
+	 * Propagates the light checks queued by the batched light
+	 * engine, does nothing if the world uses the old one
+	 */
+	public void flushLightUpdates() {
+		if (this.lightEngine != null) {
+			this.lightEngine.flush();
+		}
+	}
+
+	public EaglerLightEngine getLightEngine() {
+		return this.lightEngine;
+	}
+
 	/**+
 	 * Runs through the list of updates to run and ticks them
 	 */
@@ -2507,6 +2672,52 @@ public abstract class World implements IBlockAccess {
 		return arraylist;
 	}
 
+	/**+
+	 * Calls the visitor for every entity of the class intersecting
+	 * the box instead of returning a list, spectators are skipped
+	 * like in getEntitiesWithinAABB. Returns false if the visitor
+	 * stopped the query early.
+	 */
+	public <T extends Entity> boolean visitEntitiesWithinAABB(EntityQuerySite site, Class<? extends T> clazz,
+			AxisAlignedBB aabb, EntityVisitor<? super T> visitor) {
+		return this.visitEntities(site, clazz, aabb, null, false, visitor);
+	}
+
+	/**+
+	 * Visitor version of getEntitiesWithinAABBExcludingEntity,
+	 * includes the parts of multipart entities
+	 */
+	public boolean visitEntitiesWithinAABBExcludingEntity(EntityQuerySite site, Entity entityIn, AxisAlignedBB aabb,
+			EntityVisitor<Entity> visitor) {
+		return this.visitEntities(site, Entity.class, aabb, entityIn, true, visitor);
+	}
+
+	private <T extends Entity> boolean visitEntities(EntityQuerySite site, Class<? extends T> clazz,
+			AxisAlignedBB aabb, Entity exclude, boolean parts, EntityVisitor<? super T> visitor) {
+		boolean timed = !this.isRemote && this.theProfiler.profilingEnabled;
+		long start = timed ? EagRuntime.nanoTime() : 0l;
+		int i = MathHelper.floor_double((aabb.minX - 2.0D) / 16.0D);
+		int j = MathHelper.floor_double((aabb.maxX + 2.0D) / 16.0D);
+		int k = MathHelper.floor_double((aabb.minZ - 2.0D) / 16.0D);
+		int l = MathHelper.floor_double((aabb.maxZ + 2.0D) / 16.0D);
+		boolean flag = true;
+
+		for (int i1 = i; flag && i1 <= j; ++i1) {
+			for (int j1 = k; flag && j1 <= l; ++j1) {
+				if (this.isChunkLoaded(i1, j1, true)) {
+					flag = this.getChunkFromChunkCoords(i1, j1).visitEntitiesWithinAABB(clazz, aabb, exclude, parts,
+							visitor);
+				}
+			}
+		}
+
+		if (!this.isRemote) {
+			site.record(timed ? EagRuntime.nanoTime() - start : 0l);
+		}
+
+		return flag;
+	}
+
 	public <T extends Entity> T findNearestEntityWithinAABB(Class<? extends T> entityType, AxisAlignedBB aabb,
 			T closestTo) {
 		List list = this.getEntitiesWithinAABB(entityType, aabb);
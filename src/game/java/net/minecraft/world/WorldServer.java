@@ -5,14 +5,17 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import net.lax1dude.eaglercraft.v1_8.EaglercraftRandom;
 import java.util.Set;
-import java.util.TreeSet;
 import net.lax1dude.eaglercraft.v1_8.EaglercraftUUID;
+import net.lax1dude.eaglercraft.v1_8.sp.server.ChunkPacketCache;
+import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerLightEngine;
+import net.lax1dude.eaglercraft.v1_8.EagRuntime;
 import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerMinecraftServer;
+import net.lax1dude.eaglercraft.v1_8.sp.server.PathfindingService;
+import net.lax1dude.eaglercraft.v1_8.sp.server.ScheduledTickWheel;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockEventData;
 import net.minecraft.block.material.Material;
@@ -94,11 +97,12 @@ public class WorldServer extends World implements IThreadListener {
 	private final MinecraftServer mcServer;
 	private final EntityTracker theEntityTracker;
 	private final PlayerManager thePlayerManager;
-	private final Set<NextTickListEntry> pendingTickListEntriesHashSet = Sets.newHashSet();
+	private final ChunkPacketCache chunkPacketCache = new ChunkPacketCache();
+	private final PathfindingService pathfindingService = new PathfindingService(this);
 	/**+
 	 * All work to do in future ticks.
 	 */
-	private final TreeSet<NextTickListEntry> pendingTickListEntriesTreeSet = new TreeSet();
+	private final ScheduledTickWheel pendingTickListEntries;
 	private final Map<EaglercraftUUID, Entity> entitiesByUuid = Maps.newHashMap();
 	public ChunkProviderServer theChunkProviderServer;
 	public boolean disableLevelSaving;
@@ -122,14 +126,27 @@ public class WorldServer extends World implements IThreadListener {
 					new WeightedRandomChestContent(Items.bread, 0, 2, 3, 3),
 					new WeightedRandomChestContent(Item.getItemFromBlock(Blocks.log2), 0, 1, 3, 10) });
 	private List<NextTickListEntry> pendingTickListEntriesThisTick = Lists.newArrayList();
+	private Set<NextTickListEntry> pendingTickListEntriesThisTickSet = Sets.newHashSet();
 
 	public WorldServer(MinecraftServer server, ISaveHandler saveHandlerIn, WorldInfo info, int dimensionId) {
-		super(saveHandlerIn, info, WorldProvider.getProviderForDimension(dimensionId), false);
+		super(saveHandlerIn, info, WorldProvider.getProviderForDimension(dimensionId), server.theProfiler,
+				false);
 		this.mcServer = server;
+		this.pendingTickListEntries = new ScheduledTickWheel(info.getWorldTotalTime());
 		this.theEntityTracker = new EntityTracker(this);
 		this.thePlayerManager = new PlayerManager(this);
 		this.provider.registerWorld(this);
+		if (server instanceof EaglerMinecraftServer && ((EaglerMinecraftServer) server).isBatchedLighting()) {
+			this.lightEngine = new EaglerLightEngine(this);
+		}
 		this.chunkProvider = this.createChunkProvider();
+		if (server instanceof EaglerMinecraftServer) {
+			int threads = Math.min(((EaglerMinecraftServer) server).getTerrainGenThreads(),
+					EagRuntime.getAvailableWorkerThreads());
+			if (threads > 0) {
+				this.theChunkProviderServer.enableTerrainPipeline(threads);
+			}
+		}
 		this.worldTeleporter = new Teleporter(this);
 		this.calculateInitialSkylight();
 		this.calculateInitialWeather();
@@ -177,12 +194,18 @@ public class WorldServer extends World implements IThreadListener {
 	 * Runs a single tick for the world
 	 */
 	public void tick() {
+		this.flushLightUpdates();
 		super.tick();
 		if (this.getWorldInfo().isHardcoreModeEnabled() && this.getDifficulty() != EnumDifficulty.HARD) {
 			this.getWorldInfo().setDifficulty(EnumDifficulty.HARD);
 		}
 
+		this.theProfiler.startSection("terrainPipeline");
 		this.provider.getWorldChunkManager().cleanupCache();
+		this.theChunkProviderServer.tickTerrainPipeline();
+		this.theProfiler.endStartSection("pathfinding");
+		this.pathfindingService.tick();
+		this.theProfiler.endSection();
 		if (this.areAllPlayersAsleep()) {
 			if (this.getGameRules().getBoolean("doDaylightCycle")) {
 				long i = this.worldInfo.getWorldTime() + 24000L;
@@ -194,11 +217,15 @@ public class WorldServer extends World implements IThreadListener {
 
 		if (this.getGameRules().getBoolean("doMobSpawning")
 				&& this.worldInfo.getTerrainType() != WorldType.DEBUG_WORLD) {
+			this.theProfiler.startSection("mobSpawner");
 			this.mobSpawner.findChunksForSpawning(this, this.spawnHostileMobs, this.spawnPeacefulMobs,
 					this.worldInfo.getWorldTotalTime() % 400L == 0L);
+			this.theProfiler.endSection();
 		}
 
+		this.theProfiler.startSection("chunkSource");
 		this.chunkProvider.unloadQueuedChunks();
+		this.theProfiler.endSection();
 		int j = this.calculateSkylightSubtracted(1.0F);
 		if (j != this.getSkylightSubtracted()) {
 			this.setSkylightSubtracted(j);
@@ -209,12 +236,22 @@ public class WorldServer extends World implements IThreadListener {
 			this.worldInfo.setWorldTime(this.worldInfo.getWorldTime() + 1L);
 		}
 
+		this.theProfiler.startSection("tickPending");
 		this.tickUpdates(false);
+		this.theProfiler.endStartSection("tickBlocks");
 		this.updateBlocks();
+		this.theProfiler.endStartSection("lighting");
+		this.flushLightUpdates();
+		this.theProfiler.endStartSection("chunkMap");
 		this.thePlayerManager.updatePlayerInstances();
+		this.theProfiler.endStartSection("lighting");
+		this.flushLightUpdates();
+		this.theProfiler.endStartSection("village");
 		this.villageCollectionObj.tick();
 		this.villageSiege.tick();
+		this.theProfiler.endStartSection("portalForcer");
 		this.worldTeleporter.removeStalePortalLocations(this.getTotalWorldTime());
+		this.theProfiler.endSection();
 		this.sendQueuedBlockEvents();
 	}
 
@@ -410,7 +447,7 @@ public class WorldServer extends World implements IThreadListener {
 
 	public boolean isBlockTickPending(BlockPos blockpos, Block block) {
 		NextTickListEntry nextticklistentry = new NextTickListEntry(blockpos, block);
-		return this.pendingTickListEntriesThisTick.contains(nextticklistentry);
+		return this.pendingTickListEntriesThisTickSet.contains(nextticklistentry);
 	}
 
 	public void scheduleUpdate(BlockPos blockpos, Block block, int i) {
@@ -445,10 +482,7 @@ public class WorldServer extends World implements IThreadListener {
 				nextticklistentry.setPriority(j);
 			}
 
-			if (!this.pendingTickListEntriesHashSet.contains(nextticklistentry)) {
-				this.pendingTickListEntriesHashSet.add(nextticklistentry);
-				this.pendingTickListEntriesTreeSet.add(nextticklistentry);
-			}
+			this.pendingTickListEntries.add(nextticklistentry);
 		}
 
 	}
@@ -460,10 +494,7 @@ public class WorldServer extends World implements IThreadListener {
 			nextticklistentry.setScheduledTime((long) i + this.worldInfo.getWorldTotalTime());
 		}
 
-		if (!this.pendingTickListEntriesHashSet.contains(nextticklistentry)) {
-			this.pendingTickListEntriesHashSet.add(nextticklistentry);
-			this.pendingTickListEntriesTreeSet.add(nextticklistentry);
-		}
+		this.pendingTickListEntries.add(nextticklistentry);
 
 	}
 
@@ -496,59 +527,43 @@ public class WorldServer extends World implements IThreadListener {
 		if (this.worldInfo.getTerrainType() == WorldType.DEBUG_WORLD) {
 			return false;
 		} else {
-			int i = this.pendingTickListEntriesTreeSet.size();
-			if (i != this.pendingTickListEntriesHashSet.size()) {
-				throw new IllegalStateException("TickNextTick list out of synch");
-			} else {
-				if (i > 1000) {
-					i = 1000;
-				}
-
-				for (int j = 0; j < i; ++j) {
-					NextTickListEntry nextticklistentry = (NextTickListEntry) this.pendingTickListEntriesTreeSet
-							.first();
-					if (!flag && nextticklistentry.scheduledTime > this.worldInfo.getWorldTotalTime()) {
-						break;
-					}
-
-					this.pendingTickListEntriesTreeSet.remove(nextticklistentry);
-					this.pendingTickListEntriesHashSet.remove(nextticklistentry);
-					this.pendingTickListEntriesThisTick.add(nextticklistentry);
+			this.pendingTickListEntries.poll(this.worldInfo.getWorldTotalTime(), flag, 1000,
+					this.pendingTickListEntriesThisTick);
+			this.pendingTickListEntriesThisTickSet.addAll(this.pendingTickListEntriesThisTick);
+
+			for (int j = 0, l = this.pendingTickListEntriesThisTick.size(); j < l; ++j) {
+				NextTickListEntry nextticklistentry1 = this.pendingTickListEntriesThisTick.get(j);
+				if (!this.pendingTickListEntriesThisTickSet.remove(nextticklistentry1)) {
+					continue;
 				}
 
-				Iterator iterator = this.pendingTickListEntriesThisTick.iterator();
-
-				while (iterator.hasNext()) {
-					NextTickListEntry nextticklistentry1 = (NextTickListEntry) iterator.next();
-					iterator.remove();
-					byte b0 = 0;
-					if (this.isAreaLoaded(nextticklistentry1.position.add(-b0, -b0, -b0),
-							nextticklistentry1.position.add(b0, b0, b0))) {
-						IBlockState iblockstate = this.getBlockState(nextticklistentry1.position);
-						if (iblockstate.getBlock().getMaterial() != Material.air
-								&& Block.isEqualTo(iblockstate.getBlock(), nextticklistentry1.getBlock())) {
-							try {
-								iblockstate.getBlock().updateTick(this, nextticklistentry1.position, iblockstate,
-										this.rand);
-								++EaglerMinecraftServer.counterTileUpdate;
-							} catch (Throwable throwable) {
-								CrashReport crashreport = CrashReport.makeCrashReport(throwable,
-										"Exception while ticking a block");
-								CrashReportCategory crashreportcategory = crashreport
-										.makeCategory("Block being ticked");
-								CrashReportCategory.addBlockInfo(crashreportcategory, nextticklistentry1.position,
-										iblockstate);
-								throw new ReportedException(crashreport);
-							}
+				byte b0 = 0;
+				if (this.isAreaLoaded(nextticklistentry1.position.add(-b0, -b0, -b0),
+						nextticklistentry1.position.add(b0, b0, b0))) {
+					IBlockState iblockstate = this.getBlockState(nextticklistentry1.position);
+					if (iblockstate.getBlock().getMaterial() != Material.air
+							&& Block.isEqualTo(iblockstate.getBlock(), nextticklistentry1.getBlock())) {
+						try {
+							iblockstate.getBlock().updateTick(this, nextticklistentry1.position, iblockstate,
+									this.rand);
+							++EaglerMinecraftServer.counterTileUpdate;
+						} catch (Throwable throwable) {
+							CrashReport crashreport = CrashReport.makeCrashReport(throwable,
+									"Exception while ticking a block");
+							CrashReportCategory crashreportcategory = crashreport
+									.makeCategory("Block being ticked");
+							CrashReportCategory.addBlockInfo(crashreportcategory, nextticklistentry1.position,
+									iblockstate);
+							throw new ReportedException(crashreport);
 						}
-					} else {
-						this.scheduleUpdate(nextticklistentry1.position, nextticklistentry1.getBlock(), 0);
 					}
+				} else {
+					this.scheduleUpdate(nextticklistentry1.position, nextticklistentry1.getBlock(), 0);
 				}
-
-				this.pendingTickListEntriesThisTick.clear();
-				return !this.pendingTickListEntriesTreeSet.isEmpty();
 			}
+
+			this.pendingTickListEntriesThisTick.clear();
+			return this.pendingTickListEntries.size() > 0;
 		}
 	}
 
@@ -562,33 +577,24 @@ public class WorldServer extends World implements IThreadListener {
 	}
 
 	public List<NextTickListEntry> func_175712_a(StructureBoundingBox structureboundingbox, boolean flag) {
-		ArrayList arraylist = null;
-
-		for (int i = 0; i < 2; ++i) {
-			Iterator iterator;
-			if (i == 0) {
-				iterator = this.pendingTickListEntriesTreeSet.iterator();
-			} else {
-				iterator = this.pendingTickListEntriesThisTick.iterator();
-			}
-
-			while (iterator.hasNext()) {
-				NextTickListEntry nextticklistentry = (NextTickListEntry) iterator.next();
-				BlockPos blockpos = nextticklistentry.position;
-				if (blockpos.getX() >= structureboundingbox.minX && blockpos.getX() < structureboundingbox.maxX
-						&& blockpos.getZ() >= structureboundingbox.minZ
-						&& blockpos.getZ() < structureboundingbox.maxZ) {
-					if (flag) {
-						this.pendingTickListEntriesHashSet.remove(nextticklistentry);
-						iterator.remove();
-					}
-
-					if (arraylist == null) {
-						arraylist = Lists.newArrayList();
-					}
+		List<NextTickListEntry> arraylist = this.pendingTickListEntries.getEntriesInBox(structureboundingbox.minX,
+				structureboundingbox.minZ, structureboundingbox.maxX, structureboundingbox.maxZ, flag);
+
+		for (int i = 0, l = this.pendingTickListEntriesThisTick.size(); i < l; ++i) {
+			NextTickListEntry nextticklistentry = this.pendingTickListEntriesThisTick.get(i);
+			BlockPos blockpos = nextticklistentry.position;
+			if (blockpos.getX() >= structureboundingbox.minX && blockpos.getX() < structureboundingbox.maxX
+					&& blockpos.getZ() >= structureboundingbox.minZ && blockpos.getZ() < structureboundingbox.maxZ
+					&& this.pendingTickListEntriesThisTickSet.contains(nextticklistentry)) {
+				if (flag) {
+					this.pendingTickListEntriesThisTickSet.remove(nextticklistentry);
+				}
 
-					arraylist.add(nextticklistentry);
+				if (arraylist == null) {
+					arraylist = Lists.newArrayList();
 				}
+
+				arraylist.add(nextticklistentry);
 			}
 		}
 
@@ -771,6 +777,7 @@ public class WorldServer extends World implements IThreadListener {
 				parIProgressUpdate.displaySavingString("Saving level");
 			}
 
+			this.flushLightUpdates();
 			this.saveLevel();
 			if (parIProgressUpdate != null) {
 				parIProgressUpdate.displayLoadingString("Saving chunks");
@@ -940,6 +947,14 @@ public class WorldServer extends World implements IThreadListener {
 		this.saveHandler.flush();
 	}
 
+	/**+
+	 * Stops the terrain workers of this world, called when the
+	 * server is stopping
+	 */
+	public void shutdownTerrainGeneration() {
+		this.theChunkProviderServer.shutdownTerrainPipeline();
+	}
+
 	/**+
 	 * Updates all weather states.
 	 */
@@ -990,6 +1005,14 @@ public class WorldServer extends World implements IThreadListener {
 		return this.thePlayerManager;
 	}
 
+	public ChunkPacketCache getChunkPacketCache() {
+		return this.chunkPacketCache;
+	}
+
+	public PathfindingService getPathfindingService() {
+		return this.pathfindingService;
+	}
+
 	public Teleporter getDefaultTeleporter() {
 		return this.worldTeleporter;
 	}
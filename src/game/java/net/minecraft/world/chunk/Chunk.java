@@ -10,6 +10,7 @@ import net.lax1dude.eaglercraft.v1_8.EaglercraftRandom;
 
 import java.util.concurrent.Callable;
 
+import net.lax1dude.eaglercraft.v1_8.minecraft.EntityVisitor;
 import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerMinecraftServer;
 import net.minecraft.block.Block;
 import net.minecraft.block.ITileEntityProvider;
@@ -18,6 +19,7 @@ import net.minecraft.block.state.IBlockState;
 import net.minecraft.crash.CrashReport;
 import net.minecraft.crash.CrashReportCategory;
 import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.init.Blocks;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.AxisAlignedBB;
@@ -74,6 +76,7 @@ public class Chunk {
 	private boolean isLightPopulated;
 	private boolean field_150815_m;
 	private boolean isModified;
+	private int modificationCount;
 	private boolean hasEntities;
 	private long lastSaveTime;
 	private int heightMapMinimum;
@@ -191,7 +194,7 @@ public class Chunk {
 			}
 		}
 
-		this.isModified = true;
+		this.setChunkModified();
 	}
 
 	/**+
@@ -248,7 +251,7 @@ public class Chunk {
 		if (!this.worldObj.isRemote) {
 			++EaglerMinecraftServer.counterLightUpdate;
 		}
-		this.isModified = true;
+		this.setChunkModified();
 	}
 
 	/**+
@@ -317,7 +320,7 @@ public class Chunk {
 				this.worldObj.checkLightFor(EnumSkyBlock.SKY, new BlockPos(x, i, z));
 			}
 
-			this.isModified = true;
+			this.setChunkModified();
 		}
 
 	}
@@ -410,7 +413,7 @@ public class Chunk {
 			if (!this.worldObj.isRemote) {
 				++EaglerMinecraftServer.counterLightUpdate;
 			}
-			this.isModified = true;
+			this.setChunkModified();
 		}
 	}
 
@@ -631,7 +634,7 @@ public class Chunk {
 					}
 				}
 
-				this.isModified = true;
+				this.setChunkModified();
 				return iblockstate;
 			}
 		}
@@ -662,7 +665,7 @@ public class Chunk {
 			this.generateSkylightMap();
 		}
 
-		this.isModified = true;
+		this.setChunkModified();
 		if (enumskyblock == EnumSkyBlock.SKY) {
 			if (!this.worldObj.provider.getHasNoSky()) {
 				extendedblockstorage.setExtSkylightValue(j, k & 15, l, i);
@@ -849,6 +852,15 @@ public class Chunk {
 	 */
 	public void setChunkModified() {
 		this.isModified = true;
+		++this.modificationCount;
+	}
+
+	/**+
+	 * Incremented every time the blocks or light in this chunk
+	 * change, used to tell if a cached copy is still valid
+	 */
+	public int getModificationCount() {
+		return this.modificationCount;
 	}
 
 	/**+
@@ -895,16 +907,79 @@ public class Chunk {
 		j = MathHelper.clamp_int(j, 0, this.entityLists.length - 1);
 
 		for (int k = i; k <= j; ++k) {
-			for (Entity entity : this.entityLists[k].getByClass(oclass)) {
-				if (entity.getEntityBoundingBox().intersectsWith(axisalignedbb)
-						&& (predicate == null || predicate.apply((T) entity))) {
-					list.add((T) entity);
+			List<Entity> list1 = this.entityLists[k].getListByClass(oclass);
+			if (list1 != null) {
+				for (int l = 0, m = list1.size(); l < m; ++l) {
+					Entity entity = list1.get(l);
+					if (entity.getEntityBoundingBox().intersectsWith(axisalignedbb)
+							&& (predicate == null || predicate.apply((T) entity))) {
+						list.add((T) entity);
+					}
 				}
 			}
 		}
 
 	}
 
+	/**+
+	 * Calls the visitor for every entity of the class in this chunk
+	 * that intersects the box, skipping the excluded entity and
+	 * spectators. If parts is true the parts of multipart entities
+	 * are visited too. Returns false if the visitor stopped the
+	 * query.
+	 */
+	public <T extends Entity> boolean visitEntitiesWithinAABB(Class<? extends T> oclass, AxisAlignedBB axisalignedbb,
+			Entity exclude, boolean parts, EntityVisitor<? super T> visitor) {
+		int i = MathHelper.floor_double((axisalignedbb.minY - 2.0D) / 16.0D);
+		int j = MathHelper.floor_double((axisalignedbb.maxY + 2.0D) / 16.0D);
+		i = MathHelper.clamp_int(i, 0, this.entityLists.length - 1);
+		j = MathHelper.clamp_int(j, 0, this.entityLists.length - 1);
+		double minX = axisalignedbb.minX;
+		double minY = axisalignedbb.minY;
+		double minZ = axisalignedbb.minZ;
+		double maxX = axisalignedbb.maxX;
+		double maxY = axisalignedbb.maxY;
+		double maxZ = axisalignedbb.maxZ;
+
+		for (int k = i; k <= j; ++k) {
+			List<Entity> list = this.entityLists[k].getListByClass(oclass);
+			if (list == null) {
+				continue;
+			}
+
+			for (int l = 0; l < list.size(); ++l) {
+				Entity entity = list.get(l);
+				AxisAlignedBB bb = entity.getEntityBoundingBox();
+				if (bb.maxX > minX && bb.minX < maxX && bb.maxY > minY && bb.minY < maxY && bb.maxZ > minZ
+						&& bb.minZ < maxZ && entity != exclude) {
+					if (!isSpectator(entity) && !visitor.visit((T) entity)) {
+						return false;
+					}
+
+					if (parts) {
+						Entity[] aentity = entity.getParts();
+						if (aentity != null) {
+							for (int m = 0; m < aentity.length; ++m) {
+								Entity entity1 = aentity[m];
+								if (entity1 != exclude && entity1.getEntityBoundingBox().intersectsWith(axisalignedbb)
+										&& oclass.isAssignableFrom(entity1.getClass()) && !isSpectator(entity1)
+										&& !visitor.visit((T) entity1)) {
+									return false;
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean isSpectator(Entity entity) {
+		return entity instanceof EntityPlayer && ((EntityPlayer) entity).isSpectator();
+	}
+
 	/**+
 	 * Returns true if this Chunk needs to be saved
 	 */
@@ -1371,6 +1446,9 @@ public class Chunk {
 
 	public void setModified(boolean modified) {
 		this.isModified = modified;
+		if (modified) {
+			++this.modificationCount;
+		}
 	}
 
 	public void setHasEntities(boolean hasEntitiesIn) {
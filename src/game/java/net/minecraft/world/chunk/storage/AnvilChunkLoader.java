@@ -130,6 +130,15 @@ public abstract class AnvilChunkLoader implements IChunkLoader {
 
 		parNBTTagCompound.setTag("Sections", nbttaglist);
 		parNBTTagCompound.setByteArray("Biomes", chunkIn.getBiomeArray());
+		this.writeChunkEntitiesToNBT(chunkIn, worldIn, parNBTTagCompound);
+	}
+
+	/**+
+	 * Writes the entities, tile entities and pending block updates
+	 * of the Chunk to the NBTTagCompound, these are the only parts
+	 * of a chunk that are not stored as flat arrays
+	 */
+	protected void writeChunkEntitiesToNBT(Chunk chunkIn, World worldIn, NBTTagCompound parNBTTagCompound) {
 		chunkIn.setHasEntities(false);
 		NBTTagList nbttaglist1 = new NBTTagList();
 
@@ -229,6 +238,15 @@ public abstract class AnvilChunkLoader implements IChunkLoader {
 			chunk.setBiomeArray(parNBTTagCompound.getByteArray("Biomes"));
 		}
 
+		this.readChunkEntitiesFromNBT(worldIn, chunk, parNBTTagCompound);
+		return chunk;
+	}
+
+	/**+
+	 * Adds the entities, tile entities and pending block updates
+	 * stored in the NBTTagCompound to the Chunk
+	 */
+	protected void readChunkEntitiesFromNBT(World worldIn, Chunk chunk, NBTTagCompound parNBTTagCompound) {
 		NBTTagList nbttaglist1 = parNBTTagCompound.getTagList("Entities", 10);
 		if (nbttaglist1 != null) {
 			for (int i2 = 0; i2 < nbttaglist1.tagCount(); ++i2) {
@@ -284,7 +302,5 @@ public abstract class AnvilChunkLoader implements IChunkLoader {
 				}
 			}
 		}
-
-		return chunk;
 	}
 }
\ No newline at end of file
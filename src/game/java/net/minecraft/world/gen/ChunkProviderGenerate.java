@@ -2,6 +2,7 @@ package net.minecraft.world.gen;
 
 import java.util.List;
 import net.lax1dude.eaglercraft.v1_8.EaglercraftRandom;
+import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerTerrainPipeline;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockFalling;
 import net.minecraft.entity.EnumCreatureType;
@@ -14,6 +15,7 @@ import net.minecraft.world.SpawnerAnimals;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldType;
 import net.minecraft.world.biome.BiomeGenBase;
+import net.minecraft.world.biome.WorldChunkManager;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.ChunkPrimer;
 import net.minecraft.world.chunk.IChunkProvider;
@@ -74,9 +76,15 @@ public class ChunkProviderGenerate implements IChunkProvider {
 	double[] field_147428_e;
 	double[] field_147425_f;
 	double[] field_147426_g;
+	private final long worldSeed;
+	private final String generatorOptions;
+	private WorldChunkManager terrainChunkManager;
+	private EaglerTerrainPipeline terrainPipeline;
 
 	public ChunkProviderGenerate(World worldIn, long parLong1, boolean parFlag, String parString1) {
 		this.worldObj = worldIn;
+		this.worldSeed = parLong1;
+		this.generatorOptions = parString1;
 		this.mapFeaturesEnabled = parFlag;
 		this.field_177475_o = worldIn.getWorldInfo().getTerrainType();
 		boolean scramble = !worldIn.getWorldInfo().isOldEaglercraftRandom();
@@ -113,8 +121,54 @@ public class ChunkProviderGenerate implements IChunkProvider {
 
 	}
 
+	/**+
+	 * Starts generating the terrain of chunks ahead of the players
+	 * on worker threads, each worker gets its own generator and
+	 * biome layers so no state is shared with the server thread
+	 */
+	public boolean enableTerrainPipeline(int threads) {
+		if (this.terrainPipeline != null || threads <= 0
+				|| this.worldObj.getWorldChunkManager().getClass() != WorldChunkManager.class) {
+			return false;
+		}
+		ChunkProviderGenerate[] generators = new ChunkProviderGenerate[threads];
+		for (int i = 0; i < threads; ++i) {
+			generators[i] = new ChunkProviderGenerate(this.worldObj, this.worldSeed, this.mapFeaturesEnabled,
+					this.generatorOptions);
+			generators[i].terrainChunkManager = new WorldChunkManager(this.worldSeed, this.field_177475_o,
+					this.worldObj.getWorldInfo().getGeneratorOptions());
+		}
+		this.terrainPipeline = new EaglerTerrainPipeline(generators);
+		return true;
+	}
+
+	public EaglerTerrainPipeline getTerrainPipeline() {
+		return this.terrainPipeline;
+	}
+
+	public void shutdownTerrainPipeline() {
+		if (this.terrainPipeline != null) {
+			this.terrainPipeline.shutdown();
+			this.terrainPipeline = null;
+		}
+	}
+
+	/**+
+	 * Generates the base stone and water of a chunk and its biomes,
+	 * this is the part of provideChunk that is safe to run on a
+	 * worker thread
+	 */
+	public EaglerTerrainPipeline.TerrainData generateTerrain(int x, int z) {
+		ChunkPrimer chunkprimer = new ChunkPrimer();
+		this.setBlocksInChunk(x, z, chunkprimer);
+		BiomeGenBase[] biomes = this.terrainChunkManager.getBiomeGenAt(null, x * 16, z * 16, 16, 16, false);
+		return new EaglerTerrainPipeline.TerrainData(chunkprimer, biomes);
+	}
+
 	public void setBlocksInChunk(int parInt1, int parInt2, ChunkPrimer parChunkPrimer) {
-		this.biomesForGeneration = this.worldObj.getWorldChunkManager().getBiomesForGeneration(this.biomesForGeneration,
+		WorldChunkManager chunkManager = this.terrainChunkManager != null ? this.terrainChunkManager
+				: this.worldObj.getWorldChunkManager();
+		this.biomesForGeneration = chunkManager.getBiomesForGeneration(this.biomesForGeneration,
 				parInt1 * 4 - 2, parInt2 * 4 - 2, 10, 10);
 		this.func_147423_a(parInt1 * 4, 0, parInt2 * 4);
 
@@ -199,10 +253,18 @@ public class ChunkProviderGenerate implements IChunkProvider {
 	 */
 	public Chunk provideChunk(int i, int j) {
 		this.rand.setSeed((long) i * 341873128712L + (long) j * 132897987541L);
-		ChunkPrimer chunkprimer = new ChunkPrimer();
-		this.setBlocksInChunk(i, j, chunkprimer);
-		this.biomesForGeneration = this.worldObj.getWorldChunkManager().loadBlockGeneratorData(this.biomesForGeneration,
-				i * 16, j * 16, 16, 16);
+		EaglerTerrainPipeline.TerrainData terrain = this.terrainPipeline != null ? this.terrainPipeline.take(i, j)
+				: null;
+		ChunkPrimer chunkprimer;
+		if (terrain != null) {
+			chunkprimer = terrain.primer;
+			this.biomesForGeneration = terrain.biomes;
+		} else {
+			chunkprimer = new ChunkPrimer();
+			this.setBlocksInChunk(i, j, chunkprimer);
+			this.biomesForGeneration = this.worldObj.getWorldChunkManager()
+					.loadBlockGeneratorData(this.biomesForGeneration, i * 16, j * 16, 16, 16);
+		}
 		this.replaceBlocksForBiome(i, j, chunkprimer, this.biomesForGeneration);
 		if (this.settings.useCaves) {
 			this.caveGenerator.generate(this, this.worldObj, i, j, chunkprimer);
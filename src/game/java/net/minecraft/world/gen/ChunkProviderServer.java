@@ -9,7 +9,9 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import net.minecraft.crash.CrashReport;
 import net.minecraft.crash.CrashReportCategory;
+import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerChunkLoader;
 import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerMinecraftServer;
+import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerTerrainPipeline;
 import net.minecraft.entity.EnumCreatureType;
 import net.minecraft.util.BlockPos;
 import net.minecraft.util.IProgressUpdate;
@@ -81,6 +83,42 @@ public class ChunkProviderServer implements IChunkProvider {
 		return this.id2ChunkMap.containsItem(ChunkCoordIntPair.chunkXZ2Int(i, j));
 	}
 
+	/**+
+	 * Returns true if the chunk is not loaded and not saved, so
+	 * asking for it would run the terrain generator
+	 */
+	public boolean needsGeneration(int i, int j) {
+		if (this.chunkExists(i, j)) {
+			return false;
+		}
+		return !(this.chunkLoader instanceof EaglerChunkLoader)
+				|| !((EaglerChunkLoader) this.chunkLoader).isChunkSaved(i, j);
+	}
+
+	/**+
+	 * Lets the terrain workers queue the chunks the players are
+	 * walking towards
+	 */
+	public void tickTerrainPipeline() {
+		if (this.serverChunkGenerator instanceof ChunkProviderGenerate) {
+			EaglerTerrainPipeline pipeline = ((ChunkProviderGenerate) this.serverChunkGenerator).getTerrainPipeline();
+			if (pipeline != null) {
+				pipeline.tick(this.worldObj, this);
+			}
+		}
+	}
+
+	public boolean enableTerrainPipeline(int threads) {
+		return this.serverChunkGenerator instanceof ChunkProviderGenerate
+				&& ((ChunkProviderGenerate) this.serverChunkGenerator).enableTerrainPipeline(threads);
+	}
+
+	public void shutdownTerrainPipeline() {
+		if (this.serverChunkGenerator instanceof ChunkProviderGenerate) {
+			((ChunkProviderGenerate) this.serverChunkGenerator).shutdownTerrainPipeline();
+		}
+	}
+
 	public List<Chunk> func_152380_a() {
 		return this.loadedChunks;
 	}
@@ -114,13 +152,17 @@ public class ChunkProviderServer implements IChunkProvider {
 		this.droppedChunksSet.remove(Long.valueOf(k));
 		Chunk chunk = (Chunk) this.id2ChunkMap.getValueByKey(k);
 		if (chunk == null) {
+			this.worldObj.theProfiler.startSection("chunkRead");
 			chunk = this.loadChunkFromFile(i, j);
+			this.worldObj.theProfiler.endSection();
 			if (chunk == null) {
 				if (this.serverChunkGenerator == null) {
 					chunk = this.dummyChunk;
 				} else {
 					try {
+						this.worldObj.theProfiler.startSection("chunkGenerate");
 						chunk = this.serverChunkGenerator.provideChunk(i, j);
+						this.worldObj.theProfiler.endSection();
 						++EaglerMinecraftServer.counterChunkGenerate;
 					} catch (Throwable throwable) {
 						CrashReport crashreport = CrashReport.makeCrashReport(throwable,
@@ -193,6 +235,7 @@ public class ChunkProviderServer implements IChunkProvider {
 
 	private void saveChunkData(Chunk parChunk) {
 		if (this.chunkLoader != null) {
+			this.worldObj.theProfiler.startSection("chunkWrite");
 			try {
 				parChunk.setLastSaveTime(this.worldObj.getTotalWorldTime());
 				this.chunkLoader.saveChunk(this.worldObj, parChunk);
@@ -205,6 +248,7 @@ public class ChunkProviderServer implements IChunkProvider {
 				logger.error(minecraftexception);
 			}
 
+			this.worldObj.theProfiler.endSection();
 		}
 	}
 
@@ -289,6 +333,7 @@ public class ChunkProviderServer implements IChunkProvider {
 						this.saveChunkExtraData(chunk);
 						this.id2ChunkMap.remove(olong.longValue());
 						this.loadedChunks.remove(chunk);
+						this.worldObj.getChunkPacketCache().remove(chunk.xPosition, chunk.zPosition);
 					}
 
 					this.droppedChunksSet.remove(olong);
@@ -24,31 +24,72 @@ import java.util.List;
  * 
  */
 public class IntCache {
-	private static int intCacheSize = 256;
+
+	/**+
+	 * Used while only one thread runs the biome layers, which is
+	 * always the case in the browser, so the common path skips the
+	 * ThreadLocal lookup
+	 */
+	private static final IntCache sharedCache = new IntCache();
+	/**+
+	 * Only set on the server thread before the terrain workers are
+	 * started, starting the threads publishes it to them
+	 */
+	private static boolean perThread = false;
+	/**+
+	 * Each thread that runs the biome layers gets its own set of
+	 * arrays once perThread is set, so terrain can be generated on
+	 * more than one thread without the layers of one resetting the
+	 * arrays of another
+	 */
+	private static final ThreadLocal<IntCache> threadCache = new ThreadLocal<IntCache>() {
+		protected IntCache initialValue() {
+			return new IntCache();
+		}
+	};
+
+	private int intCacheSize = 256;
 	/**+
 	 * A list of pre-allocated int[256] arrays that are currently
 	 * unused and can be returned by getIntCache()
 	 */
-	private static List<int[]> freeSmallArrays = Lists.newArrayList();
+	private final List<int[]> freeSmallArrays = Lists.newArrayList();
 	/**+
 	 * A list of pre-allocated int[256] arrays that were previously
 	 * returned by getIntCache() and which will not be re-used again
 	 * until resetIntCache() is called.
 	 */
-	private static List<int[]> inUseSmallArrays = Lists.newArrayList();
+	private final List<int[]> inUseSmallArrays = Lists.newArrayList();
 	/**+
 	 * A list of pre-allocated int[cacheSize] arrays that are
 	 * currently unused and can be returned by getIntCache()
 	 */
-	private static List<int[]> freeLargeArrays = Lists.newArrayList();
+	private final List<int[]> freeLargeArrays = Lists.newArrayList();
 	/**+
 	 * A list of pre-allocated int[cacheSize] arrays that were
 	 * previously returned by getIntCache() and which will not be
 	 * re-used again until resetIntCache() is called.
 	 */
-	private static List<int[]> inUseLargeArrays = Lists.newArrayList();
+	private final List<int[]> inUseLargeArrays = Lists.newArrayList();
 
-	public static synchronized int[] getIntCache(int parInt1) {
+	public static int[] getIntCache(int parInt1) {
+		return getCache().getArray(parInt1);
+	}
+
+	private static IntCache getCache() {
+		return perThread ? threadCache.get() : sharedCache;
+	}
+
+	/**+
+	 * Gives every thread its own arrays from now on, must be called
+	 * on the server thread between two generator calls and before
+	 * any other thread runs the biome layers
+	 */
+	public static void enablePerThreadCaches() {
+		perThread = true;
+	}
+
+	private int[] getArray(int parInt1) {
 		if (parInt1 <= 256) {
 			if (freeSmallArrays.isEmpty()) {
 				int[] aint4 = new int[256];
@@ -81,7 +122,11 @@ public class IntCache {
 	 * Mark all pre-allocated arrays as available for re-use by
 	 * moving them to the appropriate free lists.
 	 */
-	public static synchronized void resetIntCache() {
+	public static void resetIntCache() {
+		getCache().reset();
+	}
+
+	private void reset() {
 		if (!freeLargeArrays.isEmpty()) {
 			freeLargeArrays.remove(freeLargeArrays.size() - 1);
 		}
@@ -98,10 +143,11 @@ public class IntCache {
 
 	/**+
 	 * Gets a human-readable string that indicates the sizes of all
-	 * the cache fields. Basically a synchronized static toString.
+	 * the cache fields of the calling thread.
 	 */
-	public static synchronized String getCacheSizes() {
-		return "cache: " + freeLargeArrays.size() + ", tcache: " + freeSmallArrays.size() + ", allocated: "
-				+ inUseLargeArrays.size() + ", tallocated: " + inUseSmallArrays.size();
+	public static String getCacheSizes() {
+		IntCache cache = getCache();
+		return "cache: " + cache.freeLargeArrays.size() + ", tcache: " + cache.freeSmallArrays.size()
+				+ ", allocated: " + cache.inUseLargeArrays.size() + ", tallocated: " + cache.inUseSmallArrays.size();
 	}
-}
\ No newline at end of file
+}
@@ -1,8 +1,9 @@
 package net.minecraft.world.pathfinder;
 
+import net.lax1dude.eaglercraft.v1_8.minecraft.PathNodePool;
+import net.lax1dude.eaglercraft.v1_8.sp.server.PathfindingService;
 import net.minecraft.entity.Entity;
 import net.minecraft.pathfinding.PathPoint;
-import net.minecraft.util.IntHashMap;
 import net.minecraft.util.MathHelper;
 import net.minecraft.world.IBlockAccess;
 
@@ -28,14 +29,24 @@ import net.minecraft.world.IBlockAccess;
  */
 public abstract class NodeProcessor {
 	protected IBlockAccess blockaccess;
-	protected IntHashMap<PathPoint> pointMap = new IntHashMap();
+	protected PathNodePool pointMap;
+	private PathNodePool localPointMap;
 	protected int entitySizeX;
 	protected int entitySizeY;
 	protected int entitySizeZ;
 
 	public void initProcessor(IBlockAccess iblockaccessIn, Entity entityIn) {
 		this.blockaccess = iblockaccessIn;
-		this.pointMap.clearMap();
+		PathfindingService service = PathfindingService.get(entityIn.worldObj);
+		if (service != null) {
+			this.pointMap = service.getNodePool();
+		} else {
+			if (this.localPointMap == null) {
+				this.localPointMap = new PathNodePool();
+			}
+			this.pointMap = this.localPointMap;
+		}
+		this.pointMap.clear();
 		this.entitySizeX = MathHelper.floor_float(entityIn.width + 1.0F);
 		this.entitySizeY = MathHelper.floor_float(entityIn.height + 1.0F);
 		this.entitySizeZ = MathHelper.floor_float(entityIn.width + 1.0F);
@@ -56,14 +67,16 @@ public abstract class NodeProcessor {
 	 * Returns a mapped point or creates and adds one
 	 */
 	protected PathPoint openPoint(int x, int y, int z) {
-		int i = PathPoint.makeHash(x, y, z);
-		PathPoint pathpoint = (PathPoint) this.pointMap.lookup(i);
-		if (pathpoint == null) {
-			pathpoint = new PathPoint(x, y, z);
-			this.pointMap.addKey(i, pathpoint);
-		}
+		return this.pointMap.open(x, y, z);
+	}
 
-		return pathpoint;
+	/**+
+	 * Returns the entity dependent settings that affect the result
+	 * of a search, requests with the same settings, start and end
+	 * can share one result
+	 */
+	public int getRequestFlags(Entity entityIn) {
+		return this.entitySizeX | this.entitySizeY << 4 | this.entitySizeZ << 8;
 	}
 
 	public abstract PathPoint getPathPointTo(Entity var1);
@@ -1,5 +1,7 @@
 package net.minecraft.world.pathfinder;
 
+import net.lax1dude.eaglercraft.v1_8.sp.server.PathfindingService;
+import net.lax1dude.eaglercraft.v1_8.sp.server.WalkabilityCache;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockDoor;
 import net.minecraft.block.BlockFence;
@@ -40,10 +42,17 @@ public class WalkNodeProcessor extends NodeProcessor {
 	private boolean avoidsWater;
 	private boolean canSwim;
 	private boolean shouldAvoidWater;
+	private WalkabilityCache walkabilityCache;
+	private int entityInLava;
+	private int entityOnRail;
 
 	public void initProcessor(IBlockAccess iblockaccess, Entity entity) {
 		super.initProcessor(iblockaccess, entity);
 		this.shouldAvoidWater = this.avoidsWater;
+		PathfindingService service = PathfindingService.get(entity.worldObj);
+		this.walkabilityCache = service != null ? service.getWalkabilityCache() : null;
+		this.entityInLava = -1;
+		this.entityOnRail = -1;
 	}
 
 	/**+
@@ -57,6 +66,30 @@ public class WalkNodeProcessor extends NodeProcessor {
 	public void postProcess() {
 		super.postProcess();
 		this.avoidsWater = this.shouldAvoidWater;
+		this.walkabilityCache = null;
+	}
+
+	public int getRequestFlags(Entity entity) {
+		int i = super.getRequestFlags(entity);
+		if (this.avoidsWater) {
+			i |= 4096;
+		}
+		if (this.canBreakDoors) {
+			i |= 8192;
+		}
+		if (this.canEnterDoors) {
+			i |= 16384;
+		}
+		if (this.canSwim) {
+			i |= 32768;
+		}
+		if (this.isEntityInLava(entity)) {
+			i |= 65536;
+		}
+		if (this.isEntityOnRail(entity)) {
+			i |= 131072;
+		}
+		return i;
 	}
 
 	/**+
@@ -186,10 +219,89 @@ public class WalkNodeProcessor extends NodeProcessor {
 	 * except for open trapdoor or water(if not avoiding)
 	 */
 	private int getVerticalOffset(Entity entityIn, int x, int y, int z) {
+		if (this.walkabilityCache != null) {
+			return this.getCachedVerticalOffset(entityIn, x, y, z);
+		}
 		return func_176170_a(this.blockaccess, entityIn, x, y, z, this.entitySizeX, this.entitySizeY, this.entitySizeZ,
 				this.avoidsWater, this.canBreakDoors, this.canEnterDoors);
 	}
 
+	/**+
+	 * Same as func_176170_a but reads the blocks from the world's
+	 * walkability cache and only checks the entity's own lava and
+	 * rail state once per search
+	 */
+	private int getCachedVerticalOffset(Entity entityIn, int x, int y, int z) {
+		boolean flag = false;
+
+		for (int i = x; i < x + this.entitySizeX; ++i) {
+			for (int j = y; j < y + this.entitySizeY; ++j) {
+				for (int k = z; k < z + this.entitySizeZ; ++k) {
+					switch (this.walkabilityCache.getCode(i, j, k)) {
+					case WalkabilityCache.AIR:
+					case WalkabilityCache.PASSABLE:
+						break;
+					case WalkabilityCache.TRAPDOOR_OPEN:
+						flag = true;
+						break;
+					case WalkabilityCache.TRAPDOOR_CLOSED:
+						return -4;
+					case WalkabilityCache.WATER:
+						if (this.avoidsWater) {
+							return -1;
+						}
+
+						flag = true;
+						break;
+					case WalkabilityCache.WOOD_DOOR_OPEN:
+						if (!this.canEnterDoors) {
+							return 0;
+						}
+						break;
+					case WalkabilityCache.WOOD_DOOR_CLOSED:
+						if (!this.canEnterDoors || !this.canBreakDoors) {
+							return 0;
+						}
+						break;
+					case WalkabilityCache.RAIL:
+						if (!this.isEntityOnRail(entityIn)) {
+							return -3;
+						}
+						break;
+					case WalkabilityCache.FENCE:
+						return -3;
+					case WalkabilityCache.LAVA:
+						if (!this.isEntityInLava(entityIn)) {
+							return -2;
+						}
+						break;
+					default:
+						return 0;
+					}
+				}
+			}
+		}
+
+		return flag ? 2 : 1;
+	}
+
+	private boolean isEntityInLava(Entity entityIn) {
+		if (this.entityInLava == -1) {
+			this.entityInLava = entityIn.isInLava() ? 1 : 0;
+		}
+		return this.entityInLava == 1;
+	}
+
+	private boolean isEntityOnRail(Entity entityIn) {
+		if (this.entityOnRail == -1) {
+			BlockPos blockpos = new BlockPos(entityIn);
+			this.entityOnRail = entityIn.worldObj.getBlockState(blockpos).getBlock() instanceof BlockRailBase
+					|| entityIn.worldObj.getBlockState(blockpos.down()).getBlock() instanceof BlockRailBase ? 1
+							: 0;
+		}
+		return this.entityOnRail == 1;
+	}
+
 	public static int func_176170_a(IBlockAccess blockaccessIn, Entity entityIn, int x, int y, int z, int sizeX,
 			int sizeY, int sizeZ, boolean avoidWater, boolean breakDoors, boolean enterDoors) {
 		boolean flag = false;
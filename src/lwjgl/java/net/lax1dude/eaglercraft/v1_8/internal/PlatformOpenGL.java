@@ -9,12 +9,14 @@ import static org.lwjgl.opengles.GLES30.*;
 import static org.lwjgl.opengles.ANGLEInstancedArrays.*;
 import static org.lwjgl.opengles.EXTInstancedArrays.*;
 import static org.lwjgl.opengles.EXTTextureStorage.*;
+import static org.lwjgl.opengles.KHRParallelShaderCompile.*;
 import static org.lwjgl.opengles.OESVertexArrayObject.*;
 
 import java.util.ArrayList;
 import java.util.List;
 
 import org.lwjgl.opengles.GLESCapabilities;
+import org.lwjgl.system.MemoryUtil;
 
 /**
  * Copyright (c) 2022-2023 lax1dude, ayunami2000. All Rights Reserved.
@@ -50,6 +52,9 @@ public class PlatformOpenGL {
 	private static boolean hasOESTextureHalfFloat = false;
 	private static boolean hasOESTextureHalfFloatLinear = false;
 	private static boolean hasEXTTextureFilterAnisotropic = false;
+	private static boolean hasEXTDisjointTimerQuery = false;
+	private static boolean hasKHRParallelShaderCompile = false;
+	private static boolean hasProgramBinarySupport = false;
 
 	private static boolean hasFBO16FSupport = false;
 	private static boolean hasFBO32FSupport = false;
@@ -92,6 +97,13 @@ public class PlatformOpenGL {
 		hasOESVertexArrayObject = glesVersIn == 200 && caps.GL_OES_vertex_array_object;
 		hasLinearHDR32FSupport = caps.GL_OES_texture_float_linear;
 		hasEXTTextureFilterAnisotropic = caps.GL_EXT_texture_filter_anisotropic;
+		hasEXTDisjointTimerQuery = glesVersIn >= 300 && caps.GL_EXT_disjoint_timer_query;
+		hasKHRParallelShaderCompile = caps.GL_KHR_parallel_shader_compile;
+		hasProgramBinarySupport = glesVersIn >= 300 && glGetInteger(GL_NUM_PROGRAM_BINARY_FORMATS) > 0;
+		
+		if(hasKHRParallelShaderCompile) {
+			glMaxShaderCompilerThreadsKHR(0xFFFFFFFF);
+		}
 		
 		hasFBO16FSupport = glesVersIn >= 320 || ((glesVersIn >= 300 || hasOESTextureFloat) && (hasEXTColorBufferFloat || hasEXTColorBufferHalfFloat));
 		hasFBO32FSupport = glesVersIn >= 320 || ((glesVersIn >= 300 || hasOESTextureHalfFloat) && hasEXTColorBufferFloat);
@@ -129,6 +141,8 @@ public class PlatformOpenGL {
 		if(hasOESTextureHalfFloat) exts.add("OES_texture_half_float");
 		if(hasOESTextureHalfFloatLinear) exts.add("OES_texture_half_float_linear");
 		if(hasEXTTextureFilterAnisotropic) exts.add("EXT_texture_filter_anisotropic");
+		if(hasEXTDisjointTimerQuery) exts.add("EXT_disjoint_timer_query");
+		if(hasKHRParallelShaderCompile) exts.add("KHR_parallel_shader_compile");
 		return exts;
 	}
 
@@ -317,6 +331,18 @@ public class PlatformOpenGL {
 		glDeleteQueries(((OpenGLObjects.QueryGL) obj).ptr);
 	}
 
+	public static final void _wglBeginQuery(int target, IQueryGL obj) {
+		glBeginQuery(target, ((OpenGLObjects.QueryGL) obj).ptr);
+	}
+
+	public static final void _wglEndQuery(int target) {
+		glEndQuery(target);
+	}
+
+	public static final int _wglGetQueryObjecti(IQueryGL obj, int param) {
+		return glGetQueryObjectui(((OpenGLObjects.QueryGL) obj).ptr, param);
+	}
+
 	public static final void _wglBindBuffer(int target, IBufferGL obj) {
 		glBindBuffer(target, obj == null ? 0 : ((OpenGLObjects.BufferGL) obj).ptr);
 	}
@@ -540,6 +566,42 @@ public class PlatformOpenGL {
 		return glGetProgramInfoLog(((OpenGLObjects.ProgramGL) obj).ptr);
 	}
 
+	public static final void _wglProgramParameteri(IProgramGL obj, int param, int value) {
+		glProgramParameteri(((OpenGLObjects.ProgramGL) obj).ptr, param, value);
+	}
+
+	public static final byte[] _wglGetProgramBinary(IProgramGL obj, int[] formatOut) {
+		int ptr = ((OpenGLObjects.ProgramGL) obj).ptr;
+		int len = glGetProgrami(ptr, GL_PROGRAM_BINARY_LENGTH);
+		if(len <= 0) {
+			return null;
+		}
+		java.nio.ByteBuffer buf = MemoryUtil.memAlloc(len);
+		try {
+			int[] lenOut = new int[1];
+			glGetProgramBinary(ptr, lenOut, formatOut, buf);
+			if(lenOut[0] <= 0) {
+				return null;
+			}
+			byte[] ret = new byte[lenOut[0]];
+			buf.get(ret);
+			return ret;
+		}finally {
+			MemoryUtil.memFree(buf);
+		}
+	}
+
+	public static final void _wglProgramBinary(IProgramGL obj, int format, byte[] data) {
+		java.nio.ByteBuffer buf = MemoryUtil.memAlloc(data.length);
+		try {
+			buf.put(data);
+			buf.flip();
+			glProgramBinary(((OpenGLObjects.ProgramGL) obj).ptr, format, buf);
+		}finally {
+			MemoryUtil.memFree(buf);
+		}
+	}
+
 	public static final void _wglBindAttribLocation(IProgramGL obj, int index, String name) {
 		glBindAttribLocation(((OpenGLObjects.ProgramGL) obj).ptr, index, name);
 	}
@@ -800,6 +862,18 @@ public class PlatformOpenGL {
 		return hasEXTTextureFilterAnisotropic;
 	}
 
+	public static final boolean checkTimerQueryCapable() {
+		return hasEXTDisjointTimerQuery;
+	}
+
+	public static final boolean checkParallelShaderCompileCapable() {
+		return hasKHRParallelShaderCompile;
+	}
+
+	public static final boolean checkProgramBinaryCapable() {
+		return hasProgramBinarySupport;
+	}
+
 	public static final String[] getAllExtensions() {
 		return glGetString(GL_EXTENSIONS).split(" ");
 	}
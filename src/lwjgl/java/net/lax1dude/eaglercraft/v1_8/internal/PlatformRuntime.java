@@ -46,6 +46,7 @@ import net.lax1dude.eaglercraft.v1_8.internal.buffer.ByteBuffer;
 import net.lax1dude.eaglercraft.v1_8.internal.buffer.FloatBuffer;
 import net.lax1dude.eaglercraft.v1_8.internal.buffer.IntBuffer;
 import net.lax1dude.eaglercraft.v1_8.internal.lwjgl.DesktopClientConfigAdapter;
+import net.lax1dude.eaglercraft.v1_8.internal.lwjgl.DesktopWorkerThreadPool;
 import net.lax1dude.eaglercraft.v1_8.internal.vfs2.VFile2;
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
@@ -630,4 +631,12 @@ public class PlatformRuntime {
 		// nope
 	}
 
+	public static int getAvailableWorkerThreads() {
+		return Math.max(Runtime.getRuntime().availableProcessors() - 1, 0);
+	}
+
+	public static IWorkerThreadPool createWorkerThreadPool(String name, int threads) {
+		return new DesktopWorkerThreadPool(name, threads);
+	}
+
 }
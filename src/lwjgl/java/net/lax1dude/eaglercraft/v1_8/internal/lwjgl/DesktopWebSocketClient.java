@@ -1,6 +1,7 @@
 package net.lax1dude.eaglercraft.v1_8.internal.lwjgl;
 
 import java.net.URI;
+import java.nio.ByteBuffer;
 
 import net.lax1dude.eaglercraft.v1_8.EaglercraftVersion;
 import net.lax1dude.eaglercraft.v1_8.internal.AbstractWebSocketClient;
@@ -98,6 +99,15 @@ public class DesktopWebSocketClient extends AbstractWebSocketClient {
 		}
 	}
 
+	@Override
+	public void send(byte[] bytes, int off, int len) {
+		if(clientImpl.isClosed()) {
+			logger.error("[{}]: Client tried to send {} byte packet while the socket was closed!", currentURIStr, len);
+		}else {
+			clientImpl.send(ByteBuffer.wrap(bytes, off, len));
+		}
+	}
+
 	public void handleString(String str) {
 		addRecievedFrame(new DesktopWebSocketFrameString(str));
 	}
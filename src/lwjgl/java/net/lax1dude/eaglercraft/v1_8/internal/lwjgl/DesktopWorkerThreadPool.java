@@ -0,0 +1,59 @@
+package net.lax1dude.eaglercraft.v1_8.internal.lwjgl;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import net.lax1dude.eaglercraft.v1_8.internal.IWorkerThreadPool;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class DesktopWorkerThreadPool implements IWorkerThreadPool {
+
+	private final int threadCount;
+	private final ExecutorService executor;
+
+	public DesktopWorkerThreadPool(final String name, int threadCount) {
+		this.threadCount = threadCount;
+		this.executor = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+			private int threadId = 0;
+
+			@Override
+			public synchronized Thread newThread(Runnable r) {
+				Thread t = new Thread(r, name + " #" + (++threadId));
+				t.setDaemon(true);
+				t.setPriority(Thread.NORM_PRIORITY - 1);
+				return t;
+			}
+		});
+	}
+
+	@Override
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		executor.execute(task);
+	}
+
+	@Override
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+}
@@ -1,5 +1,7 @@
 package net.lax1dude.eaglercraft.v1_8.internal.lwjgl;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.Driver;
 import java.sql.DriverManager;
@@ -7,9 +9,13 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 
@@ -47,13 +53,23 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 	private static volatile boolean cleanupThreadStarted = false;
 	private static final Collection<JDBCFilesystem> jdbcFilesystems = new LinkedList<>();
 
+	/**
+	 * Number of statements added to a JDBC batch before it is executed, keeps
+	 * the driver from holding every blob of a large transaction at once
+	 */
+	private static final int MAX_STATEMENT_BATCH = 64;
+
 	private final String dbName;
 	private final String jdbcUri;
 	private final String jdbcDriver;
 
 	private final Connection conn;
+	private final Connection readConn;
 	private final PreparedStatement createStatement;
 	private final PreparedStatement updateStatement;
+	private final PreparedStatement upsertStatement;
+	private final PreparedStatement copyReadStatement;
+	private final PreparedStatement writeExistsStatement;
 	private final PreparedStatement readStatement;
 	private final PreparedStatement existsStatement;
 	private final PreparedStatement sizeStatement;
@@ -61,9 +77,30 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 	private final PreparedStatement renameStatement;
 	private final PreparedStatement iterateNonRecursive;
 	private final PreparedStatement iterateRecursive;
-	private boolean hasClosed = false;
+	private volatile boolean hasClosed = false;
 
 	private final Object mutex = new Object();
+	private final Object readMutex;
+
+	private final boolean batchWrites;
+	private final int batchMaxFiles;
+	private final int batchMaxBytes;
+	private final long batchDelayMillis;
+	private final Object pendingMutex = new Object();
+	private Map<String, byte[]> pendingWrites = new LinkedHashMap<>();
+	private Map<String, byte[]> inFlightWrites = null;
+	private int pendingBytes = 0;
+	private Thread writerThread = null;
+
+	private final byte[] readCopyBuffer = new byte[65536];
+
+	private long statTransactions = 0l;
+	private long statFilesWritten = 0l;
+	private long statFilesCoalesced = 0l;
+	private long statBytesWritten = 0l;
+	private long statTransactionNanos = 0l;
+	private long statTransactionNanosMax = 0l;
+	private int statTransactionFilesMax = 0;
 
 	public static IEaglerFilesystem initialize(String dbName, String jdbcUri, String jdbcDriver) {
 		Class<?> driver;
@@ -96,28 +133,98 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 		logger.info("Connecting to database: \"{}\"", jdbcUri);
 		Connection conn;
 		try {
-			if(driverObj != null) {
-				conn = driverObj.connect(jdbcUri, props);
-			}else {
-				conn = DriverManager.getConnection(jdbcUri, props);
-			}
+			conn = connect(driverObj, jdbcUri, props);
 		}catch(SQLException ex) {
 			throw new EaglerFileSystemException("Failed to connect to database: \"" + jdbcUri + "\"", ex);
 		}
+		Connection readConn = null;
+		if(getBooleanProperty(dbName, "splitReads", !isMemoryDatabase(jdbcUri))) {
+			try {
+				readConn = connect(driverObj, jdbcUri, props);
+			}catch(SQLException ex) {
+				logger.warn("Could not open a separate read connection, reads will share the write connection: \"{}\"", jdbcUri);
+				logger.warn(ex);
+			}
+		}
 		try {
-			return new JDBCFilesystem(dbName, conn, jdbcUri, jdbcDriver);
+			return new JDBCFilesystem(dbName, conn, readConn, jdbcUri, jdbcDriver);
 		} catch (SQLException ex) {
 			try {
 				conn.close();
+				if(readConn != null) {
+					readConn.close();
+				}
 			}catch(SQLException ex2) {
 			}
 			throw new EaglerFileSystemException("Failed to initialize database: \"" + jdbcUri + "\"", ex);
 		}
 	}
 
-	private JDBCFilesystem(String dbName, Connection conn, String jdbcUri, String jdbcDriver) throws SQLException {
+	private static Connection connect(Driver driverObj, String jdbcUri, Properties props) throws SQLException {
+		if(driverObj != null) {
+			return driverObj.connect(jdbcUri, props);
+		}else {
+			return DriverManager.getConnection(jdbcUri, props);
+		}
+	}
+
+	private static boolean isMemoryDatabase(String jdbcUri) {
+		return jdbcUri.contains(":mem:") || jdbcUri.contains(":memory:");
+	}
+
+	private static boolean getBooleanProperty(String dbName, String name, boolean def) {
+		String str = System.getProperty("eagler.jdbc." + dbName + "." + name);
+		return str != null ? str.equalsIgnoreCase("true") : def;
+	}
+
+	private static int getIntProperty(String dbName, String name, int def) {
+		String str = System.getProperty("eagler.jdbc." + dbName + "." + name);
+		if(str != null) {
+			try {
+				return Integer.parseInt(str);
+			}catch(NumberFormatException ex) {
+				logger.warn("Invalid value for \"eagler.jdbc.{}.{}\": {}", dbName, name, str);
+			}
+		}
+		return def;
+	}
+
+	/**
+	 * Returns an INSERT that replaces the existing row for the databases that
+	 * have a known syntax for it, otherwise writes fall back to checking if the
+	 * file exists first and then running an INSERT or UPDATE
+	 */
+	private static String getUpsertSQL(Connection conn) {
+		String product;
+		try {
+			product = conn.getMetaData().getDatabaseProductName();
+		}catch(SQLException ex) {
+			return null;
+		}
+		if(product == null) {
+			return null;
+		}
+		product = product.toLowerCase();
+		if(product.contains("h2")) {
+			return "MERGE INTO eaglercraft_desktop_runtime_filesystem (FileName, FileSize, FileData) KEY(FileName) VALUES(?,?,?)";
+		}else if(product.contains("sqlite")) {
+			return "INSERT OR REPLACE INTO eaglercraft_desktop_runtime_filesystem (FileName, FileSize, FileData) VALUES(?,?,?)";
+		}else if(product.contains("postgres")) {
+			return "INSERT INTO eaglercraft_desktop_runtime_filesystem (FileName, FileSize, FileData) VALUES(?,?,?) "
+					+ "ON CONFLICT (FileName) DO UPDATE SET FileSize = EXCLUDED.FileSize, FileData = EXCLUDED.FileData";
+		}else if(product.contains("mysql") || product.contains("mariadb")) {
+			return "INSERT INTO eaglercraft_desktop_runtime_filesystem (FileName, FileSize, FileData) VALUES(?,?,?) "
+					+ "ON DUPLICATE KEY UPDATE FileSize = VALUES(FileSize), FileData = VALUES(FileData)";
+		}else {
+			return null;
+		}
+	}
+
+	private JDBCFilesystem(String dbName, Connection conn, Connection readConn, String jdbcUri, String jdbcDriver) throws SQLException {
 		this.dbName = dbName;
 		this.conn = conn;
+		this.readConn = readConn != null ? readConn : conn;
+		this.readMutex = readConn != null ? new Object() : mutex;
 		this.jdbcUri = jdbcUri;
 		this.jdbcDriver = jdbcDriver;
 		try(Statement stmt = conn.createStatement()) {
@@ -141,13 +248,37 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 		}
 		this.createStatement = conn.prepareStatement("INSERT INTO eaglercraft_desktop_runtime_filesystem (FileName, FileSize, FileData) VALUES(?,?,?)");
 		this.updateStatement = conn.prepareStatement("UPDATE eaglercraft_desktop_runtime_filesystem SET FileSize = ?, FileData = ? WHERE FileName = ?");
-		this.readStatement = conn.prepareStatement("SELECT FileData FROM eaglercraft_desktop_runtime_filesystem WHERE FileName = ? LIMIT 1");
-		this.existsStatement = conn.prepareStatement("SELECT COUNT(FileName) AS has_object FROM eaglercraft_desktop_runtime_filesystem WHERE FileName = ? LIMIT 1");
-		this.sizeStatement = conn.prepareStatement("SELECT FileSize FROM eaglercraft_desktop_runtime_filesystem WHERE FileName = ? LIMIT 1");
+		String upsert = getBooleanProperty(dbName, "upsert", true) ? getUpsertSQL(conn) : null;
+		PreparedStatement upsertStmt = null;
+		if(upsert != null) {
+			try {
+				upsertStmt = conn.prepareStatement(upsert);
+			}catch(SQLException ex) {
+				logger.warn("Database does not support upsert statements, falling back to INSERT/UPDATE: \"{}\"", jdbcUri);
+			}
+		}
+		this.upsertStatement = upsertStmt;
+		this.copyReadStatement = conn.prepareStatement("SELECT FileData FROM eaglercraft_desktop_runtime_filesystem WHERE FileName = ? LIMIT 1");
+		this.writeExistsStatement = conn.prepareStatement("SELECT COUNT(FileName) AS has_object FROM eaglercraft_desktop_runtime_filesystem WHERE FileName = ? LIMIT 1");
+		this.readStatement = this.readConn.prepareStatement("SELECT FileSize, FileData FROM eaglercraft_desktop_runtime_filesystem WHERE FileName = ? LIMIT 1");
+		this.existsStatement = this.readConn.prepareStatement("SELECT COUNT(FileName) AS has_object FROM eaglercraft_desktop_runtime_filesystem WHERE FileName = ? LIMIT 1");
+		this.sizeStatement = this.readConn.prepareStatement("SELECT FileSize FROM eaglercraft_desktop_runtime_filesystem WHERE FileName = ? LIMIT 1");
 		this.deleteStatement = conn.prepareStatement("DELETE FROM eaglercraft_desktop_runtime_filesystem WHERE FileName = ?");
 		this.renameStatement = conn.prepareStatement("UPDATE eaglercraft_desktop_runtime_filesystem SET FileName = ? WHERE FileName = ?");
-		this.iterateNonRecursive = conn.prepareStatement("SELECT FileName FROM eaglercraft_desktop_runtime_filesystem WHERE FileName LIKE ? AND NOT FileName LIKE ?");
-		this.iterateRecursive = conn.prepareStatement("SELECT FileName FROM eaglercraft_desktop_runtime_filesystem WHERE FileName LIKE ?");
+		this.iterateNonRecursive = this.readConn.prepareStatement("SELECT FileName FROM eaglercraft_desktop_runtime_filesystem WHERE FileName LIKE ? AND NOT FileName LIKE ?");
+		this.iterateRecursive = this.readConn.prepareStatement("SELECT FileName FROM eaglercraft_desktop_runtime_filesystem WHERE FileName LIKE ?");
+		this.batchWrites = getBooleanProperty(dbName, "batchWrites", true);
+		this.batchMaxFiles = Math.max(getIntProperty(dbName, "batchMaxFiles", 256), 1);
+		this.batchMaxBytes = Math.max(getIntProperty(dbName, "batchMaxBytes", 16 * 1024 * 1024), 1);
+		this.batchDelayMillis = Math.max(getIntProperty(dbName, "batchDelayMillis", 250), 0);
+		logger.info("JDBC filesystem \"{}\": batched writes {}, upsert {}, separate read connection {}", dbName,
+				batchWrites ? "enabled" : "disabled", upsertStatement != null ? "enabled" : "disabled",
+				readConn != null ? "enabled" : "disabled");
+		if(batchWrites) {
+			writerThread = new Thread(this::writerThreadLoop, "JDBCFilesystemWriter-" + dbName);
+			writerThread.setDaemon(true);
+			writerThread.start();
+		}
 		startCleanupThread();
 		synchronized(jdbcFilesystems) {
 			jdbcFilesystems.add(this);
@@ -193,15 +324,32 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 	}
 
 	private void shutdown0() {
+		if(writerThread != null) {
+			synchronized(pendingMutex) {
+				writerThread.interrupt();
+				writerThread = null;
+			}
+		}
+		try {
+			flushWrites();
+		}catch(Throwable t) {
+			logger.error("Failed to write pending files to database: \"{}\"", jdbcUri);
+			logger.error(t);
+		}
 		synchronized(mutex) {
 			if(!hasClosed) {
 				hasClosed = true;
 				logger.info("Disconnecting from database: \"{}\"", jdbcUri);
-				try {
-					shutdown1();
-				}catch(Throwable t) {
-					logger.error("Failed to disconnect from database: \"{}\"");
-					logger.error(t);
+				if(statTransactions > 0l) {
+					logger.info(getStatistics());
+				}
+				synchronized(readMutex) {
+					try {
+						shutdown1();
+					}catch(Throwable t) {
+						logger.error("Failed to disconnect from database: \"{}\"");
+						logger.error(t);
+					}
 				}
 			}
 		}
@@ -211,6 +359,11 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 		if(!conn.isClosed()) {
 			quietClose(createStatement);
 			quietClose(updateStatement);
+			if(upsertStatement != null) {
+				quietClose(upsertStatement);
+			}
+			quietClose(copyReadStatement);
+			quietClose(writeExistsStatement);
 			quietClose(readStatement);
 			quietClose(existsStatement);
 			quietClose(sizeStatement);
@@ -220,6 +373,9 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 			quietClose(iterateRecursive);
 			conn.close();
 		}
+		if(readConn != conn && !readConn.isClosed()) {
+			readConn.close();
+		}
 	}
 
 	private static void quietClose(Statement stmt) {
@@ -229,8 +385,228 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 		}
 	}
 
+	/**
+	 * Returns a summary of the write transactions since the filesystem was
+	 * opened, used for the log when the filesystem is closed
+	 */
+	public String getStatistics() {
+		synchronized(mutex) {
+			long tx = statTransactions;
+			return "JDBC filesystem \"" + dbName + "\": " + statFilesWritten + " files (" + (statBytesWritten / 1024l)
+					+ " KiB) written in " + tx + " transactions, " + statFilesCoalesced + " writes coalesced, avg "
+					+ (tx > 0l ? (statFilesWritten / tx) : 0l) + " files / "
+					+ (tx > 0l ? (statTransactionNanos / tx / 1000000l) : 0l) + "ms per transaction, max "
+					+ statTransactionFilesMax + " files / " + (statTransactionNanosMax / 1000000l) + "ms";
+		}
+	}
+
+	private void writerThreadLoop() {
+		while(true) {
+			try {
+				synchronized(pendingMutex) {
+					while(pendingWrites.isEmpty()) {
+						pendingMutex.wait();
+					}
+					long waitUntil = System.currentTimeMillis() + batchDelayMillis;
+					long now;
+					while(pendingWrites.size() < batchMaxFiles && pendingBytes < batchMaxBytes
+							&& (now = System.currentTimeMillis()) < waitUntil) {
+						pendingMutex.wait(waitUntil - now);
+					}
+				}
+			}catch(InterruptedException ex) {
+				return;
+			}
+			try {
+				flushWrites();
+			}catch(Throwable t) {
+				logger.error("Failed to write pending files to database: \"{}\"", jdbcUri);
+				logger.error(t);
+				try {
+					Thread.sleep(1000l);
+				}catch(InterruptedException ex) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes every queued file to the database in a single transaction, the
+	 * files stay readable from the in flight map until the commit is done
+	 */
+	public void flushWrites() {
+		try {
+			synchronized(mutex) {
+				Map<String, byte[]> batch;
+				synchronized(pendingMutex) {
+					if(pendingWrites.isEmpty()) {
+						return;
+					}
+					batch = pendingWrites;
+					inFlightWrites = batch;
+					pendingWrites = new LinkedHashMap<>();
+					pendingBytes = 0;
+				}
+				boolean success = false;
+				try {
+					if(hasClosed || conn.isClosed()) {
+						throw new SQLException("Filesystem database connection is closed!");
+					}
+					writeTransaction(batch);
+					success = true;
+				}finally {
+					synchronized(pendingMutex) {
+						inFlightWrites = null;
+						if(!success) {
+							for(Entry<String, byte[]> etr : batch.entrySet()) {
+								if(!pendingWrites.containsKey(etr.getKey())) {
+									pendingWrites.put(etr.getKey(), etr.getValue());
+									pendingBytes += etr.getValue().length;
+								}
+							}
+						}
+					}
+				}
+			}
+		}catch(SQLException ex) {
+			throw new EaglerFileSystemException("JDBC exception thrown while executing batched write!", ex);
+		}
+	}
+
+	private void writeTransaction(Map<String, byte[]> batch) throws SQLException {
+		long start = System.nanoTime();
+		int bytes = 0;
+		conn.setAutoCommit(false);
+		try {
+			if(upsertStatement != null) {
+				int cnt = 0;
+				for(Entry<String, byte[]> etr : batch.entrySet()) {
+					byte[] data = etr.getValue();
+					upsertStatement.setString(1, etr.getKey());
+					upsertStatement.setInt(2, data.length);
+					upsertStatement.setBytes(3, data);
+					upsertStatement.addBatch();
+					bytes += data.length;
+					if(++cnt == MAX_STATEMENT_BATCH) {
+						upsertStatement.executeBatch();
+						cnt = 0;
+					}
+				}
+				if(cnt > 0) {
+					upsertStatement.executeBatch();
+				}
+			}else {
+				int cntCreate = 0;
+				int cntUpdate = 0;
+				for(Entry<String, byte[]> etr : batch.entrySet()) {
+					String pathName = etr.getKey();
+					byte[] data = etr.getValue();
+					bytes += data.length;
+					if(existsWriteConn(pathName)) {
+						updateStatement.setInt(1, data.length);
+						updateStatement.setBytes(2, data);
+						updateStatement.setString(3, pathName);
+						updateStatement.addBatch();
+						if(++cntUpdate == MAX_STATEMENT_BATCH) {
+							updateStatement.executeBatch();
+							cntUpdate = 0;
+						}
+					}else {
+						createStatement.setString(1, pathName);
+						createStatement.setInt(2, data.length);
+						createStatement.setBytes(3, data);
+						createStatement.addBatch();
+						if(++cntCreate == MAX_STATEMENT_BATCH) {
+							createStatement.executeBatch();
+							cntCreate = 0;
+						}
+					}
+				}
+				if(cntUpdate > 0) {
+					updateStatement.executeBatch();
+				}
+				if(cntCreate > 0) {
+					createStatement.executeBatch();
+				}
+			}
+			conn.commit();
+		}catch(SQLException ex) {
+			try {
+				conn.rollback();
+			}catch(SQLException ex2) {
+			}
+			throw ex;
+		}finally {
+			conn.setAutoCommit(true);
+		}
+		long elapsed = System.nanoTime() - start;
+		int files = batch.size();
+		++statTransactions;
+		statFilesWritten += files;
+		statBytesWritten += bytes;
+		statTransactionNanos += elapsed;
+		if(elapsed > statTransactionNanosMax) {
+			statTransactionNanosMax = elapsed;
+		}
+		if(files > statTransactionFilesMax) {
+			statTransactionFilesMax = files;
+		}
+	}
+
+	private boolean existsWriteConn(String pathName) throws SQLException {
+		writeExistsStatement.setString(1, pathName);
+		try(ResultSet resultSet = writeExistsStatement.executeQuery()) {
+			if(resultSet.next()) {
+				return resultSet.getInt(1) > 0;
+			}else {
+				return false;
+			}
+		}
+	}
+
+	private void writeImmediate(String pathName, byte[] cp) throws SQLException {
+		if(upsertStatement != null) {
+			upsertStatement.setString(1, pathName);
+			upsertStatement.setInt(2, cp.length);
+			upsertStatement.setBytes(3, cp);
+			upsertStatement.executeUpdate();
+		}else if(existsWriteConn(pathName)) {
+			updateStatement.setInt(1, cp.length);
+			updateStatement.setBytes(2, cp);
+			updateStatement.setString(3, pathName);
+			if(updateStatement.executeUpdate() == 0) {
+				throw new EaglerFileSystemException("SQL file update query did not update any rows!");
+			}
+		}else {
+			createStatement.setString(1, pathName);
+			createStatement.setInt(2, cp.length);
+			createStatement.setBytes(3, cp);
+			createStatement.executeUpdate();
+		}
+	}
+
+	/**
+	 * Returns the queued contents of a file that has not been committed yet
+	 */
+	private byte[] getPendingWrite(String pathName) {
+		if(!batchWrites) {
+			return null;
+		}
+		synchronized(pendingMutex) {
+			byte[] ret = pendingWrites.get(pathName);
+			if(ret == null && inFlightWrites != null) {
+				ret = inFlightWrites.get(pathName);
+			}
+			return ret;
+		}
+	}
+
 	@Override
 	public boolean eaglerDelete(String pathName) {
+		if(batchWrites) {
+			flushWrites();
+		}
 		try {
 			synchronized(mutex) {
 				if(hasClosed || conn.isClosed()) {
@@ -250,26 +626,43 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 
 	@Override
 	public ByteBuffer eaglerRead(String pathName) {
+		byte[] pending = getPendingWrite(pathName);
+		if(pending != null) {
+			ByteBuffer byteBuf = PlatformRuntime.allocateByteBuffer(pending.length);
+			byteBuf.put(pending);
+			byteBuf.flip();
+			return byteBuf;
+		}
 		try {
-			synchronized(mutex) {
-				if(hasClosed || conn.isClosed()) {
+			synchronized(readMutex) {
+				if(hasClosed || readConn.isClosed()) {
 					throw new SQLException("Filesystem database connection is closed!");
 				}
 				readStatement.setString(1, pathName);
-				byte[] has = null;
 				try(ResultSet resultSet = readStatement.executeQuery()) {
-					if(resultSet.next()) {
-						has = resultSet.getBytes(1);
+					if(!resultSet.next()) {
+						PlatformFilesystem.logger.warn("Tried to read file that doesn't exist: \"{}\"", pathName);
+						return null;
 					}
+					int size = resultSet.getInt(1);
+					ByteBuffer byteBuf = PlatformRuntime.allocateByteBuffer(size);
+					try(InputStream is = resultSet.getBinaryStream(2)) {
+						int i;
+						while(byteBuf.hasRemaining() && (i = is.read(readCopyBuffer, 0,
+								Math.min(readCopyBuffer.length, byteBuf.remaining()))) != -1) {
+							byteBuf.put(readCopyBuffer, 0, i);
+						}
+						if(byteBuf.hasRemaining() || is.read() != -1) {
+							PlatformRuntime.freeByteBuffer(byteBuf);
+							throw new EaglerFileSystemException("File data does not match the stored file size: \"" + pathName + "\"");
+						}
+					}catch(IOException ex) {
+						PlatformRuntime.freeByteBuffer(byteBuf);
+						throw new SQLException("Could not read file data stream!", ex);
+					}
+					byteBuf.flip();
+					return byteBuf;
 				}
-				if(has == null) {
-					PlatformFilesystem.logger.warn("Tried to read file that doesn't exist: \"{}\"", pathName);
-					return null;
-				}
-				ByteBuffer byteBuf = PlatformRuntime.allocateByteBuffer(has.length);
-				byteBuf.put(has);
-				byteBuf.flip();
-				return byteBuf;
 			}
 		}catch(SQLException ex) {
 			throw new EaglerFileSystemException("JDBC exception thrown while executing read!", ex);
@@ -278,34 +671,47 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 
 	@Override
 	public void eaglerWrite(String pathName, ByteBuffer data) {
+		byte[] cp = new byte[data.remaining()];
+		data.get(cp);
+		if(batchWrites) {
+			boolean flushNow;
+			synchronized(pendingMutex) {
+				byte[] old = pendingWrites.put(pathName, cp);
+				if(old != null) {
+					pendingBytes -= old.length;
+					++statFilesCoalesced;
+				}
+				pendingBytes += cp.length;
+				flushNow = writerThread == null || pendingBytes >= (batchMaxBytes << 2);
+				if(pendingWrites.size() >= batchMaxFiles || pendingBytes >= batchMaxBytes) {
+					pendingMutex.notifyAll();
+				}else if(old == null && pendingWrites.size() == 1) {
+					pendingMutex.notifyAll();
+				}
+			}
+			if(flushNow) {
+				// the writer thread is too far behind (or stopped), block until it is written
+				flushWrites();
+			}
+			return;
+		}
 		try {
 			synchronized(mutex) {
 				if(hasClosed || conn.isClosed()) {
 					throw new SQLException("Filesystem database connection is closed!");
 				}
-				existsStatement.setString(1, pathName);
-				boolean exists;
-				try(ResultSet resultSet = existsStatement.executeQuery()) {
-					if(resultSet.next()) {
-						exists = resultSet.getInt(1) > 0;
-					}else {
-						exists = false;
-					}
+				long start = System.nanoTime();
+				writeImmediate(pathName, cp);
+				long elapsed = System.nanoTime() - start;
+				++statTransactions;
+				++statFilesWritten;
+				statBytesWritten += cp.length;
+				statTransactionNanos += elapsed;
+				if(elapsed > statTransactionNanosMax) {
+					statTransactionNanosMax = elapsed;
 				}
-				byte[] cp = new byte[data.remaining()];
-				data.get(cp);
-				if(exists) {
-					updateStatement.setInt(1, cp.length);
-					updateStatement.setBytes(2, cp);
-					updateStatement.setString(3, pathName);
-					if(updateStatement.executeUpdate() == 0) {
-						throw new EaglerFileSystemException("SQL file update query did not update any rows!");
-					}
-				}else {
-					createStatement.setString(1, pathName);
-					createStatement.setInt(2, cp.length);
-					createStatement.setBytes(3, cp);
-					createStatement.executeUpdate();
+				if(statTransactionFilesMax == 0) {
+					statTransactionFilesMax = 1;
 				}
 			}
 		}catch(SQLException ex) {
@@ -315,9 +721,12 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 
 	@Override
 	public boolean eaglerExists(String pathName) {
+		if(getPendingWrite(pathName) != null) {
+			return true;
+		}
 		try {
-			synchronized(mutex) {
-				if(hasClosed || conn.isClosed()) {
+			synchronized(readMutex) {
+				if(hasClosed || readConn.isClosed()) {
 					throw new SQLException("Filesystem database connection is closed!");
 				}
 				existsStatement.setString(1, pathName);
@@ -336,6 +745,9 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 
 	@Override
 	public boolean eaglerMove(String pathNameOld, String pathNameNew) {
+		if(batchWrites) {
+			flushWrites();
+		}
 		try {
 			synchronized(mutex) {
 				if(hasClosed || conn.isClosed()) {
@@ -352,13 +764,16 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 
 	@Override
 	public int eaglerCopy(String pathNameOld, String pathNameNew) {
+		if(batchWrites) {
+			flushWrites();
+		}
 		try {
 			synchronized(mutex) {
 				if(hasClosed || conn.isClosed()) {
 					throw new SQLException("Filesystem database connection is closed!");
 				}
-				readStatement.setString(1, pathNameOld);
-				try(ResultSet resultSet = readStatement.executeQuery()) {
+				copyReadStatement.setString(1, pathNameOld);
+				try(ResultSet resultSet = copyReadStatement.executeQuery()) {
 					byte[] has = null;
 					if(resultSet.next()) {
 						has = resultSet.getBytes(1);
@@ -366,28 +781,7 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 					if(has == null) {
 						return -1;
 					}
-					existsStatement.setString(1, pathNameNew);
-					boolean exists;
-					try(ResultSet resultSet2 = existsStatement.executeQuery()) {
-						if(resultSet2.next()) {
-							exists = resultSet2.getInt(1) > 0;
-						}else {
-							exists = false;
-						}
-					}
-					if(exists) {
-						updateStatement.setInt(1, has.length);
-						updateStatement.setBytes(2, has);
-						updateStatement.setString(3, pathNameNew);
-						if(updateStatement.executeUpdate() == 0) {
-							throw new EaglerFileSystemException("SQL file update query did not update any rows!");
-						}
-					}else {
-						createStatement.setString(1, pathNameNew);
-						createStatement.setInt(2, has.length);
-						createStatement.setBytes(3, has);
-						createStatement.executeUpdate();
-					}
+					writeImmediate(pathNameNew, has);
 					return has.length;
 				}
 			}
@@ -398,9 +792,13 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 
 	@Override
 	public int eaglerSize(String pathName) {
+		byte[] pending = getPendingWrite(pathName);
+		if(pending != null) {
+			return pending.length;
+		}
 		try {
-			synchronized(mutex) {
-				if(hasClosed || conn.isClosed()) {
+			synchronized(readMutex) {
+				if(hasClosed || readConn.isClosed()) {
 					throw new SQLException("Filesystem database connection is closed!");
 				}
 				sizeStatement.setString(1, pathName);
@@ -419,9 +817,13 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 
 	@Override
 	public void eaglerIterate(String pathName, VFSFilenameIterator itr, boolean recursive) {
+		if(batchWrites) {
+			flushWrites();
+		}
+		List<String> names = new ArrayList<>();
 		try {
-			synchronized(mutex) {
-				if(hasClosed || conn.isClosed()) {
+			synchronized(readMutex) {
+				if(hasClosed || readConn.isClosed()) {
 					throw new SQLException("Filesystem database connection is closed!");
 				}
 				PreparedStatement stmt;
@@ -438,17 +840,22 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 				}
 				try(ResultSet resultSet = stmt.executeQuery()) {
 					while(resultSet.next()) {
-						try {
-							itr.next(resultSet.getString(1));
-						}catch(VFSIterator2.BreakLoop exx) {
-							break;
-						}
+						names.add(resultSet.getString(1));
 					}
 				}
 			}
 		}catch(SQLException ex) {
 			throw new EaglerFileSystemException("JDBC exception thrown while executing iterate!", ex);
 		}
+		// the callbacks may take the write mutex (to delete files for example), they can't run while holding
+		// readMutex because shutdown0 locks the write mutex first and readMutex second
+		for(int i = 0, l = names.size(); i < l; ++i) {
+			try {
+				itr.next(names.get(i));
+			}catch(VFSIterator2.BreakLoop exx) {
+				break;
+			}
+		}
 	}
 
 	@Override
@@ -1,6 +1,5 @@
 package net.lax1dude.eaglercraft.v1_8.sp.internal;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import net.lax1dude.eaglercraft.v1_8.internal.IPCPacketData;
@@ -33,30 +32,19 @@ public class ClientPlatformSingleplayer {
 	}
 
 	public static void sendPacket(IPCPacketData packet) {
-		synchronized(MemoryConnection.clientToServerQueue) {
-			MemoryConnection.clientToServerQueue.add(packet);
-		}
+		MemoryConnection.clientToServerQueue.offer(packet);
 	}
 
 	public static IPCPacketData recievePacket() {
-		synchronized(MemoryConnection.serverToClientQueue) {
-			if(MemoryConnection.serverToClientQueue.size() > 0) {
-				return MemoryConnection.serverToClientQueue.remove(0);
-			}
-		}
-		return null;
+		return MemoryConnection.serverToClientQueue.poll();
 	}
 
 	public static List<IPCPacketData> recieveAllPacket() {
-		synchronized(MemoryConnection.serverToClientQueue) {
-			if(MemoryConnection.serverToClientQueue.size() == 0) {
-				return null;
-			}else {
-				List<IPCPacketData> ret = new ArrayList<>(MemoryConnection.serverToClientQueue);
-				MemoryConnection.serverToClientQueue.clear();
-				return ret;
-			}
-		}
+		return MemoryConnection.serverToClientQueue.drain();
+	}
+
+	public static boolean isDirectPacketHandoff() {
+		return MemoryConnection.directPacketHandoff;
 	}
 
 	public static boolean canKillWorker() {
@@ -1,6 +1,5 @@
 package net.lax1dude.eaglercraft.v1_8.sp.server.internal;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 
@@ -45,30 +44,19 @@ public class ServerPlatformSingleplayer {
 	}
 
 	public static void sendPacket(IPCPacketData packet) {
-		synchronized(MemoryConnection.serverToClientQueue) {
-			MemoryConnection.serverToClientQueue.add(packet);
-		}
+		MemoryConnection.serverToClientQueue.offer(packet);
 	}
 
 	public static IPCPacketData recievePacket() {
-		synchronized(MemoryConnection.clientToServerQueue) {
-			if(MemoryConnection.clientToServerQueue.size() > 0) {
-				return MemoryConnection.clientToServerQueue.remove(0);
-			}
-		}
-		return null;
+		return MemoryConnection.clientToServerQueue.poll();
 	}
 
 	public static List<IPCPacketData> recieveAllPacket() {
-		synchronized(MemoryConnection.clientToServerQueue) {
-			if(MemoryConnection.clientToServerQueue.size() == 0) {
-				return null;
-			}else {
-				List<IPCPacketData> ret = new ArrayList<>(MemoryConnection.clientToServerQueue);
-				MemoryConnection.clientToServerQueue.clear();
-				return ret;
-			}
-		}
+		return MemoryConnection.clientToServerQueue.drain();
+	}
+
+	public static boolean isDirectPacketHandoff() {
+		return MemoryConnection.directPacketHandoff;
 	}
 
 	public static IClientConfigAdapter getClientConfigAdapter() {
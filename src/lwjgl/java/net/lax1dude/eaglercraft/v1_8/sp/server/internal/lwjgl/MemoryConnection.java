@@ -1,10 +1,5 @@
 package net.lax1dude.eaglercraft.v1_8.sp.server.internal.lwjgl;
 
-import java.util.LinkedList;
-import java.util.List;
-
-import net.lax1dude.eaglercraft.v1_8.internal.IPCPacketData;
-
 /**
  * Copyright (c) 2023-2024 lax1dude. All Rights Reserved.
  * 
@@ -22,7 +17,13 @@ import net.lax1dude.eaglercraft.v1_8.internal.IPCPacketData;
  */
 public class MemoryConnection {
 
-	public static final List<IPCPacketData> clientToServerQueue = new LinkedList<>();
-	public static final List<IPCPacketData> serverToClientQueue = new LinkedList<>();
+	public static final PacketRingBuffer clientToServerQueue = new PacketRingBuffer(16384);
+	public static final PacketRingBuffer serverToClientQueue = new PacketRingBuffer(16384);
+
+	/**
+	 * Pass game packets between the client and the integrated server as objects
+	 * instead of serializing them, enabled with -Deagler.singleplayer.directPackets=true
+	 */
+	public static final boolean directPacketHandoff = Boolean.getBoolean("eagler.singleplayer.directPackets");
 
 }
@@ -0,0 +1,144 @@
+package net.lax1dude.eaglercraft.v1_8.sp.server.internal.lwjgl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.lax1dude.eaglercraft.v1_8.internal.IPCPacketData;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class PacketRingBuffer {
+
+	/**
+	 * Bounded ring used to pass packets between the client thread and the
+	 * integrated server thread, the consuming side never takes a lock. Senders
+	 * are serialized by an uncontended monitor because the log redirector can
+	 * send packets from any thread. If the ring fills up (the other side stopped
+	 * polling for a while) packets spill into an overflow list instead of being
+	 * dropped
+	 */
+
+	private final IPCPacketData[] ring;
+	private final int mask;
+
+	private final AtomicLong head = new AtomicLong(0l);
+	private final AtomicLong tail = new AtomicLong(0l);
+
+	// only accessed while holding the producer lock
+	private long producerHeadCache = 0l;
+
+	// only accessed by the consumer thread
+	private long consumerTailCache = 0l;
+	private final List<IPCPacketData> drainList;
+
+	private final List<IPCPacketData> overflow = new ArrayList<>();
+	private volatile boolean hasOverflow = false;
+
+	public PacketRingBuffer(int capacity) {
+		int cap = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		this.ring = new IPCPacketData[cap];
+		this.mask = cap - 1;
+		this.drainList = new ArrayList<>(Math.min(cap, 1024));
+	}
+
+	public synchronized void offer(IPCPacketData pkt) {
+		if(!hasOverflow) {
+			long t = tail.get();
+			if(t - producerHeadCache >= ring.length) {
+				producerHeadCache = head.get();
+			}
+			if(t - producerHeadCache < ring.length) {
+				ring[(int)t & mask] = pkt;
+				tail.lazySet(t + 1l);
+				return;
+			}
+		}
+		synchronized(overflow) {
+			overflow.add(pkt);
+			hasOverflow = true;
+		}
+	}
+
+	/**
+	 * Called by the consumer thread only, returns null if the queue is empty
+	 */
+	public IPCPacketData poll() {
+		long h = head.get();
+		if(h >= consumerTailCache) {
+			consumerTailCache = tail.get();
+		}
+		if(h < consumerTailCache) {
+			int i = (int)h & mask;
+			IPCPacketData ret = ring[i];
+			ring[i] = null;
+			head.lazySet(h + 1l);
+			return ret;
+		}
+		if(hasOverflow) {
+			synchronized(overflow) {
+				// the producer never writes to the ring while the overflow list is
+				// in use, so everything in here was queued after the ring contents
+				if(h == tail.get() && !overflow.isEmpty()) {
+					IPCPacketData ret = overflow.remove(0);
+					if(overflow.isEmpty()) {
+						hasOverflow = false;
+					}
+					return ret;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Called by the consumer thread only, returns every queued packet in order
+	 * or null if the queue is empty. The returned list is reused by the next
+	 * call and must not be kept by the caller
+	 */
+	public List<IPCPacketData> drain() {
+		List<IPCPacketData> ret = drainList;
+		ret.clear();
+		long h = head.get();
+		long t = consumerTailCache = tail.get();
+		if(h < t) {
+			do {
+				int i = (int)h & mask;
+				ret.add(ring[i]);
+				ring[i] = null;
+			}while(++h < t);
+			head.lazySet(h);
+		}
+		if(hasOverflow) {
+			synchronized(overflow) {
+				if(h == tail.get()) {
+					ret.addAll(overflow);
+					overflow.clear();
+					hasOverflow = false;
+				}
+			}
+		}
+		return ret.isEmpty() ? null : ret;
+	}
+
+	/**
+	 * Called by the consumer thread only
+	 */
+	public void clear() {
+		while(poll() != null);
+	}
+
+}
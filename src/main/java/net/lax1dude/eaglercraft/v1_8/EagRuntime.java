@@ -19,6 +19,7 @@ import net.lax1dude.eaglercraft.v1_8.internal.EnumPlatformOS;
 import net.lax1dude.eaglercraft.v1_8.internal.EnumPlatformType;
 import net.lax1dude.eaglercraft.v1_8.internal.FileChooserResult;
 import net.lax1dude.eaglercraft.v1_8.internal.IClientConfigAdapter;
+import net.lax1dude.eaglercraft.v1_8.internal.IWorkerThreadPool;
 import net.lax1dude.eaglercraft.v1_8.internal.PlatformApplication;
 import net.lax1dude.eaglercraft.v1_8.internal.PlatformAssets;
 import net.lax1dude.eaglercraft.v1_8.internal.PlatformRuntime;
@@ -370,4 +371,18 @@ public class EagRuntime {
 		PlatformRuntime.immediateContinue();
 	}
 
+	/**
+	 * Returns 0 if the platform cannot run code on more than one core
+	 */
+	public static int getAvailableWorkerThreads() {
+		return PlatformRuntime.getAvailableWorkerThreads();
+	}
+
+	public static IWorkerThreadPool createWorkerThreadPool(String name, int threads) {
+		if(threads <= 0) {
+			throw new IllegalArgumentException("Invalid thread count: " + threads);
+		}
+		return PlatformRuntime.createWorkerThreadPool(name, threads);
+	}
+
 }
@@ -57,6 +57,12 @@ public interface IWebSocketClient {
 
 	void send(byte[] bytes);
 
+	/**
+	 * Sends a slice of the array, the contents are copied before this returns
+	 * so the caller may reuse the array afterwards
+	 */
+	void send(byte[] bytes, int off, int len);
+
 	String getCurrentURI();
 
 }
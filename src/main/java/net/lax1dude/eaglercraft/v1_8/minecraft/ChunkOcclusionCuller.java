@@ -0,0 +1,293 @@
+package net.lax1dude.eaglercraft.v1_8.minecraft;
+
+import static net.lax1dude.eaglercraft.v1_8.internal.PlatformOpenGL.*;
+import static net.lax1dude.eaglercraft.v1_8.opengl.RealOpenGLEnums.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.lax1dude.eaglercraft.v1_8.internal.IQueryGL;
+import net.lax1dude.eaglercraft.v1_8.opengl.OcclusionQueryRenderer;
+import net.minecraft.client.renderer.chunk.RenderChunk;
+import net.minecraft.util.BlockPos;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class ChunkOcclusionCuller {
+
+	/**
+	 * Chunks that passed their last query are only checked again every few
+	 * frames, chunks that failed it are checked every frame so they come back
+	 * as soon as possible
+	 */
+	private static final int VISIBLE_REQUERY_INTERVAL = 4;
+
+	/**
+	 * A failed query stops hiding its chunk once it is this many frames old,
+	 * so a chunk can never stay hidden because its queries are being starved
+	 */
+	private static final int MAX_RESULT_AGE = 8;
+
+	private static final int MAX_QUERIES_PER_FRAME = 384;
+
+	/**
+	 * Chunks whose bounding box is closer to the camera than this are never
+	 * culled, their box can be clipped by the near plane
+	 */
+	private static final double NEAR_DISTANCE = 8.0;
+
+	/**
+	 * Query boxes are grown by this much to cover waving vertices and depth
+	 * precision at chunk borders
+	 */
+	private static final float BOX_PADDING = 0.5f;
+
+	/**
+	 * Moving further than this or turning faster than MAX_ROTATION in one
+	 * frame discards all results, they describe a view that no longer exists
+	 */
+	private static final double MAX_MOVEMENT = 8.0;
+	private static final float MAX_ROTATION = 30.0f;
+
+	private final List<IQueryGL> queryPool = new ArrayList<>();
+
+	private RenderChunk[] pendingChunks = new RenderChunk[256];
+	private IQueryGL[] pendingQueries = new IQueryGL[256];
+	private int[] pendingSerials = new int[256];
+	private int[] pendingEpochs = new int[256];
+	private int pendingCount = 0;
+
+	private boolean active = false;
+	private boolean drawingBoxes = false;
+	private int frame = 0;
+	private int epoch = 0;
+
+	private boolean hasLastView = false;
+	private double viewX = 0.0;
+	private double viewY = 0.0;
+	private double viewZ = 0.0;
+	private float viewYaw = 0.0f;
+	private float viewPitch = 0.0f;
+
+	private int culledSections = 0;
+	private int culledSectionsLast = 0;
+	private int savedDraws = 0;
+	private int savedDrawsLast = 0;
+	private int queriesIssued = 0;
+	private int queriesIssuedLast = 0;
+
+	public static boolean isSupported() {
+		return OcclusionQueryRenderer.isSupported();
+	}
+
+	/**
+	 * Called once per frame before the first terrain layer is drawn, collects
+	 * every query result that is available without waiting on the GPU
+	 */
+	public void beginFrame(boolean enable, double x, double y, double z, float yaw, float pitch) {
+		culledSectionsLast = culledSections;
+		savedDrawsLast = savedDraws;
+		queriesIssuedLast = queriesIssued;
+		culledSections = 0;
+		savedDraws = 0;
+		queriesIssued = 0;
+		++frame;
+
+		enable = enable && isSupported();
+		if(!enable) {
+			if(active) {
+				reset();
+			}
+			active = false;
+			return;
+		}
+		active = true;
+
+		if(hasLastView) {
+			double dx = x - viewX;
+			double dy = y - viewY;
+			double dz = z - viewZ;
+			float dyaw = Math.abs(yaw - viewYaw) % 360.0f;
+			if(dyaw > 180.0f) {
+				dyaw = 360.0f - dyaw;
+			}
+			if(dx * dx + dy * dy + dz * dz > MAX_MOVEMENT * MAX_MOVEMENT || dyaw > MAX_ROTATION
+					|| Math.abs(pitch - viewPitch) > MAX_ROTATION) {
+				++epoch;
+			}
+		}
+		hasLastView = true;
+		viewX = x;
+		viewY = y;
+		viewZ = z;
+		viewYaw = yaw;
+		viewPitch = pitch;
+
+		int j = 0;
+		for(int i = 0; i < pendingCount; ++i) {
+			RenderChunk ch = pendingChunks[i];
+			IQueryGL q = pendingQueries[i];
+			if(_wglGetQueryObjecti(q, GL_QUERY_RESULT_AVAILABLE) == 0) {
+				pendingChunks[j] = ch;
+				pendingQueries[j] = q;
+				pendingSerials[j] = pendingSerials[i];
+				pendingEpochs[j] = pendingEpochs[i];
+				++j;
+				continue;
+			}
+			boolean passed = _wglGetQueryObjecti(q, GL_QUERY_RESULT) != 0;
+			ch.occlusionQueryPending = false;
+			if(pendingSerials[i] == ch.occlusionSerial && pendingEpochs[i] == epoch) {
+				ch.occlusionOccluded = !passed;
+				ch.occlusionResultFrame = frame;
+				ch.occlusionResultEpoch = epoch;
+			}
+			queryPool.add(q);
+		}
+		for(int i = j; i < pendingCount; ++i) {
+			pendingChunks[i] = null;
+			pendingQueries[i] = null;
+		}
+		pendingCount = j;
+	}
+
+	public boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * True if the last query of the chunk found every pixel of its bounding box
+	 * behind the depth buffer and that result is still trusted
+	 */
+	public boolean isOccluded(RenderChunk ch) {
+		return active && ch.occlusionOccluded && ch.occlusionResultEpoch == epoch
+				&& frame - ch.occlusionResultFrame <= MAX_RESULT_AGE && !isNear(ch);
+	}
+
+	private boolean isNear(RenderChunk ch) {
+		BlockPos pos = ch.getPosition();
+		double x = pos.getX() - NEAR_DISTANCE;
+		double y = pos.getY() - NEAR_DISTANCE;
+		double z = pos.getZ() - NEAR_DISTANCE;
+		double s = 16.0 + NEAR_DISTANCE * 2.0;
+		return viewX > x && viewX < x + s && viewY > y && viewY < y + s && viewZ > z && viewZ < z + s;
+	}
+
+	public void countCulledSection() {
+		++culledSections;
+	}
+
+	public void countSavedDraw() {
+		++savedDraws;
+	}
+
+	/**
+	 * Issues a query for the chunk against the depth buffer of the current
+	 * frame if it is due for one, must be called with the terrain matrices
+	 * bound and followed by endQueries()
+	 */
+	public void queryChunk(RenderChunk ch) {
+		if(!active || ch.occlusionQueryPending || queriesIssued >= MAX_QUERIES_PER_FRAME || isNear(ch)) {
+			return;
+		}
+		if(!isOccluded(ch) && ch.occlusionResultEpoch == epoch
+				&& frame - ch.occlusionQueryFrame < VISIBLE_REQUERY_INTERVAL) {
+			return;
+		}
+		if(!drawingBoxes) {
+			OcclusionQueryRenderer.begin();
+			drawingBoxes = true;
+		}
+		IQueryGL q = queryPool.isEmpty() ? _wglGenQueries() : queryPool.remove(queryPool.size() - 1);
+		BlockPos pos = ch.getPosition();
+		OcclusionQueryRenderer.drawBox(q, (float) (pos.getX() - viewX) - BOX_PADDING,
+				(float) (pos.getY() - viewY) - BOX_PADDING, (float) (pos.getZ() - viewZ) - BOX_PADDING,
+				16.0f + BOX_PADDING * 2.0f, 16.0f + BOX_PADDING * 2.0f, 16.0f + BOX_PADDING * 2.0f);
+		if(pendingCount == pendingChunks.length) {
+			int newLen = pendingCount << 1;
+			RenderChunk[] newChunks = new RenderChunk[newLen];
+			System.arraycopy(pendingChunks, 0, newChunks, 0, pendingCount);
+			pendingChunks = newChunks;
+			IQueryGL[] newQueries = new IQueryGL[newLen];
+			System.arraycopy(pendingQueries, 0, newQueries, 0, pendingCount);
+			pendingQueries = newQueries;
+			int[] newSerials = new int[newLen];
+			System.arraycopy(pendingSerials, 0, newSerials, 0, pendingCount);
+			pendingSerials = newSerials;
+			int[] newEpochs = new int[newLen];
+			System.arraycopy(pendingEpochs, 0, newEpochs, 0, pendingCount);
+			pendingEpochs = newEpochs;
+		}
+		pendingChunks[pendingCount] = ch;
+		pendingQueries[pendingCount] = q;
+		pendingSerials[pendingCount] = ch.occlusionSerial;
+		pendingEpochs[pendingCount] = epoch;
+		++pendingCount;
+		ch.occlusionQueryPending = true;
+		ch.occlusionQueryFrame = frame;
+		++queriesIssued;
+	}
+
+	public void endQueries() {
+		if(drawingBoxes) {
+			OcclusionQueryRenderer.end();
+			drawingBoxes = false;
+		}
+	}
+
+	/**
+	 * Forgets every result, queries still in flight are recycled and their
+	 * results are never read
+	 */
+	public void reset() {
+		for(int i = 0; i < pendingCount; ++i) {
+			pendingChunks[i].occlusionQueryPending = false;
+			queryPool.add(pendingQueries[i]);
+			pendingChunks[i] = null;
+			pendingQueries[i] = null;
+		}
+		pendingCount = 0;
+		hasLastView = false;
+		++epoch;
+	}
+
+	public void destroy() {
+		for(int i = 0; i < pendingCount; ++i) {
+			pendingChunks[i].occlusionQueryPending = false;
+			_wglDeleteQueries(pendingQueries[i]);
+			pendingChunks[i] = null;
+			pendingQueries[i] = null;
+		}
+		pendingCount = 0;
+		for(int i = 0, l = queryPool.size(); i < l; ++i) {
+			_wglDeleteQueries(queryPool.get(i));
+		}
+		queryPool.clear();
+		hasLastView = false;
+		active = false;
+		++epoch;
+	}
+
+	/**
+	 * Sections hidden by queries, draw calls that were skipped because of it and
+	 * queries issued during the last frame, then the queries still in flight
+	 */
+	public String getDebugInfo() {
+		return "Occ: " + culledSectionsLast + " sec, " + savedDrawsLast + " draws saved, " + queriesIssuedLast + " q, "
+				+ pendingCount + " pending";
+	}
+
+}
@@ -2,30 +2,37 @@ package net.lax1dude.eaglercraft.v1_8.minecraft;
 
 import static net.lax1dude.eaglercraft.v1_8.opengl.RealOpenGLEnums.*;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
 import net.lax1dude.eaglercraft.v1_8.EagRuntime;
+import net.lax1dude.eaglercraft.v1_8.internal.IWorkerThreadPool;
+import net.lax1dude.eaglercraft.v1_8.internal.buffer.ByteBuffer;
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+import net.lax1dude.eaglercraft.v1_8.opengl.CompactChunkVertexFormat;
 import net.lax1dude.eaglercraft.v1_8.opengl.EaglercraftGPU;
-import net.lax1dude.eaglercraft.v1_8.opengl.GlStateManager;
+import net.lax1dude.eaglercraft.v1_8.opengl.VertexFormat;
 import net.lax1dude.eaglercraft.v1_8.opengl.WorldRenderer;
-import net.lax1dude.eaglercraft.v1_8.opengl.WorldVertexBufferUploader;
+import net.lax1dude.eaglercraft.v1_8.profiler.Profiler;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.BlockRendererDispatcher;
 import net.minecraft.client.renderer.RegionRenderCacheBuilder;
 import net.minecraft.client.renderer.chunk.ChunkCompileTaskGenerator;
 import net.minecraft.client.renderer.chunk.CompiledChunk;
 import net.minecraft.client.renderer.chunk.ListedRenderChunk;
 import net.minecraft.client.renderer.chunk.RenderChunk;
+import net.minecraft.client.renderer.culling.ICamera;
 import net.minecraft.entity.Entity;
+import net.minecraft.util.BlockPos;
 import net.minecraft.util.EnumWorldBlockLayer;
+import net.minecraft.util.MathHelper;
 
 public class ChunkUpdateManager {
 
 	private static final Logger LOGGER = LogManager.getLogger();
 
-	private final WorldVertexBufferUploader worldVertexUploader;
 	private final RegionRenderCacheBuilder renderCache;
 
 	private int chunkUpdatesTotal = 0;
@@ -35,22 +42,96 @@ public class ChunkUpdateManager {
 	private int chunkUpdatesQueued = 0;
 	private int chunkUpdatesQueuedLast = 0;
 	private long chunkUpdatesTotalLastUpdate = 0l;
+
+	private long queueTimeTotal = 0l;
+	private long queueTimeMax = 0l;
+	private int queueTimeCount = 0;
+	private int queueTimeAvgLast = 0;
+	private int queueTimeMaxLast = 0;
+	private int rebuildsThisFrame = 0;
+	private int rebuildsFrameMax = 0;
+	private int rebuildsFrameTotal = 0;
+	private int rebuildsFrameCount = 0;
+	private float rebuildsFrameAvgLast = 0.0f;
+	private int rebuildsFrameMaxLast = 0;
 	
-	private final List<ChunkCompileTaskGenerator> queue = new LinkedList<>();
+	private final ChunkUpdateQueue queue = new ChunkUpdateQueue();
+
+	private ICamera viewFrustum = null;
+	private double viewX = 0.0;
+	private double viewY = 0.0;
+	private double viewZ = 0.0;
+	private double prioritizedX = 0.0;
+	private double prioritizedY = 0.0;
+	private double prioritizedZ = 0.0;
+	private float prioritizedYaw = 0.0f;
+	private float prioritizedPitch = 0.0f;
+
+	private TerrainRegionManager terrainRegions = null;
+
+	private boolean compactVertices = false;
+	private ByteBuffer compactVertexBuffer = null;
+
+	private IWorkerThreadPool workerPool = null;
+	private int workerThreads = 0;
+	private int uploadBudget = 8;
+	private final List<ChunkCompileWorker> idleWorkers = new ArrayList<>();
+	private final List<ChunkCompileWorker> busyWorkers = new ArrayList<>();
+	private final List<ChunkCompileWorker> finishedWorkers = new ArrayList<>();
 
 	public ChunkUpdateManager() {
-		worldVertexUploader = new WorldVertexBufferUploader();
 		renderCache = new RegionRenderCacheBuilder();
 	}
 	
 	public static class EmptyBlockLayerException extends IllegalStateException {
 	}
-	
+
+	/**
+	 * Compiles chunks on a worker thread, every worker owns its own vertex
+	 * buffers and block renderer because neither of them are thread safe. The
+	 * worker stays busy until the render thread has uploaded its buffers.
+	 */
+	private class ChunkCompileWorker implements Runnable {
+
+		private final RegionRenderCacheBuilder renderCache = new RegionRenderCacheBuilder();
+		private BlockRendererDispatcher blockRenderer = null;
+		private ChunkCompileTaskGenerator generator = null;
+		private float x;
+		private float y;
+		private float z;
+		private boolean compiled;
+		private Throwable exception;
+
+		@Override
+		public void run() {
+			try {
+				compiled = compileGenerator(generator, x, y, z);
+			}catch(Throwable t) {
+				exception = t;
+			}
+			synchronized(finishedWorkers) {
+				finishedWorkers.add(this);
+				finishedWorkers.notifyAll();
+			}
+		}
+
+	}
+
 	private void runGenerator(ChunkCompileTaskGenerator generator, Entity entity) {
 		generator.setRegionRenderCacheBuilder(renderCache);
 		float f = (float) entity.posX;
 		float f1 = (float) entity.posY + entity.getEyeHeight();
 		float f2 = (float) entity.posZ;
+		if(compileGenerator(generator, f, f1, f2)) {
+			uploadGenerator(generator);
+		}
+	}
+
+	/**
+	 * Does not touch any GL state, safe to call from a worker thread if the
+	 * generator has a region snapshot
+	 */
+	private boolean compileGenerator(ChunkCompileTaskGenerator generator, float f, float f1, float f2) {
 		ChunkCompileTaskGenerator.Type chunkcompiletaskgenerator$type = generator.getType();
 		generator.setStatus(ChunkCompileTaskGenerator.Status.COMPILING);
 		if (chunkcompiletaskgenerator$type == ChunkCompileTaskGenerator.Type.REBUILD_CHUNK) {
@@ -66,12 +147,18 @@ public class ChunkUpdateManager {
 			}catch(EmptyBlockLayerException ex) {
 				LOGGER.error("RenderChunk {} tried to update it's TRANSLUCENT layer with no proper initialization", r.getPosition());
 				generator.setStatus(ChunkCompileTaskGenerator.Status.DONE);
-				return; // rip
+				return false; // rip
 			}
 		}
 
-		generator.setStatus(ChunkCompileTaskGenerator.Status.UPLOADING);
+		if(!generator.isFinished()) {
+			generator.setStatus(ChunkCompileTaskGenerator.Status.UPLOADING);
+		}
+		return true;
+	}
 
+	private void uploadGenerator(ChunkCompileTaskGenerator generator) {
+		ChunkCompileTaskGenerator.Type chunkcompiletaskgenerator$type = generator.getType();
 		final CompiledChunk compiledchunk = generator.getCompiledChunk();
 		if (chunkcompiletaskgenerator$type == ChunkCompileTaskGenerator.Type.REBUILD_CHUNK) {
 			EnumWorldBlockLayer[] en = EnumWorldBlockLayer._VALUES;
@@ -84,7 +171,11 @@ public class ChunkUpdateManager {
 					generator.setStatus(ChunkCompileTaskGenerator.Status.DONE);
 				}
 			}
+			((ListedRenderChunk) generator.getRenderChunk()).flushEmptyLayers(compiledchunk);
 			generator.getRenderChunk().setCompiledChunk(compiledchunk);
+			if(generator.getGlobalTileEntities() != null) {
+				generator.getRenderChunk().updateGlobalTileEntities(generator.getGlobalTileEntities());
+			}
 		} else if (chunkcompiletaskgenerator$type == ChunkCompileTaskGenerator.Type.RESORT_TRANSPARENCY) {
 			if(!compiledchunk.isLayerEmpty(EnumWorldBlockLayer.TRANSLUCENT)) {
 				this.uploadChunk(EnumWorldBlockLayer.TRANSLUCENT, generator.getRegionRenderCacheBuilder()
@@ -107,15 +198,29 @@ public class ChunkUpdateManager {
 			queue.clear();
 			chunkUpdatesQueued = 0;
 			return false;
+		}
+		rebuildsFrameTotal += rebuildsThisFrame;
+		++rebuildsFrameCount;
+		if(rebuildsThisFrame > rebuildsFrameMax) {
+			rebuildsFrameMax = rebuildsThisFrame;
+		}
+		rebuildsThisFrame = 0;
+		Profiler profiler = Minecraft.getMinecraft().mcProfiler;
+		if(workerPool != null) {
+			return updateChunksAsync(entity, timeout, profiler);
 		}else {
+			profiler.startSection("rebuild");
 			boolean flag = false;
 			long millis = EagRuntime.steadyTimeMillis();
-			List<ChunkCompileTaskGenerator> droppedUpdates = new LinkedList<>();
+			List<ChunkCompileTaskGenerator> droppedUpdates = null;
 			while(!queue.isEmpty()) {
-				ChunkCompileTaskGenerator generator = queue.remove(0);
+				ChunkCompileTaskGenerator generator = pollQueue(millis);
 				
 				if(!generator.canExecuteYet()) {
 					if(millis - generator.goddamnFuckingTimeout < 60000l) {
+						if(droppedUpdates == null) {
+							droppedUpdates = new LinkedList<>();
+						}
 						droppedUpdates.add(generator);
 					}
 					continue;
@@ -125,41 +230,279 @@ public class ChunkUpdateManager {
 				flag = true;
 				
 				++chunkUpdatesTotal;
+				++rebuildsThisFrame;
 				
 				if(timeout < EagRuntime.nanoTime()) {
 					break;
 				}
 			}
-			queue.addAll(droppedUpdates);
+			requeue(droppedUpdates);
+			profiler.endSection();
 			return flag;
 		}
 	}
 
-	public boolean updateChunkLater(RenderChunk chunkRenderer) {
-		final ChunkCompileTaskGenerator chunkcompiletaskgenerator = chunkRenderer.makeCompileTaskChunk();
-		boolean flag = queue.size() < 100;
-		if (!flag) {
-			chunkcompiletaskgenerator.finish();
-		}else {
-			chunkcompiletaskgenerator.addFinishRunnable(new Runnable() {
-				@Override
-				public void run() {
-					if(queue.remove(chunkcompiletaskgenerator)) {
-						++chunkUpdatesTotal;
+	private ChunkCompileTaskGenerator pollQueue(long millis) {
+		ChunkCompileTaskGenerator generator = queue.poll();
+		long t = millis - generator.queueTime;
+		queueTimeTotal += t;
+		++queueTimeCount;
+		if(t > queueTimeMax) {
+			queueTimeMax = t;
+		}
+		return generator;
+	}
+
+	private void requeue(List<ChunkCompileTaskGenerator> droppedUpdates) {
+		if(droppedUpdates != null) {
+			for(int i = 0, l = droppedUpdates.size(); i < l; ++i) {
+				ChunkCompileTaskGenerator generator = droppedUpdates.get(i);
+				queue.add(generator, generator.queuePriority);
+			}
+		}
+	}
+
+	/**
+	 * Called by RenderGlobal.setupTerrain every frame, queued updates are sorted
+	 * by their distance to the camera and updates outside of the frustum are
+	 * pushed to the back. Everything in the queue is sorted again if the camera
+	 * has moved or rotated far enough since the last time it was sorted.
+	 */
+	public void updateView(ICamera camera, double x, double y, double z, float yaw, float pitch) {
+		viewFrustum = camera;
+		viewX = x;
+		viewY = y;
+		viewZ = z;
+		double dx = x - prioritizedX;
+		double dy = y - prioritizedY;
+		double dz = z - prioritizedZ;
+		float dyaw = MathHelper.wrapAngleTo180_float(yaw - prioritizedYaw);
+		float dpitch = pitch - prioritizedPitch;
+		if(dx * dx + dy * dy + dz * dz > 64.0 || dyaw > 15.0f || dyaw < -15.0f || dpitch > 15.0f || dpitch < -15.0f) {
+			prioritizedX = x;
+			prioritizedY = y;
+			prioritizedZ = z;
+			prioritizedYaw = yaw;
+			prioritizedPitch = pitch;
+			for(int i = 0, l = queue.size(); i < l; ++i) {
+				ChunkCompileTaskGenerator generator = queue.getAt(i);
+				generator.queuePriority = getPriority(generator.getRenderChunk());
+			}
+			queue.heapify();
+		}
+	}
+
+	private float getPriority(RenderChunk chunk) {
+		BlockPos pos = chunk.getPosition();
+		float dx = (float)(pos.x + 8 - viewX);
+		float dy = (float)(pos.y + 8 - viewY);
+		float dz = (float)(pos.z + 8 - viewZ);
+		float f = dx * dx + dy * dy + dz * dz;
+		if(viewFrustum != null && !viewFrustum.isBoundingBoxInFrustum(chunk.boundingBox)) {
+			f *= 4.0f;
+		}
+		return f;
+	}
+
+	private void enqueue(final ChunkCompileTaskGenerator chunkcompiletaskgenerator) {
+		chunkcompiletaskgenerator.addFinishRunnable(new Runnable() {
+			@Override
+			public void run() {
+				if(queue.remove(chunkcompiletaskgenerator)) {
+					++chunkUpdatesTotal;
+				}
+			}
+		});
+		chunkcompiletaskgenerator.queueTime = EagRuntime.steadyTimeMillis();
+		queue.add(chunkcompiletaskgenerator, getPriority(chunkcompiletaskgenerator.getRenderChunk()));
+		++chunkUpdatesQueued;
+	}
+
+	private boolean updateChunksAsync(Entity entity, long timeout, Profiler profiler) {
+		profiler.startSection("upload");
+		boolean flag = false;
+		int uploads = 0;
+		while(uploads < uploadBudget) {
+			ChunkCompileWorker worker;
+			synchronized(finishedWorkers) {
+				if(finishedWorkers.isEmpty()) {
+					break;
+				}
+				worker = finishedWorkers.remove(0);
+			}
+			if(finishWorker(worker)) {
+				flag = true;
+				++uploads;
+				++chunkUpdatesTotal;
+				++rebuildsThisFrame;
+			}
+			if(timeout < EagRuntime.nanoTime()) {
+				break;
+			}
+		}
+
+		profiler.endStartSection("dispatch");
+		if(!queue.isEmpty() && !idleWorkers.isEmpty()) {
+			float f = (float) entity.posX;
+			float f1 = (float) entity.posY + entity.getEyeHeight();
+			float f2 = (float) entity.posZ;
+			long millis = EagRuntime.steadyTimeMillis();
+			List<ChunkCompileTaskGenerator> droppedUpdates = null;
+			while(!queue.isEmpty() && !idleWorkers.isEmpty()) {
+				ChunkCompileTaskGenerator generator = pollQueue(millis);
+				
+				if(!generator.canExecuteYet()) {
+					if(millis - generator.goddamnFuckingTimeout < 60000l) {
+						if(droppedUpdates == null) {
+							droppedUpdates = new LinkedList<>();
+						}
+						droppedUpdates.add(generator);
 					}
+					continue;
+				}
+				
+				ChunkCompileWorker worker = idleWorkers.remove(idleWorkers.size() - 1);
+				if(generator.getType() == ChunkCompileTaskGenerator.Type.REBUILD_CHUNK) {
+					generator.getRenderChunk().snapshotRegion(generator);
 				}
-			});
-			queue.add(chunkcompiletaskgenerator);
-			++chunkUpdatesQueued;
+				generator.setRegionRenderCacheBuilder(worker.renderCache);
+				generator.setBlockRendererDispatcher(worker.blockRenderer);
+				worker.generator = generator;
+				worker.x = f;
+				worker.y = f1;
+				worker.z = f2;
+				worker.compiled = false;
+				worker.exception = null;
+				busyWorkers.add(worker);
+				workerPool.execute(worker);
+			}
+			requeue(droppedUpdates);
 		}
+		profiler.endSection();
 		return flag;
 	}
 
+	/**
+	 * Uploads the result of a worker and returns it to the idle list, returns
+	 * false if the result was thrown away because the RenderChunk changed while
+	 * the worker was running
+	 */
+	private boolean finishWorker(ChunkCompileWorker worker) {
+		ChunkCompileTaskGenerator generator = worker.generator;
+		boolean upload = false;
+		try {
+			if(!generator.isFinished()) {
+				Throwable t = worker.exception;
+				if(t != null) {
+					if(t instanceof RuntimeException) {
+						throw (RuntimeException)t;
+					}else {
+						throw new RuntimeException("Failed to compile chunk on a worker thread", t);
+					}
+				}
+				if(worker.compiled && (generator.getType() == ChunkCompileTaskGenerator.Type.REBUILD_CHUNK
+						|| generator.getRenderChunk().getCompiledChunk() == generator.getCompiledChunk())) {
+					uploadGenerator(generator);
+					upload = true;
+				}
+			}
+		}finally {
+			generator.setRegionRenderCache(null, null);
+			generator.setBlockRendererDispatcher(null);
+			worker.generator = null;
+			worker.exception = null;
+			busyWorkers.remove(worker);
+			idleWorkers.add(worker);
+		}
+		return upload;
+	}
+
+	/**
+	 * Blocks until every worker is idle and throws away everything they compiled
+	 */
+	private void cancelWorkers() {
+		synchronized(finishedWorkers) {
+			while(finishedWorkers.size() < busyWorkers.size()) {
+				try {
+					finishedWorkers.wait();
+				} catch (InterruptedException e) {
+					LOGGER.warn("Interrupted while waiting for chunk update workers to finish");
+					return;
+				}
+			}
+			finishedWorkers.clear();
+		}
+		for(int i = 0, l = busyWorkers.size(); i < l; ++i) {
+			ChunkCompileWorker worker = busyWorkers.get(i);
+			ChunkCompileTaskGenerator generator = worker.generator;
+			generator.setRegionRenderCache(null, null);
+			generator.setBlockRendererDispatcher(null);
+			if(!generator.isFinished()) {
+				generator.finish();
+			}
+			worker.generator = null;
+			worker.exception = null;
+			idleWorkers.add(worker);
+		}
+		busyWorkers.clear();
+	}
+
+	/**
+	 * Applies the thread count and upload budget from the game settings, also
+	 * recreates the block renderers of the workers since the texture atlas may
+	 * have been reloaded. Falls back to compiling chunks on the render thread
+	 * if the platform has no worker threads (TeaVM)
+	 */
+	private void configureWorkers() {
+		Minecraft mc = Minecraft.getMinecraft();
+		uploadBudget = Math.max(mc.gameSettings.chunkUploadBudget, 1);
+		compactVertices = mc.gameSettings.compactChunkVertices;
+		if(!compactVertices && compactVertexBuffer != null) {
+			EagRuntime.freeByteBuffer(compactVertexBuffer);
+			compactVertexBuffer = null;
+		}
+		int threads = Math.min(mc.gameSettings.chunkUpdateThreads, EagRuntime.getAvailableWorkerThreads());
+		if(threads < 0) {
+			threads = 0;
+		}
+		if(threads != workerThreads) {
+			if(workerPool != null) {
+				workerPool.shutdown();
+				workerPool = null;
+			}
+			for(int i = 0, l = idleWorkers.size(); i < l; ++i) {
+				idleWorkers.get(i).renderCache.free();
+			}
+			idleWorkers.clear();
+			workerThreads = threads;
+			if(threads > 0) {
+				LOGGER.info("Starting {} chunk update worker threads", threads);
+				workerPool = EagRuntime.createWorkerThreadPool("Chunk Update Worker", threads);
+				for(int i = 0, l = threads * 2; i < l; ++i) {
+					idleWorkers.add(new ChunkCompileWorker());
+				}
+			}
+		}
+		if(workerPool != null) {
+			BlockRendererDispatcher dispatcher = mc.getBlockRendererDispatcher();
+			for(int i = 0, l = idleWorkers.size(); i < l; ++i) {
+				idleWorkers.get(i).blockRenderer = new BlockRendererDispatcher(dispatcher.getBlockModelShapes(),
+						mc.gameSettings);
+			}
+		}
+	}
+
+	public boolean updateChunkLater(RenderChunk chunkRenderer) {
+		enqueue(chunkRenderer.makeCompileTaskChunk());
+		return true;
+	}
+
 	public boolean updateChunkNow(RenderChunk chunkRenderer) {
 		Entity entity = Minecraft.getMinecraft().getRenderViewEntity();
 		if (entity != null) {
 			runGenerator(chunkRenderer.makeCompileTaskChunk(), entity);
 			++chunkUpdatesTotalImmediate;
+			++rebuildsThisFrame;
 		}
 		return true;
 	}
@@ -167,52 +510,84 @@ public class ChunkUpdateManager {
 	public void stopChunkUpdates() {
 		queue.clear();
 		chunkUpdatesQueued = 0;
+		if(workerPool != null) {
+			cancelWorkers();
+		}
+		configureWorkers();
 	}
 
 	public boolean updateTransparencyLater(RenderChunk chunkRenderer) {
 		if(isAlreadyQueued(chunkRenderer)) {
 			return true;
 		}
-		final ChunkCompileTaskGenerator chunkcompiletaskgenerator = chunkRenderer.makeCompileTaskTransparency();
+		ChunkCompileTaskGenerator chunkcompiletaskgenerator = chunkRenderer.makeCompileTaskTransparency();
 		if (chunkcompiletaskgenerator == null) {
 			return true;
 		}
 		chunkcompiletaskgenerator.goddamnFuckingTimeout = EagRuntime.steadyTimeMillis();
-		if(queue.size() < 100) {
-			chunkcompiletaskgenerator.addFinishRunnable(new Runnable() {
-				@Override
-				public void run() {
-					if(queue.remove(chunkcompiletaskgenerator)) {
-						++chunkUpdatesTotal;
-					}
-				}
-			});
-			queue.add(chunkcompiletaskgenerator);
-			++chunkUpdatesQueued;
-			return true;
-		}else {
-			return false;
-		}
+		enqueue(chunkcompiletaskgenerator);
+		return true;
 	}
 
 	public void uploadChunk(final EnumWorldBlockLayer player, final WorldRenderer chunkRenderer,
 			final RenderChunk compiledChunkIn, final CompiledChunk parCompiledChunk) {
-		this.uploadDisplayList(chunkRenderer,
-				((ListedRenderChunk) compiledChunkIn).getDisplayList(player, parCompiledChunk), compiledChunkIn);
+		ListedRenderChunk listedChunk = (ListedRenderChunk) compiledChunkIn;
+		int displayList = listedChunk.getDisplayList(player, parCompiledChunk);
+		int count = chunkRenderer.getVertexCount();
+		if(count > 0) {
+			VertexFormat fmt = chunkRenderer.getVertexFormat();
+			ByteBuffer buf = chunkRenderer.getByteBuffer();
+			int attribs, stride;
+			if(compactVertices && CompactChunkVertexFormat.isSupported(fmt)) {
+				stride = CompactChunkVertexFormat.getStride(fmt);
+				attribs = CompactChunkVertexFormat.getAttribs(fmt);
+				int len = count * stride;
+				if(compactVertexBuffer == null || compactVertexBuffer.capacity() < len) {
+					if(compactVertexBuffer != null) {
+						EagRuntime.freeByteBuffer(compactVertexBuffer);
+					}
+					compactVertexBuffer = EagRuntime.allocateByteBuffer((len & 0xFFFE0000) + 0x20000);
+				}
+				compactVertexBuffer.clear();
+				CompactChunkVertexFormat.encode(buf, fmt, count, compactVertexBuffer);
+				buf = compactVertexBuffer;
+			}else {
+				stride = fmt.attribStride;
+				attribs = fmt.eaglercraftAttribBits;
+				buf.position(0).limit(count * stride);
+			}
+			int mode = chunkRenderer.getDrawMode();
+			if(terrainRegions != null && terrainRegions.uploadSection(player, buf, attribs, stride, mode, count, listedChunk)) {
+				EaglercraftGPU.flushDisplayList(displayList);
+			}else {
+				EaglercraftGPU.glNewList(displayList, GL_COMPILE);
+				EaglercraftGPU.renderBuffer(buf, attribs, mode, count);
+				EaglercraftGPU.glEndList();
+			}
+			chunkRenderer.reset();
+		}else {
+			if(terrainRegions != null) {
+				terrainRegions.freeSection(player, listedChunk);
+			}
+			EaglercraftGPU.flushDisplayList(displayList);
+		}
 		chunkRenderer.setTranslation(0.0D, 0.0D, 0.0D);
 	}
 
-	private void uploadDisplayList(WorldRenderer chunkRenderer, int parInt1, RenderChunk parRenderChunk) {
-		EaglercraftGPU.glNewList(parInt1, GL_COMPILE);
-		GlStateManager.pushMatrix();
-		this.worldVertexUploader.func_181679_a(chunkRenderer);
-		GlStateManager.popMatrix();
-		EaglercraftGPU.glEndList();
+	/**
+	 * Set by RenderGlobal when the renderers are reloaded, null if chunks are
+	 * stored in their own display lists
+	 */
+	public void setTerrainRegions(TerrainRegionManager terrainRegions) {
+		this.terrainRegions = terrainRegions;
 	}
 
 	public boolean isAlreadyQueued(RenderChunk update) {
-		for(int i = 0, l = queue.size(); i < l; ++i) {
-			if(queue.get(i).getRenderChunk() == update) {
+		if(queue.contains(update)) {
+			return true;
+		}
+		for(int i = 0, l = busyWorkers.size(); i < l; ++i) {
+			if(busyWorkers.get(i).generator.getRenderChunk() == update) {
 				return true;
 			}
 		}
@@ -233,10 +608,27 @@ public class ChunkUpdateManager {
 			if(chunkUpdatesQueued < 0) {
 				chunkUpdatesQueued = 0;
 			}
+			queueTimeAvgLast = queueTimeCount > 0 ? (int)(queueTimeTotal / queueTimeCount) : 0;
+			queueTimeMaxLast = (int)queueTimeMax;
+			queueTimeTotal = 0l;
+			queueTimeMax = 0l;
+			queueTimeCount = 0;
+			rebuildsFrameAvgLast = rebuildsFrameCount > 0 ? (float)rebuildsFrameTotal / rebuildsFrameCount : 0.0f;
+			rebuildsFrameMaxLast = rebuildsFrameMax;
+			rebuildsFrameTotal = 0;
+			rebuildsFrameCount = 0;
+			rebuildsFrameMax = 0;
 		}
 		
-		return "Uq: " + (chunkUpdatesTotalLast + chunkUpdatesTotalImmediateLast) + "/"
+		String ret = "Uq: " + (chunkUpdatesTotalLast + chunkUpdatesTotalImmediateLast) + "/"
 				+ (chunkUpdatesQueuedLast + chunkUpdatesTotalImmediateLast);
+		int rf = (int)(rebuildsFrameAvgLast * 10.0f);
+		ret += ", Qt: " + queueTimeAvgLast + "/" + queueTimeMaxLast + "ms, Rf: " + (rf / 10) + "." + (rf % 10) + "/"
+				+ rebuildsFrameMaxLast;
+		if(workerPool != null) {
+			ret += ", Wk: " + busyWorkers.size() + "/" + (busyWorkers.size() + idleWorkers.size());
+		}
+		return ret;
 	}
 	
 }
@@ -0,0 +1,177 @@
+package net.lax1dude.eaglercraft.v1_8.minecraft;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import net.minecraft.client.renderer.chunk.ChunkCompileTaskGenerator;
+import net.minecraft.client.renderer.chunk.RenderChunk;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class ChunkUpdateQueue {
+
+	/**
+	 * Binary min-heap ordered by ChunkCompileTaskGenerator.queuePriority, each
+	 * generator stores its own index in the heap so it can be removed without
+	 * searching for it
+	 */
+	private ChunkCompileTaskGenerator[] heap = new ChunkCompileTaskGenerator[256];
+	private int size = 0;
+
+	/**
+	 * Keyed by identity, dedupe must never depend on RenderChunk's equals/hashCode
+	 */
+	private final Map<RenderChunk, ChunkCompileTaskGenerator> chunkMap = new IdentityHashMap<>();
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean contains(RenderChunk chunk) {
+		return chunkMap.containsKey(chunk);
+	}
+
+	public ChunkCompileTaskGenerator get(RenderChunk chunk) {
+		return chunkMap.get(chunk);
+	}
+
+	public ChunkCompileTaskGenerator getAt(int idx) {
+		return heap[idx];
+	}
+
+	public void add(ChunkCompileTaskGenerator generator, float priority) {
+		if(generator.queueIndex != -1) {
+			throw new IllegalStateException("Generator is already queued");
+		}
+		ChunkCompileTaskGenerator old = chunkMap.put(generator.getRenderChunk(), generator);
+		if(old != null && old != generator) {
+			removeAt(old.queueIndex);
+		}
+		if(size == heap.length) {
+			ChunkCompileTaskGenerator[] newHeap = new ChunkCompileTaskGenerator[size << 1];
+			System.arraycopy(heap, 0, newHeap, 0, size);
+			heap = newHeap;
+		}
+		generator.queuePriority = priority;
+		heap[size] = generator;
+		generator.queueIndex = size;
+		siftUp(size++);
+	}
+
+	public ChunkCompileTaskGenerator poll() {
+		if(size == 0) {
+			return null;
+		}
+		ChunkCompileTaskGenerator ret = heap[0];
+		chunkMap.remove(ret.getRenderChunk());
+		removeAt(0);
+		return ret;
+	}
+
+	public boolean remove(ChunkCompileTaskGenerator generator) {
+		int i = generator.queueIndex;
+		if(i < 0 || i >= size || heap[i] != generator) {
+			return false;
+		}
+		if(chunkMap.get(generator.getRenderChunk()) == generator) {
+			chunkMap.remove(generator.getRenderChunk());
+		}
+		removeAt(i);
+		return true;
+	}
+
+	public void clear() {
+		for(int i = 0; i < size; ++i) {
+			heap[i].queueIndex = -1;
+			heap[i] = null;
+		}
+		size = 0;
+		chunkMap.clear();
+	}
+
+	/**
+	 * Restores the heap order after the priorities of the queued generators
+	 * were changed in place
+	 */
+	public void heapify() {
+		for(int i = (size >> 1) - 1; i >= 0; --i) {
+			siftDown(i);
+		}
+	}
+
+	private void removeAt(int i) {
+		ChunkCompileTaskGenerator removed = heap[i];
+		removed.queueIndex = -1;
+		int last = --size;
+		if(i != last) {
+			ChunkCompileTaskGenerator moved = heap[last];
+			heap[last] = null;
+			heap[i] = moved;
+			moved.queueIndex = i;
+			siftDown(i);
+			if(heap[i] == moved) {
+				siftUp(i);
+			}
+		}else {
+			heap[last] = null;
+		}
+	}
+
+	private void siftUp(int i) {
+		ChunkCompileTaskGenerator g = heap[i];
+		float p = g.queuePriority;
+		while(i > 0) {
+			int parent = (i - 1) >> 1;
+			ChunkCompileTaskGenerator pg = heap[parent];
+			if(p >= pg.queuePriority) {
+				break;
+			}
+			heap[i] = pg;
+			pg.queueIndex = i;
+			i = parent;
+		}
+		heap[i] = g;
+		g.queueIndex = i;
+	}
+
+	private void siftDown(int i) {
+		ChunkCompileTaskGenerator g = heap[i];
+		float p = g.queuePriority;
+		int half = size >> 1;
+		while(i < half) {
+			int child = (i << 1) + 1;
+			ChunkCompileTaskGenerator cg = heap[child];
+			int right = child + 1;
+			if(right < size && heap[right].queuePriority < cg.queuePriority) {
+				child = right;
+				cg = heap[child];
+			}
+			if(p <= cg.queuePriority) {
+				break;
+			}
+			heap[i] = cg;
+			cg.queueIndex = i;
+			i = child;
+		}
+		heap[i] = g;
+		g.queueIndex = i;
+	}
+
+}
@@ -0,0 +1,241 @@
+package net.lax1dude.eaglercraft.v1_8.minecraft;
+
+import net.minecraft.client.renderer.chunk.CompiledChunk;
+import net.minecraft.client.renderer.chunk.RenderChunk;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumFacing;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class ChunkVisibilityGraph {
+
+	private static final EnumFacing[] FACINGS = EnumFacing._VALUES;
+
+	private final RenderChunk[] renderChunks;
+	private final int countChunksX;
+	private final int countChunksY;
+	private final int countChunksZ;
+	private final int renderDistanceBlocks;
+
+	/**
+	 * Slots in the order the traversal reached them, doubles as its queue
+	 */
+	private final int[] order;
+
+	/**
+	 * Face each slot was entered through and every direction stepped along the
+	 * path leading to it, as EnumFacing ordinals and a bitmask of them
+	 */
+	private final byte[] entryFacing;
+	private final byte[] pathFacings;
+
+	private final int[] visitStamps;
+	private int stamp = 0;
+	private int count = 0;
+	private boolean firstIsCamera = false;
+
+	private boolean dirty = true;
+	private int cameraX = 0;
+	private int cameraY = 0;
+	private int cameraZ = 0;
+	private boolean cameraInWorld = false;
+	private boolean cameraEnclosed = false;
+	private boolean followVisibility = false;
+
+	private int rebuilds = 0;
+
+	public ChunkVisibilityGraph(RenderChunk[] renderChunks, int countChunksX, int countChunksY, int countChunksZ,
+			int renderDistanceChunks) {
+		this.renderChunks = renderChunks;
+		this.countChunksX = countChunksX;
+		this.countChunksY = countChunksY;
+		this.countChunksZ = countChunksZ;
+		this.renderDistanceBlocks = renderDistanceChunks * 16;
+		int len = renderChunks.length;
+		this.order = new int[len];
+		this.entryFacing = new byte[len];
+		this.pathFacings = new byte[len];
+		this.visitStamps = new int[len];
+	}
+
+	/**
+	 * Forces the next update() to traverse again, for when chunks have been
+	 * moved around the view frustum
+	 */
+	public void markDirty() {
+		dirty = true;
+	}
+
+	/**
+	 * Called when the visibility between faces of a compiled chunk changes,
+	 * a chunk the last traversal never reached can't change its result
+	 */
+	public void onChunkVisibilityChanged(RenderChunk chunk) {
+		if(!dirty) {
+			int slot = getSlot(chunk.getPosition());
+			if(slot != -1 && visitStamps[slot] == stamp) {
+				dirty = true;
+			}
+		}
+	}
+
+	/**
+	 * Updates the traversal for the section the camera is in. Does nothing if
+	 * neither the camera section nor any visibility it depends on changed
+	 * since the last call, returns true if it traversed again.
+	 * 
+	 * @param cameraPos origin of the camera section
+	 * @param cameraChunk the chunk the camera is in or null outside the world
+	 * @param cameraEnclosed true if no face of the camera chunk can be seen
+	 *                       from the camera, only that chunk will be visited
+	 * @param followVisibility true to skip faces the compiled chunks say can't
+	 *                         be seen through, false for spectators in walls
+	 */
+	public boolean update(BlockPos cameraPos, RenderChunk cameraChunk, int cameraBlockY, boolean cameraEnclosed,
+			boolean followVisibility) {
+		boolean inWorld = cameraChunk != null;
+		if(!dirty && cameraPos.getX() == cameraX && cameraPos.getY() == cameraY && cameraPos.getZ() == cameraZ
+				&& inWorld == cameraInWorld && cameraEnclosed == this.cameraEnclosed
+				&& followVisibility == this.followVisibility) {
+			return false;
+		}
+		dirty = false;
+		cameraX = cameraPos.getX();
+		cameraY = cameraPos.getY();
+		cameraZ = cameraPos.getZ();
+		cameraInWorld = inWorld;
+		this.cameraEnclosed = cameraEnclosed;
+		this.followVisibility = followVisibility;
+		++rebuilds;
+
+		if(++stamp == 0) {
+			for(int i = 0; i < visitStamps.length; ++i) {
+				visitStamps[i] = -1;
+			}
+		}
+		count = 0;
+
+		if(inWorld) {
+			firstIsCamera = true;
+			int slot = getSlot(cameraChunk.getPosition());
+			visit(slot, -1, 0);
+			if(cameraEnclosed) {
+				return true;
+			}
+		}else {
+			// vanilla seeds the top or bottom layer around the world origin here
+			firstIsCamera = false;
+			int y = cameraBlockY > 0 ? 248 : 8;
+			int rd = renderDistanceBlocks >> 4;
+			for(int j = -rd; j <= rd; ++j) {
+				for(int k = -rd; k <= rd; ++k) {
+					int slot = getSlot((j << 4) + 8, y, (k << 4) + 8);
+					if(slot != -1 && visitStamps[slot] != stamp) {
+						visit(slot, -1, 0);
+					}
+				}
+			}
+		}
+
+		for(int i = 0; i < count; ++i) {
+			int slot = order[i];
+			RenderChunk chunk = renderChunks[slot];
+			CompiledChunk compiled = chunk.getCompiledChunk();
+			int entry = entryFacing[slot];
+			int path = pathFacings[slot];
+			BlockPos pos = chunk.getPosition();
+			for(int d = 0; d < FACINGS.length; ++d) {
+				EnumFacing facing = FACINGS[d];
+				if(followVisibility) {
+					if((path & (1 << facing.getOpposite().ordinal())) != 0) {
+						continue;
+					}
+					if(entry != -1 && !compiled.isVisible(FACINGS[entry].getOpposite(), facing)) {
+						continue;
+					}
+				}
+				int nx = pos.getX() + facing.getFrontOffsetX() * 16;
+				int ny = pos.getY() + facing.getFrontOffsetY() * 16;
+				int nz = pos.getZ() + facing.getFrontOffsetZ() * 16;
+				if(Math.abs(cameraX - nx) > renderDistanceBlocks || ny < 0 || ny >= 256
+						|| Math.abs(cameraZ - nz) > renderDistanceBlocks) {
+					continue;
+				}
+				int n = getSlot(nx, ny, nz);
+				if(n != -1 && visitStamps[n] != stamp) {
+					visit(n, d, path | (1 << d));
+				}
+			}
+		}
+
+		return true;
+	}
+
+	private void visit(int slot, int entry, int path) {
+		visitStamps[slot] = stamp;
+		entryFacing[slot] = (byte) entry;
+		pathFacings[slot] = (byte) path;
+		order[count++] = slot;
+	}
+
+	private int getSlot(BlockPos pos) {
+		return getSlot(pos.getX(), pos.getY(), pos.getZ());
+	}
+
+	private int getSlot(int x, int y, int z) {
+		int i = x >> 4;
+		int j = y >> 4;
+		int k = z >> 4;
+		if(j < 0 || j >= countChunksY) {
+			return -1;
+		}
+		i %= countChunksX;
+		if(i < 0) {
+			i += countChunksX;
+		}
+		k %= countChunksZ;
+		if(k < 0) {
+			k += countChunksZ;
+		}
+		return (k * countChunksY + j) * countChunksX + i;
+	}
+
+	/**
+	 * Number of chunks reached by the last traversal, regardless of frustum
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Index into the view frustum's chunk array of the i-th chunk reached
+	 */
+	public int getSlotAt(int i) {
+		return order[i];
+	}
+
+	/**
+	 * The camera chunk is always drawn, even when it is outside the frustum
+	 */
+	public boolean isCameraChunkAt(int i) {
+		return i == 0 && firstIsCamera;
+	}
+
+	public int getRebuildCount() {
+		return rebuilds;
+	}
+
+}
@@ -0,0 +1,161 @@
+package net.lax1dude.eaglercraft.v1_8.minecraft;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.util.AxisAlignedBB;
+import net.minecraft.util.BlockPos;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class CollisionBoxBuffer {
+
+	/**
+	 * Reusable list of collision boxes stored as packed doubles, filled by
+	 * World.getCollisionBoxes. Entity.moveEntity keeps one per entity so
+	 * collision queries don't allocate an ArrayList and an AxisAlignedBB for
+	 * every block they touch. The offset functions are the same as the ones
+	 * in AxisAlignedBB, applied to every box in the buffer.
+	 */
+
+	private double[] boxes = new double[6 * 16];
+	private int count = 0;
+
+	private final List<AxisAlignedBB> scratchBoxes = new ArrayList<>();
+	private final List<Entity> scratchEntities = new ArrayList<>();
+
+	public final BlockPos.MutableBlockPos blockPos = new BlockPos.MutableBlockPos();
+
+	public void clear() {
+		count = 0;
+	}
+
+	public int size() {
+		return count;
+	}
+
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	public void add(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+		int i = count * 6;
+		if(i == boxes.length) {
+			double[] newBoxes = new double[i << 1];
+			System.arraycopy(boxes, 0, newBoxes, 0, i);
+			boxes = newBoxes;
+		}
+		boxes[i] = minX;
+		boxes[i + 1] = minY;
+		boxes[i + 2] = minZ;
+		boxes[i + 3] = maxX;
+		boxes[i + 4] = maxY;
+		boxes[i + 5] = maxZ;
+		++count;
+	}
+
+	public void add(AxisAlignedBB bb) {
+		add(bb.minX, bb.minY, bb.minZ, bb.maxX, bb.maxY, bb.maxZ);
+	}
+
+	/**
+	 * Returns an empty list for blocks that still need the List based
+	 * addCollisionBoxesToList, copy it back with addScratchBoxes
+	 */
+	public List<AxisAlignedBB> getScratchBoxes() {
+		scratchBoxes.clear();
+		return scratchBoxes;
+	}
+
+	public void addScratchBoxes() {
+		for(int i = 0, l = scratchBoxes.size(); i < l; ++i) {
+			add(scratchBoxes.get(i));
+		}
+		scratchBoxes.clear();
+	}
+
+	public List<Entity> getScratchEntities() {
+		scratchEntities.clear();
+		return scratchEntities;
+	}
+
+	public AxisAlignedBB getBox(int index) {
+		int i = index * 6;
+		return new AxisAlignedBB(boxes[i], boxes[i + 1], boxes[i + 2], boxes[i + 3], boxes[i + 4], boxes[i + 5]);
+	}
+
+	public double calculateXOffset(AxisAlignedBB other, double offsetX) {
+		double[] b = boxes;
+		for(int j = 0, l = count * 6; j < l; j += 6) {
+			if(other.maxY > b[j + 1] && other.minY < b[j + 4] && other.maxZ > b[j + 2] && other.minZ < b[j + 5]) {
+				if(offsetX > 0.0D && other.maxX <= b[j]) {
+					double d = b[j] - other.maxX;
+					if(d < offsetX) {
+						offsetX = d;
+					}
+				}else if(offsetX < 0.0D && other.minX >= b[j + 3]) {
+					double d = b[j + 3] - other.minX;
+					if(d > offsetX) {
+						offsetX = d;
+					}
+				}
+			}
+		}
+		return offsetX;
+	}
+
+	public double calculateYOffset(AxisAlignedBB other, double offsetY) {
+		double[] b = boxes;
+		for(int j = 0, l = count * 6; j < l; j += 6) {
+			if(other.maxX > b[j] && other.minX < b[j + 3] && other.maxZ > b[j + 2] && other.minZ < b[j + 5]) {
+				if(offsetY > 0.0D && other.maxY <= b[j + 1]) {
+					double d = b[j + 1] - other.maxY;
+					if(d < offsetY) {
+						offsetY = d;
+					}
+				}else if(offsetY < 0.0D && other.minY >= b[j + 4]) {
+					double d = b[j + 4] - other.minY;
+					if(d > offsetY) {
+						offsetY = d;
+					}
+				}
+			}
+		}
+		return offsetY;
+	}
+
+	public double calculateZOffset(AxisAlignedBB other, double offsetZ) {
+		double[] b = boxes;
+		for(int j = 0, l = count * 6; j < l; j += 6) {
+			if(other.maxX > b[j] && other.minX < b[j + 3] && other.maxY > b[j + 1] && other.minY < b[j + 4]) {
+				if(offsetZ > 0.0D && other.maxZ <= b[j + 2]) {
+					double d = b[j + 2] - other.maxZ;
+					if(d < offsetZ) {
+						offsetZ = d;
+					}
+				}else if(offsetZ < 0.0D && other.minZ >= b[j + 5]) {
+					double d = b[j + 5] - other.minZ;
+					if(d > offsetZ) {
+						offsetZ = d;
+					}
+				}
+			}
+		}
+		return offsetZ;
+	}
+
+}
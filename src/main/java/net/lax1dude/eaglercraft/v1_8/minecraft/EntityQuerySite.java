@@ -0,0 +1,90 @@
+package net.lax1dude.eaglercraft.v1_8.minecraft;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class EntityQuerySite {
+
+	/**
+	 * Counts the visitor based entity queries made from one place in the code
+	 * and the time they took, the integrated server shows the most expensive
+	 * ones in its TPS overlay. Only queries in server worlds are counted, and
+	 * they are only timed while the server profiler is enabled.
+	 */
+
+	private static final List<EntityQuerySite> sites = new ArrayList<>();
+
+	public final String name;
+	private int queries = 0;
+	private long nanos = 0l;
+
+	private EntityQuerySite(String name) {
+		this.name = name;
+	}
+
+	public static EntityQuerySite create(String name) {
+		EntityQuerySite site = new EntityQuerySite(name);
+		synchronized(sites) {
+			sites.add(site);
+		}
+		return site;
+	}
+
+	public void record(long elapsed) {
+		++queries;
+		nanos += elapsed;
+	}
+
+	/**
+	 * Adds a line for each of the most expensive sites since the last report
+	 * and resets the counters
+	 */
+	public static void report(List<String> lines, int ticks, int maxLines) {
+		ticks = Math.max(ticks, 1);
+		EntityQuerySite[] top = new EntityQuerySite[maxLines];
+		synchronized(sites) {
+			for(int i = 0, l = sites.size(); i < l; ++i) {
+				EntityQuerySite site = sites.get(i);
+				if(site.queries > 0) {
+					for(int j = 0; j < maxLines; ++j) {
+						if(top[j] == null || site.nanos > top[j].nanos
+								|| (site.nanos == top[j].nanos && site.queries > top[j].queries)) {
+							System.arraycopy(top, j, top, j + 1, maxLines - j - 1);
+							top[j] = site;
+							break;
+						}
+					}
+				}
+			}
+			for(int j = 0; j < maxLines && top[j] != null; ++j) {
+				EntityQuerySite site = top[j];
+				if(site.nanos > 0l) {
+					lines.add("EQ " + site.name + ": " + (site.queries / ticks) + "/t, " + (site.nanos / 1000l / ticks) + "us/t");
+				}else {
+					lines.add("EQ " + site.name + ": " + (site.queries / ticks) + "/t");
+				}
+			}
+			for(int i = 0, l = sites.size(); i < l; ++i) {
+				EntityQuerySite site = sites.get(i);
+				site.queries = 0;
+				site.nanos = 0l;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,110 @@
+package net.lax1dude.eaglercraft.v1_8.minecraft;
+
+import java.util.Arrays;
+
+import net.minecraft.pathfinding.PathPoint;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class PathNodePool {
+
+	/**
+	 * Hands out the PathPoints used while a path is being searched, they are
+	 * reused by the next search instead of being allocated through an
+	 * IntHashMap every time. Points are looked up by PathPoint.makeHash only,
+	 * the same as the IntHashMap it replaces. Clearing the pool just bumps the
+	 * generation, stale slots are recognized by their old generation.
+	 */
+
+	private PathPoint[] nodes = new PathPoint[256];
+	private int nodeCount = 0;
+
+	private int[] tableKeys = new int[512];
+	private int[] tableGenerations = new int[512];
+	private PathPoint[] tableValues = new PathPoint[512];
+	private int tableMask = 511;
+	private int generation = 1;
+
+	public void clear() {
+		nodeCount = 0;
+		if(++generation == 0) {
+			Arrays.fill(tableGenerations, 0);
+			generation = 1;
+		}
+	}
+
+	public PathPoint open(int x, int y, int z) {
+		int hash = PathPoint.makeHash(x, y, z);
+		int slot = mix(hash) & tableMask;
+		while(tableGenerations[slot] == generation) {
+			if(tableKeys[slot] == hash) {
+				return tableValues[slot];
+			}
+			slot = (slot + 1) & tableMask;
+		}
+		if(nodeCount == nodes.length) {
+			PathPoint[] newNodes = new PathPoint[nodes.length << 1];
+			System.arraycopy(nodes, 0, newNodes, 0, nodes.length);
+			nodes = newNodes;
+		}
+		PathPoint ret = nodes[nodeCount];
+		if(ret == null) {
+			ret = nodes[nodeCount] = new PathPoint(x, y, z);
+		}else {
+			ret.reset(x, y, z);
+		}
+		++nodeCount;
+		tableKeys[slot] = hash;
+		tableValues[slot] = ret;
+		tableGenerations[slot] = generation;
+		if(nodeCount << 1 > tableMask) {
+			growTable();
+		}
+		return ret;
+	}
+
+	public int size() {
+		return nodeCount;
+	}
+
+	private void growTable() {
+		int newSize = (tableMask + 1) << 1;
+		tableKeys = new int[newSize];
+		tableGenerations = new int[newSize];
+		tableValues = new PathPoint[newSize];
+		tableMask = newSize - 1;
+		for(int i = 0; i < nodeCount; ++i) {
+			PathPoint p = nodes[i];
+			int hash = p.hashCode();
+			int slot = mix(hash) & tableMask;
+			while(tableGenerations[slot] == generation) {
+				if(tableKeys[slot] == hash) {
+					break;
+				}
+				slot = (slot + 1) & tableMask;
+			}
+			tableKeys[slot] = hash;
+			tableValues[slot] = p;
+			tableGenerations[slot] = generation;
+		}
+	}
+
+	private static int mix(int hash) {
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+}
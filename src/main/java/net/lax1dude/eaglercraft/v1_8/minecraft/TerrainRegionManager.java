@@ -0,0 +1,389 @@
+package net.lax1dude.eaglercraft.v1_8.minecraft;
+
+import static net.lax1dude.eaglercraft.v1_8.opengl.RealOpenGLEnums.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.lax1dude.eaglercraft.v1_8.internal.buffer.ByteBuffer;
+import net.lax1dude.eaglercraft.v1_8.opengl.EaglercraftGPU;
+import net.lax1dude.eaglercraft.v1_8.opengl.GlStateManager;
+import net.lax1dude.eaglercraft.v1_8.opengl.RegionVertexBuffer;
+import net.minecraft.client.renderer.chunk.ListedRenderChunk;
+import net.minecraft.client.renderer.chunk.RenderChunk;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumWorldBlockLayer;
+import net.minecraft.util.LongHashMap;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class TerrainRegionManager {
+
+	/**
+	 * Regions are 8x8x8 RenderChunks, vertices of a chunk are stored relative
+	 * to the origin of the region so every chunk in it can share one matrix
+	 */
+	public static final int REGION_SHIFT = 7;
+	public static final int REGION_MASK = ~((1 << REGION_SHIFT) - 1);
+
+	private static final int MIN_PAGE_VERTICES = 0x1000;
+
+	private final LongHashMap<TerrainRegion> regions = new LongHashMap<>();
+	private final List<TerrainRegion> regionList = new ArrayList<>();
+	private Page[] pages = new Page[64];
+	private int pageCount = 0;
+	private int[] freePageIds = new int[64];
+	private int freePageIdCount = 0;
+	private long[] drawKeys = new long[1024];
+
+	private int drawCalls = 0;
+	private int drawCallsLast = 0;
+	private int sectionsDrawn = 0;
+	private int sectionsDrawnLast = 0;
+	private int fallbackDraws = 0;
+	private int fallbackDrawsLast = 0;
+
+	private static class TerrainRegion {
+
+		private final long key;
+		private final int originX;
+		private final int originY;
+		private final int originZ;
+		private final List<Page> pages = new ArrayList<>();
+		private final int[] layerPageCount = new int[EnumWorldBlockLayer._VALUES.length];
+
+		private TerrainRegion(long key, int originX, int originY, int originZ) {
+			this.key = key;
+			this.originX = originX;
+			this.originY = originY;
+			this.originZ = originZ;
+		}
+
+	}
+
+	private static class Page {
+
+		private final int id;
+		private final TerrainRegion region;
+		private final int layer;
+		private final RegionVertexBuffer buffer;
+
+		private Page(int id, TerrainRegion region, int layer, RegionVertexBuffer buffer) {
+			this.id = id;
+			this.region = region;
+			this.layer = layer;
+			this.buffer = buffer;
+		}
+
+	}
+
+	/**
+	 * A range of vertices in a page owned by one layer of a ListedRenderChunk,
+	 * the draw key packs the page id, first vertex and vertex count so visible
+	 * ranges can be sorted without a comparator
+	 */
+	public static class Allocation {
+
+		private final Page page;
+		private final int start;
+		private final int count;
+		private final long drawKey;
+
+		private Allocation(Page page, int start, int count) {
+			this.page = page;
+			this.start = start;
+			this.count = count;
+			this.drawKey = ((long) page.id << 32) | ((long) start << 16) | count;
+		}
+
+	}
+
+	/**
+	 * Uploads a compiled layer into the region of the chunk, returns false if
+	 * the layer can't be batched (too large or not quads) and should be
+	 * compiled into the chunk's own display list instead
+	 */
+	public boolean uploadSection(EnumWorldBlockLayer layer, ByteBuffer data, int attribs, int stride, int mode,
+			int count, ListedRenderChunk chunk) {
+		int l = layer.ordinal();
+		Allocation alloc = chunk.getRegionAllocation(l);
+		if(mode != GL_QUADS || count > RegionVertexBuffer.MAX_VERTICES) {
+			if(alloc != null) {
+				free(alloc);
+				chunk.setRegionAllocation(l, null);
+			}
+			return false;
+		}
+		if(count == 0) {
+			freeSection(layer, chunk);
+			return true;
+		}
+		BlockPos pos = chunk.getPosition();
+		int x = pos.x & REGION_MASK;
+		int y = pos.y & REGION_MASK;
+		int z = pos.z & REGION_MASK;
+		if(alloc != null) {
+			TerrainRegion region = alloc.page.region;
+			if(alloc.count != count || region.originX != x || region.originY != y || region.originZ != z
+					|| alloc.page.buffer.getAttribs() != attribs) {
+				free(alloc);
+				alloc = null;
+			}
+		}
+		if(alloc == null) {
+			alloc = allocate(x, y, z, l, attribs, stride, count);
+		}
+		chunk.setRegionAllocation(l, alloc);
+		alloc.page.buffer.upload(alloc.start, data);
+		return true;
+	}
+
+	public void freeSection(EnumWorldBlockLayer layer, ListedRenderChunk chunk) {
+		int l = layer.ordinal();
+		Allocation alloc = chunk.getRegionAllocation(l);
+		if(alloc != null) {
+			free(alloc);
+			chunk.setRegionAllocation(l, null);
+		}
+	}
+
+	private Allocation allocate(int x, int y, int z, int layer, int attribs, int stride, int count) {
+		long key = getRegionKey(x >> REGION_SHIFT, y >> REGION_SHIFT, z >> REGION_SHIFT);
+		TerrainRegion region = regions.getValueByKey(key);
+		if(region == null) {
+			region = new TerrainRegion(key, x, y, z);
+			regions.add(key, region);
+			regionList.add(region);
+		}
+		List<Page> regionPages = region.pages;
+		for(int i = 0, l = regionPages.size(); i < l; ++i) {
+			Page page = regionPages.get(i);
+			if(page.layer == layer && page.buffer.getAttribs() == attribs) {
+				int start = page.buffer.allocate(count);
+				if(start != -1) {
+					return new Allocation(page, start, count);
+				}
+			}
+		}
+		int size = Math.min(MIN_PAGE_VERTICES << Math.min(region.layerPageCount[layer], 4),
+				RegionVertexBuffer.MAX_VERTICES);
+		Page page = createPage(region, layer, attribs, stride, Math.max(size, (count + 3) & ~3));
+		return new Allocation(page, page.buffer.allocate(count), count);
+	}
+
+	private Page createPage(TerrainRegion region, int layer, int attribs, int stride, int vertices) {
+		int id;
+		if(freePageIdCount > 0) {
+			id = freePageIds[--freePageIdCount];
+		}else {
+			id = pageCount++;
+			if(id == pages.length) {
+				pages = Arrays.copyOf(pages, id << 1);
+			}
+		}
+		Page page = new Page(id, region, layer, new RegionVertexBuffer(attribs, stride, vertices));
+		pages[id] = page;
+		region.pages.add(page);
+		++region.layerPageCount[layer];
+		return page;
+	}
+
+	private void destroyPage(Page page) {
+		TerrainRegion region = page.region;
+		region.pages.remove(page);
+		--region.layerPageCount[page.layer];
+		page.buffer.destroy();
+		pages[page.id] = null;
+		if(freePageIdCount == freePageIds.length) {
+			freePageIds = Arrays.copyOf(freePageIds, freePageIdCount << 1);
+		}
+		freePageIds[freePageIdCount++] = page.id;
+		if(region.pages.isEmpty()) {
+			regions.remove(region.key);
+			regionList.remove(region);
+		}
+	}
+
+	/**
+	 * Releases the range, pages are destroyed as soon as they are empty
+	 */
+	public void free(Allocation alloc) {
+		Page page = alloc.page;
+		page.buffer.free(alloc.start, alloc.count);
+		if(page.buffer.getUsedVertices() == 0) {
+			destroyPage(page);
+		}
+	}
+
+	private static long getRegionKey(int x, int y, int z) {
+		return ((long) (x & 0x1FFFFF) << 42) | ((long) (y & 0x1FFFFF) << 21) | (long) (z & 0x1FFFFF);
+	}
+
+	/**
+	 * Draws the layer of every chunk in the list, opaque layers are sorted by
+	 * page and offset so neighboring ranges can be merged into a single draw.
+	 * The translucent layer keeps the order of the list and only merges ranges
+	 * that are already next to each other in it. Chunks that couldn't be
+	 * batched are drawn from their display list
+	 */
+	public void renderLayer(EnumWorldBlockLayer layer, List<RenderChunk> renderChunks, double viewX, double viewY,
+			double viewZ) {
+		int l = layer.ordinal();
+		boolean sorted = layer == EnumWorldBlockLayer.TRANSLUCENT || layer == EnumWorldBlockLayer.REALISTIC_WATER;
+		int cnt = renderChunks.size();
+		if(drawKeys.length < cnt) {
+			drawKeys = new long[(cnt + 1023) & ~1023];
+		}
+		long[] keys = drawKeys;
+		int n = 0;
+		for(int i = 0; i < cnt; ++i) {
+			ListedRenderChunk chunk = (ListedRenderChunk) renderChunks.get(i);
+			Allocation alloc = chunk.getRegionAllocation(l);
+			if(alloc != null) {
+				keys[n++] = alloc.drawKey;
+			}else {
+				int displayList = chunk.getDisplayList(layer, chunk.getCompiledChunk());
+				if(displayList != -1) {
+					if(sorted && n > 0) {
+						// translucent chunks must stay back to front, draw everything batched before this one first
+						drawRanges(keys, n, viewX, viewY, viewZ);
+						n = 0;
+					}
+					BlockPos pos = chunk.getPosition();
+					GlStateManager.pushMatrix();
+					GlStateManager.translate((float) ((pos.x & REGION_MASK) - viewX),
+							(float) ((pos.y & REGION_MASK) - viewY), (float) ((pos.z & REGION_MASK) - viewZ));
+					EaglercraftGPU.glCallList(displayList);
+					GlStateManager.popMatrix();
+					++fallbackDraws;
+					++drawCalls;
+				}
+			}
+		}
+		if(n == 0) {
+			return;
+		}
+		if(!sorted) {
+			Arrays.sort(keys, 0, n);
+		}
+		drawRanges(keys, n, viewX, viewY, viewZ);
+	}
+
+	/**
+	 * Draws the first n draw keys in order, adjacent ranges in the same page
+	 * are merged into one draw call
+	 */
+	private void drawRanges(long[] keys, int n, double viewX, double viewY, double viewZ) {
+		sectionsDrawn += n;
+		TerrainRegion currentRegion = null;
+		Page currentPage = null;
+		int rangeStart = 0;
+		int rangeEnd = 0;
+		for(int i = 0; i < n; ++i) {
+			long k = keys[i];
+			Page page = pages[(int) (k >>> 32)];
+			int start = (int) (k >>> 16) & 0xFFFF;
+			if(page == currentPage && start == rangeEnd) {
+				rangeEnd += (int) k & 0xFFFF;
+				continue;
+			}
+			if(currentPage != null) {
+				currentPage.buffer.drawQuads(rangeStart, rangeEnd - rangeStart);
+				++drawCalls;
+			}
+			if(page != currentPage) {
+				TerrainRegion region = page.region;
+				if(region != currentRegion) {
+					if(currentRegion != null) {
+						GlStateManager.popMatrix();
+					}
+					GlStateManager.pushMatrix();
+					GlStateManager.translate((float) (region.originX - viewX), (float) (region.originY - viewY),
+							(float) (region.originZ - viewZ));
+					currentRegion = region;
+				}
+				page.buffer.beginDraw();
+				currentPage = page;
+			}
+			rangeStart = start;
+			rangeEnd = start + ((int) k & 0xFFFF);
+		}
+		currentPage.buffer.drawQuads(rangeStart, rangeEnd - rangeStart);
+		++drawCalls;
+		GlStateManager.popMatrix();
+	}
+
+	/**
+	 * Called once per frame before any layers are drawn
+	 */
+	public void beginFrame() {
+		drawCallsLast = drawCalls;
+		sectionsDrawnLast = sectionsDrawn;
+		fallbackDrawsLast = fallbackDraws;
+		drawCalls = 0;
+		sectionsDrawn = 0;
+		fallbackDraws = 0;
+	}
+
+	public void destroy() {
+		for(int i = 0; i < pageCount; ++i) {
+			Page page = pages[i];
+			if(page != null) {
+				page.buffer.destroy();
+				pages[i] = null;
+			}
+		}
+		pageCount = 0;
+		freePageIdCount = 0;
+		for(int i = 0, l = regionList.size(); i < l; ++i) {
+			regions.remove(regionList.get(i).key);
+		}
+		regionList.clear();
+	}
+
+	/**
+	 * Draw calls and batched sections of the last frame, then the number of
+	 * pages and their memory usage. Fragmentation is the share of free space
+	 * that is not part of the largest free block of its page
+	 */
+	public String getDebugInfo() {
+		long usedBytes = 0l;
+		long totalBytes = 0l;
+		int freeVertices = 0;
+		int largestFreeVertices = 0;
+		int freeBlocks = 0;
+		int livePages = 0;
+		for(int i = 0; i < pageCount; ++i) {
+			Page page = pages[i];
+			if(page != null) {
+				RegionVertexBuffer buf = page.buffer;
+				int stride = buf.getStride();
+				usedBytes += (long) buf.getUsedVertices() * stride;
+				totalBytes += (long) buf.getCapacity() * stride;
+				freeVertices += buf.getCapacity() - buf.getUsedVertices();
+				largestFreeVertices += buf.getLargestFreeBlock();
+				freeBlocks += buf.getFreeBlockCount();
+				++livePages;
+			}
+		}
+		int frag = freeVertices > 0 ? (int) ((freeVertices - largestFreeVertices) * 100l / freeVertices) : 0;
+		return "Rgn: " + drawCallsLast + " draws, " + sectionsDrawnLast + " sec, " + fallbackDrawsLast + " fb, "
+				+ regionList.size() + "r/" + livePages + "p, " + (usedBytes >> 20) + "/" + (totalBytes >> 20)
+				+ "MB, " + freeBlocks + " free, " + frag + "% frag";
+	}
+
+}
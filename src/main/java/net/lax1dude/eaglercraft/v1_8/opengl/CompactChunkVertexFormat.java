@@ -0,0 +1,101 @@
+package net.lax1dude.eaglercraft.v1_8.opengl;
+
+import static net.lax1dude.eaglercraft.v1_8.opengl.RealOpenGLEnums.*;
+
+import net.lax1dude.eaglercraft.v1_8.internal.buffer.ByteBuffer;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class CompactChunkVertexFormat {
+
+	/**
+	 * Layout of a compact vertex, chunk geometry is still built in the float
+	 * formats by WorldRenderer and only converted when it is uploaded:
+	 * 
+	 * 0: position, 3x short, 1/128 block units relative to the vertex origin
+	 * 6: lightmap, 2x unsigned byte (padding if the format has no lightmap)
+	 * 8: color, 4x unsigned byte normalized
+	 * 12: texture, 2x unsigned short normalized
+	 * 16: normal, 4x byte normalized (if present)
+	 */
+	public static final float POSITION_SCALE = 128.0f;
+
+	public static final int COMPONENT_POSITION_FORMAT = GL_SHORT;
+	public static final int COMPONENT_POSITION_STRIDE = 6;
+
+	public static final int COMPONENT_LIGHTMAP_FORMAT = GL_UNSIGNED_BYTE;
+	public static final int COMPONENT_LIGHTMAP_STRIDE = 2;
+
+	public static final int COMPONENT_TEX_FORMAT = GL_UNSIGNED_SHORT;
+	public static final int COMPONENT_TEX_STRIDE = 4;
+
+	public static boolean isSupported(VertexFormat format) {
+		return format.attribTextureEnabled && format.attribColorEnabled && format.attribLightmapEnabled;
+	}
+
+	public static int getStride(VertexFormat format) {
+		return format.attribNormalEnabled ? 20 : 16;
+	}
+
+	public static int getAttribs(VertexFormat format) {
+		return format.eaglercraftAttribBits | EaglercraftGPU.ATTRIB_COMPACT;
+	}
+
+	/**
+	 * Converts "count" vertices in "format" from the start of src into dst,
+	 * dst must have room for count * getStride(format) bytes and is left with
+	 * its position at 0 and its limit at the end of the vertices
+	 */
+	public static void encode(ByteBuffer src, VertexFormat format, int count, ByteBuffer dst) {
+		int srcStride = format.attribStride;
+		int dstStride = getStride(format);
+		int srcColor = format.attribColorOffset;
+		int srcTex = format.attribTextureOffset;
+		int srcLightmap = format.attribLightmapOffset;
+		int srcNormal = format.attribNormalEnabled ? format.attribNormalOffset : -1;
+		for(int i = 0; i < count; ++i) {
+			int s = i * srcStride;
+			int d = i * dstStride;
+			dst.putShort(d, encodePosition(src.getFloat(s)));
+			dst.putShort(d + 2, encodePosition(src.getFloat(s + 4)));
+			dst.putShort(d + 4, encodePosition(src.getFloat(s + 8)));
+			dst.put(d + 6, encodeLightmap(src.getShort(s + srcLightmap)));
+			dst.put(d + 7, encodeLightmap(src.getShort(s + srcLightmap + 2)));
+			dst.putInt(d + 8, src.getInt(s + srcColor));
+			dst.putShort(d + 12, encodeTexture(src.getFloat(s + srcTex)));
+			dst.putShort(d + 14, encodeTexture(src.getFloat(s + srcTex + 4)));
+			if(srcNormal != -1) {
+				dst.putInt(d + 16, src.getInt(s + srcNormal));
+			}
+		}
+		dst.position(0).limit(count * dstStride);
+	}
+
+	private static short encodePosition(float f) {
+		int i = (int) Math.floor(f * POSITION_SCALE + 0.5f);
+		return (short) (i > 32767 ? 32767 : (i < -32768 ? -32768 : i));
+	}
+
+	private static byte encodeLightmap(short s) {
+		return (byte) (s > 255 ? 255 : (s < 0 ? 0 : s));
+	}
+
+	private static short encodeTexture(float f) {
+		int i = (int) (f * 65535.0f + 0.5f);
+		return (short) (i > 65535 ? 65535 : (i < 0 ? 0 : i));
+	}
+
+}
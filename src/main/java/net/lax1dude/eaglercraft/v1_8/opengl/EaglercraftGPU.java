@@ -609,6 +609,7 @@ public class EaglercraftGPU {
 	public static final int ATTRIB_COLOR = 2;
 	public static final int ATTRIB_NORMAL = 4;
 	public static final int ATTRIB_LIGHTMAP = 8;
+	public static final int ATTRIB_COMPACT = FixedFunctionShader.FixedFunctionState.STATE_HAS_ATTRIB_COMPACT;
 	
 	public static final void renderBuffer(ByteBuffer buffer, int attrib, int mode, int count) {
 		if(currentList != null) {
@@ -918,8 +919,11 @@ public class EaglercraftGPU {
 		}
 		EffectPipelineFXAA.initialize();
 		TextureCopyUtil.initialize();
+		GPUPassTimer.initialize();
+		OcclusionQueryRenderer.initialize();
 		DrawUtils.vshLocal.free();
 		DrawUtils.vshLocal = null;
+		FixedFunctionPipeline.warmUpCache();
 	}
 
 	public static final void destroyCache() {
@@ -943,6 +947,9 @@ public class EaglercraftGPU {
 		InstancedParticleRenderer.destroy();
 		EffectPipelineFXAA.destroy();
 		TextureCopyUtil.destroy();
+		GPUPassTimer.destroy();
+		OcclusionQueryRenderer.destroy();
+		ShaderProgramCache.destroy();
 	}
 
 	public static final int checkOpenGLESVersion() {
@@ -11,6 +11,7 @@ import net.lax1dude.eaglercraft.v1_8.internal.buffer.FloatBuffer;
 
 import net.lax1dude.eaglercraft.v1_8.EagRuntime;
 import net.lax1dude.eaglercraft.v1_8.internal.IBufferArrayGL;
+import net.lax1dude.eaglercraft.v1_8.internal.IBufferGL;
 import net.lax1dude.eaglercraft.v1_8.internal.IProgramGL;
 import net.lax1dude.eaglercraft.v1_8.internal.IShaderGL;
 import net.lax1dude.eaglercraft.v1_8.internal.IUniformGL;
@@ -97,37 +98,56 @@ public class FixedFunctionPipeline {
 			self = getPipelineInstanceCore(baseState);
 		}
 		
-		EaglercraftGPU.bindGLBufferArray(list.vertexArray);
-		EaglercraftGPU.bindVAOGLArrayBuffer(list.vertexBuffer);
+		self.setupVertexAttribPointers(list.vertexArray, list.vertexBuffer);
 		
+	}
+	
+	private void setupVertexAttribPointers(IBufferArrayGL vertexArray, IBufferGL vertexBuffer) {
+		EaglercraftGPU.bindGLBufferArray(vertexArray);
+		EaglercraftGPU.bindVAOGLArrayBuffer(vertexBuffer);
+
 		EaglercraftGPU.enableVertexAttribArray(0);
-		EaglercraftGPU.vertexAttribPointer(0, VertexFormat.COMPONENT_POSITION_SIZE,
-				VertexFormat.COMPONENT_POSITION_FORMAT, false, self.attribStride, 0);
+		if(stateHasAttribCompact) {
+			EaglercraftGPU.vertexAttribPointer(0, VertexFormat.COMPONENT_POSITION_SIZE,
+					CompactChunkVertexFormat.COMPONENT_POSITION_FORMAT, false, attribStride, 0);
+		}else {
+			EaglercraftGPU.vertexAttribPointer(0, VertexFormat.COMPONENT_POSITION_SIZE,
+					VertexFormat.COMPONENT_POSITION_FORMAT, false, attribStride, 0);
+		}
 
-		if(self.attribTextureIndex != -1) {
-			EaglercraftGPU.enableVertexAttribArray(self.attribTextureIndex);
-			EaglercraftGPU.vertexAttribPointer(self.attribTextureIndex, VertexFormat.COMPONENT_TEX_SIZE,
-					VertexFormat.COMPONENT_TEX_FORMAT, false, self.attribStride, self.attribTextureOffset);
+		if(attribTextureIndex != -1) {
+			EaglercraftGPU.enableVertexAttribArray(attribTextureIndex);
+			if(stateHasAttribCompact) {
+				EaglercraftGPU.vertexAttribPointer(attribTextureIndex, VertexFormat.COMPONENT_TEX_SIZE,
+						CompactChunkVertexFormat.COMPONENT_TEX_FORMAT, true, attribStride, attribTextureOffset);
+			}else {
+				EaglercraftGPU.vertexAttribPointer(attribTextureIndex, VertexFormat.COMPONENT_TEX_SIZE,
+						VertexFormat.COMPONENT_TEX_FORMAT, false, attribStride, attribTextureOffset);
+			}
 		}
 		
-		if(self.attribColorIndex != -1) {
-			EaglercraftGPU.enableVertexAttribArray(self.attribColorIndex);
-			EaglercraftGPU.vertexAttribPointer(self.attribColorIndex, VertexFormat.COMPONENT_COLOR_SIZE,
-					VertexFormat.COMPONENT_COLOR_FORMAT, true, self.attribStride, self.attribColorOffset);
+		if(attribColorIndex != -1) {
+			EaglercraftGPU.enableVertexAttribArray(attribColorIndex);
+			EaglercraftGPU.vertexAttribPointer(attribColorIndex, VertexFormat.COMPONENT_COLOR_SIZE,
+					VertexFormat.COMPONENT_COLOR_FORMAT, true, attribStride, attribColorOffset);
 		}
 		
-		if(self.attribNormalIndex != -1) {
-			EaglercraftGPU.enableVertexAttribArray(self.attribNormalIndex);
-			EaglercraftGPU.vertexAttribPointer(self.attribNormalIndex, VertexFormat.COMPONENT_NORMAL_SIZE,
-					VertexFormat.COMPONENT_NORMAL_FORMAT, true, self.attribStride, self.attribNormalOffset);
+		if(attribNormalIndex != -1) {
+			EaglercraftGPU.enableVertexAttribArray(attribNormalIndex);
+			EaglercraftGPU.vertexAttribPointer(attribNormalIndex, VertexFormat.COMPONENT_NORMAL_SIZE,
+					VertexFormat.COMPONENT_NORMAL_FORMAT, true, attribStride, attribNormalOffset);
 		}
 		
-		if(self.attribLightmapIndex != -1) {
-			EaglercraftGPU.enableVertexAttribArray(self.attribLightmapIndex);
-			EaglercraftGPU.vertexAttribPointer(self.attribLightmapIndex, VertexFormat.COMPONENT_LIGHTMAP_SIZE,
-					VertexFormat.COMPONENT_LIGHTMAP_FORMAT, false, self.attribStride, self.attribLightmapOffset);
+		if(attribLightmapIndex != -1) {
+			EaglercraftGPU.enableVertexAttribArray(attribLightmapIndex);
+			if(stateHasAttribCompact) {
+				EaglercraftGPU.vertexAttribPointer(attribLightmapIndex, VertexFormat.COMPONENT_LIGHTMAP_SIZE,
+						CompactChunkVertexFormat.COMPONENT_LIGHTMAP_FORMAT, false, attribStride, attribLightmapOffset);
+			}else {
+				EaglercraftGPU.vertexAttribPointer(attribLightmapIndex, VertexFormat.COMPONENT_LIGHTMAP_SIZE,
+						VertexFormat.COMPONENT_LIGHTMAP_FORMAT, false, attribStride, attribLightmapOffset);
+			}
 		}
-		
 	}
 	
 	static FixedFunctionPipeline setupRenderDisplayList(int attribs) {
@@ -188,6 +208,7 @@ public class FixedFunctionPipeline {
 	public static void loadExtensionPipeline(IExtPipelineCompiler provider) {
 		flushCache();
 		extensionProvider = provider;
+		warmUpCache();
 	}
 
 	private static final FixedFunctionPipeline[] pipelineStateCache = new FixedFunctionPipeline[fixedFunctionStatesBits + 1];
@@ -206,7 +227,7 @@ public class FixedFunctionPipeline {
 	}
 	
 	private static FixedFunctionPipeline getPipelineInstanceExt(int coreBits, int extBits) {
-		coreBits &= (15 | extensionProvider.getCoreStateMask(extBits));
+		coreBits &= (15 | STATE_HAS_ATTRIB_COMPACT | extensionProvider.getCoreStateMask(extBits));
 		FixedFunctionPipeline[] pp = pipelineExtStateCache[coreBits];
 		if(pp == null) {
 			pipelineExtStateCache[coreBits] = pp = new FixedFunctionPipeline[1 << extensionProvider.getExtensionStatesCount()];
@@ -219,8 +240,105 @@ public class FixedFunctionPipeline {
 			return ppp;
 		}
 	}
-	
+
+	/**
+	 * Compiles every variant recorded by ShaderProgramCache in previous sessions
+	 * for the current extension provider, so they are not compiled in the middle
+	 * of a frame the first time they are drawn. All programs are submitted to
+	 * the driver before any of them are checked, with KHR_parallel_shader_compile
+	 * this lets the driver compile them on its own threads.
+	 */
+	static void warmUpCache() {
+		ShaderProgramCache.initialize();
+		List<int[]> variants = ShaderProgramCache.getVariants(extensionProvider);
+		if(variants.isEmpty()) {
+			return;
+		}
+		long start = EagRuntime.steadyTimeMillis();
+		boolean enableExt = extensionProvider != null;
+		int extStatesMax = enableExt ? (1 << extensionProvider.getExtensionStatesCount()) : 1;
+		List<PendingPipeline> pending = new ArrayList<>(variants.size());
+		for(int i = 0, l = variants.size(); i < l; ++i) {
+			int[] variant = variants.get(i);
+			int coreBits = variant[0];
+			int extBits = variant[1];
+			if(coreBits < 0 || coreBits > fixedFunctionStatesBits || extBits < 0 || extBits >= extStatesMax) {
+				ShaderProgramCache.removeVariant(extensionProvider, coreBits, extBits);
+				continue;
+			}
+			if(enableExt) {
+				FixedFunctionPipeline[] pp = pipelineExtStateCache[coreBits];
+				if(pp != null && pp[extBits] != null) {
+					continue;
+				}
+			}else if(pipelineStateCache[coreBits] != null) {
+				continue;
+			}
+			pending.add(beginNewPipeline(coreBits, extBits, enableExt));
+		}
+		int cnt = 0;
+		while(!pending.isEmpty()) {
+			int idx = 0;
+			if(ShaderProgramCache.isParallelCompileSupported()) {
+				for(int i = 0, l = pending.size(); i < l; ++i) {
+					if(ShaderProgramCache.isProgramReady(pending.get(i).program)) {
+						idx = i;
+						break;
+					}
+				}
+			}
+			PendingPipeline p = pending.remove(idx);
+			FixedFunctionPipeline pp;
+			try {
+				pp = finishNewPipeline(p);
+			}catch(IllegalStateException ex) {
+				ShaderProgramCache.removeVariant(extensionProvider, p.coreBits, p.extBits);
+				continue;
+			}
+			if(enableExt) {
+				FixedFunctionPipeline[] ppp = pipelineExtStateCache[p.coreBits];
+				if(ppp == null) {
+					pipelineExtStateCache[p.coreBits] = ppp = new FixedFunctionPipeline[extStatesMax];
+				}
+				ppp[p.extBits] = pp;
+			}else {
+				pipelineStateCache[p.coreBits] = pp;
+			}
+			++cnt;
+		}
+		LOGGER.info("Warmed up {} shader variants in {}ms", cnt, EagRuntime.steadyTimeMillis() - start);
+	}
+
+	private static class PendingPipeline {
+
+		private final int coreBits;
+		private final int extBits;
+		private final boolean enableExt;
+		private final Object[] extProviderUserPointer;
+		private IProgramGL program;
+		private IShaderGL vsh = null;
+		private IShaderGL fsh = null;
+		private String binaryKey;
+		private boolean fromBinary = false;
+
+		private PendingPipeline(int coreBits, int extBits, boolean enableExt, Object[] extProviderUserPointer) {
+			this.coreBits = coreBits;
+			this.extBits = extBits;
+			this.enableExt = enableExt;
+			this.extProviderUserPointer = extProviderUserPointer;
+		}
+
+	}
+
 	private static FixedFunctionPipeline makeNewPipeline(int coreBits, int extBits, boolean enableExt) {
+		return finishNewPipeline(beginNewPipeline(coreBits, extBits, enableExt));
+	}
+
+	/**
+	 * Loads the program from the binary cache or submits it for compiling and
+	 * linking, does not check the status of anything so it won't stall
+	 */
+	private static PendingPipeline beginNewPipeline(int coreBits, int extBits, boolean enableExt) {
 		String vshSource;
 		String fshSource;
 		
@@ -254,6 +372,9 @@ public class FixedFunctionPipeline {
 		if((coreBits & STATE_HAS_ATTRIB_LIGHTMAP) != 0) {
 			macros.append("#define " + MACRO_ATTRIB_LIGHTMAP + "\n");
 		}
+		if((coreBits & STATE_HAS_ATTRIB_COMPACT) != 0) {
+			macros.append("#define " + MACRO_ATTRIB_COMPACT + "\n");
+		}
 		if((coreBits & STATE_ENABLE_TEXTURE2D) != 0) {
 			macros.append("#define " + MACRO_ENABLE_TEXTURE2D + "\n");
 		}
@@ -283,13 +404,52 @@ public class FixedFunctionPipeline {
 		macros.append("precision " + PRECISION_FLOAT + " float;\n");
 		macros.append("precision " + PRECISION_SAMPLER + " sampler2D;\n\n");
 		
-		IShaderGL vsh = _wglCreateShader(GL_VERTEX_SHADER);
-		
 		String macrosStr = macros.toString();
-		_wglShaderSource(vsh, GLSLHeader.getVertexHeaderCompat(vshSource, macrosStr));
+		vshSource = GLSLHeader.getVertexHeaderCompat(vshSource, macrosStr);
+		fshSource = GLSLHeader.getFragmentHeaderCompat(fshSource, macrosStr);
+		
+		PendingPipeline ret = new PendingPipeline(coreBits, extBits, enableExt, extProviderUserPointer);
+		ret.program = _wglCreateProgram();
+		
+		ret.binaryKey = ShaderProgramCache.getProgramKey(vshSource, fshSource);
+		if(ret.binaryKey != null) {
+			if(ShaderProgramCache.loadProgramBinary(ret.program, ret.binaryKey)) {
+				ret.fromBinary = true;
+				return ret;
+			}else {
+				_wglDeleteProgram(ret.program);
+				ret.program = _wglCreateProgram();
+			}
+		}
+		
+		IShaderGL vsh = _wglCreateShader(GL_VERTEX_SHADER);
+		_wglShaderSource(vsh, vshSource);
 		_wglCompileShader(vsh);
 		
-		if(_wglGetShaderi(vsh, GL_COMPILE_STATUS) != GL_TRUE) {
+		IShaderGL fsh = _wglCreateShader(GL_FRAGMENT_SHADER);
+		_wglShaderSource(fsh, fshSource);
+		_wglCompileShader(fsh);
+		
+		_wglAttachShader(ret.program, vsh);
+		_wglAttachShader(ret.program, fsh);
+		bindAttribLocations(ret.program, coreBits);
+		ShaderProgramCache.prepareProgram(ret.program);
+		_wglLinkProgram(ret.program);
+		
+		ret.vsh = vsh;
+		ret.fsh = fsh;
+		return ret;
+	}
+
+	private static FixedFunctionPipeline finishNewPipeline(PendingPipeline p) {
+		int coreBits = p.coreBits;
+		int extBits = p.extBits;
+		boolean enableExt = p.enableExt;
+		IProgramGL prog = p.program;
+		IShaderGL vsh = p.vsh;
+		IShaderGL fsh = p.fsh;
+		
+		if(!p.fromBinary && _wglGetShaderi(vsh, GL_COMPILE_STATUS) != GL_TRUE) {
 			LOGGER.error("Failed to compile GL_VERTEX_SHADER for state {} !", (visualizeBits(coreBits) + (enableExt && extBits != 0 ? " ext " + visualizeBits(extBits) : "")));
 			String log = _wglGetShaderInfoLog(vsh);
 			if(log != null) {
@@ -298,16 +458,15 @@ public class FixedFunctionPipeline {
 					LOGGER.error("[VERT] {}", lines[i]);
 				}
 			}
+			_wglDetachShader(prog, vsh);
+			_wglDetachShader(prog, fsh);
+			_wglDeleteShader(fsh);
 			_wglDeleteShader(vsh);
+			_wglDeleteProgram(prog);
 			throw new IllegalStateException("Vertex shader could not be compiled!");
 		}
 		
-		IShaderGL fsh = _wglCreateShader(GL_FRAGMENT_SHADER);
-		
-		_wglShaderSource(fsh, GLSLHeader.getFragmentHeaderCompat(fshSource, macrosStr));
-		_wglCompileShader(fsh);
-		
-		if(_wglGetShaderi(fsh, GL_COMPILE_STATUS) != GL_TRUE) {
+		if(!p.fromBinary && _wglGetShaderi(fsh, GL_COMPILE_STATUS) != GL_TRUE) {
 			LOGGER.error("Failed to compile GL_FRAGMENT_SHADER for state {} !", (visualizeBits(coreBits) + (enableExt && extBits != 0 ? " ext " + visualizeBits(extBits) : "")));
 			String log = _wglGetShaderInfoLog(fsh);
 			if(log != null) {
@@ -316,16 +475,34 @@ public class FixedFunctionPipeline {
 					LOGGER.error("[FRAG] {}", lines[i]);
 				}
 			}
+			_wglDetachShader(prog, vsh);
+			_wglDetachShader(prog, fsh);
 			_wglDeleteShader(fsh);
 			_wglDeleteShader(vsh);
+			_wglDeleteProgram(prog);
 			throw new IllegalStateException("Fragment shader could not be compiled!");
 		}
 		
-		IProgramGL prog = _wglCreateProgram();
-
-		_wglAttachShader(prog, vsh);
-		_wglAttachShader(prog, fsh);
+		if(_wglGetProgrami(prog, GL_LINK_STATUS) != GL_TRUE) {
+			LOGGER.error("Program could not be linked for state {} !", (visualizeBits(coreBits) + (enableExt && extBits != 0 ? " ext " + visualizeBits(extBits) : "")));
+			String log = _wglGetProgramInfoLog(prog);
+			if(log != null) {
+				String[] lines = log.split("(\\r\\n|\\r|\\n)");
+				for(int i = 0; i < lines.length; ++i) {
+					LOGGER.error("[LINK] {}", lines[i]);
+				}
+			}
+			if(!p.fromBinary) {
+				_wglDetachShader(prog, vsh);
+				_wglDetachShader(prog, fsh);
+				_wglDeleteShader(fsh);
+				_wglDeleteShader(vsh);
+			}
+			_wglDeleteProgram(prog);
+			throw new IllegalStateException("Program could not be linked!");
+		}
 		
+		Object[] extProviderUserPointer = p.extProviderUserPointer;
 		FixedFunctionPipeline pp = null;
 		IllegalStateException err = null;
 		try {
@@ -334,15 +511,21 @@ public class FixedFunctionPipeline {
 			err = t;
 		}
 		
-		_wglDetachShader(prog, vsh);
-		_wglDetachShader(prog, fsh);
-		_wglDeleteShader(fsh);
-		_wglDeleteShader(vsh);
+		if(!p.fromBinary) {
+			_wglDetachShader(prog, vsh);
+			_wglDetachShader(prog, fsh);
+			_wglDeleteShader(fsh);
+			_wglDeleteShader(vsh);
+		}
 		
 		if(err != null) {
 			_wglDeleteProgram(prog);
 			throw err;
 		}else {
+			if(!p.fromBinary && p.binaryKey != null) {
+				ShaderProgramCache.saveProgramBinary(prog, p.binaryKey);
+			}
+			ShaderProgramCache.recordVariant(enableExt ? extensionProvider : null, coreBits, extBits);
 			if(extProviderUserPointer != null) {
 				pp.extensionPointer = extProviderUserPointer;
 				extensionProvider.initializeNewShader(prog, pp.stateCoreBits, pp.stateExtBits, extProviderUserPointer);
@@ -379,6 +562,7 @@ public class FixedFunctionPipeline {
 	private final boolean stateHasAttribColor;
 	private final boolean stateHasAttribNormal;
 	private final boolean stateHasAttribLightmap;
+	private final boolean stateHasAttribCompact;
 	private final boolean stateEnableTexture2D;
 	private final boolean stateEnableLightmap;
 	private final boolean stateEnableAlphaTest;
@@ -502,6 +686,26 @@ public class FixedFunctionPipeline {
 
 	private static FloatBuffer matrixCopyBuffer = null;
 
+	/**
+	 * Attribute indices must match the ones assigned in the constructor
+	 */
+	private static void bindAttribLocations(IProgramGL prog, int bits) {
+		int index = 0;
+		_wglBindAttribLocation(prog, index, ATTRIB_POSITION);
+		if((bits & STATE_HAS_ATTRIB_COLOR) != 0) {
+			_wglBindAttribLocation(prog, ++index, ATTRIB_COLOR);
+		}
+		if((bits & STATE_HAS_ATTRIB_TEXTURE) != 0) {
+			_wglBindAttribLocation(prog, ++index, ATTRIB_TEXTURE);
+		}
+		if((bits & STATE_HAS_ATTRIB_NORMAL) != 0) {
+			_wglBindAttribLocation(prog, ++index, ATTRIB_NORMAL);
+		}
+		if((bits & STATE_HAS_ATTRIB_LIGHTMAP) != 0) {
+			_wglBindAttribLocation(prog, ++index, ATTRIB_LIGHTMAP);
+		}
+	}
+
 	private FixedFunctionPipeline(int bits, int extBits, IProgramGL compiledProg) {
 		shaderProgram = compiledProg;
 		
@@ -510,6 +714,7 @@ public class FixedFunctionPipeline {
 		stateHasAttribColor = (bits & STATE_HAS_ATTRIB_COLOR) != 0;
 		stateHasAttribNormal = (bits & STATE_HAS_ATTRIB_NORMAL) != 0;
 		stateHasAttribLightmap = (bits & STATE_HAS_ATTRIB_LIGHTMAP) != 0;
+		stateHasAttribCompact = (bits & STATE_HAS_ATTRIB_COMPACT) != 0;
 		
 		stateCoreBits = bits;
 		stateExtBits = extBits;
@@ -517,13 +722,15 @@ public class FixedFunctionPipeline {
 		int index = 0;
 		int stride = 0;
 		
-		_wglBindAttribLocation(compiledProg, index, ATTRIB_POSITION);
-		
-		stride += VertexFormat.COMPONENT_POSITION_STRIDE; // vec3f
+		if(stateHasAttribCompact) {
+			// see CompactChunkVertexFormat, lightmap is packed after the vec3s position
+			stride += CompactChunkVertexFormat.COMPONENT_POSITION_STRIDE + CompactChunkVertexFormat.COMPONENT_LIGHTMAP_STRIDE;
+		}else {
+			stride += VertexFormat.COMPONENT_POSITION_STRIDE; // vec3f
+		}
 		if(stateHasAttribColor) {
 			attribColorIndex = ++index;
 			attribColorOffset = stride;
-			_wglBindAttribLocation(compiledProg, index, ATTRIB_COLOR);
 			stride += VertexFormat.COMPONENT_COLOR_STRIDE; // vec4b
 		}else {
 			attribColorIndex = -1;
@@ -532,8 +739,8 @@ public class FixedFunctionPipeline {
 		if(stateHasAttribTexture) {
 			attribTextureIndex = ++index;
 			attribTextureOffset = stride;
-			_wglBindAttribLocation(compiledProg, index, ATTRIB_TEXTURE);
-			stride += VertexFormat.COMPONENT_TEX_STRIDE; // vec2f
+			stride += stateHasAttribCompact ? CompactChunkVertexFormat.COMPONENT_TEX_STRIDE
+					: VertexFormat.COMPONENT_TEX_STRIDE; // vec2f
 		}else {
 			attribTextureIndex = -1;
 			attribTextureOffset = -1;
@@ -541,7 +748,6 @@ public class FixedFunctionPipeline {
 		if(stateHasAttribNormal) {
 			attribNormalIndex = ++index;
 			attribNormalOffset = stride;
-			_wglBindAttribLocation(compiledProg, index, ATTRIB_NORMAL);
 			stride += VertexFormat.COMPONENT_NORMAL_STRIDE; // vec4b
 		}else {
 			attribNormalIndex = -1;
@@ -549,9 +755,12 @@ public class FixedFunctionPipeline {
 		}
 		if(stateHasAttribLightmap) {
 			attribLightmapIndex = ++index;
-			attribLightmapOffset = stride;
-			_wglBindAttribLocation(compiledProg, index, ATTRIB_LIGHTMAP);
-			stride += VertexFormat.COMPONENT_LIGHTMAP_STRIDE; // vec2s
+			if(stateHasAttribCompact) {
+				attribLightmapOffset = CompactChunkVertexFormat.COMPONENT_POSITION_STRIDE;
+			}else {
+				attribLightmapOffset = stride;
+				stride += VertexFormat.COMPONENT_LIGHTMAP_STRIDE; // vec2s
+			}
 		}else {
 			attribLightmapIndex = -1;
 			attribLightmapOffset = -1;
@@ -559,53 +768,8 @@ public class FixedFunctionPipeline {
 		
 		attribStride = stride;
 		
-		_wglLinkProgram(compiledProg);
-		
-		if(_wglGetProgrami(compiledProg, GL_LINK_STATUS) != GL_TRUE) {
-			LOGGER.error("Program could not be linked for state {} !", (visualizeBits(bits) + (extensionProvider != null && extBits != 0 ? " ext " + visualizeBits(extBits) : "")));
-			String log = _wglGetProgramInfoLog(compiledProg);
-			if(log != null) {
-				String[] lines = log.split("(\\r\\n|\\r|\\n)");
-				for(int i = 0; i < lines.length; ++i) {
-					LOGGER.error("[LINK] {}", lines[i]);
-				}
-			}
-			throw new IllegalStateException("Program could not be linked!");
-		}
-		
 		streamBuffer = new StreamBuffer(FixedFunctionShader.initialSize, FixedFunctionShader.initialCount,
-				FixedFunctionShader.maxCount, (vertexArray, vertexBuffer) -> {
-					EaglercraftGPU.bindGLBufferArray(vertexArray);
-					EaglercraftGPU.bindVAOGLArrayBuffer(vertexBuffer);
-
-					EaglercraftGPU.enableVertexAttribArray(0);
-					EaglercraftGPU.vertexAttribPointer(0, VertexFormat.COMPONENT_POSITION_SIZE,
-							VertexFormat.COMPONENT_POSITION_FORMAT, false, attribStride, 0);
-
-					if(attribTextureIndex != -1) {
-						EaglercraftGPU.enableVertexAttribArray(attribTextureIndex);
-						EaglercraftGPU.vertexAttribPointer(attribTextureIndex, VertexFormat.COMPONENT_TEX_SIZE,
-								VertexFormat.COMPONENT_TEX_FORMAT, false, attribStride, attribTextureOffset);
-					}
-					
-					if(attribColorIndex != -1) {
-						EaglercraftGPU.enableVertexAttribArray(attribColorIndex);
-						EaglercraftGPU.vertexAttribPointer(attribColorIndex, VertexFormat.COMPONENT_COLOR_SIZE,
-								VertexFormat.COMPONENT_COLOR_FORMAT, true, attribStride, attribColorOffset);
-					}
-					
-					if(attribNormalIndex != -1) {
-						EaglercraftGPU.enableVertexAttribArray(attribNormalIndex);
-						EaglercraftGPU.vertexAttribPointer(attribNormalIndex, VertexFormat.COMPONENT_NORMAL_SIZE,
-								VertexFormat.COMPONENT_NORMAL_FORMAT, true, attribStride, attribNormalOffset);
-					}
-					
-					if(attribLightmapIndex != -1) {
-						EaglercraftGPU.enableVertexAttribArray(attribLightmapIndex);
-						EaglercraftGPU.vertexAttribPointer(attribLightmapIndex, VertexFormat.COMPONENT_LIGHTMAP_SIZE,
-								VertexFormat.COMPONENT_LIGHTMAP_FORMAT, false, attribStride, attribLightmapOffset);
-					}
-				});
+				FixedFunctionShader.maxCount, this::setupVertexAttribPointers);
 
 		stateEnableTexture2D = (bits & STATE_ENABLE_TEXTURE2D) != 0;
 		stateEnableLightmap = (bits & STATE_ENABLE_LIGHTMAP) != 0;
@@ -1066,6 +1230,7 @@ public class FixedFunctionPipeline {
 		for(int i = 0, l = pipelineListTracker.size(); i < l; ++i) {
 			pipelineListTracker.get(i).streamBuffer.optimize();
 		}
+		ShaderProgramCache.flush(false);
 	}
 
 	public static void flushCache() {
@@ -23,8 +23,8 @@ public class FixedFunctionShader {
 
 	public class FixedFunctionState {
 
-		public static final int fixedFunctionStatesCount = 12;
-		public static final int fixedFunctionStatesBits = (1 << 12) - 1;
+		public static final int fixedFunctionStatesCount = 13;
+		public static final int fixedFunctionStatesBits = (1 << 13) - 1;
 		public static final int extentionStateBits = fixedFunctionStatesBits ^ 0xFFFFFFFF;
 
 		public static final int STATE_HAS_ATTRIB_TEXTURE = 1;
@@ -39,6 +39,7 @@ public class FixedFunctionShader {
 		public static final int STATE_ENABLE_ANISOTROPIC_FIX = 512;
 		public static final int STATE_ENABLE_FOG = 1024;
 		public static final int STATE_ENABLE_BLEND_ADD = 2048;
+		public static final int STATE_HAS_ATTRIB_COMPACT = 4096;
 
 	}
 
@@ -55,6 +56,7 @@ public class FixedFunctionShader {
 		public static final String MACRO_ATTRIB_COLOR = "COMPILE_COLOR_ATTRIB";
 		public static final String MACRO_ATTRIB_NORMAL = "COMPILE_NORMAL_ATTRIB";
 		public static final String MACRO_ATTRIB_LIGHTMAP = "COMPILE_LIGHTMAP_ATTRIB";
+		public static final String MACRO_ATTRIB_COMPACT = "COMPILE_COMPACT_ATTRIB";
 		
 		public static final String MACRO_ENABLE_TEXTURE2D = "COMPILE_ENABLE_TEXTURE2D";
 		public static final String MACRO_ENABLE_LIGHTMAP = "COMPILE_ENABLE_LIGHTMAP";
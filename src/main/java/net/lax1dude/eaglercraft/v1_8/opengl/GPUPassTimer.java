@@ -0,0 +1,281 @@
+package net.lax1dude.eaglercraft.v1_8.opengl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.lax1dude.eaglercraft.v1_8.internal.IQueryGL;
+import net.lax1dude.eaglercraft.v1_8.internal.PlatformOpenGL;
+import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
+import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+
+import static net.lax1dude.eaglercraft.v1_8.internal.PlatformOpenGL.*;
+import static net.lax1dude.eaglercraft.v1_8.opengl.RealOpenGLEnums.*;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class GPUPassTimer {
+
+	private static final Logger logger = LogManager.getLogger("GPUPassTimer");
+
+	private static final int _GL_TIME_ELAPSED = 0x88BF;
+	private static final int _GL_GPU_DISJOINT = 0x8FBB;
+
+	/**
+	 * Number of frames that may be waiting on query results before new frames
+	 * stop being recorded, results are never waited on
+	 */
+	private static final int FRAMES_IN_FLIGHT = 4;
+	private static final int MAX_PASSES_PER_FRAME = 64;
+
+	private static final float SMOOTHING = 0.1f;
+
+	private static boolean supported = false;
+	private static boolean enabled = false;
+
+	private static final List<Pass> passList = new ArrayList<>();
+	private static final Map<String, Pass> passMap = new HashMap<>();
+	private static final List<IQueryGL> queryPool = new ArrayList<>();
+
+	private static final Frame[] frames = new Frame[FRAMES_IN_FLIGHT];
+	private static int framesTail = 0;
+	private static int framesPending = 0;
+	private static Frame currentFrame = null;
+	private static boolean queryActive = false;
+
+	private static int resultCounter = 0;
+	private static float frameTimeMillis = 0.0f;
+
+	private static class Pass {
+
+		private final String name;
+		private long frameNanos = 0l;
+		private float avgMillis = 0.0f;
+		private int lastResult = 0;
+
+		private Pass(String name) {
+			this.name = name;
+		}
+
+	}
+
+	private static class Frame {
+
+		private final Pass[] passes = new Pass[MAX_PASSES_PER_FRAME];
+		private final IQueryGL[] queries = new IQueryGL[MAX_PASSES_PER_FRAME];
+		private int count = 0;
+
+	}
+
+	static void initialize() {
+		supported = PlatformOpenGL.checkTimerQueryCapable();
+		if(supported) {
+			logger.info("GPU timer query support: true");
+			for(int i = 0; i < FRAMES_IN_FLIGHT; ++i) {
+				frames[i] = new Frame();
+			}
+		}else {
+			logger.info("GPU timer query support: false");
+		}
+	}
+
+	static void destroy() {
+		if(queryActive) {
+			_wglEndQuery(_GL_TIME_ELAPSED);
+			queryActive = false;
+		}
+		for(int i = 0; i < FRAMES_IN_FLIGHT; ++i) {
+			Frame f = frames[i];
+			if(f != null) {
+				for(int j = 0; j < f.count; ++j) {
+					_wglDeleteQueries(f.queries[j]);
+					f.queries[j] = null;
+					f.passes[j] = null;
+				}
+				frames[i] = null;
+			}
+		}
+		for(int i = 0, l = queryPool.size(); i < l; ++i) {
+			_wglDeleteQueries(queryPool.get(i));
+		}
+		queryPool.clear();
+		passList.clear();
+		passMap.clear();
+		framesTail = 0;
+		framesPending = 0;
+		currentFrame = null;
+		frameTimeMillis = 0.0f;
+		supported = false;
+	}
+
+	public static boolean isSupported() {
+		return supported;
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Takes effect on the next call to beginFrame
+	 */
+	public static void setEnabled(boolean en) {
+		enabled = en;
+	}
+
+	public static void beginFrame() {
+		if(!supported) {
+			return;
+		}
+		if(queryActive) {
+			_wglEndQuery(_GL_TIME_ELAPSED);
+			queryActive = false;
+		}
+		if(framesPending > 0) {
+			pollResults();
+		}
+		if(enabled && framesPending < FRAMES_IN_FLIGHT) {
+			currentFrame = frames[(framesTail + framesPending) % FRAMES_IN_FLIGHT];
+			currentFrame.count = 0;
+		}else {
+			currentFrame = null;
+		}
+	}
+
+	/**
+	 * Ends the previous pass and starts timing a new one, passes cannot nest
+	 * because only one GL_TIME_ELAPSED query can be active at a time
+	 */
+	public static void beginPass(String name) {
+		Frame f = currentFrame;
+		if(f == null) {
+			return;
+		}
+		if(queryActive) {
+			_wglEndQuery(_GL_TIME_ELAPSED);
+			queryActive = false;
+		}
+		if(f.count == MAX_PASSES_PER_FRAME) {
+			return;
+		}
+		Pass p = passMap.get(name);
+		if(p == null) {
+			p = new Pass(name);
+			passMap.put(name, p);
+			passList.add(p);
+		}
+		IQueryGL q = queryPool.isEmpty() ? _wglGenQueries() : queryPool.remove(queryPool.size() - 1);
+		_wglBeginQuery(_GL_TIME_ELAPSED, q);
+		queryActive = true;
+		f.passes[f.count] = p;
+		f.queries[f.count] = q;
+		++f.count;
+	}
+
+	public static void endPass() {
+		if(queryActive) {
+			_wglEndQuery(_GL_TIME_ELAPSED);
+			queryActive = false;
+		}
+	}
+
+	public static void endFrame() {
+		if(currentFrame == null) {
+			return;
+		}
+		if(queryActive) {
+			_wglEndQuery(_GL_TIME_ELAPSED);
+			queryActive = false;
+		}
+		if(currentFrame.count > 0) {
+			++framesPending;
+		}
+		currentFrame = null;
+	}
+
+	private static void pollResults() {
+		while(framesPending > 0) {
+			Frame f = frames[framesTail];
+			if(_wglGetQueryObjecti(f.queries[f.count - 1], GL_QUERY_RESULT_AVAILABLE) == 0) {
+				break;
+			}
+			boolean disjoint = _wglGetInteger(_GL_GPU_DISJOINT) != 0;
+			if(!disjoint) {
+				for(int i = 0; i < f.count; ++i) {
+					f.passes[i].frameNanos += (long)_wglGetQueryObjecti(f.queries[i], GL_QUERY_RESULT) & 0xFFFFFFFFl;
+				}
+				++resultCounter;
+				long totalNanos = 0l;
+				for(int i = 0, l = passList.size(); i < l; ++i) {
+					Pass p = passList.get(i);
+					if(p.frameNanos > 0l) {
+						p.lastResult = resultCounter;
+						totalNanos += p.frameNanos;
+					}
+					p.avgMillis += (p.frameNanos * 0.000001f - p.avgMillis) * SMOOTHING;
+					p.frameNanos = 0l;
+				}
+				frameTimeMillis += (totalNanos * 0.000001f - frameTimeMillis) * SMOOTHING;
+			}
+			for(int i = 0; i < f.count; ++i) {
+				queryPool.add(f.queries[i]);
+				f.queries[i] = null;
+				f.passes[i] = null;
+			}
+			f.count = 0;
+			framesTail = (framesTail + 1) % FRAMES_IN_FLIGHT;
+			--framesPending;
+		}
+	}
+
+	/**
+	 * Returns the smoothed GPU time of all timed passes, or -1 if no results
+	 * have been collected yet
+	 */
+	public static float getFrameTimeMillis() {
+		return resultCounter > 0 ? frameTimeMillis : -1.0f;
+	}
+
+	/**
+	 * Returns the smoothed GPU time of a pass, or -1 if it has never been timed
+	 */
+	public static float getPassTimeMillis(String name) {
+		Pass p = passMap.get(name);
+		return p != null ? p.avgMillis : -1.0f;
+	}
+
+	public static int getPassCount() {
+		return passList.size();
+	}
+
+	public static String getPassName(int idx) {
+		return passList.get(idx).name;
+	}
+
+	public static float getPassTimeMillis(int idx) {
+		return passList.get(idx).avgMillis;
+	}
+
+	/**
+	 * Passes that have not been recorded in a while, for example because the
+	 * setting that enables them was turned off, are considered stale
+	 */
+	public static boolean isPassStale(int idx) {
+		return resultCounter - passList.get(idx).lastResult > 60;
+	}
+
+}
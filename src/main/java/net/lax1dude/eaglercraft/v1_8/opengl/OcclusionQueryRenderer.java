@@ -0,0 +1,266 @@
+package net.lax1dude.eaglercraft.v1_8.opengl;
+
+import static net.lax1dude.eaglercraft.v1_8.internal.PlatformOpenGL.*;
+import static net.lax1dude.eaglercraft.v1_8.opengl.RealOpenGLEnums.*;
+
+import net.lax1dude.eaglercraft.v1_8.EagRuntime;
+import net.lax1dude.eaglercraft.v1_8.internal.IBufferArrayGL;
+import net.lax1dude.eaglercraft.v1_8.internal.IBufferGL;
+import net.lax1dude.eaglercraft.v1_8.internal.IProgramGL;
+import net.lax1dude.eaglercraft.v1_8.internal.IQueryGL;
+import net.lax1dude.eaglercraft.v1_8.internal.IShaderGL;
+import net.lax1dude.eaglercraft.v1_8.internal.IUniformGL;
+import net.lax1dude.eaglercraft.v1_8.internal.buffer.FloatBuffer;
+import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
+import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+import net.lax1dude.eaglercraft.v1_8.vector.Matrix4f;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class OcclusionQueryRenderer {
+
+	private static final Logger LOGGER = LogManager.getLogger("OcclusionQueryRenderer");
+
+	public static final String vertexShaderPath = "/assets/eagler/glsl/occlusion_box.vsh";
+	public static final String fragmentShaderPath = "/assets/eagler/glsl/occlusion_box.fsh";
+	public static final String shaderPrecision = "precision lowp int;\nprecision highp float;\n";
+
+	/**
+	 * GL_ANY_SAMPLES_PASSED_CONSERVATIVE, may report false positives but never
+	 * false negatives, which is all culling needs
+	 */
+	public static final int _GL_ANY_SAMPLES_PASSED_CONSERVATIVE = 0x8D6A;
+
+	private static IProgramGL shaderProgram = null;
+	private static IUniformGL u_modelViewProjMat4f = null;
+	private static IUniformGL u_boxOrigin3f = null;
+	private static IUniformGL u_boxSize3f = null;
+
+	private static IBufferArrayGL boxVAO = null;
+	private static IBufferGL boxVBO = null;
+
+	private static FloatBuffer matrixCopyBuffer = null;
+	private static final Matrix4f tmpMatrix = new Matrix4f();
+
+	private static boolean supported = false;
+	private static boolean active = false;
+	private static boolean lastCull = false;
+	private static boolean lastDepthMask = true;
+	private static int lastColorMask = 15;
+
+	static void initialize() {
+		supported = EaglercraftGPU.checkOpenGLESVersion() >= 300;
+		if(!supported) {
+			return;
+		}
+
+		String vshSource = EagRuntime.getRequiredResourceString(vertexShaderPath);
+		String fshSource = EagRuntime.getRequiredResourceString(fragmentShaderPath);
+
+		IShaderGL vert = _wglCreateShader(GL_VERTEX_SHADER);
+		IShaderGL frag = _wglCreateShader(GL_FRAGMENT_SHADER);
+
+		_wglShaderSource(vert, GLSLHeader.getVertexHeaderCompat(vshSource, shaderPrecision));
+		_wglCompileShader(vert);
+
+		if(_wglGetShaderi(vert, GL_COMPILE_STATUS) != GL_TRUE) {
+			LOGGER.error("Failed to compile GL_VERTEX_SHADER \"" + vertexShaderPath + "\" for OcclusionQueryRenderer!");
+			String log = _wglGetShaderInfoLog(vert);
+			if(log != null) {
+				String[] lines = log.split("(\\r\\n|\\r|\\n)");
+				for(int i = 0; i < lines.length; ++i) {
+					LOGGER.error("[VERT] {}", lines[i]);
+				}
+			}
+			_wglDeleteShader(vert);
+			_wglDeleteShader(frag);
+			disableAfterError();
+			return;
+		}
+
+		_wglShaderSource(frag, GLSLHeader.getFragmentHeaderCompat(fshSource, shaderPrecision));
+		_wglCompileShader(frag);
+
+		if(_wglGetShaderi(frag, GL_COMPILE_STATUS) != GL_TRUE) {
+			LOGGER.error("Failed to compile GL_FRAGMENT_SHADER \"" + fragmentShaderPath + "\" for OcclusionQueryRenderer!");
+			String log = _wglGetShaderInfoLog(frag);
+			if(log != null) {
+				String[] lines = log.split("(\\r\\n|\\r|\\n)");
+				for(int i = 0; i < lines.length; ++i) {
+					LOGGER.error("[FRAG] {}", lines[i]);
+				}
+			}
+			_wglDeleteShader(vert);
+			_wglDeleteShader(frag);
+			disableAfterError();
+			return;
+		}
+
+		shaderProgram = _wglCreateProgram();
+
+		_wglAttachShader(shaderProgram, vert);
+		_wglAttachShader(shaderProgram, frag);
+
+		_wglLinkProgram(shaderProgram);
+
+		_wglDetachShader(shaderProgram, vert);
+		_wglDetachShader(shaderProgram, frag);
+
+		_wglDeleteShader(vert);
+		_wglDeleteShader(frag);
+
+		if(_wglGetProgrami(shaderProgram, GL_LINK_STATUS) != GL_TRUE) {
+			LOGGER.error("Failed to link shader program for OcclusionQueryRenderer!");
+			String log = _wglGetProgramInfoLog(shaderProgram);
+			if(log != null) {
+				String[] lines = log.split("(\\r\\n|\\r|\\n)");
+				for(int i = 0; i < lines.length; ++i) {
+					LOGGER.error("[LINK] {}", lines[i]);
+				}
+			}
+			_wglDeleteProgram(shaderProgram);
+			shaderProgram = null;
+			disableAfterError();
+			return;
+		}
+
+		EaglercraftGPU.bindGLShaderProgram(shaderProgram);
+		u_modelViewProjMat4f = _wglGetUniformLocation(shaderProgram, "u_modelViewProjMat4f");
+		u_boxOrigin3f = _wglGetUniformLocation(shaderProgram, "u_boxOrigin3f");
+		u_boxSize3f = _wglGetUniformLocation(shaderProgram, "u_boxSize3f");
+
+		// unit cube, 12 triangles
+		float[] cube = new float[] {
+				0.0f, 0.0f, 0.0f,  1.0f, 0.0f, 0.0f,  1.0f, 0.0f, 1.0f,  0.0f, 0.0f, 0.0f,  1.0f, 0.0f, 1.0f,  0.0f, 0.0f, 1.0f,
+				0.0f, 1.0f, 0.0f,  0.0f, 1.0f, 1.0f,  1.0f, 1.0f, 1.0f,  0.0f, 1.0f, 0.0f,  1.0f, 1.0f, 1.0f,  1.0f, 1.0f, 0.0f,
+				0.0f, 0.0f, 0.0f,  0.0f, 1.0f, 0.0f,  1.0f, 1.0f, 0.0f,  0.0f, 0.0f, 0.0f,  1.0f, 1.0f, 0.0f,  1.0f, 0.0f, 0.0f,
+				0.0f, 0.0f, 1.0f,  1.0f, 0.0f, 1.0f,  1.0f, 1.0f, 1.0f,  0.0f, 0.0f, 1.0f,  1.0f, 1.0f, 1.0f,  0.0f, 1.0f, 1.0f,
+				0.0f, 0.0f, 0.0f,  0.0f, 0.0f, 1.0f,  0.0f, 1.0f, 1.0f,  0.0f, 0.0f, 0.0f,  0.0f, 1.0f, 1.0f,  0.0f, 1.0f, 0.0f,
+				1.0f, 0.0f, 0.0f,  1.0f, 1.0f, 0.0f,  1.0f, 1.0f, 1.0f,  1.0f, 0.0f, 0.0f,  1.0f, 1.0f, 1.0f,  1.0f, 0.0f, 1.0f
+		};
+
+		FloatBuffer verts = EagRuntime.allocateFloatBuffer(cube.length);
+		verts.put(cube);
+		verts.flip();
+
+		boxVAO = EaglercraftGPU.createGLBufferArray();
+		boxVBO = _wglGenBuffers();
+
+		EaglercraftGPU.bindVAOGLArrayBufferNow(boxVBO);
+		_wglBufferData(GL_ARRAY_BUFFER, verts, GL_STATIC_DRAW);
+		EagRuntime.freeFloatBuffer(verts);
+
+		EaglercraftGPU.bindGLBufferArray(boxVAO);
+
+		EaglercraftGPU.enableVertexAttribArray(0);
+		EaglercraftGPU.vertexAttribPointer(0, 3, GL_FLOAT, false, 12, 0);
+
+		matrixCopyBuffer = EagRuntime.allocateFloatBuffer(16);
+	}
+
+	/**
+	 * Occlusion culling is optional, a shader that won't build only turns it off
+	 * instead of failing the whole GPU init
+	 */
+	private static void disableAfterError() {
+		LOGGER.error("Occlusion culling will be unavailable on this device");
+		supported = false;
+	}
+
+	public static boolean isSupported() {
+		return supported;
+	}
+
+	/**
+	 * Binds the box shader and disables color and depth writes, the current
+	 * modelview and projection matrix are used for every box until end()
+	 */
+	public static void begin() {
+		if(!supported || active) {
+			return;
+		}
+		active = true;
+		EaglercraftGPU.bindGLShaderProgram(shaderProgram);
+		Matrix4f.mul(GlStateManager.projectionMatrixStack[GlStateManager.projectionMatrixStackPointer],
+				GlStateManager.modelMatrixStack[GlStateManager.modelMatrixStackPointer], tmpMatrix);
+		matrixCopyBuffer.clear();
+		tmpMatrix.store(matrixCopyBuffer);
+		matrixCopyBuffer.flip();
+		_wglUniformMatrix4fv(u_modelViewProjMat4f, false, matrixCopyBuffer);
+		lastColorMask = GlStateManager.colorMaskBits;
+		lastDepthMask = GlStateManager.stateDepthMask;
+		lastCull = GlStateManager.stateCull;
+		GlStateManager.colorMask(false, false, false, false);
+		GlStateManager.depthMask(false);
+		GlStateManager.enableDepth();
+		GlStateManager.disableCull();
+		EaglercraftGPU.bindGLBufferArray(boxVAO);
+	}
+
+	/**
+	 * Draws a box from (x, y, z) to (x + sx, y + sy, z + sz) in the space of
+	 * the matrices captured in begin() and records whether any of it passed
+	 * the depth test into the query
+	 */
+	public static void drawBox(IQueryGL query, float x, float y, float z, float sx, float sy, float sz) {
+		if(!active) {
+			return;
+		}
+		_wglUniform3f(u_boxOrigin3f, x, y, z);
+		_wglUniform3f(u_boxSize3f, sx, sy, sz);
+		_wglBeginQuery(_GL_ANY_SAMPLES_PASSED_CONSERVATIVE, query);
+		EaglercraftGPU.doDrawArrays(GL_TRIANGLES, 0, 36);
+		_wglEndQuery(_GL_ANY_SAMPLES_PASSED_CONSERVATIVE);
+	}
+
+	public static void end() {
+		if(!active) {
+			return;
+		}
+		active = false;
+		GlStateManager.colorMask((lastColorMask & 1) != 0, (lastColorMask & 2) != 0, (lastColorMask & 4) != 0,
+				(lastColorMask & 8) != 0);
+		GlStateManager.depthMask(lastDepthMask);
+		if(lastCull) {
+			GlStateManager.enableCull();
+		}
+	}
+
+	static void destroy() {
+		if(shaderProgram != null) {
+			_wglDeleteProgram(shaderProgram);
+			shaderProgram = null;
+		}
+		u_modelViewProjMat4f = null;
+		u_boxOrigin3f = null;
+		u_boxSize3f = null;
+		if(boxVAO != null) {
+			EaglercraftGPU.destroyGLBufferArray(boxVAO);
+			boxVAO = null;
+		}
+		if(boxVBO != null) {
+			_wglDeleteBuffers(boxVBO);
+			boxVBO = null;
+		}
+		if(matrixCopyBuffer != null) {
+			EagRuntime.freeFloatBuffer(matrixCopyBuffer);
+			matrixCopyBuffer = null;
+		}
+		supported = false;
+		active = false;
+	}
+
+}
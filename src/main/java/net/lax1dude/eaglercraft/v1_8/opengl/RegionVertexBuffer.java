@@ -0,0 +1,202 @@
+package net.lax1dude.eaglercraft.v1_8.opengl;
+
+import net.lax1dude.eaglercraft.v1_8.internal.buffer.ByteBuffer;
+
+import static net.lax1dude.eaglercraft.v1_8.opengl.RealOpenGLEnums.*;
+import static net.lax1dude.eaglercraft.v1_8.internal.PlatformOpenGL.*;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class RegionVertexBuffer {
+
+	/**
+	 * Largest number of quad vertices that can be indexed by the 16 bit quad
+	 * emulation buffer
+	 */
+	public static final int MAX_VERTICES = 0xFFFC;
+
+	private final DisplayList list = new DisplayList();
+	private final int capacity;
+	private final int stride;
+	private int usedVertices = 0;
+	private int[] freeStart = new int[8];
+	private int[] freeLength = new int[8];
+	private int freeCount = 0;
+	private FixedFunctionPipeline drawPipeline = null;
+
+	public RegionVertexBuffer(int attribs, int stride, int capacity) {
+		if(capacity <= 0 || capacity > MAX_VERTICES || (capacity & 3) != 0) {
+			throw new IllegalArgumentException("Invalid region vertex buffer capacity: " + capacity);
+		}
+		this.capacity = capacity;
+		this.stride = stride;
+		list.attribs = attribs;
+		list.mode = GL_QUADS;
+		list.count = capacity;
+		list.vertexArray = EaglercraftGPU.createGLBufferArray();
+		list.vertexBuffer = _wglGenBuffers();
+		EaglercraftGPU.bindVAOGLArrayBufferNow(list.vertexBuffer);
+		_wglBufferData(GL_ARRAY_BUFFER, capacity * stride, GL_STATIC_DRAW);
+		FixedFunctionPipeline.setupDisplayList(list);
+		freeStart[0] = 0;
+		freeLength[0] = capacity;
+		freeCount = 1;
+	}
+
+	/**
+	 * Returns the first vertex of the allocated range or -1 if there is no free
+	 * block large enough, picks the smallest free block that fits to keep the
+	 * large ones available
+	 */
+	public int allocate(int vertices) {
+		vertices = (vertices + 3) & ~3;
+		int best = -1;
+		int bestLength = Integer.MAX_VALUE;
+		for(int i = 0; i < freeCount; ++i) {
+			int len = freeLength[i];
+			if(len >= vertices && len < bestLength) {
+				best = i;
+				bestLength = len;
+				if(len == vertices) {
+					break;
+				}
+			}
+		}
+		if(best == -1) {
+			return -1;
+		}
+		int start = freeStart[best];
+		if(bestLength == vertices) {
+			removeFreeBlock(best);
+		}else {
+			freeStart[best] = start + vertices;
+			freeLength[best] = bestLength - vertices;
+		}
+		usedVertices += vertices;
+		return start;
+	}
+
+	public void free(int start, int vertices) {
+		vertices = (vertices + 3) & ~3;
+		int i = 0;
+		while(i < freeCount && freeStart[i] < start) {
+			++i;
+		}
+		boolean mergePrev = i > 0 && freeStart[i - 1] + freeLength[i - 1] == start;
+		boolean mergeNext = i < freeCount && start + vertices == freeStart[i];
+		if(mergePrev && mergeNext) {
+			freeLength[i - 1] += vertices + freeLength[i];
+			removeFreeBlock(i);
+		}else if(mergePrev) {
+			freeLength[i - 1] += vertices;
+		}else if(mergeNext) {
+			freeStart[i] = start;
+			freeLength[i] += vertices;
+		}else {
+			if(freeCount == freeStart.length) {
+				int[] newStart = new int[freeCount << 1];
+				int[] newLength = new int[freeCount << 1];
+				System.arraycopy(freeStart, 0, newStart, 0, freeCount);
+				System.arraycopy(freeLength, 0, newLength, 0, freeCount);
+				freeStart = newStart;
+				freeLength = newLength;
+			}
+			System.arraycopy(freeStart, i, freeStart, i + 1, freeCount - i);
+			System.arraycopy(freeLength, i, freeLength, i + 1, freeCount - i);
+			freeStart[i] = start;
+			freeLength[i] = vertices;
+			++freeCount;
+		}
+		usedVertices -= vertices;
+	}
+
+	private void removeFreeBlock(int i) {
+		--freeCount;
+		System.arraycopy(freeStart, i + 1, freeStart, i, freeCount - i);
+		System.arraycopy(freeLength, i + 1, freeLength, i, freeCount - i);
+	}
+
+	/**
+	 * Copies the vertices remaining in the buffer into the range starting at
+	 * the vertex "start", the data must be in this buffer's vertex format
+	 */
+	public void upload(int start, ByteBuffer data) {
+		EaglercraftGPU.bindVAOGLArrayBufferNow(list.vertexBuffer);
+		_wglBufferSubData(GL_ARRAY_BUFFER, start * stride, data);
+	}
+
+	/**
+	 * Binds the buffer and updates the pipeline with the current matrix and
+	 * state, must be called before drawQuads and again after any state change
+	 */
+	public void beginDraw() {
+		drawPipeline = FixedFunctionPipeline.setupRenderDisplayList(list.attribs).update();
+		EaglercraftGPU.bindGLBufferArray(list.vertexArray);
+		if(!list.bindQuad16) {
+			list.bindQuad16 = true;
+			EaglercraftGPU.attachQuad16EmulationBuffer(capacity, true);
+		}else {
+			EaglercraftGPU.attachQuad16EmulationBuffer(capacity, false);
+		}
+	}
+
+	public void drawQuads(int start, int vertices) {
+		drawPipeline.drawElements(GL_TRIANGLES, vertices + (vertices >> 1), GL_UNSIGNED_SHORT, start * 3);
+	}
+
+	public void destroy() {
+		if(list.vertexArray != null) {
+			EaglercraftGPU.destroyGLBufferArray(list.vertexArray);
+			list.vertexArray = null;
+		}
+		if(list.vertexBuffer != null) {
+			_wglDeleteBuffers(list.vertexBuffer);
+			list.vertexBuffer = null;
+		}
+		drawPipeline = null;
+	}
+
+	public int getAttribs() {
+		return list.attribs;
+	}
+
+	public int getStride() {
+		return stride;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public int getUsedVertices() {
+		return usedVertices;
+	}
+
+	public int getFreeBlockCount() {
+		return freeCount;
+	}
+
+	public int getLargestFreeBlock() {
+		int max = 0;
+		for(int i = 0; i < freeCount; ++i) {
+			if(freeLength[i] > max) {
+				max = freeLength[i];
+			}
+		}
+		return max;
+	}
+
+}
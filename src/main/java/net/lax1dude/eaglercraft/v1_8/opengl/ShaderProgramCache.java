@@ -0,0 +1,277 @@
+package net.lax1dude.eaglercraft.v1_8.opengl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import net.lax1dude.eaglercraft.v1_8.EagRuntime;
+import net.lax1dude.eaglercraft.v1_8.crypto.SHA1Digest;
+import net.lax1dude.eaglercraft.v1_8.internal.IProgramGL;
+import net.lax1dude.eaglercraft.v1_8.internal.PlatformOpenGL;
+import net.lax1dude.eaglercraft.v1_8.internal.vfs2.VFile2;
+import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
+import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+
+import static net.lax1dude.eaglercraft.v1_8.internal.PlatformOpenGL.*;
+import static net.lax1dude.eaglercraft.v1_8.opengl.RealOpenGLEnums.*;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class ShaderProgramCache {
+
+	private static final Logger logger = LogManager.getLogger("ShaderProgramCache");
+
+	private static final String CACHE_DIR = "shader_cache";
+	private static final String VARIANTS_FILE = "variants.txt";
+	private static final String DRIVER_FILE = "driver.txt";
+	private static final String CORE_PROVIDER = "core";
+
+	/**
+	 * New variants tend to show up in bursts while a world is loading, so the
+	 * variant list is written at most this often
+	 */
+	private static final long SAVE_INTERVAL = 5000l;
+
+	private static final int _GL_PROGRAM_BINARY_RETRIEVABLE_HINT = 0x8257;
+	private static final int _GL_COMPLETION_STATUS_KHR = 0x91B1;
+
+	private static boolean initialized = false;
+	private static boolean filesystemOK = false;
+	private static boolean binarySupported = false;
+	private static boolean parallelCompileSupported = false;
+	private static String driverKey = null;
+
+	private static final Set<String> variants = new LinkedHashSet<>();
+	private static boolean variantsDirty = false;
+	private static long lastSave = 0l;
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	static void initialize() {
+		if(initialized) {
+			return;
+		}
+		initialized = true;
+		variants.clear();
+		variantsDirty = false;
+		parallelCompileSupported = PlatformOpenGL.checkParallelShaderCompileCapable();
+		binarySupported = PlatformOpenGL.checkProgramBinaryCapable();
+		driverKey = EaglercraftGPU.glGetString(7936) + "; " + EaglercraftGPU.glGetString(7937) + "; "
+				+ EaglercraftGPU.glGetString(7938);
+		try {
+			String[] lines = (new VFile2(CACHE_DIR, VARIANTS_FILE)).getAllLines();
+			if(lines != null) {
+				for(int i = 0; i < lines.length; ++i) {
+					String line = lines[i].trim();
+					if(line.length() > 0) {
+						variants.add(line);
+					}
+				}
+			}
+			if(binarySupported) {
+				VFile2 driverFile = new VFile2(CACHE_DIR, DRIVER_FILE);
+				if(!driverKey.equals(driverFile.getAllChars())) {
+					// binaries from a different driver are useless, clear them out
+					List<VFile2> files = (new VFile2(CACHE_DIR)).listFiles(false);
+					int cnt = 0;
+					for(int i = 0, l = files.size(); i < l; ++i) {
+						VFile2 f = files.get(i);
+						if(f.getName().endsWith(".bin")) {
+							f.delete();
+							++cnt;
+						}
+					}
+					if(cnt > 0) {
+						logger.info("GPU driver changed, deleted {} cached program binaries", cnt);
+					}
+					driverFile.setAllChars(driverKey);
+				}
+			}
+			filesystemOK = true;
+		}catch(Throwable t) {
+			logger.error("Could not open the shader cache, shader variants will not be persisted");
+			logger.error(t);
+			filesystemOK = false;
+		}
+		logger.info("Loaded {} recorded shader variants, program binaries: {}, parallel compile: {}", variants.size(),
+				binarySupported, parallelCompileSupported);
+	}
+
+	static void destroy() {
+		flush(true);
+		initialized = false;
+		filesystemOK = false;
+		binarySupported = false;
+		parallelCompileSupported = false;
+		driverKey = null;
+		variants.clear();
+	}
+
+	private static String getVariantName(IExtPipelineCompiler provider) {
+		return provider == null ? CORE_PROVIDER : provider.getClass().getSimpleName();
+	}
+
+	static void recordVariant(IExtPipelineCompiler provider, int coreBits, int extBits) {
+		if(variants.add(getVariantName(provider) + " " + Integer.toHexString(coreBits) + " " + Integer.toHexString(extBits))) {
+			variantsDirty = true;
+		}
+	}
+
+	static void removeVariant(IExtPipelineCompiler provider, int coreBits, int extBits) {
+		if(variants.remove(getVariantName(provider) + " " + Integer.toHexString(coreBits) + " " + Integer.toHexString(extBits))) {
+			variantsDirty = true;
+		}
+	}
+
+	/**
+	 * @return list of { coreBits, extBits } recorded in previous sessions for the provider
+	 */
+	static List<int[]> getVariants(IExtPipelineCompiler provider) {
+		String name = getVariantName(provider);
+		List<int[]> ret = new ArrayList<>();
+		for(String str : variants) {
+			String[] split = str.split(" ");
+			if(split.length == 3 && split[0].equals(name)) {
+				try {
+					ret.add(new int[] { Integer.parseInt(split[1], 16), Integer.parseInt(split[2], 16) });
+				}catch(NumberFormatException ex) {
+				}
+			}
+		}
+		return ret;
+	}
+
+	static void flush(boolean force) {
+		if(!variantsDirty || !filesystemOK) {
+			return;
+		}
+		long millis = EagRuntime.steadyTimeMillis();
+		if(!force && millis - lastSave < SAVE_INTERVAL) {
+			return;
+		}
+		lastSave = millis;
+		variantsDirty = false;
+		StringBuilder builder = new StringBuilder();
+		for(String str : variants) {
+			builder.append(str).append('\n');
+		}
+		try {
+			(new VFile2(CACHE_DIR, VARIANTS_FILE)).setAllChars(builder.toString());
+		}catch(Throwable t) {
+			logger.error("Could not save the shader variant list!");
+			logger.error(t);
+		}
+	}
+
+	static boolean isParallelCompileSupported() {
+		return parallelCompileSupported;
+	}
+
+	/**
+	 * With KHR_parallel_shader_compile this won't stall, without it every
+	 * program counts as ready and the first status check blocks instead
+	 */
+	static boolean isProgramReady(IProgramGL prog) {
+		return !parallelCompileSupported || _wglGetProgrami(prog, _GL_COMPLETION_STATUS_KHR) == GL_TRUE;
+	}
+
+	/**
+	 * @return key identifying the program binary for these sources on this
+	 *         driver, or null if program binaries are not available
+	 */
+	static String getProgramKey(String vshSource, String fshSource) {
+		if(!binarySupported || !filesystemOK) {
+			return null;
+		}
+		SHA1Digest digest = new SHA1Digest();
+		byte[] b = driverKey.getBytes(StandardCharsets.UTF_8);
+		digest.update(b, 0, b.length);
+		digest.update((byte)0);
+		b = vshSource.getBytes(StandardCharsets.UTF_8);
+		digest.update(b, 0, b.length);
+		digest.update((byte)0);
+		b = fshSource.getBytes(StandardCharsets.UTF_8);
+		digest.update(b, 0, b.length);
+		byte[] hash = new byte[20];
+		digest.doFinal(hash, 0);
+		char[] ret = new char[40];
+		for(int i = 0; i < 20; ++i) {
+			ret[i << 1] = HEX[(hash[i] >> 4) & 15];
+			ret[(i << 1) + 1] = HEX[hash[i] & 15];
+		}
+		return new String(ret);
+	}
+
+	/**
+	 * Must be called before the program is linked for the binary to be retrievable
+	 */
+	static void prepareProgram(IProgramGL prog) {
+		if(binarySupported) {
+			_wglProgramParameteri(prog, _GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL_TRUE);
+		}
+	}
+
+	static boolean loadProgramBinary(IProgramGL prog, String key) {
+		VFile2 file = new VFile2(CACHE_DIR, key + ".bin");
+		byte[] data;
+		try {
+			data = file.getAllBytes();
+		}catch(Throwable t) {
+			logger.error("Could not read cached program binary: {}", key);
+			logger.error(t);
+			return false;
+		}
+		if(data == null) {
+			return false;
+		}
+		if(data.length > 4) {
+			int format = ((data[0] & 0xFF) << 24) | ((data[1] & 0xFF) << 16) | ((data[2] & 0xFF) << 8) | (data[3] & 0xFF);
+			byte[] binary = new byte[data.length - 4];
+			System.arraycopy(data, 4, binary, 0, binary.length);
+			_wglProgramBinary(prog, format, binary);
+			if(_wglGetProgrami(prog, GL_LINK_STATUS) == GL_TRUE) {
+				return true;
+			}
+		}
+		// the driver rejected it, it will be compiled from source and saved again
+		logger.warn("Cached program binary was rejected by the driver: {}", key);
+		file.delete();
+		return false;
+	}
+
+	static void saveProgramBinary(IProgramGL prog, String key) {
+		int[] format = new int[1];
+		byte[] binary = _wglGetProgramBinary(prog, format);
+		if(binary == null) {
+			return;
+		}
+		byte[] data = new byte[binary.length + 4];
+		data[0] = (byte)(format[0] >>> 24);
+		data[1] = (byte)(format[0] >>> 16);
+		data[2] = (byte)(format[0] >>> 8);
+		data[3] = (byte)format[0];
+		System.arraycopy(binary, 0, data, 4, binary.length);
+		try {
+			(new VFile2(CACHE_DIR, key + ".bin")).setAllBytes(data);
+		}catch(Throwable t) {
+			logger.error("Could not save program binary: {}", key);
+			logger.error(t);
+		}
+	}
+
+}
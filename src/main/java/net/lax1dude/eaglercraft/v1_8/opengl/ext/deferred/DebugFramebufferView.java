@@ -5,7 +5,9 @@ import java.util.List;
 import java.util.function.Consumer;
 
 import net.lax1dude.eaglercraft.v1_8.EagRuntime;
+import net.lax1dude.eaglercraft.v1_8.HString;
 import net.lax1dude.eaglercraft.v1_8.opengl.DrawUtils;
+import net.lax1dude.eaglercraft.v1_8.opengl.GPUPassTimer;
 import net.lax1dude.eaglercraft.v1_8.opengl.GlStateManager;
 import net.lax1dude.eaglercraft.v1_8.opengl.ext.deferred.program.PipelineShaderGBufferDebugView;
 import net.minecraft.client.Minecraft;
@@ -451,7 +453,8 @@ public class DebugFramebufferView {
 		}
 		long millis = EagRuntime.steadyTimeMillis();
 		long elapsed = millis - debugViewNameTimer;
-		if(elapsed < 2000l || noData) {
+		boolean timings = GPUPassTimer.isSupported() && GPUPassTimer.getFrameTimeMillis() >= 0.0f;
+		if(elapsed < 2000l || noData || timings) {
 			GlStateManager.matrixMode(GL_PROJECTION);
 			GlStateManager.pushMatrix();
 			GlStateManager.matrixMode(GL_MODELVIEW);
@@ -495,6 +498,10 @@ public class DebugFramebufferView {
 				mc.fontRendererObj.drawStringWithShadow("Press F+4 to exit", 5, 33, 0xFFFFFF);
 			}
 			
+			if(timings) {
+				renderGPUTimings(w - 5, 5, true);
+			}
+			
 			GlStateManager.disableBlend();
 			GlStateManager.matrixMode(GL_PROJECTION);
 			GlStateManager.popMatrix();
@@ -503,6 +510,49 @@ public class DebugFramebufferView {
 		}
 	}
 
+	/**
+	 * Draws the smoothed GPU time of each timed pass, the current projection
+	 * and modelview matrix are used as-is
+	 */
+	public static void renderGPUTimings(int x, int y, boolean alignRight) {
+		Minecraft mc = Minecraft.getMinecraft();
+		float total = GPUPassTimer.getFrameTimeMillis();
+		if(total < 0.0f) {
+			return;
+		}
+		int cnt = GPUPassTimer.getPassCount();
+		int lines = 0;
+		int width = 0;
+		String[] names = new String[cnt + 1];
+		String[] times = new String[cnt + 1];
+		names[0] = "GPU Frame Time";
+		times[0] = HString.format("%.2f ms", total);
+		width = mc.fontRendererObj.getStringWidth(names[0]) + mc.fontRendererObj.getStringWidth(times[0]);
+		++lines;
+		for(int i = 0; i < cnt; ++i) {
+			if(!GPUPassTimer.isPassStale(i)) {
+				names[lines] = GPUPassTimer.getPassName(i);
+				times[lines] = HString.format("%.2f ms", GPUPassTimer.getPassTimeMillis(i));
+				int j = mc.fontRendererObj.getStringWidth(names[lines]) + mc.fontRendererObj.getStringWidth(times[lines]);
+				if(j > width) {
+					width = j;
+				}
+				++lines;
+			}
+		}
+		width += 12;
+		if(alignRight) {
+			x -= width;
+		}
+		Gui.drawRect(x, y, x + width, y + lines * 10 + 3, 0x7F000000);
+		for(int i = 0; i < lines; ++i) {
+			int c = i == 0 ? 0xFFFF00 : 0xFFFFFF;
+			int yy = y + 2 + i * 10;
+			mc.fontRendererObj.drawStringWithShadow(names[i], x + 2, yy, c);
+			mc.fontRendererObj.drawStringWithShadow(times[i], x + width - 2 - mc.fontRendererObj.getStringWidth(times[i]), yy, c);
+		}
+	}
+
 	public static void toggleDebugView() {
 		debugViewShown = !debugViewShown;
 		if(debugViewShown) {
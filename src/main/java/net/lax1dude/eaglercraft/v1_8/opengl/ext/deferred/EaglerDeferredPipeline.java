@@ -14,6 +14,7 @@ import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
 import net.lax1dude.eaglercraft.v1_8.opengl.DrawUtils;
 import net.lax1dude.eaglercraft.v1_8.opengl.EaglercraftGPU;
 import net.lax1dude.eaglercraft.v1_8.opengl.FixedFunctionPipeline;
+import net.lax1dude.eaglercraft.v1_8.opengl.GPUPassTimer;
 import net.lax1dude.eaglercraft.v1_8.opengl.GlStateManager;
 import net.lax1dude.eaglercraft.v1_8.opengl.TextureCopyUtil;
 import net.lax1dude.eaglercraft.v1_8.opengl.ext.deferred.program.PipelineShaderBloomBlurPass;
@@ -1354,6 +1355,7 @@ public class EaglerDeferredPipeline {
 
 	public void beginDrawMainGBuffer() {
 		DeferredStateManager.checkGLError("Pre: beginDrawMainGBuffer()");
+		GPUPassTimer.beginPass("gbuffer");
 		resize(mc.displayWidth, mc.displayHeight);
 		_wglBindFramebuffer(_GL_FRAMEBUFFER, gBufferFramebuffer);
 		_wglDrawBuffers(gBufferDrawBuffers);
@@ -1369,6 +1371,7 @@ public class EaglerDeferredPipeline {
 
 	public void beginDrawMainGBufferTerrain() {
 		DeferredStateManager.checkGLError("Pre: beginDrawMainGBufferTerrain()");
+		GPUPassTimer.beginPass("gbufferTerrain");
 		TextureManager mgr = mc.getTextureManager();
 		GlStateManager.setActiveTexture(GL_TEXTURE0);
 		GlStateManager.enableTexture2D();
@@ -1378,6 +1381,7 @@ public class EaglerDeferredPipeline {
 
 	public void beginDrawMainGBufferEntities() {
 		DeferredStateManager.checkGLError("Pre: beginDrawMainGBufferEntities()");
+		GPUPassTimer.beginPass("gbufferEntities");
 	}
 
 	public void beginDrawMainGBufferDestroyProgress() {
@@ -1392,12 +1396,14 @@ public class EaglerDeferredPipeline {
 
 	public void endDrawMainGBuffer() {
 		DeferredStateManager.checkGLError("Pre: endDrawMainGBuffer()");
+		GPUPassTimer.endPass();
 		_wglDrawBuffers(_GL_COLOR_ATTACHMENT0);
 		DeferredStateManager.checkGLError("Post: endDrawMainGBuffer()");
 	}
 
 	public void beginDrawMainShadowMap() {
 		DeferredStateManager.checkGLError("Pre: beginDrawMainShadowMap()");
+		GPUPassTimer.beginPass("shadowMap");
 		if(config.is_rendering_shadowsColored) {
 			_wglBindFramebuffer(_GL_FRAMEBUFFER, sunShadowColorFramebuffer);
 			_wglDrawBuffers(_GL_COLOR_ATTACHMENT0);
@@ -1420,6 +1426,7 @@ public class EaglerDeferredPipeline {
 
 	public void endDrawMainShadowMap() {
 		DeferredStateManager.checkGLError("Pre: endDrawMainShadowMap()");
+		GPUPassTimer.endPass();
 		GlStateManager.viewport(0, 0, currentWidth, currentHeight);
 		GlStateManager.cullFace(GL_BACK);
 		DeferredStateManager.disableShadowRender();
@@ -1429,11 +1436,13 @@ public class EaglerDeferredPipeline {
 
 	public void beginDrawMainShadowMapLOD(int lod) {
 		DeferredStateManager.checkGLError("Pre: beginDrawMainShadowMapLOD(" + lod + ")");
+		GPUPassTimer.beginPass("shadowMap");
 		GlStateManager.viewport(0, sunShadowDepthBufferRes * lod, sunShadowDepthBufferRes, sunShadowDepthBufferRes);
 	}
 
 	public void beginDrawColoredShadows() {
 		DeferredStateManager.checkGLError("Pre: beginDrawColoredShadows()");
+		GPUPassTimer.beginPass("shadowMapColored");
 		_wglBindFramebuffer(_GL_FRAMEBUFFER, sunShadowColorFramebuffer);
 		DeferredStateManager.enableForwardRender();
 		GlStateManager.globalEnableBlend();
@@ -1448,6 +1457,7 @@ public class EaglerDeferredPipeline {
 
 	public void endDrawColoredShadows() {
 		DeferredStateManager.checkGLError("Pre: endDrawColoredShadows()");
+		GPUPassTimer.endPass();
 		_wglBindFramebuffer(_GL_FRAMEBUFFER, sunShadowFramebuffer);
 		DeferredStateManager.disableForwardRender();
 		GlStateManager.disableBlend();
@@ -1462,6 +1472,7 @@ public class EaglerDeferredPipeline {
 
 	public void combineGBuffersAndIlluminate() {
 		DeferredStateManager.checkGLError("Pre: combineGBuffersAndIlluminate()");
+		mc.mcProfiler.startSection("prepare");
 		DynamicLightManager.updateTimers();
 
 		// ========================= CLEAR STATE ========================== //
@@ -1509,12 +1520,17 @@ public class EaglerDeferredPipeline {
 
 		// ==================== UPDATE CLOUD RENDERER ===================== //
 
+		mc.mcProfiler.endStartSection("clouds");
+		GPUPassTimer.beginPass("clouds");
+
 		if(dim == 0) {
 			CloudRenderWorker.setPosition(cloudRenderViewerOffsetX, (float)entityPosY, cloudRenderViewerOffsetZ);
 			CloudRenderWorker.update();
 			DeferredStateManager.checkGLError("combineGBuffersAndIlluminate(): UPDATE CLOUD RENDERER");
 		}
 
+		mc.mcProfiler.endStartSection("atmosphere");
+		GPUPassTimer.beginPass("atmosphere");
 		if(millis - recalcAtmosphereTimer > 100l) {
 
 			if(dim == 0) {
@@ -1678,10 +1694,14 @@ public class EaglerDeferredPipeline {
 
 		}
 
+		mc.mcProfiler.endStartSection("reprojection");
+		GPUPassTimer.endPass();
 		if(reprojectionEngineEnable) {
 
 			// ============ DOWNSCALE DEPTH BUFFER, FOR PERFORMANCE =========== //
 
+			GPUPassTimer.beginPass("reprojDepth");
+
 			_wglBindFramebuffer(_GL_FRAMEBUFFER, gBufferQuarterFramebuffer);
 			GlStateManager.enableDepth();
 			GlStateManager.depthFunc(GL_ALWAYS);
@@ -1702,6 +1722,8 @@ public class EaglerDeferredPipeline {
 
 				// ====================== RUN SSAO ALGORITHM ====================== //
 
+				GPUPassTimer.beginPass("ssao");
+
 				_wglBindFramebuffer(_GL_FRAMEBUFFER, ssaoGenerateFramebuffer);
 				GlStateManager.viewport(0, 0, reprojectionTexWidth, reprojectionTexHeight);
 				GlStateManager.setActiveTexture(GL_TEXTURE2);
@@ -1730,6 +1752,8 @@ public class EaglerDeferredPipeline {
 
 			// ============== RUN REPROJECTION CONTROL SHADER ================ //
 
+			GPUPassTimer.beginPass("reprojControl");
+
 			GlStateManager.setActiveTexture(GL_TEXTURE8);
 			if(config.is_rendering_raytracing) {
 				GlStateManager.bindTexture(gBufferMaterialTexture);
@@ -1810,6 +1834,8 @@ public class EaglerDeferredPipeline {
 
 				// =========== RUN SCREENSPACE REFLECTIONS ALGORITHM ============= //
 
+				GPUPassTimer.beginPass("reprojSSR");
+
 				GlStateManager.setActiveTexture(GL_TEXTURE5);
 				GlStateManager.bindTexture(lastFrameDepthTexture);
 				GlStateManager.setActiveTexture(GL_TEXTURE4);
@@ -1882,6 +1908,8 @@ public class EaglerDeferredPipeline {
 			}
 		}
 
+		mc.mcProfiler.endStartSection("sunShadows");
+		GPUPassTimer.beginPass("shadowsSun");
 		if(config.is_rendering_shadowsSun_clamped > 0) {
 
 			// ==================== RENDER SUNLIGHT SHADOWS ===================== //
@@ -1950,6 +1978,9 @@ public class EaglerDeferredPipeline {
 
 		// ================= RENDER AMBIENT LIGHTING ==================== //
 
+		mc.mcProfiler.endStartSection("ambient");
+		GPUPassTimer.beginPass("ambient");
+
 		GlStateManager.setActiveTexture(GL_TEXTURE9);
 		GlStateManager.bindTexture(MetalsLUT.getGLTexture());
 		GlStateManager.setActiveTexture(GL_TEXTURE8);
@@ -2001,6 +2032,9 @@ public class EaglerDeferredPipeline {
 
 		// ==================== RENDER SUNLIGHT ===================== //
 
+		mc.mcProfiler.endStartSection("sunlight");
+		GPUPassTimer.beginPass("sunlight");
+
 		if(dim == 0) {
 			shader_lighting_sun.useProgram();
 			uniformMatrixHelper(shader_lighting_sun.uniforms.u_inverseViewMatrix4f, DeferredStateManager.inverseViewMatrix);
@@ -2044,6 +2078,9 @@ public class EaglerDeferredPipeline {
 
 		// ================== RENDER DYNAMIC LIGHTS =================== //
 
+		mc.mcProfiler.endStartSection("dynamicLights");
+		GPUPassTimer.beginPass("dynamicLights");
+
 		if(config.is_rendering_dynamicLights) {
 			shader_lighting_point.useProgram();
 			uniformMatrixHelper(shader_lighting_point.uniforms.u_inverseProjectionMatrix4f, DeferredStateManager.inverseProjMatrix);
@@ -2111,6 +2148,9 @@ public class EaglerDeferredPipeline {
 
 		// =================== RENDER SKYBOX MESH =================== //
 
+		mc.mcProfiler.endStartSection("sky");
+		GPUPassTimer.beginPass("sky");
+
 		if(dim == 0) {
 			GlStateManager.enableDepth();
 			GlStateManager.setActiveTexture(GL_TEXTURE2);
@@ -2207,6 +2247,8 @@ public class EaglerDeferredPipeline {
 		GlStateManager.disableDepth();
 		GlStateManager.depthMask(true);
 		GlStateManager.disableBlend();
+		GPUPassTimer.endPass();
+		mc.mcProfiler.endSection();
 	}
 
 	public void bindLightSourceBucket(int relativeBlockX, int relativeBlockY, int relativeBlockZ, int uboIndex) {
@@ -2401,6 +2443,7 @@ public class EaglerDeferredPipeline {
 
 	public void beginDrawEnvMap() {
 		DeferredStateManager.checkGLError("Pre: beginDrawEnvMap()");
+		GPUPassTimer.beginPass("envMap");
 		GlStateManager.enableDepth();
 		GlStateManager.depthMask(true);
 		DeferredStateManager.enableForwardRender();
@@ -2507,6 +2550,7 @@ public class EaglerDeferredPipeline {
 		GlStateManager.popMatrix();
 		GlStateManager.matrixMode(GL_MODELVIEW);
 		GlStateManager.popMatrix();
+		GPUPassTimer.endPass();
 		DeferredStateManager.checkGLError("Post: endDrawEnvMap()");
 	}
 
@@ -2587,6 +2631,7 @@ public class EaglerDeferredPipeline {
 
 	public void beginDrawRealisticWaterMask() {
 		DeferredStateManager.checkGLError("Pre: beginDrawRealisticWaterMask()");
+		GPUPassTimer.beginPass("waterMask");
 		_wglBindFramebuffer(_GL_READ_FRAMEBUFFER, gBufferFramebuffer);
 		_wglBindFramebuffer(_GL_DRAW_FRAMEBUFFER, realisticWaterMaskFramebuffer);
 		_wglBlitFramebuffer(0, 0, currentWidth, currentHeight, 0, 0, currentWidth, currentHeight, GL_DEPTH_BUFFER_BIT, GL_NEAREST);
@@ -2613,6 +2658,8 @@ public class EaglerDeferredPipeline {
 
 			// ================== RENDER LIGHT SHAFTS =================== //
 
+			GPUPassTimer.beginPass("lightShafts");
+
 			_wglBindFramebuffer(_GL_FRAMEBUFFER, lightShaftsFramebuffer);
 			GlStateManager.viewport(0, 0, reprojectionTexWidth, reprojectionTexHeight);
 			GlStateManager.setActiveTexture(GL_TEXTURE2);
@@ -2661,6 +2708,8 @@ public class EaglerDeferredPipeline {
 
 		// =================== COMBINE NORMALS =================== //
 
+		GPUPassTimer.beginPass("waterNormals");
+
 		_wglBindFramebuffer(_GL_FRAMEBUFFER, realisticWaterCombinedNormalsFramebuffer);
 		GlStateManager.viewport(0, 0, currentWidth, currentHeight);
 		GlStateManager.bindTexture(gBufferNormalsTexture);
@@ -2676,6 +2725,8 @@ public class EaglerDeferredPipeline {
 
 		// ================ REPROJ CONTROL AND FOG =============== //
 
+		GPUPassTimer.beginPass("waterReproj");
+
 		_wglBindFramebuffer(_GL_FRAMEBUFFER, realisticWaterControlFramebuffer);
 		GlStateManager.viewport(0, 0, reprojectionTexWidth, reprojectionTexHeight);
 
@@ -2739,6 +2790,8 @@ public class EaglerDeferredPipeline {
 
 		// =========== RUN SCREENSPACE REFLECTIONS ALGORITHM ============= //
 
+		GPUPassTimer.beginPass("waterSSR");
+
 		GlStateManager.setActiveTexture(GL_TEXTURE5);
 		GlStateManager.bindTexture(lastFrameDepthTexture);
 		GlStateManager.setActiveTexture(GL_TEXTURE4);
@@ -2811,6 +2864,8 @@ public class EaglerDeferredPipeline {
 
 		// ============== GENERATE WAVE NORMAL MAP ================ //
 
+		GPUPassTimer.beginPass("waterWaves");
+
 		_wglBindFramebuffer(_GL_FRAMEBUFFER, realisticWaterDisplacementMapFramebuffer);
 		GlStateManager.viewport(0, 0, 256, 256);
 
@@ -2832,6 +2887,7 @@ public class EaglerDeferredPipeline {
 		DrawUtils.drawStandardQuad2D();
 
 		DeferredStateManager.checkGLError("endDrawRealisticWaterMask(): GENERATE WAVE NORMAL MAP");
+		GPUPassTimer.endPass();
 	}
 
 	public void applyGBufferFog() {
@@ -2900,6 +2956,7 @@ public class EaglerDeferredPipeline {
 
 	public void beginDrawHDRTranslucent() {
 		DeferredStateManager.checkGLError("Pre: beginDrawHDRTranslucent()");
+		GPUPassTimer.beginPass("translucent");
 		GlStateManager.enableDepth();
 		GlStateManager.depthMask(true);
 		GlStateManager.enableAlpha();
@@ -2936,6 +2993,7 @@ public class EaglerDeferredPipeline {
 
 	public void beginDrawRealisticWaterSurface() {
 		DeferredStateManager.checkGLError("Pre: beginDrawRealisticWaterSurface()");
+		GPUPassTimer.beginPass("waterSurface");
 		DeferredStateManager.enableDrawRealisticWaterRender();
 		GlStateManager.setActiveTexture(GL_TEXTURE9);
 		GlStateManager.bindTexture(realisticWaterNormalMapTexture);
@@ -2965,6 +3023,7 @@ public class EaglerDeferredPipeline {
 
 	public void endDrawRealisticWaterSurface() {
 		DeferredStateManager.checkGLError("Pre: endDrawRealisticWaterSurface()");
+		GPUPassTimer.beginPass("translucent");
 		DeferredStateManager.disableDrawRealisticWaterRender();
 		if(config.is_rendering_useEnvMap) {
 			GlStateManager.setActiveTexture(GL_TEXTURE5);
@@ -2976,10 +3035,12 @@ public class EaglerDeferredPipeline {
 
 	public void beginDrawTranslucentBlocks() {
 		DeferredStateManager.checkGLError("Pre: beginDrawTranslucentBlocks()");
+		GPUPassTimer.beginPass("translucent");
 	}
 
 	public void beginDrawGlassHighlights() {
 		DeferredStateManager.checkGLError("Pre: beginDrawGlassHighlights()");
+		GPUPassTimer.beginPass("glassHighlights");
 		DeferredStateManager.enableDrawGlassHighlightsRender();
 		GlStateManager.depthMask(false);
 		GlStateManager.enablePolygonOffset();
@@ -2990,6 +3051,7 @@ public class EaglerDeferredPipeline {
 
 	public void endDrawGlassHighlights() {
 		DeferredStateManager.checkGLError("Pre: endDrawGlassHighlights()");
+		GPUPassTimer.beginPass("translucent");
 		DeferredStateManager.disableDrawGlassHighlightsRender();
 		GlStateManager.depthMask(true);
 		GlStateManager.disablePolygonOffset();
@@ -2999,6 +3061,7 @@ public class EaglerDeferredPipeline {
 
 	public void beginDrawTranslucentEntities() {
 		DeferredStateManager.checkGLError("Pre: beginDrawTranslucentEntities()");
+		GPUPassTimer.beginPass("translucentEntities");
 		GlStateManager.setActiveTexture(GL_TEXTURE4);
 		if(config.is_rendering_shadowsSun_clamped > 0) {
 			GlStateManager.bindTexture(sunShadowDepthBuffer);
@@ -3019,6 +3082,7 @@ public class EaglerDeferredPipeline {
 
 	public void saveReprojData() {
 		DeferredStateManager.checkGLError("Pre: saveReprojData()");
+		GPUPassTimer.beginPass("saveReproj");
 		if(reprojectionEngineEnable || config.is_rendering_realisticWater) {
 
 			// =========== SAVE REPROJECTION DATA FOR NEXT FRAME ============= //
@@ -3059,6 +3123,7 @@ public class EaglerDeferredPipeline {
 
 	public void beginDrawHandOverlay() {
 		DeferredStateManager.checkGLError("Pre: beginDrawHandOverlay()");
+		GPUPassTimer.beginPass("hand");
 		_wglBindFramebuffer(_GL_FRAMEBUFFER, handRenderFramebuffer);
 		GlStateManager.viewport(0, 0, currentWidth, currentHeight);
 		GlStateManager.clearDepth(1.0f);
@@ -3071,6 +3136,7 @@ public class EaglerDeferredPipeline {
 
 	public void endDrawHandOverlay() {
 		DeferredStateManager.checkGLError("Pre: endDrawHandOverlay()");
+		GPUPassTimer.endPass();
 		_wglBindFramebuffer(_GL_FRAMEBUFFER, lightingHDRFramebuffer);
 		GlStateManager.viewport(0, 0, currentWidth, currentHeight);
 		shader_hand_depth_mask.useProgram();
@@ -3084,6 +3150,7 @@ public class EaglerDeferredPipeline {
 
 	public void endDrawHDRTranslucent() {
 		DeferredStateManager.checkGLError("Pre: endDrawHDRTranslucent()");
+		GPUPassTimer.endPass();
 		DeferredStateManager.disableForwardRender();
 		DeferredStateManager.disableFog();
 		GlStateManager.disableFog();
@@ -3100,6 +3167,8 @@ public class EaglerDeferredPipeline {
 
 	public void endDrawDeferred() {
 		DeferredStateManager.checkGLError("Pre: endDrawDeferred()");
+		mc.mcProfiler.startSection("lensFlares");
+		GPUPassTimer.beginPass("lensFlares");
 
 		if(config.is_rendering_lensFlares && mc.theWorld.provider.getDimensionId() == 0 &&
 				DeferredStateManager.currentSunAngle.y < 0.2f && mc.theWorld.getRainStrength(partialTicks) < 1.0f) {
@@ -3168,6 +3237,9 @@ public class EaglerDeferredPipeline {
 
 		// ================ DOWNSCALE AND AVERAGE LUMA =============== //
 
+		mc.mcProfiler.endStartSection("exposure");
+		GPUPassTimer.beginPass("exposure");
+
 		long millis = EagRuntime.steadyTimeMillis();
 		if(millis - lastExposureUpdate > 33l) {
 			if(lumaAvgDownscaleFramebuffers.length == 0) {
@@ -3234,6 +3306,8 @@ public class EaglerDeferredPipeline {
 			DeferredStateManager.checkGLError("endDrawDeferred(): DOWNSCALE AND AVERAGE LUMA");
 		}
 
+		mc.mcProfiler.endStartSection("bloom");
+		GPUPassTimer.beginPass("bloom");
 		if(config.is_rendering_bloom) {
 
 			// ==================== BLOOM: BRIGHT PASS ==================== //
@@ -3341,6 +3415,9 @@ public class EaglerDeferredPipeline {
 
 		// ==================== APPLY TONEMAPPING ==================== //
 
+		mc.mcProfiler.endStartSection("tonemap");
+		GPUPassTimer.beginPass("tonemap");
+
 		float exposure = 1.0f;
 
 		if(config.is_rendering_fxaa) {
@@ -3370,6 +3447,8 @@ public class EaglerDeferredPipeline {
 
 		DeferredStateManager.checkGLError("endDrawDeferred(): APPLY TONEMAPPING");
 
+		mc.mcProfiler.endStartSection("fxaa");
+		GPUPassTimer.beginPass("fxaa");
 		if(config.is_rendering_fxaa) {
 			
 			// ======================= APPLY FXAA ======================== //
@@ -3387,6 +3466,8 @@ public class EaglerDeferredPipeline {
 			DeferredStateManager.checkGLError("endDrawDeferred(): APPLY FXAA");
 		}
 		
+		mc.mcProfiler.endStartSection("lensDistortion");
+		GPUPassTimer.beginPass("lensDistortion");
 		if(config.is_rendering_lensDistortion) {
 			
 			// ================= APPLY LENS DISTORTION ================== //
@@ -3402,6 +3483,9 @@ public class EaglerDeferredPipeline {
 		
 		// =========== BLIT WORLD DEPTH BUFFER TO OUTPUT ============= //
 
+		mc.mcProfiler.endStartSection("blitDepth");
+		GPUPassTimer.beginPass("blitDepth");
+
 		if(EagRuntime.getPlatformType() == EnumPlatformType.DESKTOP) {
 			_wglBindFramebuffer(_GL_FRAMEBUFFER, null);
 			GlStateManager.enableDepth();
@@ -3422,6 +3506,9 @@ public class EaglerDeferredPipeline {
 
 		// ================= OPTIONAL DEBUG OUTPUT =================== //
 
+		mc.mcProfiler.endStartSection("debugView");
+		GPUPassTimer.endPass();
+
 		_wglBindFramebuffer(_GL_FRAMEBUFFER, null);
 		drawDebugViewIfEnabled();
 
@@ -3430,6 +3517,7 @@ public class EaglerDeferredPipeline {
 		}
 
 		DeferredStateManager.checkGLError("endDrawDeferred(): OPTIONAL DEBUG OUTPUT");
+		mc.mcProfiler.endSection();
 	}
 
 	static void uniformMatrixHelper(IUniformGL uniform, Matrix4f matrix) {
@@ -0,0 +1,307 @@
+package net.lax1dude.eaglercraft.v1_8.profiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.lax1dude.eaglercraft.v1_8.EagRuntime;
+import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
+import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ */
+public class Profiler {
+
+	private static final Logger logger = LogManager.getLogger("Profiler");
+
+	/**
+	 * Only change this while no section is started, or call clearProfiling
+	 * afterwards
+	 */
+	public boolean profilingEnabled;
+
+	private final Section rootSection = new Section("", null);
+	private Section currentSection = rootSection;
+
+	/**
+	 * Completed sections recorded for the trace export, null when no trace is
+	 * being recorded
+	 */
+	private Section[] traceSections;
+	private long[] traceStartTimes;
+	private long[] traceDurations;
+	private int traceCount;
+	private long traceStartTime;
+
+	public void clearProfiling() {
+		rootSection.clear();
+		currentSection = rootSection;
+	}
+
+	public void startSection(String name) {
+		if(profilingEnabled) {
+			Section section = currentSection.getChild(name);
+			section.startTime = EagRuntime.nanoTime();
+			currentSection = section;
+		}
+	}
+
+	public void endSection() {
+		if(profilingEnabled) {
+			Section section = currentSection;
+			if(section.parent == null) {
+				logger.error("Tried to end a section that was never started!");
+				return;
+			}
+			long now = EagRuntime.nanoTime();
+			long dur = now - section.startTime;
+			section.totalTime += dur;
+			if(traceSections != null && traceCount < traceSections.length) {
+				traceSections[traceCount] = section;
+				traceStartTimes[traceCount] = section.startTime;
+				traceDurations[traceCount] = dur;
+				++traceCount;
+			}
+			currentSection = section.parent;
+		}
+	}
+
+	public void endStartSection(String name) {
+		endSection();
+		startSection(name);
+	}
+
+	/**
+	 * Returns the children of the section at the dot separated path, the first
+	 * entry is the section itself
+	 */
+	public List<Result> getProfilingData(String path) {
+		if(!profilingEnabled) {
+			return null;
+		}
+		Section section = rootSection.findChild(path);
+		long rootTime = rootSection.getChild("root").totalTime;
+		if(section == null) {
+			section = rootSection;
+		}
+		long sectionTime = section.totalTime;
+		long childTime = 0l;
+		for(int i = 0; i < section.childCount; ++i) {
+			childTime += section.children[i].totalTime;
+		}
+		if(childTime > sectionTime) {
+			sectionTime = childTime;
+		}
+		if(rootTime < sectionTime) {
+			rootTime = sectionTime;
+		}
+		List<Result> ret = new ArrayList<>(section.childCount + 2);
+		for(int i = 0; i < section.childCount; ++i) {
+			Section child = section.children[i];
+			if(child.totalTime > 0l) {
+				ret.add(new Result(child.name, (double) child.totalTime * 100.0 / (double) sectionTime,
+						(double) child.totalTime * 100.0 / (double) rootTime));
+			}
+		}
+		if(sectionTime > childTime) {
+			ret.add(new Result("unspecified", (double) (sectionTime - childTime) * 100.0 / (double) sectionTime,
+					(double) (sectionTime - childTime) * 100.0 / (double) rootTime));
+		}
+		Collections.sort(ret);
+		ret.add(0, new Result(path, 100.0,
+				rootTime > 0l ? (double) sectionTime * 100.0 / (double) rootTime : 0.0));
+		return ret;
+	}
+
+	public String getNameOfLastSection() {
+		return currentSection.getPath();
+	}
+
+	/**
+	 * Starts recording every completed section for the trace export, also
+	 * enables profiling so it must be called while no section is started
+	 */
+	public void startTrace(int maxEvents) {
+		if(!profilingEnabled) {
+			profilingEnabled = true;
+			clearProfiling();
+		}
+		traceSections = new Section[maxEvents];
+		traceStartTimes = new long[maxEvents];
+		traceDurations = new long[maxEvents];
+		traceCount = 0;
+		traceStartTime = EagRuntime.nanoTime();
+	}
+
+	public boolean isTracing() {
+		return traceSections != null;
+	}
+
+	/**
+	 * Stops recording and returns the recorded sections as Chrome trace event
+	 * JSON, or null if no trace was being recorded
+	 */
+	public String stopTrace(String processName, int processId) {
+		if(traceSections == null) {
+			return null;
+		}
+		StringBuilder ret = new StringBuilder(traceCount * 96 + 256);
+		ret.append("{\"traceEvents\":[{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":").append(processId)
+				.append(",\"tid\":0,\"args\":{\"name\":");
+		appendJSONString(ret, processName);
+		ret.append("}}");
+		for(int i = 0; i < traceCount; ++i) {
+			ret.append(",\n{\"name\":");
+			appendJSONString(ret, traceSections[i].name);
+			ret.append(",\"ph\":\"X\",\"ts\":");
+			appendMicros(ret, traceStartTimes[i] - traceStartTime);
+			ret.append(",\"dur\":");
+			appendMicros(ret, traceDurations[i]);
+			ret.append(",\"pid\":").append(processId).append(",\"tid\":0}");
+		}
+		ret.append("],\"displayTimeUnit\":\"ms\"");
+		if(traceCount == traceSections.length) {
+			ret.append(",\"otherData\":{\"truncated\":true}");
+		}
+		ret.append("}");
+		traceSections = null;
+		traceStartTimes = null;
+		traceDurations = null;
+		traceCount = 0;
+		return ret.toString();
+	}
+
+	private static void appendMicros(StringBuilder builder, long nanos) {
+		builder.append(nanos / 1000l).append('.');
+		int frac = (int) (nanos % 1000l);
+		if(frac < 100) {
+			builder.append(frac < 10 ? "00" : "0");
+		}
+		builder.append(frac);
+	}
+
+	private static void appendJSONString(StringBuilder builder, String str) {
+		builder.append('"');
+		for(int i = 0, l = str.length(); i < l; ++i) {
+			char c = str.charAt(i);
+			if(c == '"' || c == '\\') {
+				builder.append('\\').append(c);
+			}else if(c >= ' ') {
+				builder.append(c);
+			}
+		}
+		builder.append('"');
+	}
+
+	/**
+	 * A node in the section tree, children are looked up by name so section
+	 * names should preferably be constants
+	 */
+	private static class Section {
+
+		private final String name;
+		private final Section parent;
+		private Section[] children = new Section[4];
+		private int childCount;
+		private long startTime;
+		private long totalTime;
+
+		private Section(String name, Section parent) {
+			this.name = name;
+			this.parent = parent;
+		}
+
+		private Section getChild(String name) {
+			for(int i = 0; i < childCount; ++i) {
+				Section section = children[i];
+				if(section.name == name || section.name.equals(name)) {
+					return section;
+				}
+			}
+			if(childCount == children.length) {
+				Section[] newChildren = new Section[childCount << 1];
+				System.arraycopy(children, 0, newChildren, 0, childCount);
+				children = newChildren;
+			}
+			Section section = new Section(name, this);
+			children[childCount++] = section;
+			return section;
+		}
+
+		private Section findChild(String path) {
+			Section section = this;
+			int i = 0;
+			while(section != null && i <= path.length()) {
+				int j = path.indexOf('.', i);
+				if(j == -1) {
+					j = path.length();
+				}
+				String name = path.substring(i, j);
+				Section found = null;
+				for(int k = 0; k < section.childCount; ++k) {
+					if(section.children[k].name.equals(name)) {
+						found = section.children[k];
+						break;
+					}
+				}
+				section = found;
+				i = j + 1;
+			}
+			return section;
+		}
+
+		private String getPath() {
+			return parent == null ? "[UNKNOWN]" : (parent.parent == null ? name : parent.getPath() + "." + name);
+		}
+
+		private void clear() {
+			for(int i = 0; i < childCount; ++i) {
+				children[i] = null;
+			}
+			childCount = 0;
+			totalTime = 0l;
+		}
+
+	}
+
+	public static class Result implements Comparable<Result> {
+
+		public final String name;
+		public final double percentOfParent;
+		public final double percentOfTotal;
+
+		public Result(String name, double percentOfParent, double percentOfTotal) {
+			this.name = name;
+			this.percentOfParent = percentOfParent;
+			this.percentOfTotal = percentOfTotal;
+		}
+
+		@Override
+		public int compareTo(Result other) {
+			return other.percentOfParent < percentOfParent ? -1
+					: (other.percentOfParent > percentOfParent ? 1 : other.name.compareTo(name));
+		}
+
+		/**
+		 * Pie chart color, generated from the hash code of the name
+		 */
+		public int getColor() {
+			return (name.hashCode() & 11184810) + 4473924;
+		}
+
+	}
+
+}
@@ -61,6 +61,8 @@ public class ConnectionHandshake {
 	public static String pluginVersion = null;
 	public static String pluginBrand = null;
 	public static int protocolVersion = -1;
+	public static int framingFlags = 0;
+	public static int framingCompressionThreshold = -1;
 	
 	public static byte[] getSPHandshakeProtocolData() {
 		try {
@@ -84,6 +86,8 @@ public class ConnectionHandshake {
 			pluginVersion = null;
 			pluginBrand = null;
 			protocolVersion = -1;
+			framingFlags = 0;
+			framingCompressionThreshold = -1;
 			EaglerOutputStream bao = new EaglerOutputStream();
 			DataOutputStream d = new DataOutputStream(bao);
 			
@@ -322,6 +326,12 @@ public class ConnectionHandshake {
 						d.writeLong(EaglercraftVersion.clientBrandUUID.msb);
 						d.writeLong(EaglercraftVersion.clientBrandUUID.lsb);
 						profileDataToSend.put("brand_uuid_v1", bao.toByteArray());
+						
+						bao.reset();
+						d.writeByte(HandshakePacketTypes.FRAMING_VERSION);
+						d.writeByte(HandshakePacketTypes.FRAMING_DEFLATE
+								| (mc.gameSettings.networkPacketBatching ? HandshakePacketTypes.FRAMING_BATCHING : 0));
+						profileDataToSend.put(HandshakePacketTypes.FRAMING_PROFILE_DATA, bao.toByteArray());
 					}
 					
 					byte[] packetSkin = EaglerProfile.getSkinPacket(protocolVersion);
@@ -396,6 +406,11 @@ public class ConnectionHandshake {
 					di = new DataInputStream(new EaglerInputStream(read));
 					type = di.read();
 					if(type == HandshakePacketTypes.PROTOCOL_SERVER_FINISH_LOGIN) {
+						if(protocolVersion >= protocolV4 && di.available() >= 5) {
+							// servers that don't understand framing_v1 send nothing here
+							framingFlags = di.read() & (HandshakePacketTypes.FRAMING_DEFLATE | HandshakePacketTypes.FRAMING_BATCHING);
+							framingCompressionThreshold = di.readInt();
+						}
 						return true;
 					}else if(type == HandshakePacketTypes.PROTOCOL_SERVER_ERROR) {
 						showError(mc, client, connecting, ret, di, protocolVersion == protocolV2);
@@ -7,6 +7,7 @@ import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
 import net.lax1dude.eaglercraft.v1_8.netty.Unpooled;
 import net.minecraft.network.EnumConnectionState;
+import net.minecraft.network.EnumPacketDirection;
 import net.minecraft.network.INetHandler;
 import net.minecraft.network.Packet;
 import net.minecraft.network.PacketBuffer;
@@ -35,6 +36,9 @@ public abstract class EaglercraftNetworkManager {
 	protected final PacketBuffer temporaryBuffer;
 	protected int debugPacketCounter = 0;
 	
+	private EnumConnectionState packetPoolState = null;
+	private Packet[] packetPool = null;
+	
 	protected String pluginBrand = null;
 	protected String pluginVersion = null;
 	
@@ -74,6 +78,29 @@ public abstract class EaglercraftNetworkManager {
 	
 	public abstract void processReceivedPackets() throws IOException;
 
+	/**
+	 * Returns a clientbound packet instance to read the next frame into, packets
+	 * that implement IPooledPacket are only constructed once per connection state
+	 */
+	protected Packet getRecievedPacketInstance(int pktId) {
+		if(packetPoolState != packetState) {
+			packetPoolState = packetState;
+			packetPool = new Packet[packetState.getPacketCount(EnumPacketDirection.CLIENTBOUND)];
+		}
+		if(pktId >= 0 && pktId < packetPool.length) {
+			Packet pkt = packetPool[pktId];
+			if(pkt == null) {
+				pkt = packetState.createPacket(EnumPacketDirection.CLIENTBOUND, pktId);
+				if(pkt instanceof IPooledPacket) {
+					packetPool[pktId] = pkt;
+				}
+			}
+			return pkt;
+		}else {
+			return null;
+		}
+	}
+
 	public abstract void sendPacket(Packet pkt);
 	
 	public void setNetHandler(INetHandler nethandler) {
@@ -96,6 +123,9 @@ public abstract class EaglercraftNetworkManager {
 		throw new CompressionNotSupportedException();
 	}
 
+	public void flushSendQueue() {
+	}
+
 	public abstract boolean checkDisconnected();
 	
 	protected boolean clientDisconnected = false;
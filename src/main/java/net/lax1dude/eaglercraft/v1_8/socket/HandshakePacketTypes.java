@@ -45,6 +45,11 @@ public class HandshakePacketTypes {
 	public static final int SERVER_ERROR_CUSTOM_MESSAGE = 0x08;
 	public static final int SERVER_ERROR_AUTHENTICATION_REQUIRED = 0x09;
 
+	public static final String FRAMING_PROFILE_DATA = "framing_v1";
+	public static final int FRAMING_VERSION = 0x01;
+	public static final int FRAMING_DEFLATE = 0x01;
+	public static final int FRAMING_BATCHING = 0x02;
+
 	public static final int AUTH_METHOD_NONE = 0x0;
 	public static final int AUTH_METHOD_EAGLER_SHA256 = 0x01;
 	public static final int AUTH_METHOD_AUTHME_SHA256 = 0x02;
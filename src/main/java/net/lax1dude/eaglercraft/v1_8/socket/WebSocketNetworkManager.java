@@ -1,13 +1,18 @@
 package net.lax1dude.eaglercraft.v1_8.socket;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
+import net.lax1dude.eaglercraft.v1_8.EaglerInputStream;
+import net.lax1dude.eaglercraft.v1_8.EaglerZLIB;
 import net.lax1dude.eaglercraft.v1_8.internal.EnumEaglerConnectionState;
 import net.lax1dude.eaglercraft.v1_8.internal.IWebSocketClient;
 import net.lax1dude.eaglercraft.v1_8.internal.IWebSocketFrame;
-import net.lax1dude.eaglercraft.v1_8.netty.ByteBuf;
+import net.lax1dude.eaglercraft.v1_8.netty.ByteBufOutputStream;
 import net.lax1dude.eaglercraft.v1_8.netty.Unpooled;
+import net.minecraft.network.EnumConnectionState;
 import net.minecraft.network.EnumPacketDirection;
 import net.minecraft.network.Packet;
 import net.minecraft.network.PacketBuffer;
@@ -31,11 +36,65 @@ import net.minecraft.util.IChatComponent;
  */
 public class WebSocketNetworkManager extends EaglercraftNetworkManager {
 
+	/**
+	 * When framing is negotiated during the handshake every frame sent after
+	 * the handshake starts with a flags byte, in every protocol state. A
+	 * compressed frame continues with the uncompressed length as a VarInt
+	 * followed by the zlib stream, a batched frame contains multiple packets
+	 * that are each prefixed by their length. Packets are only batched in the
+	 * play state
+	 */
+	public static final int FRAME_FLAG_COMPRESSED = 0x01;
+	public static final int FRAME_FLAG_BATCHED = 0x02;
+
+	public static final int MAX_BATCH_SIZE = 0x7FFF;
+
 	protected final IWebSocketClient webSocketClient;
+	protected final PacketBuffer inputBuffer;
+
+	protected boolean framingEnabled = false;
+	protected boolean compressionEnabled = false;
+	protected boolean batchingEnabled = false;
+	protected int compressionThreshold = -1;
+
+	protected PacketBuffer batchBuffer = null;
+	protected int batchCount = 0;
+	protected PacketBuffer compressBuffer = null;
+	protected ByteBufOutputStream compressStream = null;
+
+	protected long wireBytesIn = 0l;
+	protected long rawBytesIn = 0l;
+	protected long wireBytesOut = 0l;
+	protected long rawBytesOut = 0l;
+	protected boolean hasLoggedStats = false;
 
 	public WebSocketNetworkManager(IWebSocketClient webSocketClient) {
 		super(webSocketClient.getCurrentURI());
 		this.webSocketClient = webSocketClient;
+		this.inputBuffer = new PacketBuffer(Unpooled.buffer(0x1FFFF));
+	}
+
+	/**
+	 * Enables the frame header negotiated in the handshake, flags are the
+	 * HandshakePacketTypes.FRAMING_* bits the server accepted
+	 */
+	public void setNegotiatedFraming(int flags, int threshold) {
+		framingEnabled = flags != 0;
+		compressionEnabled = (flags & HandshakePacketTypes.FRAMING_DEFLATE) != 0;
+		batchingEnabled = (flags & HandshakePacketTypes.FRAMING_BATCHING) != 0;
+		compressionThreshold = compressionEnabled ? threshold : -1;
+		if(batchingEnabled && batchBuffer == null) {
+			batchBuffer = new PacketBuffer(Unpooled.buffer(MAX_BATCH_SIZE + 1));
+		}
+		if(compressionEnabled && compressBuffer == null) {
+			compressBuffer = new PacketBuffer(Unpooled.buffer(0x1FFFF));
+			compressStream = new ByteBufOutputStream(compressBuffer);
+		}
+		if(framingEnabled) {
+			logger.info("Negotiated websocket framing: compression {} (threshold {}), batching {}",
+					compressionEnabled ? "enabled" : "disabled", compressionThreshold,
+					batchingEnabled ? "enabled" : "disabled");
+		}
 	}
 
 	public void connect() {
@@ -47,13 +106,30 @@ public class WebSocketNetworkManager extends EaglercraftNetworkManager {
 
 	public void closeChannel(IChatComponent reason) {
 		webSocketClient.close();
+		logStats();
 		if(nethandler != null) {
 			nethandler.onDisconnect(reason);
 		}
 		clientDisconnected = true;
 	}
 
+	@Override
+	public void setCompressionTreshold(int compressionTreshold) {
+		if(!compressionEnabled) {
+			throw new CompressionNotSupportedException();
+		}
+		this.compressionThreshold = compressionTreshold;
+	}
+
 	public void processReceivedPackets() throws IOException {
+		try {
+			processReceivedFrames();
+		}finally {
+			flushSendQueue();
+		}
+	}
+
+	private void processReceivedFrames() throws IOException {
 		if(nethandler == null) return;
 		if(webSocketClient.availableStringFrames() > 0) {
 			logger.warn("discarding {} string frames recieved on a binary connection", webSocketClient.availableStringFrames());
@@ -69,36 +145,39 @@ public class WebSocketNetworkManager extends EaglercraftNetworkManager {
 			IWebSocketFrame next = pkts.get(i);
 			++debugPacketCounter;
 			try {
-				byte[] asByteArray = next.getByteArray();
-				ByteBuf nettyBuffer = Unpooled.buffer(asByteArray, asByteArray.length);
-				nettyBuffer.writerIndex(asByteArray.length);
-				PacketBuffer input = new PacketBuffer(nettyBuffer);
-				int pktId = input.readVarIntFromBuffer();
-				
-				Packet pkt;
-				try {
-					pkt = packetState.getPacket(EnumPacketDirection.CLIENTBOUND, pktId);
-				}catch(IllegalAccessException | InstantiationException ex) {
-					throw new IOException("Recieved a packet with type " + pktId + " which is invalid!");
-				}
-				
-				if(pkt == null) {
-					throw new IOException("Recieved packet type " + pktId + " which is undefined in state " + packetState);
+				byte[] frame = next.getByteArray();
+				PacketBuffer input = inputBuffer;
+				input.clear();
+				wireBytesIn += frame.length;
+				if(!framingEnabled) {
+					input.writeBytes(frame);
+					rawBytesIn += frame.length;
+					processPacketData(input);
+				}else {
+					int flags = readFrame(frame, input);
+					rawBytesIn += input.readableBytes();
+					if((flags & FRAME_FLAG_BATCHED) != 0) {
+						int end = input.writerIndex();
+						while(input.readerIndex() < end) {
+							int len = input.readVarIntFromBuffer();
+							int pktEnd = input.readerIndex() + len;
+							if(len < 0 || pktEnd > end) {
+								throw new IOException("Batched packet length " + len + " is out of bounds!");
+							}
+							input.writerIndex(pktEnd);
+							try {
+								processPacketData(input);
+							}catch(Throwable t) {
+								logger.error("Failed to process batched packet in websocket frame {}! It'll be skipped for debug purposes.", debugPacketCounter);
+								logger.error(t);
+							}
+							input.writerIndex(end);
+							input.readerIndex(pktEnd);
+						}
+					}else {
+						processPacketData(input);
+					}
 				}
-				
-				try {
-					pkt.readPacketData(input);
-				}catch(Throwable t) {
-					throw new IOException("Failed to read packet type '" + pkt.getClass().getSimpleName() + "'", t);
-				}
-				
-				try {
-					pkt.processPacket(nethandler);
-				}catch(Throwable t) {
-					logger.error("Failed to process {}! It'll be skipped for debug purposes.", pkt.getClass().getSimpleName());
-					logger.error(t);
-				}
-				
 			}catch(Throwable t) {
 				logger.error("Failed to process websocket frame {}! It'll be skipped for debug purposes.", debugPacketCounter);
 				logger.error(t);
@@ -106,6 +185,66 @@ public class WebSocketNetworkManager extends EaglercraftNetworkManager {
 		}
 	}
 
+	private int readFrame(byte[] frame, PacketBuffer output) throws IOException {
+		if(frame.length == 0) {
+			throw new IOException("Recieved an empty websocket frame!");
+		}
+		int flags = frame[0] & 0xFF;
+		if((flags & FRAME_FLAG_COMPRESSED) != 0) {
+			int len = 0;
+			int j = 1;
+			int shift = 0;
+			byte b;
+			do {
+				if(j >= frame.length || shift > 28) {
+					throw new IOException("Compressed frame has an invalid length header!");
+				}
+				b = frame[j++];
+				len |= (b & 0x7F) << shift;
+				shift += 7;
+			}while((b & 0x80) != 0);
+			if(len < 0 || len > 0x200000) {
+				throw new IOException("Compressed frame is too large: " + len);
+			}
+			try(InputStream is = EaglerZLIB.newInflaterInputStream(new EaglerInputStream(frame, j, frame.length - j))) {
+				int remaining = len;
+				while(remaining > 0) {
+					int k = output.writeBytes(is, remaining);
+					if(k <= 0) {
+						throw new IOException("Compressed frame ended " + remaining + " bytes early!");
+					}
+					remaining -= k;
+				}
+			}
+		}else {
+			output.writeBytes(frame, 1, frame.length - 1);
+		}
+		return flags;
+	}
+
+	private void processPacketData(PacketBuffer input) throws IOException {
+		int pktId = input.readVarIntFromBuffer();
+		
+		Packet pkt = getRecievedPacketInstance(pktId);
+		
+		if(pkt == null) {
+			throw new IOException("Recieved packet type " + pktId + " which is undefined in state " + packetState);
+		}
+		
+		try {
+			pkt.readPacketData(input);
+		}catch(Throwable t) {
+			throw new IOException("Failed to read packet type '" + pkt.getClass().getSimpleName() + "'", t);
+		}
+		
+		try {
+			pkt.processPacket(nethandler);
+		}catch(Throwable t) {
+			logger.error("Failed to process {}! It'll be skipped for debug purposes.", pkt.getClass().getSimpleName());
+			logger.error(t);
+		}
+	}
+
 	public void sendPacket(Packet pkt) {
 		if(!isChannelOpen()) {
 			logger.error("Packet was sent on a closed connection: {}", pkt.getClass().getSimpleName());
@@ -121,6 +260,9 @@ public class WebSocketNetworkManager extends EaglercraftNetworkManager {
 		}
 		
 		temporaryBuffer.clear();
+		if(framingEnabled) {
+			temporaryBuffer.writeByte(0); // reserved for the frame header
+		}
 		temporaryBuffer.writeVarIntToBuffer(i);
 		try {
 			pkt.writePacketData(temporaryBuffer);
@@ -129,11 +271,110 @@ public class WebSocketNetworkManager extends EaglercraftNetworkManager {
 			return;
 		}
 		
-		int len = temporaryBuffer.writerIndex();
-		byte[] bytes = new byte[len];
-		temporaryBuffer.getBytes(0, bytes);
+		if(!framingEnabled) {
+			int len = temporaryBuffer.writerIndex();
+			rawBytesOut += len;
+			wireBytesOut += len;
+			webSocketClient.send(temporaryBuffer.array(), 0, len);
+			return;
+		}
 		
-		webSocketClient.send(bytes);
+		int len = temporaryBuffer.writerIndex() - 1;
+		if(batchingEnabled && packetState == EnumConnectionState.PLAY) {
+			if(batchCount > 0 && batchBuffer.writerIndex() + len + 5 > MAX_BATCH_SIZE) {
+				flushSendQueue();
+			}
+			if(batchCount == 0) {
+				batchBuffer.clear();
+				batchBuffer.writeByte(0); // reserved for the frame header
+			}
+			batchBuffer.writeVarIntToBuffer(len);
+			batchBuffer.writeBytes(temporaryBuffer, 1, len);
+			++batchCount;
+		}else {
+			sendFrame(0, temporaryBuffer.array(), 1, len);
+		}
+	}
+
+	/**
+	 * Sends the packets that were batched since the last call, called every
+	 * time received packets are processed and once per frame after the game
+	 * has ticked
+	 */
+	@Override
+	public void flushSendQueue() {
+		if(batchCount == 0) {
+			return;
+		}
+		int cnt = batchCount;
+		batchCount = 0;
+		if(!isChannelOpen()) {
+			return;
+		}
+		byte[] arr = batchBuffer.array();
+		if(cnt == 1) {
+			// a single packet does not need the batch header
+			int off = 1;
+			int len = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = arr[off++];
+				len |= (b & 0x7F) << shift;
+				shift += 7;
+			}while((b & 0x80) != 0);
+			sendFrame(0, arr, off, len);
+		}else {
+			sendFrame(FRAME_FLAG_BATCHED, arr, 1, batchBuffer.writerIndex() - 1);
+		}
+	}
+
+	/**
+	 * Sends data that has one spare byte before it for the frame header
+	 */
+	private void sendFrame(int flags, byte[] data, int off, int len) {
+		rawBytesOut += len;
+		if(compressionEnabled && compressionThreshold >= 0 && len >= compressionThreshold) {
+			compressBuffer.clear();
+			compressBuffer.writeByte(flags | FRAME_FLAG_COMPRESSED);
+			compressBuffer.writeVarIntToBuffer(len);
+			try(OutputStream os = EaglerZLIB.newDeflaterOutputStream(compressStream)) {
+				os.write(data, off, len);
+			}catch(IOException ex) {
+				logger.error("Failed to compress {} byte frame!", len);
+				compressBuffer.clear();
+			}
+			int compLen = compressBuffer.writerIndex();
+			if(compLen > 0 && compLen < len + 1) {
+				wireBytesOut += compLen;
+				webSocketClient.send(compressBuffer.array(), 0, compLen);
+				return;
+			}
+		}
+		data[off - 1] = (byte)flags;
+		wireBytesOut += len + 1;
+		webSocketClient.send(data, off - 1, len + 1);
+	}
+
+	/**
+	 * Returns the number of bytes recieved on the socket divided by the number
+	 * of bytes after decompression, 1.0 if nothing was compressed
+	 */
+	public float getCompressionRatioIn() {
+		return rawBytesIn > 0l ? (float)((double)wireBytesIn / (double)rawBytesIn) : 1.0f;
+	}
+
+	public float getCompressionRatioOut() {
+		return rawBytesOut > 0l ? (float)((double)wireBytesOut / (double)rawBytesOut) : 1.0f;
+	}
+
+	protected void logStats() {
+		if(!hasLoggedStats && framingEnabled) {
+			hasLoggedStats = true;
+			logger.info("Connection to {}: recieved {} KiB ({} KiB uncompressed, {}%), sent {} KiB ({} KiB uncompressed, {}%)",
+					address, wireBytesIn / 1024l, rawBytesIn / 1024l, (int)(getCompressionRatioIn() * 100.0f),
+					wireBytesOut / 1024l, rawBytesOut / 1024l, (int)(getCompressionRatioOut() * 100.0f));
+		}
 	}
 
 	public boolean checkDisconnected() {
@@ -142,6 +383,7 @@ public class WebSocketNetworkManager extends EaglercraftNetworkManager {
 				processReceivedPackets(); // catch kick message
 			} catch (IOException e) {
 			}
+			logStats();
 			doClientDisconnect(new ChatComponentTranslation("disconnect.endOfStream"));
 			return true;
 		}else {
@@ -1,6 +1,7 @@
 package net.lax1dude.eaglercraft.v1_8.sp;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -24,6 +25,7 @@ import net.lax1dude.eaglercraft.v1_8.sp.internal.ClientPlatformSingleplayer;
 import net.lax1dude.eaglercraft.v1_8.sp.ipc.*;
 import net.lax1dude.eaglercraft.v1_8.sp.lan.LANServerController;
 import net.lax1dude.eaglercraft.v1_8.sp.socket.ClientIntegratedServerNetworkManager;
+import net.lax1dude.eaglercraft.v1_8.sp.socket.DirectPacketData;
 import net.minecraft.client.Minecraft;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.IProgressUpdate;
@@ -70,6 +72,8 @@ public class SingleplayerServerController implements ISaveFormat {
 	private static boolean isPaused = false;
 	private static List<String> integratedServerTPS = new ArrayList<>();
 	private static long integratedServerLastTPSUpdate = 0;
+	private static String profilerTraceName = null;
+	private static StringBuilder profilerTraceData = null;
 	public static final ClientIntegratedServerNetworkManager localPlayerNetworkManager = new ClientIntegratedServerNetworkManager(PLAYER_CHANNEL);
 	private static final List<String> openLANChannels = new ArrayList<>();
 
@@ -199,7 +203,7 @@ public class SingleplayerServerController implements ISaveFormat {
 		}
 	}
 
-	public static void launchEaglercraftServer(String folderName, int difficulty, int viewDistance, WorldSettings settings) {
+	public static void launchEaglercraftServer(String folderName, int difficulty, int viewDistance, WorldSettings settings, boolean batchedLighting, int terrainGenThreads) {
 		ensureReady();
 		clearTPS();
 		if(settings != null) {
@@ -210,7 +214,7 @@ public class SingleplayerServerController implements ISaveFormat {
 		}
 		statusState = IntegratedServerState.WORLD_LOADING;
 		worldStatusProgress = 0.0f;
-		sendIPCPacket(new IPCPacket00StartServer(folderName, EaglerProfile.getName(), difficulty, viewDistance, EagRuntime.getConfiguration().isDemo()));
+		sendIPCPacket(new IPCPacket00StartServer(folderName, EaglerProfile.getName(), difficulty, viewDistance, EagRuntime.getConfiguration().isDemo(), batchedLighting, terrainGenThreads));
 	}
 
 	public static void clearTPS() { 
@@ -283,7 +287,13 @@ public class SingleplayerServerController implements ISaveFormat {
 					handleIPCPacket(ipc);
 				}else if(packetData.channel.equals(SingleplayerServerController.PLAYER_CHANNEL)) {
 					if(localPlayerNetworkManager.getConnectStatus() != EnumEaglerConnectionState.CLOSED) {
-						localPlayerNetworkManager.addRecievedPacket(packetData.contents);
+						if(packetData instanceof DirectPacketData) {
+							localPlayerNetworkManager.addRecievedPacket(((DirectPacketData)packetData).packet);
+						}else {
+							localPlayerNetworkManager.addRecievedPacket(packetData.contents);
+						}
+					}else if(packetData instanceof DirectPacketData) {
+						logger.warn("Recieved {} on closed local player connection", ((DirectPacketData)packetData).packet.getClass().getSimpleName());
 					}else {
 						logger.warn("Recieved {} byte packet on closed local player connection", packetData.contents.length);
 					}
@@ -424,7 +434,11 @@ public class SingleplayerServerController implements ISaveFormat {
 		}
 		case IPCPacket1ALoggerMessage.ID: {
 			IPCPacket1ALoggerMessage pkt = (IPCPacket1ALoggerMessage)ipc;
-			PlatformApplication.addLogMessage(pkt.logMessage, pkt.isError);
+			if(pkt.logMessage.startsWith(IPCPacket1ALoggerMessage.TRACE_PREFIX)) {
+				handleProfilerTraceMessage(pkt.logMessage);
+			}else {
+				PlatformApplication.addLogMessage(pkt.logMessage, pkt.isError);
+			}
 			break;
 		}
 		case IPCPacket1CIssueDetected.ID: {
@@ -437,6 +451,22 @@ public class SingleplayerServerController implements ISaveFormat {
 		}
 	}
 
+	private static void handleProfilerTraceMessage(String msg) {
+		if(msg.startsWith(IPCPacket1ALoggerMessage.TRACE_BEGIN)) {
+			profilerTraceName = msg.substring(IPCPacket1ALoggerMessage.TRACE_BEGIN.length());
+			profilerTraceData = new StringBuilder();
+		}else if(profilerTraceData != null) {
+			if(msg.startsWith(IPCPacket1ALoggerMessage.TRACE_DATA)) {
+				profilerTraceData.append(msg, IPCPacket1ALoggerMessage.TRACE_DATA.length(), msg.length());
+			}else if(msg.equals(IPCPacket1ALoggerMessage.TRACE_END)) {
+				logger.info("Saving integrated server profiler trace as \"{}\"", profilerTraceName);
+				EagRuntime.downloadFileWithName(profilerTraceName, profilerTraceData.toString().getBytes(StandardCharsets.UTF_8));
+				profilerTraceName = null;
+				profilerTraceData = null;
+			}
+		}
+	}
+
 	public static void sendIPCPacket(IPCPacketBase ipc) {
 		byte[] pkt;
 		try {
@@ -28,16 +28,20 @@ public class IPCPacket00StartServer implements IPCPacketBase {
 	public int initialDifficulty;
 	public int initialViewDistance;
 	public boolean demoMode;
+	public boolean batchedLighting;
+	public int terrainGenThreads;
 	
 	public IPCPacket00StartServer() {
 	}
 	
-	public IPCPacket00StartServer(String worldName, String ownerName, int initialDifficulty, int initialViewDistance, boolean demoMode) {
+	public IPCPacket00StartServer(String worldName, String ownerName, int initialDifficulty, int initialViewDistance, boolean demoMode, boolean batchedLighting, int terrainGenThreads) {
 		this.worldName = worldName;
 		this.ownerName = ownerName;
 		this.initialDifficulty = initialDifficulty;
 		this.initialViewDistance = initialViewDistance;
 		this.demoMode = demoMode;
+		this.batchedLighting = batchedLighting;
+		this.terrainGenThreads = terrainGenThreads;
 	}
 
 	@Override
@@ -47,6 +51,8 @@ public class IPCPacket00StartServer implements IPCPacketBase {
 		initialDifficulty = bin.readByte();
 		initialViewDistance = bin.readByte();
 		demoMode = bin.readBoolean();
+		batchedLighting = bin.readBoolean();
+		terrainGenThreads = bin.readByte();
 	}
 
 	@Override
@@ -56,6 +62,8 @@ public class IPCPacket00StartServer implements IPCPacketBase {
 		bin.writeByte(initialDifficulty);
 		bin.writeByte(initialViewDistance);
 		bin.writeBoolean(demoMode);
+		bin.writeBoolean(batchedLighting);
+		bin.writeByte(terrainGenThreads);
 	}
 
 	@Override
@@ -65,7 +73,7 @@ public class IPCPacket00StartServer implements IPCPacketBase {
 
 	@Override
 	public int size() {
-		return IPCPacketBase.strLen(worldName) + IPCPacketBase.strLen(ownerName) + 3;
+		return IPCPacketBase.strLen(worldName) + IPCPacketBase.strLen(ownerName) + 5;
 	}
 
 }
@@ -23,6 +23,14 @@ public class IPCPacket1ALoggerMessage implements IPCPacketBase {
 	
 	public static final int ID = 0x1A;
 
+	/**
+	 * Messages with this prefix carry a profiler trace file in chunks instead of a log line
+	 */
+	public static final String TRACE_PREFIX = "\u0000trace";
+	public static final String TRACE_BEGIN = TRACE_PREFIX + "-begin:";
+	public static final String TRACE_DATA = TRACE_PREFIX + "-data:";
+	public static final String TRACE_END = TRACE_PREFIX + "-end";
+
 	public String logMessage;
 	public boolean isError;
 	
@@ -0,0 +1,118 @@
+package net.lax1dude.eaglercraft.v1_8.sp.server;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import net.minecraft.network.play.server.S21PacketChunkData;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.chunk.Chunk;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class ChunkPacketCache {
+
+	/**
+	 * Keeps the encoded section data of recently sent chunks so that players
+	 * walking into the same area do not each pay for re-serializing it. An entry
+	 * is reused only while the chunk's modification count is unchanged, the
+	 * count covers block, light and biome edits regardless of whether anyone
+	 * is watching the chunk at the time.
+	 */
+
+	public static final int DEFAULT_CAPACITY_BYTES = 8 * 1024 * 1024;
+
+	private final LinkedHashMap<Long, CachedChunk> cache = new LinkedHashMap<>(64, 0.75f, true);
+	private final int capacityBytes;
+	private int sizeBytes = 0;
+
+	public ChunkPacketCache() {
+		this(DEFAULT_CAPACITY_BYTES);
+	}
+
+	public ChunkPacketCache(int capacityBytes) {
+		this.capacityBytes = capacityBytes;
+	}
+
+	public S21PacketChunkData.Extracted getExtracted(Chunk chunk, boolean full, boolean sky, int mask) {
+		if (!full || (mask & 0xFFFF) == 0) {
+			return S21PacketChunkData.func_179756_a(chunk, full, sky, mask);
+		}
+		Long key = ChunkCoordIntPair.chunkXZ2Int(chunk.xPosition, chunk.zPosition);
+		int flags = (mask & 0xFFFF) | (sky ? 0x10000 : 0);
+		CachedChunk entry = cache.get(key);
+		if (entry != null) {
+			if (entry.chunk == chunk && entry.version == chunk.getModificationCount() && entry.flags == flags) {
+				++EaglerMinecraftServer.counterChunkPacketHit;
+				EaglerMinecraftServer.counterChunkPacketBytesSaved += entry.extracted.data.length;
+				return entry.extracted;
+			}
+			cache.remove(key);
+			sizeBytes -= entry.extracted.data.length;
+		}
+		++EaglerMinecraftServer.counterChunkPacketMiss;
+		S21PacketChunkData.Extracted extracted = S21PacketChunkData.func_179756_a(chunk, full, sky, mask);
+		int len = extracted.data.length;
+		if (len <= capacityBytes) {
+			cache.put(key, new CachedChunk(chunk, chunk.getModificationCount(), flags, extracted));
+			sizeBytes += len;
+			if (sizeBytes > capacityBytes) {
+				Iterator<CachedChunk> itr = cache.values().iterator();
+				while (sizeBytes > capacityBytes && itr.hasNext()) {
+					sizeBytes -= itr.next().extracted.data.length;
+					itr.remove();
+				}
+			}
+		}
+		return extracted;
+	}
+
+	public void remove(int chunkX, int chunkZ) {
+		CachedChunk entry = cache.remove(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+		if (entry != null) {
+			sizeBytes -= entry.extracted.data.length;
+		}
+	}
+
+	public void clear() {
+		cache.clear();
+		sizeBytes = 0;
+	}
+
+	public int size() {
+		return cache.size();
+	}
+
+	public int getSizeBytes() {
+		return sizeBytes;
+	}
+
+	private static class CachedChunk {
+
+		private final Chunk chunk;
+		private final int version;
+		private final int flags;
+		private final S21PacketChunkData.Extracted extracted;
+
+		private CachedChunk(Chunk chunk, int version, int flags, S21PacketChunkData.Extracted extracted) {
+			this.chunk = chunk;
+			this.version = version;
+			this.flags = flags;
+			this.extracted = extracted;
+		}
+
+	}
+
+}
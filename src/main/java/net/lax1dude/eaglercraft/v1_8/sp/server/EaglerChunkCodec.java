@@ -0,0 +1,503 @@
+package net.lax1dude.eaglercraft.v1_8.sp.server;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
+import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class EaglerChunkCodec {
+
+	/**
+	 * Reads and writes the same NBT layout as AnvilChunkLoader but streams the
+	 * block, light, biome and heightmap arrays straight between the data stream
+	 * and the chunk's sections instead of building a tag tree for them. Only
+	 * the entities, tile entities and tile ticks are still passed around as
+	 * tags. Instances keep scratch buffers and are not thread safe.
+	 */
+
+	private static final Logger logger = LogManager.getLogger("EaglerChunkCodec");
+
+	private static final byte TAG_END = 0;
+	private static final byte TAG_BYTE = 1;
+	private static final byte TAG_SHORT = 2;
+	private static final byte TAG_INT = 3;
+	private static final byte TAG_LONG = 4;
+	private static final byte TAG_FLOAT = 5;
+	private static final byte TAG_DOUBLE = 6;
+	private static final byte TAG_BYTE_ARRAY = 7;
+	private static final byte TAG_STRING = 8;
+	private static final byte TAG_LIST = 9;
+	private static final byte TAG_COMPOUND = 10;
+	private static final byte TAG_INT_ARRAY = 11;
+
+	private final byte[] blocks = new byte[4096];
+	private final byte[] data = new byte[2048];
+	private final byte[] add = new byte[2048];
+	private final byte[] blockLight = new byte[2048];
+	private final byte[] skyLight = new byte[2048];
+	private final byte[] biomes = new byte[256];
+	private final int[] heightMap = new int[256];
+
+	/**
+	 * Writes the chunk as a complete root compound, extra holds the tags written
+	 * by AnvilChunkLoader.writeChunkEntitiesToNBT and is copied into the level
+	 */
+	public void writeChunk(Chunk chunk, World world, NBTTagCompound extra, DataOutput out) throws IOException {
+		out.writeByte(TAG_COMPOUND);
+		out.writeUTF("");
+		writeKey(TAG_COMPOUND, "Level", out);
+		writeKey(TAG_BYTE, "V", out);
+		out.writeByte(1);
+		writeKey(TAG_INT, "xPos", out);
+		out.writeInt(chunk.xPosition);
+		writeKey(TAG_INT, "zPos", out);
+		out.writeInt(chunk.zPosition);
+		writeKey(TAG_LONG, "LastUpdate", out);
+		out.writeLong(world.getTotalWorldTime());
+		int[] hm = chunk.getHeightMap();
+		writeKey(TAG_INT_ARRAY, "HeightMap", out);
+		out.writeInt(hm.length);
+		for(int i = 0; i < hm.length; ++i) {
+			out.writeInt(hm[i]);
+		}
+		writeKey(TAG_BYTE, "TerrainPopulated", out);
+		out.writeByte(chunk.isTerrainPopulated() ? 1 : 0);
+		writeKey(TAG_BYTE, "LightPopulated", out);
+		out.writeByte(chunk.isLightPopulated() ? 1 : 0);
+		writeKey(TAG_LONG, "InhabitedTime", out);
+		out.writeLong(chunk.getInhabitedTime());
+
+		ExtendedBlockStorage[] sections = chunk.getBlockStorageArray();
+		boolean sky = !world.provider.getHasNoSky();
+		int cnt = 0;
+		for(int i = 0; i < sections.length; ++i) {
+			if(sections[i] != null) {
+				++cnt;
+			}
+		}
+		writeKey(TAG_LIST, "Sections", out);
+		out.writeByte(cnt > 0 ? TAG_COMPOUND : TAG_END);
+		out.writeInt(cnt);
+		for(int i = 0; i < sections.length; ++i) {
+			ExtendedBlockStorage section = sections[i];
+			if(section != null) {
+				writeSection(section, sky, out);
+			}
+		}
+
+		byte[] b = chunk.getBiomeArray();
+		writeKey(TAG_BYTE_ARRAY, "Biomes", out);
+		out.writeInt(b.length);
+		out.write(b);
+
+		for(String key : extra.getKeySet()) {
+			NBTBase tag = extra.getTag(key);
+			writeKey(tag.getId(), key, out);
+			CompressedStreamTools.writeTagPayload(tag, out);
+		}
+
+		out.writeByte(TAG_END);
+		out.writeByte(TAG_END);
+	}
+
+	private void writeSection(ExtendedBlockStorage section, boolean sky, DataOutput out) throws IOException {
+		char[] chars = section.getData();
+		boolean hasAdd = false;
+		for(int i = 0; i < 4096; i += 2) {
+			char c0 = chars[i];
+			char c1 = chars[i + 1];
+			blocks[i] = (byte) (c0 >> 4);
+			blocks[i + 1] = (byte) (c1 >> 4);
+			data[i >> 1] = (byte) ((c0 & 15) | (c1 & 15) << 4);
+			int a = (c0 >> 12) | (c1 >> 12) << 4;
+			add[i >> 1] = (byte) a;
+			hasAdd |= a != 0;
+		}
+		writeKey(TAG_BYTE, "Y", out);
+		out.writeByte(section.getYLocation() >> 4 & 255);
+		writeKey(TAG_BYTE_ARRAY, "Blocks", out);
+		out.writeInt(4096);
+		out.write(blocks);
+		writeKey(TAG_BYTE_ARRAY, "Data", out);
+		out.writeInt(2048);
+		out.write(data);
+		if(hasAdd) {
+			writeKey(TAG_BYTE_ARRAY, "Add", out);
+			out.writeInt(2048);
+			out.write(add);
+		}
+		writeKey(TAG_BYTE_ARRAY, "BlockLight", out);
+		out.writeInt(2048);
+		out.write(section.getBlocklightArray().getData());
+		writeKey(TAG_BYTE_ARRAY, "SkyLight", out);
+		out.writeInt(2048);
+		if(sky) {
+			out.write(section.getSkylightArray().getData());
+		}else {
+			for(int i = 0; i < 2048; ++i) {
+				out.writeByte(0);
+			}
+		}
+		out.writeByte(TAG_END);
+	}
+
+	/**
+	 * Reads a chunk written by writeChunk or by the tag based writer, the tags
+	 * that have to be passed to AnvilChunkLoader.readChunkEntitiesFromNBT are
+	 * put in extra. Returns null if the data has no level or no sections.
+	 */
+	public Chunk readChunk(World world, int x, int z, DataInput in, NBTTagCompound extra) throws IOException {
+		if(in.readByte() != TAG_COMPOUND) {
+			throw new IOException("Root tag must be a named compound tag");
+		}
+		in.readUTF();
+		Chunk chunk = null;
+		boolean hasLevel = false;
+		byte type;
+		while((type = in.readByte()) != TAG_END) {
+			String key = in.readUTF();
+			if(!hasLevel && type == TAG_COMPOUND && key.equals("Level")) {
+				hasLevel = true;
+				chunk = readLevel(world, x, z, in, extra);
+			}else {
+				skipPayload(type, in);
+			}
+		}
+		if(!hasLevel) {
+			logger.error("Chunk file at " + x + "," + z + " is missing level data, skipping");
+		}
+		return chunk;
+	}
+
+	private Chunk readLevel(World world, int x, int z, DataInput in, NBTTagCompound extra) throws IOException {
+		boolean sky = !world.provider.getHasNoSky();
+		ExtendedBlockStorage[] sections = new ExtendedBlockStorage[16];
+		boolean hasSections = false;
+		boolean hasHeightMap = false;
+		boolean hasBiomes = false;
+		int heightMapLength = 0;
+		int biomesLength = 0;
+		int posX = 0;
+		int posZ = 0;
+		boolean terrainPopulated = false;
+		boolean lightPopulated = false;
+		long inhabitedTime = 0l;
+		byte type;
+		while((type = in.readByte()) != TAG_END) {
+			String key = in.readUTF();
+			switch(key) {
+			case "xPos":
+				posX = (int) readNumber(type, in);
+				break;
+			case "zPos":
+				posZ = (int) readNumber(type, in);
+				break;
+			case "TerrainPopulated":
+				terrainPopulated = readNumber(type, in) != 0l;
+				break;
+			case "LightPopulated":
+				lightPopulated = readNumber(type, in) != 0l;
+				break;
+			case "InhabitedTime":
+				inhabitedTime = readNumber(type, in);
+				break;
+			case "HeightMap":
+				if(type == TAG_INT_ARRAY) {
+					hasHeightMap = true;
+					heightMapLength = in.readInt();
+					for(int i = 0; i < heightMapLength; ++i) {
+						int v = in.readInt();
+						if(i < 256) {
+							heightMap[i] = v;
+						}
+					}
+				}else {
+					skipPayload(type, in);
+				}
+				break;
+			case "Biomes":
+				if(type == TAG_BYTE_ARRAY) {
+					hasBiomes = true;
+					biomesLength = in.readInt();
+					if(biomesLength == 256) {
+						in.readFully(biomes);
+					}else {
+						skipFully(in, biomesLength);
+					}
+				}else {
+					skipPayload(type, in);
+				}
+				break;
+			case "Sections":
+				if(type == TAG_LIST) {
+					hasSections = true;
+					byte elementType = in.readByte();
+					int len = in.readInt();
+					for(int i = 0; i < len; ++i) {
+						if(elementType == TAG_COMPOUND) {
+							ExtendedBlockStorage section = readSection(in, sky);
+							sections[section.getYLocation() >> 4] = section;
+						}else {
+							skipPayload(elementType, in);
+						}
+					}
+				}else {
+					skipPayload(type, in);
+				}
+				break;
+			case "Entities":
+			case "TileEntities":
+			case "TileTicks":
+				extra.setTag(key, CompressedStreamTools.readTagPayload(type, key, in, 2));
+				break;
+			default:
+				skipPayload(type, in);
+				break;
+			}
+		}
+		if(!hasSections) {
+			logger.error("Chunk file at " + x + "," + z + " is missing block data, skipping");
+			return null;
+		}
+		if(posX != x || posZ != z) {
+			logger.error("Chunk file at " + x + "," + z + " is in the wrong location; relocating. (Expected " + x
+					+ ", " + z + ", got " + posX + ", " + posZ + ")");
+		}
+		Chunk chunk = new Chunk(world, x, z);
+		if(hasHeightMap) {
+			if(heightMapLength == 256) {
+				chunk.setHeightMap(heightMap);
+			}else {
+				logger.warn("Could not set level chunk heightmap, array length is " + heightMapLength + " instead of 256");
+			}
+		}
+		chunk.setTerrainPopulated(terrainPopulated);
+		chunk.setLightPopulated(lightPopulated);
+		chunk.setInhabitedTime(inhabitedTime);
+		chunk.setStorageArrays(sections);
+		if(hasBiomes) {
+			if(biomesLength == 256) {
+				chunk.setBiomeArray(biomes);
+			}else {
+				logger.warn("Could not set level chunk biomes, array length is " + biomesLength + " instead of 256");
+			}
+		}
+		return chunk;
+	}
+
+	private ExtendedBlockStorage readSection(DataInput in, boolean sky) throws IOException {
+		int y = 0;
+		boolean hasBlocks = false;
+		boolean hasData = false;
+		boolean hasAdd = false;
+		boolean hasBlockLight = false;
+		boolean hasSkyLight = false;
+		byte type;
+		while((type = in.readByte()) != TAG_END) {
+			String key = in.readUTF();
+			switch(key) {
+			case "Y":
+				y = (byte) readNumber(type, in);
+				break;
+			case "Blocks":
+				hasBlocks = readArray(type, in, blocks);
+				break;
+			case "Data":
+				hasData = readArray(type, in, data);
+				break;
+			case "Add":
+				hasAdd = readArray(type, in, add);
+				break;
+			case "BlockLight":
+				hasBlockLight = readArray(type, in, blockLight);
+				break;
+			case "SkyLight":
+				hasSkyLight = readArray(type, in, skyLight);
+				break;
+			default:
+				skipPayload(type, in);
+				break;
+			}
+		}
+		if(y < 0 || y >= 16) {
+			throw new IOException("Chunk section has invalid Y: " + y);
+		}
+		ExtendedBlockStorage section = new ExtendedBlockStorage(y << 4, sky);
+		if(hasBlocks) {
+			char[] chars = section.getData();
+			for(int i = 0; i < 4096; i += 2) {
+				int j = i >> 1;
+				int d = hasData ? data[j] : 0;
+				int a = hasAdd ? add[j] : 0;
+				chars[i] = (char) ((a & 15) << 12 | (blocks[i] & 255) << 4 | (d & 15));
+				chars[i + 1] = (char) ((a >> 4 & 15) << 12 | (blocks[i + 1] & 255) << 4 | (d >> 4 & 15));
+			}
+		}
+		if(hasBlockLight) {
+			System.arraycopy(blockLight, 0, section.getBlocklightArray().getData(), 0, 2048);
+		}
+		if(sky && hasSkyLight) {
+			System.arraycopy(skyLight, 0, section.getSkylightArray().getData(), 0, 2048);
+		}
+		section.removeInvalidBlocks();
+		return section;
+	}
+
+	private static boolean readArray(byte type, DataInput in, byte[] dest) throws IOException {
+		if(type != TAG_BYTE_ARRAY) {
+			skipPayload(type, in);
+			return false;
+		}
+		int len = in.readInt();
+		if(len != dest.length) {
+			throw new IOException("Chunk section array should be " + dest.length + " bytes not: " + len);
+		}
+		in.readFully(dest);
+		return true;
+	}
+
+	/**
+	 * Reads just the position of a chunk, without decoding any of its data
+	 */
+	public static ChunkCoordIntPair readChunkCoords(DataInput in) throws IOException {
+		if(in.readByte() != TAG_COMPOUND) {
+			throw new IOException("Root tag must be a named compound tag");
+		}
+		in.readUTF();
+		byte type;
+		while((type = in.readByte()) != TAG_END) {
+			String key = in.readUTF();
+			if(type == TAG_COMPOUND && key.equals("Level")) {
+				int posX = 0;
+				int posZ = 0;
+				int found = 0;
+				while(found != 3 && (type = in.readByte()) != TAG_END) {
+					key = in.readUTF();
+					if(key.equals("xPos")) {
+						posX = (int) readNumber(type, in);
+						found |= 1;
+					}else if(key.equals("zPos")) {
+						posZ = (int) readNumber(type, in);
+						found |= 2;
+					}else {
+						skipPayload(type, in);
+					}
+				}
+				return new ChunkCoordIntPair(posX, posZ);
+			}else {
+				skipPayload(type, in);
+			}
+		}
+		return null;
+	}
+
+	private static void writeKey(byte type, String key, DataOutput out) throws IOException {
+		out.writeByte(type);
+		out.writeUTF(key);
+	}
+
+	private static long readNumber(byte type, DataInput in) throws IOException {
+		switch(type) {
+		case TAG_BYTE:
+			return in.readByte();
+		case TAG_SHORT:
+			return in.readShort();
+		case TAG_INT:
+			return in.readInt();
+		case TAG_LONG:
+			return in.readLong();
+		case TAG_FLOAT:
+			return (long) in.readFloat();
+		case TAG_DOUBLE:
+			return (long) in.readDouble();
+		default:
+			skipPayload(type, in);
+			return 0l;
+		}
+	}
+
+	private static void skipPayload(byte type, DataInput in) throws IOException {
+		switch(type) {
+		case TAG_END:
+			break;
+		case TAG_BYTE:
+			skipFully(in, 1);
+			break;
+		case TAG_SHORT:
+			skipFully(in, 2);
+			break;
+		case TAG_INT:
+		case TAG_FLOAT:
+			skipFully(in, 4);
+			break;
+		case TAG_LONG:
+		case TAG_DOUBLE:
+			skipFully(in, 8);
+			break;
+		case TAG_BYTE_ARRAY:
+			skipFully(in, in.readInt());
+			break;
+		case TAG_STRING:
+			skipFully(in, in.readUnsignedShort());
+			break;
+		case TAG_LIST:
+			byte elementType = in.readByte();
+			int len = in.readInt();
+			for(int i = 0; i < len; ++i) {
+				skipPayload(elementType, in);
+			}
+			break;
+		case TAG_COMPOUND:
+			byte t;
+			while((t = in.readByte()) != TAG_END) {
+				skipFully(in, in.readUnsignedShort());
+				skipPayload(t, in);
+			}
+			break;
+		case TAG_INT_ARRAY:
+			skipFully(in, in.readInt() * 4);
+			break;
+		default:
+			throw new IOException("Invalid NBT tag type: " + type);
+		}
+	}
+
+	private static void skipFully(DataInput in, int len) throws IOException {
+		if(len < 0) {
+			throw new IOException("Negative NBT array length: " + len);
+		}
+		while(len > 0) {
+			int i = in.skipBytes(len);
+			if(i <= 0) {
+				in.readByte();
+				i = 1;
+			}
+			len -= i;
+		}
+	}
+
+}
@@ -1,18 +1,31 @@
 package net.lax1dude.eaglercraft.v1_8.sp.server;
 
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+import net.lax1dude.eaglercraft.v1_8.EagRuntime;
+import net.lax1dude.eaglercraft.v1_8.EaglerInputStream;
+import net.lax1dude.eaglercraft.v1_8.EaglerOutputStream;
+import net.lax1dude.eaglercraft.v1_8.EaglerZLIB;
+import net.lax1dude.eaglercraft.v1_8.internal.IWorkerThreadPool;
 import net.lax1dude.eaglercraft.v1_8.internal.vfs2.VFile2;
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+import net.minecraft.util.LongHashMap;
 import net.minecraft.world.ChunkCoordIntPair;
 import net.minecraft.world.MinecraftException;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.storage.AnvilChunkLoader;
-import net.minecraft.nbt.CompressedStreamTools;
 import net.minecraft.nbt.NBTTagCompound;
 
 /**
@@ -63,24 +76,295 @@ public class EaglerChunkLoader extends AnvilChunkLoader {
 		return new ChunkCoordIntPair(retX - 1900000, retZ - 1900000);
 	}
 
+	public static boolean isLegacyChunkName(String filename) {
+		if(filename.length() != 16 || !filename.endsWith(".dat")) {
+			return false;
+		}
+		for(int i = 0; i < 12; ++i) {
+			if(hex.indexOf(filename.charAt(i)) == -1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Number of region files kept in memory, clean regions beyond this are
+	 * dropped the next time the loader is flushed
+	 */
+	private static final int MAX_CACHED_REGIONS = 16;
+
 	public final VFile2 chunkDirectory;
 
+	private final LongHashMap<EaglerRegionFile> regions = new LongHashMap<>();
+	private final List<EaglerRegionFile> regionList = new ArrayList<>();
+	private final EaglerOutputStream writeBuffer = new EaglerOutputStream(16384);
+	private final EaglerOutputStream nbtBuffer = new EaglerOutputStream(32768);
+	private final EaglerChunkCodec codec = new EaglerChunkCodec();
+	private long accessCounter = 0l;
+
+	/**
+	 * Time the server thread may spend compressing queued chunks per tick when
+	 * there is no background save thread
+	 */
+	private static final long SAVE_BUDGET_MILLIS = 5l;
+	private static final int REGION_FLUSH_TICKS = 20;
+	private static final int REGION_FLUSH_TICKS_MAX = 200;
+
+	private final Map<Long, PendingChunk> pendingChunks = new LinkedHashMap<>();
+	private IWorkerThreadPool savePool = null;
+	private int ticksSinceFlush = 0;
+
 	public EaglerChunkLoader(VFile2 chunkDirectory) {
 		this.chunkDirectory = chunkDirectory;
 	}
 
+	private EaglerRegionFile getRegion(int chunkX, int chunkZ, boolean create) {
+		int rx = chunkX >> 5;
+		int rz = chunkZ >> 5;
+		long key = ChunkCoordIntPair.chunkXZ2Int(rx, rz);
+		EaglerRegionFile region = regions.getValueByKey(key);
+		if(region == null) {
+			VFile2 file = WorldsDB.newVFile(chunkDirectory, EaglerRegionFile.getRegionName(rx, rz));
+			if(!create && !file.exists()) {
+				return null;
+			}
+			region = new EaglerRegionFile(file, rx, rz);
+			regions.add(key, region);
+			regionList.add(region);
+		}
+		region.lastAccess = ++accessCounter;
+		return region;
+	}
+
+	/**
+	 * Returns the GZIP compressed NBT of a chunk, chunks that have not been
+	 * converted from the old one file per chunk format yet are still readable
+	 */
+	public byte[] readChunkData(int x, int z) {
+		EaglerRegionFile region = getRegion(x, z, false);
+		if(region != null) {
+			byte[] ret = region.readChunk(x, z);
+			if(ret != null) {
+				return ret;
+			}
+		}
+		VFile2 file = WorldsDB.newVFile(chunkDirectory, getChunkPath(x, z) + ".dat");
+		return file.getAllBytes();
+	}
+
+	public void writeChunkData(int x, int z, byte[] data, int offset, int length) {
+		getRegion(x, z, true).writeChunk(x, z, data, offset, length);
+	}
+
+	public boolean isChunkSaved(int x, int z) {
+		EaglerRegionFile region = getRegion(x, z, false);
+		if(region != null && region.isChunkSaved(x, z)) {
+			return true;
+		}
+		return WorldsDB.newVFile(chunkDirectory, getChunkPath(x, z) + ".dat").exists();
+	}
+
+	/**
+	 * Lists every chunk in the directory, grouped by region so they can be
+	 * read back in order without thrashing the region cache
+	 */
+	public List<ChunkCoordIntPair> listSavedChunks() {
+		List<ChunkCoordIntPair> ret = new ArrayList<>();
+		List<VFile2> files = chunkDirectory.listFiles(false);
+		for(int i = 0, l = files.size(); i < l; ++i) {
+			VFile2 file = files.get(i);
+			String name = file.getName();
+			if(EaglerRegionFile.isRegionName(name)) {
+				String[] coords = name.substring(2, name.length() - EaglerRegionFile.FILE_EXTENSION.length()).split("\\.");
+				int rx, rz;
+				try {
+					rx = Integer.parseInt(coords[0]);
+					rz = Integer.parseInt(coords[1]);
+				}catch(RuntimeException ex) {
+					logger.warn("Skipping region file with invalid name: {}", file.getPath());
+					continue;
+				}
+				EaglerRegionFile region = getRegion(rx << 5, rz << 5, false);
+				if(region == null) {
+					continue;
+				}
+				for(int z = 0; z < 32; ++z) {
+					for(int x = 0; x < 32; ++x) {
+						if(region.isChunkSaved(x, z)) {
+							ret.add(new ChunkCoordIntPair((rx << 5) + x, (rz << 5) + z));
+						}
+					}
+				}
+			}else if(isLegacyChunkName(name)) {
+				ChunkCoordIntPair coords = getChunkCoords(name.substring(0, 12));
+				EaglerRegionFile region = getRegion(coords.chunkXPos, coords.chunkZPos, false);
+				if(region == null || !region.isChunkSaved(coords.chunkXPos, coords.chunkZPos)) {
+					ret.add(coords);
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Moves chunks saved in the old one file per chunk format into region
+	 * files, the old files are only deleted after the regions have been
+	 * written so an interrupted conversion just runs again on the next load
+	 */
+	public int convertLegacyChunks() {
+		List<VFile2> files = chunkDirectory.listFiles(false);
+		List<VFile2> converted = null;
+		int bytes = 0;
+		for(int i = 0, l = files.size(); i < l; ++i) {
+			VFile2 file = files.get(i);
+			String name = file.getName();
+			if(!isLegacyChunkName(name)) {
+				continue;
+			}
+			if(converted == null) {
+				logger.info("Converting chunks in \"{}\" to region files...", chunkDirectory.getPath());
+				converted = new ArrayList<>();
+			}
+			ChunkCoordIntPair coords = getChunkCoords(name.substring(0, 12));
+			EaglerRegionFile region = getRegion(coords.chunkXPos, coords.chunkZPos, true);
+			if(!region.isChunkSaved(coords.chunkXPos, coords.chunkZPos)) {
+				byte[] b = file.getAllBytes();
+				if(b == null) {
+					continue;
+				}
+				region.writeChunk(coords.chunkXPos, coords.chunkZPos, b, 0, b.length);
+				bytes += b.length;
+			}
+			converted.add(file);
+			if(regionList.size() > MAX_CACHED_REGIONS) {
+				flushRegions(true);
+			}
+		}
+		if(converted == null) {
+			return 0;
+		}
+		flushRegions(true);
+		for(int i = 0, l = converted.size(); i < l; ++i) {
+			converted.get(i).delete();
+		}
+		logger.info("Converted {} chunks ({} bytes) in \"{}\"", converted.size(), bytes, chunkDirectory.getPath());
+		return converted.size();
+	}
+
+	/**
+	 * Writes every modified region back to the filesystem, if evict is true
+	 * then the least recently used regions are also dropped from the cache
+	 */
+	public void flushRegions(boolean evict) {
+		for(int i = 0, l = regionList.size(); i < l; ++i) {
+			regionList.get(i).flush();
+		}
+		if(evict) {
+			while(regionList.size() > MAX_CACHED_REGIONS) {
+				int oldest = 0;
+				for(int i = 1, l = regionList.size(); i < l; ++i) {
+					if(regionList.get(i).lastAccess < regionList.get(oldest).lastAccess) {
+						oldest = i;
+					}
+				}
+				EaglerRegionFile region = regionList.remove(oldest);
+				regions.remove(ChunkCoordIntPair.chunkXZ2Int(region.regionX, region.regionZ));
+			}
+		}
+	}
+
+	/**
+	 * Compresses and writes queued chunks until the queue is empty, then
+	 * writes the modified regions. Called when the server stops or on a
+	 * manual save, normal saves are written from chunkTick.
+	 */
+	public void flushPending() {
+		if(!pendingChunks.isEmpty()) {
+			Iterator<PendingChunk> itr = pendingChunks.values().iterator();
+			while(itr.hasNext()) {
+				PendingChunk p = itr.next();
+				byte[] b = p.getCompressed();
+				if(b == null) {
+					try {
+						b = compressChunk(p.getNBT(), writeBuffer);
+					}catch(IOException ex) {
+						logger.error("Could not compress chunk {}, {}!", p.x, p.z);
+						logger.error(ex);
+						continue;
+					}
+				}
+				writeChunkData(p.x, p.z, b, 0, b.length);
+			}
+			pendingChunks.clear();
+		}
+		flushRegions(false);
+		ticksSinceFlush = 0;
+	}
+
+	/**
+	 * Flushes everything and stops the background save thread, it will be
+	 * restarted if more chunks are saved afterwards
+	 */
+	public void flush() {
+		flushPending();
+		if(savePool != null) {
+			savePool.shutdown();
+			savePool = null;
+		}
+	}
+
+	public int getPendingCount() {
+		return pendingChunks.size();
+	}
+
+	private IWorkerThreadPool getSavePool() {
+		if(savePool == null && EagRuntime.getAvailableWorkerThreads() > 0) {
+			savePool = EagRuntime.createWorkerThreadPool("Chunk Save Thread", 1);
+		}
+		return savePool;
+	}
+
+	/**
+	 * GZIP compresses raw uncompressed chunk NBT, the result is the same as
+	 * writing the tag tree with CompressedStreamTools.writeCompressed
+	 */
+	public static byte[] compressChunk(byte[] nbt, EaglerOutputStream buffer) throws IOException {
+		buffer.reset();
+		try(OutputStream os = EaglerZLIB.newGZIPOutputStream(buffer)) {
+			os.write(nbt);
+		}
+		return buffer.toByteArray();
+	}
+
+	/**
+	 * Inflates the GZIP compressed NBT returned by readChunkData
+	 */
+	public static DataInputStream decompressChunk(byte[] data) throws IOException {
+		return new DataInputStream(new BufferedInputStream(EaglerZLIB.newGZIPInputStream(new EaglerInputStream(data))));
+	}
+
+	private Chunk readChunk(World world, int x, int z, DataInput in) throws IOException {
+		NBTTagCompound extra = new NBTTagCompound();
+		Chunk chunk = codec.readChunk(world, x, z, in, extra);
+		if(chunk != null) {
+			readChunkEntitiesFromNBT(world, chunk, extra);
+		}
+		return chunk;
+	}
+
 	@Override
 	public Chunk loadChunk(World var1, int var2, int var3) throws IOException {
-		VFile2 file = WorldsDB.newVFile(chunkDirectory, getChunkPath(var2, var3) + ".dat");
-		if(!file.exists()) {
+		PendingChunk pending = pendingChunks.get(ChunkCoordIntPair.chunkXZ2Int(var2, var3));
+		if(pending != null) {
+			return readChunk(var1, var2, var3, new DataInputStream(new EaglerInputStream(pending.getNBT())));
+		}
+		byte[] b = readChunkData(var2, var3);
+		if(b == null) {
 			return null;
 		}
-		try {
-			NBTTagCompound nbt;
-			try(InputStream is = file.getInputStream()) {
-				nbt = CompressedStreamTools.readCompressed(is);
-			}
-			return checkedReadChunkFromNBT(var1, var2, var3, nbt);
+		try(DataInputStream is = decompressChunk(b)) {
+			return readChunk(var1, var2, var3, is);
 		}catch(Throwable t) {
 			
 		}
@@ -89,13 +373,24 @@ public class EaglerChunkLoader extends AnvilChunkLoader {
 
 	@Override
 	public void saveChunk(World var1, Chunk var2) throws IOException, MinecraftException {
-		NBTTagCompound chunkData = new NBTTagCompound();
-		this.writeChunkToNBT(var2, var1, chunkData);
-		NBTTagCompound fileData = new NBTTagCompound();
-		fileData.setTag("Level", chunkData);
-		VFile2 file = WorldsDB.newVFile(chunkDirectory, getChunkPath(var2.xPosition, var2.zPosition) + ".dat");
-		try(OutputStream os = file.getOutputStream()) {
-			CompressedStreamTools.writeCompressed(fileData, os);
+		NBTTagCompound extra = new NBTTagCompound();
+		this.writeChunkEntitiesToNBT(var2, var1, extra);
+		nbtBuffer.reset();
+		DataOutputStream os = new DataOutputStream(nbtBuffer);
+		codec.writeChunk(var2, var1, extra, os);
+		os.flush();
+		byte[] fileData = nbtBuffer.toByteArray();
+		Long key = ChunkCoordIntPair.chunkXZ2Int(var2.xPosition, var2.zPosition);
+		PendingChunk pending = pendingChunks.get(key);
+		if(pending == null) {
+			pending = new PendingChunk(var2.xPosition, var2.zPosition, fileData);
+			pendingChunks.put(key, pending);
+		}else {
+			pending.setNBT(fileData);
+		}
+		IWorkerThreadPool pool = getSavePool();
+		if(pool != null && pending.beginCompress()) {
+			pool.execute(pending);
 		}
 	}
 
@@ -106,12 +401,128 @@ public class EaglerChunkLoader extends AnvilChunkLoader {
 
 	@Override
 	public void chunkTick() {
-		// ?
+		++ticksSinceFlush;
+		if(!pendingChunks.isEmpty()) {
+			long start = EagRuntime.steadyTimeMillis();
+			IWorkerThreadPool pool = savePool;
+			Iterator<PendingChunk> itr = pendingChunks.values().iterator();
+			while(itr.hasNext()) {
+				PendingChunk p = itr.next();
+				byte[] b = p.getCompressed();
+				if(b == null) {
+					if(pool != null) {
+						if(p.hasFailed()) {
+							// retrying would fail the same way, the chunk is saved again if it changes
+							logger.error("Dropping chunk {}, {} from the save queue, it could not be compressed", p.x, p.z);
+							itr.remove();
+						}else if(p.beginCompress()) {
+							pool.execute(p);
+						}
+						continue;
+					}
+					if(EagRuntime.steadyTimeMillis() - start >= SAVE_BUDGET_MILLIS) {
+						break;
+					}
+					try {
+						b = compressChunk(p.getNBT(), writeBuffer);
+					}catch(IOException ex) {
+						logger.error("Could not compress chunk {}, {}!", p.x, p.z);
+						logger.error(ex);
+						itr.remove();
+						continue;
+					}
+				}
+				writeChunkData(p.x, p.z, b, 0, b.length);
+				itr.remove();
+			}
+		}
+		if(ticksSinceFlush >= (pendingChunks.isEmpty() ? REGION_FLUSH_TICKS : REGION_FLUSH_TICKS_MAX)) {
+			flushRegions(true);
+			ticksSinceFlush = 0;
+		}
 	}
 
 	@Override
 	public void saveExtraData() {
-		// ?
+		flushPending();
+	}
+
+	/**
+	 * Snapshot of a chunk's uncompressed NBT waiting to be compressed and written to its
+	 * region, the serial is used to discard compressed data that belongs to
+	 * an older snapshot if the chunk was saved again in the meantime
+	 */
+	private static class PendingChunk implements Runnable {
+
+		private final int x;
+		private final int z;
+		private byte[] nbt;
+		private int serial = 0;
+		private boolean compressing = false;
+		private byte[] compressed = null;
+		private int compressedSerial = -1;
+		private int failedSerial = -1;
+
+		private PendingChunk(int x, int z, byte[] nbt) {
+			this.x = x;
+			this.z = z;
+			this.nbt = nbt;
+		}
+
+		private synchronized byte[] getNBT() {
+			return nbt;
+		}
+
+		private synchronized void setNBT(byte[] nbt) {
+			this.nbt = nbt;
+			++serial;
+			compressed = null;
+		}
+
+		private synchronized byte[] getCompressed() {
+			return compressedSerial == serial ? compressed : null;
+		}
+
+		private synchronized boolean hasFailed() {
+			return !compressing && failedSerial == serial;
+		}
+
+		private synchronized boolean beginCompress() {
+			if(compressing || compressedSerial == serial || failedSerial == serial) {
+				return false;
+			}
+			compressing = true;
+			return true;
+		}
+
+		@Override
+		public void run() {
+			byte[] tag;
+			int s;
+			synchronized(this) {
+				tag = nbt;
+				s = serial;
+			}
+			byte[] b = null;
+			try {
+				b = compressChunk(tag, new EaglerOutputStream(16384));
+			}catch(Throwable t) {
+				logger.error("Could not compress chunk {}, {} on the save thread!", x, z);
+				logger.error(t);
+			}
+			synchronized(this) {
+				compressing = false;
+				if(s == serial) {
+					if(b != null) {
+						compressed = b;
+						compressedSerial = s;
+					}else {
+						failedSerial = s;
+					}
+				}
+			}
+		}
+
 	}
 
 }
@@ -31,6 +31,7 @@ import net.lax1dude.eaglercraft.v1_8.sp.server.export.WorldConverterEPK;
 import net.lax1dude.eaglercraft.v1_8.sp.server.export.WorldConverterMCA;
 import net.lax1dude.eaglercraft.v1_8.sp.server.internal.ServerPlatformSingleplayer;
 import net.lax1dude.eaglercraft.v1_8.sp.server.socket.IntegratedServerPlayerNetworkManager;
+import net.lax1dude.eaglercraft.v1_8.sp.socket.DirectPacketData;
 import net.minecraft.nbt.CompressedStreamTools;
 import net.minecraft.nbt.NBTTagCompound;
 
@@ -79,7 +80,11 @@ public class EaglerIntegratedServerWorker {
 				}else {
 					IntegratedServerPlayerNetworkManager netHandler = openChannels.get(packetData.channel);
 					if(netHandler != null) {
-						netHandler.addRecievedPacket(packetData.contents);
+						if(packetData instanceof DirectPacketData) {
+							netHandler.addRecievedPacket(((DirectPacketData)packetData).packet);
+						}else {
+							netHandler.addRecievedPacket(packetData.contents);
+						}
 					}else {
 						logger.error("Recieved packet on channel that does not exist: \"{}\"", packetData.channel);
 					}
@@ -139,6 +144,8 @@ public class EaglerIntegratedServerWorker {
 				
 				currentProcess = new EaglerMinecraftServer(pkt.worldName, pkt.ownerName, pkt.initialViewDistance, newWorldSettings, pkt.demoMode);
 				currentProcess.setBaseServerProperties(EnumDifficulty.getDifficultyEnum(pkt.initialDifficulty), newWorldSettings == null ? GameType.SURVIVAL : newWorldSettings.getGameType());
+				currentProcess.setBatchedLighting(pkt.batchedLighting);
+				currentProcess.setTerrainGenThreads(pkt.terrainGenThreads);
 				currentProcess.startServer();
 				
 				String[] worlds = EaglerSaveFormat.worldsList.getAllLines();
@@ -384,6 +391,7 @@ public class EaglerIntegratedServerWorker {
 				if(!isServerStopped()) {
 					currentProcess.getConfigurationManager().saveAllPlayerData();
 					currentProcess.saveAllWorlds(false);
+					currentProcess.flushAllWorlds();
 					sendIPCPacket(new IPCPacketFFProcessKeepAlive(IPCPacket19Autosave.ID));
 				}else {
 					logger.error("Client tried to autosave while server was stopped");
@@ -421,6 +429,14 @@ public class EaglerIntegratedServerWorker {
 		sendIPCPacket(new IPCPacket1ALoggerMessage(txt, err));
 	}
 
+	public static void sendProfilerTrace(String fileName, String json) {
+		sendIPCPacket(new IPCPacket1ALoggerMessage(IPCPacket1ALoggerMessage.TRACE_BEGIN + fileName));
+		for(int i = 0, l = json.length(); i < l; i += 16384) {
+			sendIPCPacket(new IPCPacket1ALoggerMessage(IPCPacket1ALoggerMessage.TRACE_DATA + json.substring(i, Math.min(i + 16384, l))));
+		}
+		sendIPCPacket(new IPCPacket1ALoggerMessage(IPCPacket1ALoggerMessage.TRACE_END));
+	}
+
 	public static void sendIPCPacket(IPCPacketBase ipc) {
 		byte[] pkt;
 		try {
@@ -0,0 +1,457 @@
+package net.lax1dude.eaglercraft.v1_8.sp.server;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.block.Block;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.LongHashMap;
+import net.minecraft.world.EnumSkyBlock;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.chunk.NibbleArray;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class EaglerLightEngine {
+
+	/**
+	 * Replacement for World.checkLightFor on the integrated server. Instead of
+	 * running a full BFS for every block that changed, the positions are
+	 * collected per chunk section and all of them are propagated together once
+	 * per tick, so overlapping changes (explosions, fills, population) only
+	 * visit each cell a few times. Sky and block light are separate passes and
+	 * the queues hold packed coordinates so nothing is allocated per node.
+	 * 
+	 * The rules are the same as World.getRawLight, only the 17 block radius
+	 * limit is gone because unloaded chunks act as the boundary instead.
+	 */
+
+	private static final int COORD_OFFSET = 0x2000000;
+
+	private static final int[] OFFSET_X = new int[] { 0, 0, 0, 0, -1, 1 };
+	private static final int[] OFFSET_Y = new int[] { -1, 1, 0, 0, 0, 0 };
+	private static final int[] OFFSET_Z = new int[] { 0, 0, -1, 1, 0, 0 };
+
+	private static final int INITIAL_QUEUE_SIZE = 4096;
+	private static final int MAX_RETAINED_QUEUE_SIZE = 0x40000;
+
+	protected final World world;
+	protected final boolean hasSky;
+
+	private PendingChecks skyChecks = new PendingChecks();
+	private PendingChecks blockChecks = new PendingChecks();
+	private PendingChecks processingChecks = new PendingChecks();
+
+	private long[] decreaseQueue = new long[INITIAL_QUEUE_SIZE];
+	private int decreaseQueueLength = 0;
+	private long[] increaseQueue = new long[INITIAL_QUEUE_SIZE];
+	private int increaseQueueLength = 0;
+
+	private final BlockPos.MutableBlockPos tmpPos = new BlockPos.MutableBlockPos();
+
+	private Chunk cachedChunk = null;
+	private int cachedChunkX = 0;
+	private int cachedChunkZ = 0;
+
+	private boolean flushing = false;
+
+	public EaglerLightEngine(World world) {
+		this.world = world;
+		this.hasSky = !world.provider.getHasNoSky();
+	}
+
+	/**
+	 * Queues a position to be rechecked on the next flush, returns false if the
+	 * area around it is not loaded (which is also what checkLightFor returns)
+	 */
+	public boolean queueLightCheck(EnumSkyBlock lightType, BlockPos pos) {
+		if(!world.isAreaLoaded(pos, 17, false)) {
+			return false;
+		}
+		int y = pos.getY();
+		if(y < 0 || y > 255) {
+			return true;
+		}
+		if(lightType == EnumSkyBlock.SKY) {
+			if(hasSky) {
+				skyChecks.add(pos.getX(), y, pos.getZ());
+			}
+		}else {
+			blockChecks.add(pos.getX(), y, pos.getZ());
+		}
+		return true;
+	}
+
+	public boolean hasPendingChecks() {
+		return skyChecks.sectionCount > 0 || blockChecks.sectionCount > 0;
+	}
+
+	/**
+	 * Propagates every queued check, sky light first then block light
+	 */
+	public void flush() {
+		if(flushing) {
+			return;
+		}
+		flushing = true;
+		try {
+			// checks queued while propagating (new sections creating skylight
+			// maps can do that) are picked up by the next iteration
+			while(skyChecks.sectionCount > 0 || blockChecks.sectionCount > 0) {
+				if(skyChecks.sectionCount > 0) {
+					PendingChecks checks = skyChecks;
+					skyChecks = processingChecks;
+					processingChecks = checks;
+					propagate(true, checks);
+					checks.clear();
+				}
+				if(blockChecks.sectionCount > 0) {
+					PendingChecks checks = blockChecks;
+					blockChecks = processingChecks;
+					processingChecks = checks;
+					propagate(false, checks);
+					checks.clear();
+				}
+			}
+		}finally {
+			flushing = false;
+			cachedChunk = null;
+			if(decreaseQueue.length > MAX_RETAINED_QUEUE_SIZE) {
+				decreaseQueue = new long[INITIAL_QUEUE_SIZE];
+			}
+			if(increaseQueue.length > MAX_RETAINED_QUEUE_SIZE) {
+				increaseQueue = new long[INITIAL_QUEUE_SIZE];
+			}
+		}
+	}
+
+	private void propagate(boolean sky, PendingChecks checks) {
+		decreaseQueueLength = 0;
+		increaseQueueLength = 0;
+
+		// sort the queued positions into cells that got darker and brighter
+		for(int i = 0, l = checks.sectionCount; i < l; ++i) {
+			long[] bits = checks.sectionBits[i];
+			int baseX = checks.sectionX[i] << 4;
+			int baseY = checks.sectionY[i] << 4;
+			int baseZ = checks.sectionZ[i] << 4;
+			Chunk chunk = getChunk(baseX >> 4, baseZ >> 4);
+			if(chunk == null) {
+				continue;
+			}
+			for(int j = 0; j < 64; ++j) {
+				long word = bits[j];
+				while(word != 0l) {
+					int bit = Long.numberOfTrailingZeros(word);
+					word &= word - 1l;
+					int idx = (j << 6) | bit;
+					int x = baseX + (idx & 15);
+					int z = baseZ + ((idx >> 4) & 15);
+					int y = baseY + (idx >> 8);
+					int stored = getLight(sky, chunk, x, y, z);
+					int raw = computeLight(sky, chunk, x, y, z);
+					if(raw < 0) {
+						continue;
+					}
+					if(raw < stored) {
+						pushDecrease(pack(x, y, z, stored));
+					}else if(raw > stored) {
+						pushIncrease(pack(x, y, z, 0));
+					}
+				}
+			}
+		}
+
+		// darken every cell that was lit by the cells that got darker, they
+		// are all rechecked by the increase pass afterwards
+		for(int i = 0; i < decreaseQueueLength; ++i) {
+			long p = decreaseQueue[i];
+			int x = unpackX(p);
+			int y = unpackY(p);
+			int z = unpackZ(p);
+			int level = unpackLevel(p);
+			Chunk chunk = getChunk(x >> 4, z >> 4);
+			if(chunk == null || getLight(sky, chunk, x, y, z) != level) {
+				continue;
+			}
+			setLight(sky, chunk, x, y, z, 0);
+			pushIncrease(pack(x, y, z, 0));
+			for(int m = 0; m < 6; ++m) {
+				int xx = x + OFFSET_X[m];
+				int yy = y + OFFSET_Y[m];
+				int zz = z + OFFSET_Z[m];
+				if(yy < 0 || yy > 255) {
+					continue;
+				}
+				Chunk chunk2 = ((xx >> 4) == (x >> 4) && (zz >> 4) == (z >> 4)) ? chunk : getChunk(xx >> 4, zz >> 4);
+				if(chunk2 == null) {
+					continue;
+				}
+				int opacity = getBlock(chunk2, xx, yy, zz).getLightOpacity();
+				int expect = level - (opacity < 1 ? 1 : opacity);
+				if(expect > 0 && getLight(sky, chunk2, xx, yy, zz) == expect) {
+					pushDecrease(pack(xx, yy, zz, expect));
+				}
+			}
+		}
+
+		// recompute and spread everything that may have gotten brighter
+		for(int i = 0; i < increaseQueueLength; ++i) {
+			long p = increaseQueue[i];
+			int x = unpackX(p);
+			int y = unpackY(p);
+			int z = unpackZ(p);
+			Chunk chunk = getChunk(x >> 4, z >> 4);
+			if(chunk == null) {
+				continue;
+			}
+			int stored = getLight(sky, chunk, x, y, z);
+			int raw = computeLight(sky, chunk, x, y, z);
+			if(raw < 0 || raw == stored) {
+				continue;
+			}
+			setLight(sky, chunk, x, y, z, raw);
+			if(raw > stored) {
+				for(int m = 0; m < 6; ++m) {
+					int xx = x + OFFSET_X[m];
+					int yy = y + OFFSET_Y[m];
+					int zz = z + OFFSET_Z[m];
+					if(yy < 0 || yy > 255) {
+						continue;
+					}
+					Chunk chunk2 = ((xx >> 4) == (x >> 4) && (zz >> 4) == (z >> 4)) ? chunk : getChunk(xx >> 4, zz >> 4);
+					if(chunk2 != null && getLight(sky, chunk2, xx, yy, zz) < raw - 1) {
+						pushIncrease(pack(xx, yy, zz, 0));
+					}
+				}
+			}
+		}
+
+		decreaseQueueLength = 0;
+		increaseQueueLength = 0;
+	}
+
+	/**
+	 * Same as World.getRawLight, returns -1 if a neighbor isn't loaded
+	 */
+	private int computeLight(boolean sky, Chunk chunk, int x, int y, int z) {
+		if(sky && y >= chunk.getHeightValue(x & 15, z & 15)) {
+			return 15;
+		}
+		Block block = getBlock(chunk, x, y, z);
+		int emitted = block.getLightValue();
+		int light = sky ? 0 : emitted;
+		int opacity = block.getLightOpacity();
+		if(opacity >= 15 && emitted > 0) {
+			opacity = 1;
+		}
+		if(opacity < 1) {
+			opacity = 1;
+		}
+		if(opacity >= 15) {
+			return 0;
+		}else if(light >= 14) {
+			return light;
+		}
+		for(int m = 0; m < 6; ++m) {
+			int xx = x + OFFSET_X[m];
+			int zz = z + OFFSET_Z[m];
+			Chunk chunk2 = ((xx >> 4) == (x >> 4) && (zz >> 4) == (z >> 4)) ? chunk : getChunk(xx >> 4, zz >> 4);
+			if(chunk2 == null) {
+				return -1;
+			}
+			int k = getLight(sky, chunk2, xx, y + OFFSET_Y[m], zz) - opacity;
+			if(k > light) {
+				light = k;
+				if(light >= 14) {
+					return light;
+				}
+			}
+		}
+		return light;
+	}
+
+	private Chunk getChunk(int chunkX, int chunkZ) {
+		if(cachedChunk != null && cachedChunkX == chunkX && cachedChunkZ == chunkZ) {
+			return cachedChunk;
+		}
+		IChunkProvider provider = world.getChunkProvider();
+		if(!provider.chunkExists(chunkX, chunkZ)) {
+			return null;
+		}
+		Chunk chunk = provider.provideChunk(chunkX, chunkZ);
+		if(chunk == null || chunk.isEmpty()) {
+			return null;
+		}
+		cachedChunk = chunk;
+		cachedChunkX = chunkX;
+		cachedChunkZ = chunkZ;
+		return chunk;
+	}
+
+	private static Block getBlock(Chunk chunk, int x, int y, int z) {
+		if(y < 0 || y > 255) {
+			return Blocks.air;
+		}
+		ExtendedBlockStorage storage = chunk.getBlockStorageArray()[y >> 4];
+		return storage != null ? storage.getBlockByExtId(x & 15, y & 15, z & 15) : Blocks.air;
+	}
+
+	private static int getLight(boolean sky, Chunk chunk, int x, int y, int z) {
+		if(y < 0) {
+			y = 0;
+		}else if(y > 255) {
+			return sky ? EnumSkyBlock.SKY.defaultLightValue : EnumSkyBlock.BLOCK.defaultLightValue;
+		}
+		ExtendedBlockStorage storage = chunk.getBlockStorageArray()[y >> 4];
+		if(storage == null) {
+			return sky && y >= chunk.getHeightValue(x & 15, z & 15) ? EnumSkyBlock.SKY.defaultLightValue : 0;
+		}
+		NibbleArray arr = sky ? storage.getSkylightArray() : storage.getBlocklightArray();
+		return arr.get(x & 15, y & 15, z & 15);
+	}
+
+	private void setLight(boolean sky, Chunk chunk, int x, int y, int z, int value) {
+		ExtendedBlockStorage storage = chunk.getBlockStorageArray()[y >> 4];
+		tmpPos.func_181079_c(x, y, z);
+		if(storage == null) {
+			// let the chunk create the section and its skylight map
+			chunk.setLightFor(sky ? EnumSkyBlock.SKY : EnumSkyBlock.BLOCK, tmpPos, value);
+		}else {
+			NibbleArray arr = sky ? storage.getSkylightArray() : storage.getBlocklightArray();
+			arr.set(x & 15, y & 15, z & 15, value);
+			chunk.setChunkModified();
+		}
+		world.notifyLightSet(tmpPos);
+	}
+
+	private void pushDecrease(long p) {
+		if(decreaseQueueLength == decreaseQueue.length) {
+			long[] newQueue = new long[decreaseQueue.length << 1];
+			System.arraycopy(decreaseQueue, 0, newQueue, 0, decreaseQueueLength);
+			decreaseQueue = newQueue;
+		}
+		decreaseQueue[decreaseQueueLength++] = p;
+	}
+
+	private void pushIncrease(long p) {
+		if(increaseQueueLength == increaseQueue.length) {
+			long[] newQueue = new long[increaseQueue.length << 1];
+			System.arraycopy(increaseQueue, 0, newQueue, 0, increaseQueueLength);
+			increaseQueue = newQueue;
+		}
+		increaseQueue[increaseQueueLength++] = p;
+	}
+
+	/**
+	 * 26 bits X, 26 bits Z, 8 bits Y, 4 bits light level
+	 */
+	private static long pack(int x, int y, int z, int level) {
+		return ((long) (x + COORD_OFFSET) << 38) | ((long) (z + COORD_OFFSET) << 12) | (long) (y << 4) | level;
+	}
+
+	private static int unpackX(long p) {
+		return (int) (p >>> 38) - COORD_OFFSET;
+	}
+
+	private static int unpackZ(long p) {
+		return (int) ((p >>> 12) & 0x3FFFFFFl) - COORD_OFFSET;
+	}
+
+	private static int unpackY(long p) {
+		return (int) (p >>> 4) & 0xFF;
+	}
+
+	private static int unpackLevel(long p) {
+		return (int) p & 15;
+	}
+
+	private static class PendingChecks {
+
+		/**
+		 * One 4096 bit set per chunk section, so repeated checks of the same
+		 * block within a tick collapse into one
+		 */
+		private final LongHashMap<long[]> sectionMap = new LongHashMap<>();
+		private long[][] sectionBits = new long[16][];
+		private int[] sectionX = new int[16];
+		private int[] sectionY = new int[16];
+		private int[] sectionZ = new int[16];
+		private long[] sectionKeys = new long[16];
+		private int sectionCount = 0;
+		private final List<long[]> freeBits = new ArrayList<>();
+
+		private void add(int x, int y, int z) {
+			int sx = x >> 4;
+			int sy = y >> 4;
+			int sz = z >> 4;
+			long key = ((long) (sx & 0x3FFFFF) << 26) | ((long) (sz & 0x3FFFFF) << 4) | sy;
+			long[] bits = sectionMap.getValueByKey(key);
+			if(bits == null) {
+				int cnt = freeBits.size();
+				bits = cnt > 0 ? freeBits.remove(cnt - 1) : new long[64];
+				sectionMap.add(key, bits);
+				if(sectionCount == sectionBits.length) {
+					int newLen = sectionCount << 1;
+					long[][] newBits = new long[newLen][];
+					System.arraycopy(sectionBits, 0, newBits, 0, sectionCount);
+					sectionBits = newBits;
+					int[] newArr = new int[newLen];
+					System.arraycopy(sectionX, 0, newArr, 0, sectionCount);
+					sectionX = newArr;
+					newArr = new int[newLen];
+					System.arraycopy(sectionY, 0, newArr, 0, sectionCount);
+					sectionY = newArr;
+					newArr = new int[newLen];
+					System.arraycopy(sectionZ, 0, newArr, 0, sectionCount);
+					sectionZ = newArr;
+					long[] newKeys = new long[newLen];
+					System.arraycopy(sectionKeys, 0, newKeys, 0, sectionCount);
+					sectionKeys = newKeys;
+				}
+				sectionBits[sectionCount] = bits;
+				sectionX[sectionCount] = sx;
+				sectionY[sectionCount] = sy;
+				sectionZ[sectionCount] = sz;
+				sectionKeys[sectionCount] = key;
+				++sectionCount;
+			}
+			int idx = ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+			bits[idx >> 6] |= 1l << (idx & 63);
+		}
+
+		private void clear() {
+			for(int i = 0; i < sectionCount; ++i) {
+				long[] bits = sectionBits[i];
+				for(int j = 0; j < 64; ++j) {
+					bits[j] = 0l;
+				}
+				sectionMap.remove(sectionKeys[i]);
+				if(freeBits.size() < 256) {
+					freeBits.add(bits);
+				}
+				sectionBits[i] = null;
+			}
+			sectionCount = 0;
+		}
+
+	}
+
+}
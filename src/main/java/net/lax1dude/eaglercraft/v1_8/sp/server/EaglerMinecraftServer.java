@@ -9,6 +9,7 @@ import com.google.common.collect.Lists;
 import net.lax1dude.eaglercraft.v1_8.EagRuntime;
 import net.lax1dude.eaglercraft.v1_8.internal.vfs2.VFile2;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+import net.lax1dude.eaglercraft.v1_8.minecraft.EntityQuerySite;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.init.Bootstrap;
@@ -17,6 +18,7 @@ import net.minecraft.world.EnumDifficulty;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.WorldSettings;
 import net.minecraft.world.WorldSettings.GameType;
+import net.minecraft.world.storage.ISaveHandler;
 import net.lax1dude.eaglercraft.v1_8.sp.server.skins.IntegratedCapeService;
 import net.lax1dude.eaglercraft.v1_8.sp.server.skins.IntegratedSkinService;
 import net.lax1dude.eaglercraft.v1_8.sp.server.voice.IntegratedVoiceService;
@@ -46,6 +48,8 @@ public class EaglerMinecraftServer extends MinecraftServer {
 	protected GameType gamemode;
 	protected WorldSettings newWorldSettings;
 	protected boolean paused;
+	protected boolean batchedLighting = true;
+	protected int terrainGenThreads = 0;
 	protected EaglerSaveHandler saveHandler;
 	protected IntegratedSkinService skinService;
 	protected IntegratedCapeService capeService;
@@ -59,6 +63,16 @@ public class EaglerMinecraftServer extends MinecraftServer {
 	public static int counterChunkWrite = 0;
 	public static int counterTileUpdate = 0;
 	public static int counterLightUpdate = 0;
+	public static long counterTrackerNanos = 0l;
+	public static int counterTrackerChecks = 0;
+	public static int counterChunkPrefetch = 0;
+	public static int counterChunkPacketHit = 0;
+	public static int counterChunkPacketMiss = 0;
+	public static long counterChunkPacketBytesSaved = 0l;
+	public static int counterPathComputed = 0;
+	public static int counterPathCoalesced = 0;
+	public static int counterPathDeferred = 0;
+	public static int counterPathNodes = 0;
 
 	private final List<Runnable> scheduledTasks = new LinkedList<>();
 
@@ -79,6 +93,22 @@ public class EaglerMinecraftServer extends MinecraftServer {
 		this.paused = false;
 	}
 
+	public void setBatchedLighting(boolean batchedLighting) {
+		this.batchedLighting = batchedLighting;
+	}
+
+	public boolean isBatchedLighting() {
+		return batchedLighting;
+	}
+
+	public void setTerrainGenThreads(int terrainGenThreads) {
+		this.terrainGenThreads = terrainGenThreads;
+	}
+
+	public int getTerrainGenThreads() {
+		return terrainGenThreads;
+	}
+
 	public IntegratedSkinService getSkinService() {
 		return skinService;
 	}
@@ -182,15 +212,29 @@ public class EaglerMinecraftServer extends MinecraftServer {
 						"TPS: " + counterTicksPerSecond + "/20",
 						"Chunks: " + countChunksLoaded(this.worldServers) + "/" + countChunksTotal(this.worldServers),
 						"Entities: " + countEntities(this.worldServers) + "+" + countTileEntities(this.worldServers),
-						"R: " + counterChunkRead + ", G: " + counterChunkGenerate + ", W: " + counterChunkWrite,
-						"TU: " + counterTileUpdate + ", LU: " + counterLightUpdate
+						"R: " + counterChunkRead + ", G: " + counterChunkGenerate + ", P: " + counterChunkPrefetch + ", W: " + counterChunkWrite,
+						"TU: " + counterTileUpdate + ", LU: " + counterLightUpdate,
+						"CP: " + counterChunkPacketHit + "/" + (counterChunkPacketHit + counterChunkPacketMiss) + ", S: "
+								+ (counterChunkPacketBytesSaved / 1024l) + "KB"
 				);
 				int players = countPlayerEntities(this.worldServers);
 				if(players > 1) {
 					lst.add("Players: " + players);
+					lst.add("ET: " + (counterTrackerNanos / 1000l / Math.max(counterTicksPerSecond, 1)) + "us/t, C: "
+							+ (counterTrackerChecks / Math.max(counterTicksPerSecond, 1)) + "/t");
+				}
+				if(counterPathComputed + counterPathCoalesced + counterPathDeferred > 0) {
+					lst.add("PF: " + counterPathComputed + "+" + counterPathCoalesced + ", D: " + counterPathDeferred
+							+ ", N: " + counterPathNodes);
 				}
+				EntityQuerySite.report(lst, counterTicksPerSecond, 3);
 				counterTicksPerSecond = counterChunkRead = counterChunkGenerate = 0;
 				counterChunkWrite = counterTileUpdate = counterLightUpdate = 0;
+				counterTrackerNanos = 0l;
+				counterTrackerChecks = counterChunkPrefetch = 0;
+				counterChunkPacketHit = counterChunkPacketMiss = 0;
+				counterChunkPacketBytesSaved = 0l;
+				counterPathComputed = counterPathCoalesced = counterPathDeferred = counterPathNodes = 0;
 				EaglerIntegratedServerWorker.reportTPS(lst);
 			}
 		}
@@ -250,6 +294,25 @@ public class EaglerMinecraftServer extends MinecraftServer {
 		return i;
 	}
 
+	/**
+	 * Waits for every chunk still queued by the chunk loaders to be written,
+	 * every dimension shares the same save handler so it is only flushed once
+	 */
+	public void flushAllWorlds() {
+		if(worldServers != null) {
+			ISaveHandler flushed = null;
+			for(int i = 0; i < worldServers.length; ++i) {
+				if(worldServers[i] != null) {
+					ISaveHandler handler = worldServers[i].getSaveHandler();
+					if(handler != flushed) {
+						handler.flush();
+						flushed = handler;
+					}
+				}
+			}
+		}
+	}
+
 	public void setPaused(boolean p) {
 		paused = p;
 		if(!p) {
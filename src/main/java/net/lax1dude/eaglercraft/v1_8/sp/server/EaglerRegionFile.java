@@ -0,0 +1,297 @@
+package net.lax1dude.eaglercraft.v1_8.sp.server;
+
+import java.util.Arrays;
+
+import net.lax1dude.eaglercraft.v1_8.internal.vfs2.VFile2;
+import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
+import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class EaglerRegionFile {
+
+	private static final Logger logger = LogManager.getLogger("EaglerRegionFile");
+
+	/**
+	 * Packs 32x32 chunks into a single blob so a save only costs one write per
+	 * region instead of one per chunk. The filesystem only supports replacing
+	 * whole files so the blob is kept in memory, chunks are updated in place in
+	 * the buffer and the whole region is written back when it is flushed.
+	 * 
+	 * Layout (big endian):
+	 * 0: magic "EAGR"
+	 * 4: version
+	 * 8: 1024x int, first sector of each chunk (0 = not saved)
+	 * 4104: 1024x int, length of each chunk in bytes
+	 * sectors: chunk data (GZIP compressed NBT, same as the old .dat files)
+	 */
+	public static final int MAGIC = 0x45414752;
+	public static final int VERSION = 1;
+
+	public static final int SECTOR_SIZE = 512;
+	public static final int HEADER_SIZE = 8 + 1024 * 8;
+	public static final int HEADER_SECTORS = (HEADER_SIZE + SECTOR_SIZE - 1) / SECTOR_SIZE;
+
+	public static final String FILE_EXTENSION = ".eagr";
+
+	public static String getRegionName(int regionX, int regionZ) {
+		return "r." + regionX + "." + regionZ + FILE_EXTENSION;
+	}
+
+	public static boolean isRegionName(String name) {
+		return name.startsWith("r.") && name.endsWith(FILE_EXTENSION);
+	}
+
+	public final VFile2 file;
+	public final int regionX;
+	public final int regionZ;
+
+	private final int[] offsets = new int[1024];
+	private final int[] lengths = new int[1024];
+	private boolean[] usedSectors;
+	private int sectorCount;
+	private byte[] data;
+	private boolean dirty = false;
+	private int chunkCount = 0;
+
+	long lastAccess = 0l;
+
+	public EaglerRegionFile(VFile2 file, int regionX, int regionZ) {
+		this.file = file;
+		this.regionX = regionX;
+		this.regionZ = regionZ;
+		byte[] b = file.getAllBytes();
+		if(b != null && !load(b)) {
+			logger.error("Region file is corrupt and will be recreated: {}", file.getPath());
+			Arrays.fill(offsets, 0);
+			Arrays.fill(lengths, 0);
+			chunkCount = 0;
+			b = null;
+		}
+		if(b == null) {
+			data = new byte[HEADER_SECTORS * SECTOR_SIZE * 4];
+			usedSectors = new boolean[data.length / SECTOR_SIZE];
+			sectorCount = HEADER_SECTORS;
+			for(int i = 0; i < HEADER_SECTORS; ++i) {
+				usedSectors[i] = true;
+			}
+		}
+	}
+
+	private boolean load(byte[] b) {
+		if(b.length < HEADER_SIZE || readInt(b, 0) != MAGIC) {
+			return false;
+		}
+		int ver = readInt(b, 4);
+		if(ver != VERSION) {
+			logger.error("Unsupported region file version {}: {}", ver, file.getPath());
+			return false;
+		}
+		sectorCount = (b.length + SECTOR_SIZE - 1) / SECTOR_SIZE;
+		data = b.length == sectorCount * SECTOR_SIZE ? b : Arrays.copyOf(b, sectorCount * SECTOR_SIZE);
+		usedSectors = new boolean[sectorCount];
+		for(int i = 0; i < HEADER_SECTORS; ++i) {
+			usedSectors[i] = true;
+		}
+		for(int i = 0; i < 1024; ++i) {
+			int off = readInt(b, 8 + (i << 2));
+			int len = readInt(b, 4104 + (i << 2));
+			if(off == 0) {
+				continue;
+			}
+			int cnt = (len + SECTOR_SIZE - 1) / SECTOR_SIZE;
+			if(off < HEADER_SECTORS || len <= 0 || off * SECTOR_SIZE + len > b.length) {
+				logger.warn("Dropping invalid chunk entry {} in region file: {}", i, file.getPath());
+				writeEntry(i, 0, 0);
+				dirty = true;
+				continue;
+			}
+			boolean overlap = false;
+			for(int j = 0; j < cnt; ++j) {
+				if(usedSectors[off + j]) {
+					overlap = true;
+					break;
+				}
+			}
+			if(overlap) {
+				logger.warn("Dropping overlapping chunk entry {} in region file: {}", i, file.getPath());
+				writeEntry(i, 0, 0);
+				dirty = true;
+				continue;
+			}
+			for(int j = 0; j < cnt; ++j) {
+				usedSectors[off + j] = true;
+			}
+			offsets[i] = off;
+			lengths[i] = len;
+			++chunkCount;
+		}
+		return true;
+	}
+
+	public boolean isChunkSaved(int x, int z) {
+		return offsets[(x & 31) | ((z & 31) << 5)] != 0;
+	}
+
+	public int getChunkCount() {
+		return chunkCount;
+	}
+
+	public boolean isDirty() {
+		return dirty;
+	}
+
+	/**
+	 * Returns a copy of the chunk's compressed data or null if it was never
+	 * saved
+	 */
+	public byte[] readChunk(int x, int z) {
+		int i = (x & 31) | ((z & 31) << 5);
+		int off = offsets[i];
+		if(off == 0) {
+			return null;
+		}
+		off *= SECTOR_SIZE;
+		return Arrays.copyOfRange(data, off, off + lengths[i]);
+	}
+
+	public void writeChunk(int x, int z, byte[] b, int offset, int length) {
+		if(length <= 0) {
+			deleteChunk(x, z);
+			return;
+		}
+		int i = (x & 31) | ((z & 31) << 5);
+		int needed = (length + SECTOR_SIZE - 1) / SECTOR_SIZE;
+		int off = offsets[i];
+		if(off != 0) {
+			int cnt = (lengths[i] + SECTOR_SIZE - 1) / SECTOR_SIZE;
+			if(needed <= cnt) {
+				for(int j = needed; j < cnt; ++j) {
+					usedSectors[off + j] = false;
+				}
+			}else {
+				for(int j = 0; j < cnt; ++j) {
+					usedSectors[off + j] = false;
+				}
+				off = allocateSectors(needed);
+			}
+		}else {
+			off = allocateSectors(needed);
+			++chunkCount;
+		}
+		System.arraycopy(b, offset, data, off * SECTOR_SIZE, length);
+		offsets[i] = off;
+		lengths[i] = length;
+		writeEntry(i, off, length);
+		dirty = true;
+	}
+
+	public void deleteChunk(int x, int z) {
+		int i = (x & 31) | ((z & 31) << 5);
+		int off = offsets[i];
+		if(off != 0) {
+			int cnt = (lengths[i] + SECTOR_SIZE - 1) / SECTOR_SIZE;
+			for(int j = 0; j < cnt; ++j) {
+				usedSectors[off + j] = false;
+			}
+			offsets[i] = 0;
+			lengths[i] = 0;
+			writeEntry(i, 0, 0);
+			--chunkCount;
+			dirty = true;
+		}
+	}
+
+	private int allocateSectors(int needed) {
+		int run = 0;
+		for(int i = HEADER_SECTORS; i < sectorCount; ++i) {
+			if(usedSectors[i]) {
+				run = 0;
+			}else if(++run == needed) {
+				int start = i - needed + 1;
+				for(int j = start; j <= i; ++j) {
+					usedSectors[j] = true;
+				}
+				return start;
+			}
+		}
+		int start = sectorCount - run;
+		int end = start + needed;
+		if(end > usedSectors.length) {
+			int newSize = Math.max(end, usedSectors.length + (usedSectors.length >> 1));
+			usedSectors = Arrays.copyOf(usedSectors, newSize);
+		}
+		if(end * SECTOR_SIZE > data.length) {
+			data = Arrays.copyOf(data, usedSectors.length * SECTOR_SIZE);
+		}
+		for(int j = start; j < end; ++j) {
+			usedSectors[j] = true;
+		}
+		sectorCount = end;
+		return start;
+	}
+
+	private void writeEntry(int i, int off, int len) {
+		writeInt(data, 8 + (i << 2), off);
+		writeInt(data, 4104 + (i << 2), len);
+	}
+
+	/**
+	 * Writes the region back to the filesystem if it was modified, the file is
+	 * deleted if it no longer contains any chunks
+	 */
+	public void flush() {
+		if(!dirty) {
+			return;
+		}
+		dirty = false;
+		if(chunkCount == 0) {
+			file.delete();
+			return;
+		}
+		int end = sectorCount;
+		while(end > HEADER_SECTORS && !usedSectors[end - 1]) {
+			--end;
+		}
+		sectorCount = end;
+		int endBytes = end * SECTOR_SIZE;
+		for(int i = 0; i < 1024; ++i) {
+			if(offsets[i] != 0 && offsets[i] + (lengths[i] + SECTOR_SIZE - 1) / SECTOR_SIZE == end) {
+				endBytes = offsets[i] * SECTOR_SIZE + lengths[i];
+				break;
+			}
+		}
+		writeInt(data, 0, MAGIC);
+		writeInt(data, 4, VERSION);
+		file.setAllBytes(data.length == endBytes ? data : Arrays.copyOf(data, endBytes));
+	}
+
+	public int getSizeBytes() {
+		return sectorCount * SECTOR_SIZE;
+	}
+
+	private static int readInt(byte[] b, int i) {
+		return ((b[i] & 0xFF) << 24) | ((b[i + 1] & 0xFF) << 16) | ((b[i + 2] & 0xFF) << 8) | (b[i + 3] & 0xFF);
+	}
+
+	private static void writeInt(byte[] b, int i, int v) {
+		b[i] = (byte) (v >>> 24);
+		b[i + 1] = (byte) (v >>> 16);
+		b[i + 2] = (byte) (v >>> 8);
+		b[i + 3] = (byte) v;
+	}
+
+}
@@ -0,0 +1,297 @@
+package net.lax1dude.eaglercraft.v1_8.sp.server;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import net.lax1dude.eaglercraft.v1_8.EagRuntime;
+import net.lax1dude.eaglercraft.v1_8.internal.IWorkerThreadPool;
+import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
+import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.MathHelper;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.biome.BiomeGenBase;
+import net.minecraft.world.chunk.ChunkPrimer;
+import net.minecraft.world.gen.ChunkProviderGenerate;
+import net.minecraft.world.gen.ChunkProviderServer;
+import net.minecraft.world.gen.layer.IntCache;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class EaglerTerrainPipeline {
+
+	/**
+	 * Generates the noise terrain and biomes of chunks on worker threads
+	 * before the server asks for them, by looking at where the players are
+	 * walking. Every worker has its own ChunkProviderGenerate and biome layers
+	 * created from the same seed, so the result is the same as generating the
+	 * chunk on the server thread. Surface blocks, caves, structures and
+	 * population still run on the server thread because they share state
+	 * with the world and the biome singletons.
+	 */
+
+	private static final Logger logger = LogManager.getLogger("EaglerTerrainPipeline");
+
+	public static final int SAMPLE_TICKS = 10;
+	public static final int LOOKAHEAD_CHUNKS = 3;
+	public static final int MAX_TASKS_PER_WORKER = 8;
+	public static final int STALE_TICKS = 600;
+
+	private static final double MIN_MOVE_SQ = 4.0;
+
+	private final IWorkerThreadPool pool;
+	private final int threadCount;
+	private final List<ChunkProviderGenerate> idleGenerators;
+	private final Map<Long, TerrainTask> tasks = Maps.newHashMap();
+	private final Map<EntityPlayer, double[]> playerSamples = Maps.newHashMap();
+	private final Set<Long> knownSaved = Sets.newHashSet();
+	private final int maxTasks;
+	private int tickCounter = 0;
+
+	private int statRequested = 0;
+	private int statUsed = 0;
+	private int statWasted = 0;
+	private long statWorkerNanos = 0l;
+	private int statWorkerChunks = 0;
+
+	public EaglerTerrainPipeline(ChunkProviderGenerate[] generators) {
+		this.threadCount = generators.length;
+		this.idleGenerators = Lists.newArrayList(generators);
+		IntCache.enablePerThreadCaches();
+		this.pool = EagRuntime.createWorkerThreadPool("Terrain Worker", threadCount);
+		this.maxTasks = threadCount * MAX_TASKS_PER_WORKER;
+		logger.info("Generating terrain ahead of players on {} worker thread(s)", threadCount);
+	}
+
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Samples the movement of every player and queues the chunks past the edge
+	 * of their view distance in the direction they are moving
+	 */
+	public void tick(WorldServer world, ChunkProviderServer provider) {
+		if(++tickCounter % SAMPLE_TICKS != 0) {
+			return;
+		}
+		if(tickCounter % STALE_TICKS == 0) {
+			evictStale();
+			knownSaved.clear();
+		}
+		List<EntityPlayer> players = world.playerEntities;
+		if(playerSamples.size() > players.size()) {
+			playerSamples.keySet().retainAll(players);
+		}
+		int viewDistance = world.getMinecraftServer().getConfigurationManager().getViewDistance();
+		for(int i = 0, l = players.size(); i < l; ++i) {
+			EntityPlayer player = players.get(i);
+			double[] sample = playerSamples.get(player);
+			if(sample == null) {
+				playerSamples.put(player, new double[] { player.posX, player.posZ });
+				continue;
+			}
+			double dx = player.posX - sample[0];
+			double dz = player.posZ - sample[1];
+			sample[0] = player.posX;
+			sample[1] = player.posZ;
+			double lenSq = dx * dx + dz * dz;
+			if(lenSq < MIN_MOVE_SQ) {
+				continue;
+			}
+			double len = Math.sqrt(lenSq);
+			double nx = dx / len;
+			double nz = dz / len;
+			int pcx = MathHelper.floor_double(player.posX) >> 4;
+			int pcz = MathHelper.floor_double(player.posZ) >> 4;
+			int spread = viewDistance + 1;
+			for(int d = viewDistance; d <= viewDistance + LOOKAHEAD_CHUNKS; ++d) {
+				double cx = pcx + nx * d;
+				double cz = pcz + nz * d;
+				for(int w = 0; w <= spread; ++w) {
+					if(tasks.size() >= maxTasks) {
+						return;
+					}
+					request(provider, MathHelper.floor_double(cx - nz * w + 0.5), MathHelper.floor_double(cz + nx * w + 0.5));
+					if(w > 0) {
+						request(provider, MathHelper.floor_double(cx + nz * w + 0.5), MathHelper.floor_double(cz - nx * w + 0.5));
+					}
+				}
+			}
+		}
+	}
+
+	private void request(ChunkProviderServer provider, int chunkX, int chunkZ) {
+		Long key = ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ);
+		if(tasks.containsKey(key) || knownSaved.contains(key)) {
+			return;
+		}
+		if(!provider.needsGeneration(chunkX, chunkZ)) {
+			knownSaved.add(key);
+			return;
+		}
+		TerrainTask task = new TerrainTask(chunkX, chunkZ, tickCounter);
+		tasks.put(key, task);
+		++statRequested;
+		pool.execute(task);
+	}
+
+	/**
+	 * Returns the terrain of the chunk if it was generated ahead of time, or
+	 * null if the server thread has to generate it. If a worker is busy with
+	 * the chunk this waits for it to finish.
+	 */
+	public TerrainData take(int chunkX, int chunkZ) {
+		TerrainTask task = tasks.remove(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+		if(task == null) {
+			return null;
+		}
+		TerrainData ret = task.take();
+		if(ret != null) {
+			++statUsed;
+			++EaglerMinecraftServer.counterChunkPrefetch;
+		}
+		return ret;
+	}
+
+	private void evictStale() {
+		Iterator<TerrainTask> itr = tasks.values().iterator();
+		while(itr.hasNext()) {
+			TerrainTask task = itr.next();
+			if(tickCounter - task.requestTick > STALE_TICKS && task.isDone()) {
+				itr.remove();
+				++statWasted;
+			}
+		}
+	}
+
+	public void shutdown() {
+		Iterator<TerrainTask> itr = tasks.values().iterator();
+		while(itr.hasNext()) {
+			itr.next().cancel();
+		}
+		tasks.clear();
+		pool.shutdown();
+		int chunks;
+		long nanos;
+		synchronized(idleGenerators) {
+			chunks = statWorkerChunks;
+			nanos = statWorkerNanos;
+		}
+		logger.info("Terrain workers: {} requested, {} used, {} discarded, {} generated at {} chunks/s per worker",
+				statRequested, statUsed, statWasted, chunks,
+				nanos > 0l ? (int) (chunks * 1000000000l / nanos) : 0);
+	}
+
+	public static class TerrainData {
+
+		public final ChunkPrimer primer;
+		public final BiomeGenBase[] biomes;
+
+		public TerrainData(ChunkPrimer primer, BiomeGenBase[] biomes) {
+			this.primer = primer;
+			this.biomes = biomes;
+		}
+
+	}
+
+	private class TerrainTask implements Runnable {
+
+		private static final int QUEUED = 0;
+		private static final int RUNNING = 1;
+		private static final int DONE = 2;
+		private static final int CANCELLED = 3;
+
+		private final int chunkX;
+		private final int chunkZ;
+		private final int requestTick;
+		private int state = QUEUED;
+		private TerrainData result = null;
+
+		private TerrainTask(int chunkX, int chunkZ, int requestTick) {
+			this.chunkX = chunkX;
+			this.chunkZ = chunkZ;
+			this.requestTick = requestTick;
+		}
+
+		@Override
+		public void run() {
+			synchronized(this) {
+				if(state != QUEUED) {
+					return;
+				}
+				state = RUNNING;
+			}
+			ChunkProviderGenerate generator;
+			synchronized(idleGenerators) {
+				generator = idleGenerators.remove(idleGenerators.size() - 1);
+			}
+			TerrainData data = null;
+			long start = System.nanoTime();
+			try {
+				data = generator.generateTerrain(chunkX, chunkZ);
+			}catch(Throwable t) {
+				logger.error("Failed to generate terrain for chunk {}, {} on a worker thread!", chunkX, chunkZ);
+				logger.error(t);
+			}finally {
+				long elapsed = System.nanoTime() - start;
+				synchronized(idleGenerators) {
+					idleGenerators.add(generator);
+					statWorkerNanos += elapsed;
+					++statWorkerChunks;
+				}
+			}
+			synchronized(this) {
+				result = data;
+				state = DONE;
+				notifyAll();
+			}
+		}
+
+		private synchronized TerrainData take() {
+			if(state == QUEUED) {
+				state = CANCELLED;
+				return null;
+			}
+			while(state == RUNNING) {
+				try {
+					wait();
+				}catch(InterruptedException e) {
+				}
+			}
+			return result;
+		}
+
+		private synchronized boolean isDone() {
+			return state == DONE;
+		}
+
+		private synchronized void cancel() {
+			if(state == QUEUED) {
+				state = CANCELLED;
+			}
+		}
+
+	}
+
+}
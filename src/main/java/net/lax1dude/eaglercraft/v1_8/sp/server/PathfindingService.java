@@ -0,0 +1,174 @@
+package net.lax1dude.eaglercraft.v1_8.sp.server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import net.lax1dude.eaglercraft.v1_8.minecraft.PathNodePool;
+import net.minecraft.entity.Entity;
+import net.minecraft.pathfinding.PathEntity;
+import net.minecraft.pathfinding.PathPoint;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.pathfinder.NodeProcessor;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class PathfindingService {
+
+	/**
+	 * Shared pathfinding state of a server world. Searches borrow the node pool
+	 * and walkability cache from here, identical requests made in the same tick
+	 * (usually mobs standing in the same spot chasing the same target) get a
+	 * copy of the first result, and once the per tick budget has been spent the
+	 * navigators keep following their current path until the next tick.
+	 */
+
+	public static final long BUDGET_NANOS = 5000000l;
+
+	private final WorldServer world;
+	private final PathNodePool nodePool = new PathNodePool();
+	private final WalkabilityCache walkabilityCache;
+	private final Map<Request, PathPoint[]> tickResults = new HashMap<>();
+	private long tickNanos = 0l;
+
+	public PathfindingService(WorldServer world) {
+		this.world = world;
+		this.walkabilityCache = new WalkabilityCache(world);
+	}
+
+	public static PathfindingService get(World world) {
+		return world instanceof WorldServer ? ((WorldServer) world).getPathfindingService() : null;
+	}
+
+	public void tick() {
+		tickNanos = 0l;
+		tickResults.clear();
+		walkabilityCache.tick(world.getTotalWorldTime());
+	}
+
+	public PathNodePool getNodePool() {
+		return nodePool;
+	}
+
+	public WalkabilityCache getWalkabilityCache() {
+		return walkabilityCache;
+	}
+
+	/**
+	 * Returns true and counts a budget overrun if no more paths should be
+	 * computed this tick
+	 */
+	public boolean deferRequest() {
+		if(tickNanos >= BUDGET_NANOS) {
+			++EaglerMinecraftServer.counterPathDeferred;
+			return true;
+		}
+		return false;
+	}
+
+	public Request createRequest(NodeProcessor processor, Entity entity, PathPoint start, PathPoint end,
+			float maxDistance) {
+		return new Request(processor.getClass(), processor.getRequestFlags(entity), entity.getMaxFallHeight(),
+				start.xCoord, start.yCoord, start.zCoord, end.xCoord, end.yCoord, end.zCoord, maxDistance);
+	}
+
+	public boolean hasResult(Request req) {
+		return tickResults.containsKey(req);
+	}
+
+	/**
+	 * Returns a copy of the path computed for an identical request earlier
+	 * this tick, null if that search failed. Check hasResult first. Every
+	 * caller gets its own array since each PathEntity is followed and trimmed
+	 * independently.
+	 */
+	public PathEntity getResult(Request req) {
+		PathPoint[] points = tickResults.get(req);
+		++EaglerMinecraftServer.counterPathCoalesced;
+		return points != null ? new PathEntity(points.clone()) : null;
+	}
+
+	public void addResult(Request req, PathEntity path, int nodesExpanded, long nanos) {
+		PathPoint[] points = null;
+		if(path != null) {
+			points = new PathPoint[path.getCurrentPathLength()];
+			for(int i = 0; i < points.length; ++i) {
+				points[i] = path.getPathPointFromIndex(i);
+			}
+		}
+		tickResults.put(req, points);
+		tickNanos += nanos;
+		++EaglerMinecraftServer.counterPathComputed;
+		EaglerMinecraftServer.counterPathNodes += nodesExpanded;
+	}
+
+	public static class Request {
+
+		private final Class<?> processor;
+		private final int flags;
+		private final int maxFall;
+		private final int startX;
+		private final int startY;
+		private final int startZ;
+		private final int endX;
+		private final int endY;
+		private final int endZ;
+		private final float maxDistance;
+		private final int hash;
+
+		private Request(Class<?> processor, int flags, int maxFall, int startX, int startY, int startZ, int endX,
+				int endY, int endZ, float maxDistance) {
+			this.processor = processor;
+			this.flags = flags;
+			this.maxFall = maxFall;
+			this.startX = startX;
+			this.startY = startY;
+			this.startZ = startZ;
+			this.endX = endX;
+			this.endY = endY;
+			this.endZ = endZ;
+			this.maxDistance = maxDistance;
+			int h = processor.hashCode();
+			h = h * 31 + flags;
+			h = h * 31 + maxFall;
+			h = h * 31 + PathPoint.makeHash(startX, startY, startZ);
+			h = h * 31 + PathPoint.makeHash(endX, endY, endZ);
+			h = h * 31 + Float.floatToIntBits(maxDistance);
+			this.hash = h;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(this == o) {
+				return true;
+			}
+			if(!(o instanceof Request)) {
+				return false;
+			}
+			Request r = (Request) o;
+			return hash == r.hash && processor == r.processor && flags == r.flags && maxFall == r.maxFall
+					&& startX == r.startX && startY == r.startY && startZ == r.startZ && endX == r.endX
+					&& endY == r.endY && endZ == r.endZ && maxDistance == r.maxDistance;
+		}
+
+	}
+
+}
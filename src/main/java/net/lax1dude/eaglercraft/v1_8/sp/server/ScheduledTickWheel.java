@@ -0,0 +1,291 @@
+package net.lax1dude.eaglercraft.v1_8.sp.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.LongHashMap;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.NextTickListEntry;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class ScheduledTickWheel {
+
+	/**
+	 * Replaces the TreeSet and HashSet pair WorldServer used for scheduled
+	 * block updates. Entries are hashed into a wheel of per-tick buckets by
+	 * their scheduled time, so adding one is a hash lookup and an append
+	 * instead of a tree insert. A bucket is only sorted, by priority and
+	 * insertion order, when its tick comes up, and it is usually already in
+	 * order. Entries scheduled before the current tick go into a separate
+	 * overdue bucket that is drained first. Together this gives the same order
+	 * as NextTickListEntry.compareTo.
+	 * 
+	 * Entries are also indexed by chunk. This is used to find duplicates and
+	 * to answer box queries during chunk saving without scanning the whole
+	 * queue. Removing an entry only drops it from the chunk index, and the
+	 * wheel skips it when its bucket is drained.
+	 */
+
+	public static final int WHEEL_BITS = 8;
+	public static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+	public static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+	private final TickBucket[] slots = new TickBucket[WHEEL_SIZE];
+	private final TickBucket overdue = new TickBucket();
+	private final List<TickBucket> freeBuckets = new ArrayList<>();
+	private final LongHashMap<Map<NextTickListEntry, NextTickListEntry>> chunks = new LongHashMap<>();
+	private final List<Map<NextTickListEntry, NextTickListEntry>> freeMaps = new ArrayList<>();
+	private long cursor;
+	private int bucketCount = 0;
+	private int size = 0;
+
+	public ScheduledTickWheel(long currentTime) {
+		this.cursor = currentTime;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private static long chunkKey(BlockPos pos) {
+		return ChunkCoordIntPair.chunkXZ2Int(pos.getX() >> 4, pos.getZ() >> 4);
+	}
+
+	public boolean contains(NextTickListEntry entry) {
+		Map<NextTickListEntry, NextTickListEntry> map = chunks.getValueByKey(chunkKey(entry.position));
+		return map != null && map.containsKey(entry);
+	}
+
+	/**
+	 * Adds the entry unless an equal one (same position and block) is already
+	 * scheduled, returns false if it was a duplicate
+	 */
+	public boolean add(NextTickListEntry entry) {
+		long key = chunkKey(entry.position);
+		Map<NextTickListEntry, NextTickListEntry> map = chunks.getValueByKey(key);
+		if(map == null) {
+			int cnt = freeMaps.size();
+			map = cnt > 0 ? freeMaps.remove(cnt - 1) : new HashMap<>();
+			chunks.add(key, map);
+		}else if(map.containsKey(entry)) {
+			return false;
+		}
+		map.put(entry, entry);
+		++size;
+		long time = entry.scheduledTime;
+		if(time < cursor) {
+			overdue.append(entry);
+		}else {
+			int slot = (int) time & WHEEL_MASK;
+			TickBucket bucket = slots[slot];
+			while(bucket != null && bucket.time != time) {
+				bucket = bucket.next;
+			}
+			if(bucket == null) {
+				int cnt = freeBuckets.size();
+				bucket = cnt > 0 ? freeBuckets.remove(cnt - 1) : new TickBucket();
+				bucket.time = time;
+				bucket.next = slots[slot];
+				slots[slot] = bucket;
+				++bucketCount;
+			}
+			bucket.append(entry);
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the exact entry object from the index, returns false if it is not
+	 * scheduled anymore
+	 */
+	private boolean removeLive(NextTickListEntry entry) {
+		long key = chunkKey(entry.position);
+		Map<NextTickListEntry, NextTickListEntry> map = chunks.getValueByKey(key);
+		if(map == null || map.get(entry) != entry) {
+			return false;
+		}
+		map.remove(entry);
+		--size;
+		if(map.isEmpty()) {
+			chunks.remove(key);
+			if(freeMaps.size() < 64) {
+				freeMaps.add(map);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Moves up to limit entries that are due at the time now into the list in
+	 * the order vanilla would run them, or every entry if all is true
+	 */
+	public int poll(long now, boolean all, int limit, List<NextTickListEntry> out) {
+		if(bucketCount == 0 && cursor < now) {
+			cursor = now;
+		}
+		int n = drain(overdue, limit, out);
+		if(overdue.readIndex < overdue.count) {
+			return n;
+		}
+		overdue.clear();
+		while(n < limit && bucketCount > 0) {
+			if(!all && cursor > now) {
+				break;
+			}
+			int slot = (int) cursor & WHEEL_MASK;
+			TickBucket prev = null;
+			TickBucket bucket = slots[slot];
+			while(bucket != null && bucket.time != cursor) {
+				prev = bucket;
+				bucket = bucket.next;
+			}
+			if(bucket != null) {
+				n += drain(bucket, limit - n, out);
+				if(bucket.readIndex < bucket.count) {
+					break;
+				}
+				if(prev == null) {
+					slots[slot] = bucket.next;
+				}else {
+					prev.next = bucket.next;
+				}
+				--bucketCount;
+				bucket.clear();
+				if(freeBuckets.size() < 256) {
+					freeBuckets.add(bucket);
+				}
+			}
+			++cursor;
+		}
+		if(cursor > now + 1l) {
+			// draining everything can run ahead of now, entries scheduled after now must
+			// still go into the wheel instead of the overdue bucket
+			cursor = now + 1l;
+		}
+		return n;
+	}
+
+	private int drain(TickBucket bucket, int limit, List<NextTickListEntry> out) {
+		if(!bucket.sorted) {
+			Arrays.sort(bucket.entries, bucket.readIndex, bucket.count);
+			bucket.sorted = true;
+		}
+		int n = 0;
+		NextTickListEntry[] entries = bucket.entries;
+		while(n < limit && bucket.readIndex < bucket.count) {
+			NextTickListEntry entry = entries[bucket.readIndex];
+			entries[bucket.readIndex++] = null;
+			if(removeLive(entry)) {
+				out.add(entry);
+				++n;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Returns the scheduled entries with X and Z inside the box (max
+	 * exclusive) in tick order, or null if there are none. If remove is true
+	 * they are also unscheduled.
+	 */
+	public List<NextTickListEntry> getEntriesInBox(int minX, int minZ, int maxX, int maxZ, boolean remove) {
+		if(size == 0 || maxX <= minX || maxZ <= minZ) {
+			return null;
+		}
+		List<NextTickListEntry> ret = null;
+		int cx0 = minX >> 4, cx1 = (maxX - 1) >> 4;
+		int cz0 = minZ >> 4, cz1 = (maxZ - 1) >> 4;
+		for(int cx = cx0; cx <= cx1; ++cx) {
+			for(int cz = cz0; cz <= cz1; ++cz) {
+				long key = ChunkCoordIntPair.chunkXZ2Int(cx, cz);
+				Map<NextTickListEntry, NextTickListEntry> map = chunks.getValueByKey(key);
+				if(map == null) {
+					continue;
+				}
+				Iterator<NextTickListEntry> itr = map.values().iterator();
+				while(itr.hasNext()) {
+					NextTickListEntry entry = itr.next();
+					BlockPos pos = entry.position;
+					if(pos.getX() >= minX && pos.getX() < maxX && pos.getZ() >= minZ && pos.getZ() < maxZ) {
+						if(remove) {
+							itr.remove();
+							--size;
+						}
+						if(ret == null) {
+							ret = new ArrayList<>();
+						}
+						ret.add(entry);
+					}
+				}
+				if(remove && map.isEmpty()) {
+					chunks.remove(key);
+					if(freeMaps.size() < 64) {
+						freeMaps.add(map);
+					}
+				}
+			}
+		}
+		if(ret != null) {
+			Collections.sort(ret);
+		}
+		return ret;
+	}
+
+	private static class TickBucket {
+
+		private long time;
+		private TickBucket next;
+		private NextTickListEntry[] entries = new NextTickListEntry[16];
+		private int count = 0;
+		private int readIndex = 0;
+		private boolean sorted = true;
+
+		private void append(NextTickListEntry entry) {
+			if(count == entries.length) {
+				if(readIndex > 0) {
+					System.arraycopy(entries, readIndex, entries, 0, count - readIndex);
+					Arrays.fill(entries, count - readIndex, count, null);
+					count -= readIndex;
+					readIndex = 0;
+				}
+				if(count == entries.length) {
+					entries = Arrays.copyOf(entries, count << 1);
+				}
+			}
+			if(sorted && count > readIndex && entries[count - 1].compareTo(entry) > 0) {
+				sorted = false;
+			}
+			entries[count++] = entry;
+		}
+
+		private void clear() {
+			Arrays.fill(entries, readIndex, count, null);
+			count = 0;
+			readIndex = 0;
+			sorted = true;
+			next = null;
+		}
+
+	}
+
+}
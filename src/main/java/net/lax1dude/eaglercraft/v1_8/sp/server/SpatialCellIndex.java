@@ -0,0 +1,125 @@
+package net.lax1dude.eaglercraft.v1_8.sp.server;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.util.LongHashMap;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class SpatialCellIndex<T> {
+
+	/**
+	 * Buckets objects into square cells on the X/Z plane so range queries only
+	 * have to look at the cells that overlap the range. The caller remembers
+	 * which cell each object is in and calls move when that changes.
+	 */
+
+	public final int cellShift;
+
+	private final LongHashMap<List<T>> cells = new LongHashMap<>();
+	private final List<List<T>> freeLists = new ArrayList<>();
+	private int size = 0;
+
+	public SpatialCellIndex(int cellShift) {
+		this.cellShift = cellShift;
+	}
+
+	public int toCell(int blockCoord) {
+		return blockCoord >> cellShift;
+	}
+
+	public static long cellKey(int cellX, int cellZ) {
+		return ((long) cellX & 0xFFFFFFFFl) | (((long) cellZ & 0xFFFFFFFFl) << 32);
+	}
+
+	public void add(T obj, int cellX, int cellZ) {
+		long key = cellKey(cellX, cellZ);
+		List<T> lst = cells.getValueByKey(key);
+		if(lst == null) {
+			int cnt = freeLists.size();
+			lst = cnt > 0 ? freeLists.remove(cnt - 1) : new ArrayList<>(4);
+			cells.add(key, lst);
+		}
+		lst.add(obj);
+		++size;
+	}
+
+	public boolean remove(T obj, int cellX, int cellZ) {
+		long key = cellKey(cellX, cellZ);
+		List<T> lst = cells.getValueByKey(key);
+		if(lst == null) {
+			return false;
+		}
+		for(int i = 0, l = lst.size(); i < l; ++i) {
+			if(lst.get(i) == obj) {
+				// order within a cell doesn't matter, swap with the last one
+				T last = lst.remove(l - 1);
+				if(i != l - 1) {
+					lst.set(i, last);
+				}
+				if(l == 1) {
+					cells.remove(key);
+					if(freeLists.size() < 64) {
+						freeLists.add(lst);
+					}
+				}
+				--size;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public void move(T obj, int oldCellX, int oldCellZ, int newCellX, int newCellZ) {
+		if(oldCellX != newCellX || oldCellZ != newCellZ) {
+			remove(obj, oldCellX, oldCellZ);
+			add(obj, newCellX, newCellZ);
+		}
+	}
+
+	/**
+	 * Returns the objects in a cell or null if there are none, the list must
+	 * not be modified
+	 */
+	public List<T> getCell(int cellX, int cellZ) {
+		return cells.getValueByKey(cellKey(cellX, cellZ));
+	}
+
+	/**
+	 * Appends every object in the cells overlapping the block range (inclusive)
+	 * to the output list
+	 */
+	public void collect(int minX, int minZ, int maxX, int maxZ, List<T> output) {
+		int cx0 = minX >> cellShift;
+		int cz0 = minZ >> cellShift;
+		int cx1 = maxX >> cellShift;
+		int cz1 = maxZ >> cellShift;
+		for(int cx = cx0; cx <= cx1; ++cx) {
+			for(int cz = cz0; cz <= cz1; ++cz) {
+				List<T> lst = cells.getValueByKey(cellKey(cx, cz));
+				if(lst != null) {
+					output.addAll(lst);
+				}
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+}
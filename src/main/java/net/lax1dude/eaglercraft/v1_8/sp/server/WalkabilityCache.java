@@ -0,0 +1,186 @@
+package net.lax1dude.eaglercraft.v1_8.sp.server;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockDoor;
+import net.minecraft.block.BlockFence;
+import net.minecraft.block.BlockFenceGate;
+import net.minecraft.block.BlockRailBase;
+import net.minecraft.block.BlockWall;
+import net.minecraft.block.material.Material;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.LongHashMap;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class WalkabilityCache {
+
+	/**
+	 * Remembers how WalkNodeProcessor sees each block of recently searched
+	 * sections, so mobs pathing through the same area don't each re-read the
+	 * block states. The codes only depend on the block state, everything that
+	 * depends on the entity (doors, water, lava, rails) is decided by the
+	 * processor. A section is cleared when its chunk's modification count
+	 * changes and dropped when it hasn't been created in the last few seconds.
+	 */
+
+	public static final byte UNKNOWN = 0;
+	public static final byte AIR = 1;
+	public static final byte PASSABLE = 2;
+	public static final byte SOLID = 3;
+	public static final byte TRAPDOOR_OPEN = 4;
+	public static final byte TRAPDOOR_CLOSED = 5;
+	public static final byte WATER = 6;
+	public static final byte WOOD_DOOR_OPEN = 7;
+	public static final byte WOOD_DOOR_CLOSED = 8;
+	public static final byte RAIL = 9;
+	public static final byte FENCE = 10;
+	public static final byte LAVA = 11;
+
+	private static final int SECTION_LIFETIME_TICKS = 100;
+	private static final int MAX_SECTIONS = 512;
+
+	private final World world;
+	private final LongHashMap<Section> sections = new LongHashMap<>();
+	private final List<Section> sectionList = new ArrayList<>();
+	private final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+	private long worldTime = 0l;
+	private Section lastSection = null;
+
+	public WalkabilityCache(World world) {
+		this.world = world;
+	}
+
+	public void tick(long worldTime) {
+		this.worldTime = worldTime;
+		lastSection = null;
+		for(int i = sectionList.size() - 1; i >= 0; --i) {
+			Section s = sectionList.get(i);
+			if(worldTime - s.created > SECTION_LIFETIME_TICKS || !s.chunk.isLoaded()) {
+				removeSection(i);
+			}
+		}
+	}
+
+	public int size() {
+		return sectionList.size();
+	}
+
+	public byte getCode(int x, int y, int z) {
+		if(y < 0 || y >= 256) {
+			return AIR;
+		}
+		long key = sectionKey(x >> 4, y >> 4, z >> 4);
+		Section s = lastSection;
+		if(s == null || s.key != key) {
+			s = sections.getValueByKey(key);
+			if(s == null) {
+				int cx = x >> 4;
+				int cz = z >> 4;
+				if(!world.getChunkProvider().chunkExists(cx, cz)) {
+					// ChunkCache treats missing chunks as air as well
+					return AIR;
+				}
+				if(sectionList.size() >= MAX_SECTIONS) {
+					removeSection(0);
+				}
+				s = new Section(key, world.getChunkFromChunkCoords(cx, cz), worldTime);
+				sections.add(key, s);
+				sectionList.add(s);
+			}else if(!s.chunk.isLoaded()) {
+				return AIR;
+			}
+			lastSection = s;
+		}
+		int modCount = s.chunk.getModificationCount();
+		if(s.modCount != modCount) {
+			s.modCount = modCount;
+			byte[] codes = s.codes;
+			for(int i = 0; i < codes.length; ++i) {
+				codes[i] = UNKNOWN;
+			}
+		}
+		int idx = (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+		byte ret = s.codes[idx];
+		if(ret == UNKNOWN) {
+			pos.func_181079_c(x, y, z);
+			ret = s.codes[idx] = classify(world, s.chunk.getBlockState(pos).getBlock(), pos);
+		}
+		return ret;
+	}
+
+	public static byte classify(World world, Block block, BlockPos pos) {
+		Material material = block.getMaterial();
+		if(material == Material.air) {
+			return AIR;
+		}
+		if(block == Blocks.trapdoor || block == Blocks.iron_trapdoor) {
+			return block.isPassable(world, pos) ? TRAPDOOR_OPEN : TRAPDOOR_CLOSED;
+		}
+		if(block == Blocks.flowing_water || block == Blocks.water) {
+			return WATER;
+		}
+		if(block instanceof BlockRailBase) {
+			return RAIL;
+		}
+		boolean passable = block.isPassable(world, pos);
+		if(block instanceof BlockDoor && material == Material.wood) {
+			return passable ? WOOD_DOOR_OPEN : WOOD_DOOR_CLOSED;
+		}
+		if(passable) {
+			return PASSABLE;
+		}
+		if(block instanceof BlockFence || block instanceof BlockFenceGate || block instanceof BlockWall) {
+			return FENCE;
+		}
+		return material == Material.lava ? LAVA : SOLID;
+	}
+
+	private void removeSection(int index) {
+		Section s = sectionList.remove(index);
+		sections.remove(s.key);
+		if(lastSection == s) {
+			lastSection = null;
+		}
+	}
+
+	private static long sectionKey(int x, int y, int z) {
+		return ((long) x & 0x3FFFFFl) | (((long) z & 0x3FFFFFl) << 22) | ((long) y << 44);
+	}
+
+	private static class Section {
+
+		private final long key;
+		private final Chunk chunk;
+		private final long created;
+		private final byte[] codes = new byte[4096];
+		private int modCount;
+
+		private Section(long key, Chunk chunk, long created) {
+			this.key = key;
+			this.chunk = chunk;
+			this.created = created;
+			this.modCount = chunk.getModificationCount();
+		}
+
+	}
+
+}
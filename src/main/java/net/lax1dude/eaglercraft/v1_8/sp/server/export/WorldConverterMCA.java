@@ -1,5 +1,6 @@
 package net.lax1dude.eaglercraft.v1_8.sp.server.export;
 
+import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -16,10 +17,12 @@ import net.lax1dude.eaglercraft.v1_8.EaglerOutputStream;
 import net.lax1dude.eaglercraft.v1_8.internal.vfs2.VFile2;
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerChunkCodec;
 import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerChunkLoader;
 import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerIntegratedServerWorker;
 import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerSaveFormat;
 import net.lax1dude.eaglercraft.v1_8.sp.server.WorldsDB;
+import net.minecraft.world.ChunkCoordIntPair;
 import net.minecraft.world.chunk.storage.RegionFile;
 import net.minecraft.world.storage.WorldInfo;
 import net.minecraft.nbt.CompressedStreamTools;
@@ -111,35 +114,33 @@ public class WorldConverterMCA {
 					prog += b.length;
 				} else if ((fileName.endsWith(".mcr") || fileName.endsWith(".mca")) && (fileName.startsWith("region/") || fileName.startsWith("DIM1/region/") || fileName.startsWith("DIM-1/region/"))) {
 					VFile2 chunkFolder = WorldsDB.newVFile(worldDir, fileName.startsWith("DIM1") ? "level1" : (fileName.startsWith("DIM-1") ? "level-1" : "level0"));
+					EaglerChunkLoader chunkLoader = new EaglerChunkLoader(chunkFolder);
 					RegionFile mca = new RegionFile(new RandomAccessMemoryFile(b, b.length));
 					int loadChunksCount = 0;
 					for(int j = 0; j < 32; ++j) {
 						for(int k = 0; k < 32; ++k) {
 							if(mca.isChunkSaved(j, k)) {
-								NBTTagCompound chunkNBT;
-								NBTTagCompound chunkLevel;
+								byte[] chunkNBT;
+								ChunkCoordIntPair chunkCoords;
 								try {
-									chunkNBT = CompressedStreamTools.read(mca.getChunkDataInputStream(j, k));
-									if(!chunkNBT.hasKey("Level", 10)) {
+									chunkNBT = EaglerInputStream.inputStreamToBytes(mca.getChunkDataInputStream(j, k));
+									chunkCoords = EaglerChunkCodec.readChunkCoords(new DataInputStream(new EaglerInputStream(chunkNBT)));
+									if(chunkCoords == null) {
 										throw new IOException("Chunk is missing level data!");
 									}
-									chunkLevel = chunkNBT.getCompoundTag("Level");
 								}catch(Throwable t) {
 									logger.error("{}: Could not read chunk: {}, {}", fileName, j, k);
 									logger.error(t);
 									continue;
 								}
-								int chunkX = chunkLevel.getInteger("xPos");
-								int chunkZ = chunkLevel.getInteger("zPos");
-								VFile2 chunkOut = WorldsDB.newVFile(chunkFolder, EaglerChunkLoader.getChunkPath(chunkX, chunkZ) + ".dat");
-								if(chunkOut.exists()) {
-									logger.error("{}: Chunk already exists: {}", fileName, chunkOut.getPath());
+								int chunkX = chunkCoords.chunkXPos;
+								int chunkZ = chunkCoords.chunkZPos;
+								if(chunkLoader.isChunkSaved(chunkX, chunkZ)) {
+									logger.error("{}: Chunk already exists: {}, {}", fileName, chunkX, chunkZ);
 									continue;
 								}
-								EaglerOutputStream bao = new EaglerOutputStream();
-								CompressedStreamTools.writeCompressed(chunkNBT, bao);
-								b = bao.toByteArray();
-								chunkOut.setAllBytes(b);
+								b = EaglerChunkLoader.compressChunk(chunkNBT, new EaglerOutputStream());
+								chunkLoader.writeChunkData(chunkX, chunkZ, b, 0, b.length);
 								prog += b.length;
 								if (prog - lastProgUpdate > 25000) {
 									lastProgUpdate = prog;
@@ -149,6 +150,7 @@ public class WorldConverterMCA {
 							}
 						}
 					}
+					chunkLoader.flushRegions(false);
 					logger.info("{}: Imported {} chunks successfully ({} bytes)", fileName, loadChunksCount, prog);
 				} else if (fileName.startsWith("playerdata/") || fileName.startsWith("stats/")) {
 					//TODO: LAN player inventories
@@ -214,28 +216,32 @@ public class WorldConverterMCA {
 			List<VFile2> fileList;
 			for(int i = 0; i < 3; ++i) {
 				vf = WorldsDB.newVFile(worldFolder, srcFolderNames[i]);
-				fileList = vf.listFiles(true);
+				EaglerChunkLoader chunkLoader = new EaglerChunkLoader(vf);
+				List<ChunkCoordIntPair> chunkList = chunkLoader.listSavedChunks();
 				String regionFolder = folderName + dstFolderNames[i];
 				logger.info("Converting chunks in \"{}\" as MCA to \"{}\"...", vf.getPath(), regionFolder);
 				Map<String,RegionFile> regionFiles = new HashMap<>();
-				for(int k = 0, l = fileList.size(); k < l; ++k) {
-					VFile2 chunkFile = fileList.get(k);
-					NBTTagCompound chunkNBT;
-					NBTTagCompound chunkLevel;
+				for(int k = 0, l = chunkList.size(); k < l; ++k) {
+					ChunkCoordIntPair chunkCoords = chunkList.get(k);
+					byte[] chunkNBT;
+					ChunkCoordIntPair chunkLevel;
 					try {
-						b = chunkFile.getAllBytes();
-						chunkNBT = CompressedStreamTools.readCompressed(new EaglerInputStream(b));
-						if(!chunkNBT.hasKey("Level", 10)) {
+						b = chunkLoader.readChunkData(chunkCoords.chunkXPos, chunkCoords.chunkZPos);
+						if(b == null) {
+							throw new IOException("Chunk data is missing!");
+						}
+						chunkNBT = EaglerInputStream.inputStreamToBytes(EaglerChunkLoader.decompressChunk(b));
+						chunkLevel = EaglerChunkCodec.readChunkCoords(new DataInputStream(new EaglerInputStream(chunkNBT)));
+						if(chunkLevel == null) {
 							throw new IOException("Chunk is missing level data!");
 						}
-						chunkLevel = chunkNBT.getCompoundTag("Level");
 					}catch(IOException t) {
-						logger.error("Could not read chunk: {}", chunkFile.getPath());
+						logger.error("Could not read chunk: {}, {}", chunkCoords.chunkXPos, chunkCoords.chunkZPos);
 						logger.error(t);
 						continue;
 					}
-					int chunkX = chunkLevel.getInteger("xPos");
-					int chunkZ = chunkLevel.getInteger("zPos");
+					int chunkX = chunkLevel.chunkXPos;
+					int chunkZ = chunkLevel.chunkZPos;
 					String regionFileName = "r." + (chunkX >> 5) + "." + (chunkZ >> 5) + ".mca";
 					RegionFile rf = regionFiles.get(regionFileName);
 					if(rf == null) {
@@ -243,9 +249,9 @@ public class WorldConverterMCA {
 						regionFiles.put(regionFileName, rf);
 					}
 					try(DataOutputStream dos = rf.getChunkDataOutputStream(chunkX & 31, chunkZ & 31)) {
-						CompressedStreamTools.write(chunkNBT, dos);
+						dos.write(chunkNBT);
 					}catch(IOException t) {
-						logger.error("Could not write chunk to {}: {}", regionFileName, chunkFile.getPath());
+						logger.error("Could not write chunk to {}: {}, {}", regionFileName, chunkX, chunkZ);
 						logger.error(t);
 						continue;
 					}
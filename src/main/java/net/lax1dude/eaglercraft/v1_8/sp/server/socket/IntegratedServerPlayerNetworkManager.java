@@ -17,6 +17,7 @@ import net.lax1dude.eaglercraft.v1_8.netty.Unpooled;
 import net.lax1dude.eaglercraft.v1_8.socket.CompressionNotSupportedException;
 import net.lax1dude.eaglercraft.v1_8.sp.SingleplayerServerController;
 import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerIntegratedServerWorker;
+import net.lax1dude.eaglercraft.v1_8.sp.socket.DirectPacketData;
 import net.minecraft.network.EnumConnectionState;
 import net.minecraft.network.EnumPacketDirection;
 import net.minecraft.network.INetHandler;
@@ -50,7 +51,7 @@ public class IntegratedServerPlayerNetworkManager {
 	private static PacketBuffer temporaryBuffer;
 	private static EaglerOutputStream temporaryOutputStream;
 	private int debugPacketCounter = 0;
-	private byte[][] recievedPacketBuffer = new byte[16384][];
+	private Object[] recievedPacketBuffer = new Object[16384];
 	private int recievedPacketBufferCounter = 0;
 	private final boolean enableSendCompression;
 
@@ -97,6 +98,14 @@ public class IntegratedServerPlayerNetworkManager {
 	}
 
 	public void addRecievedPacket(byte[] next) {
+		addRecievedPacket0(next);
+	}
+
+	public void addRecievedPacket(Packet next) {
+		addRecievedPacket0(next);
+	}
+
+	private void addRecievedPacket0(Object next) {
 		if(recievedPacketBufferCounter < recievedPacketBuffer.length - 1) {
 			recievedPacketBuffer[recievedPacketBufferCounter++] = next;
 		}else {
@@ -109,7 +118,20 @@ public class IntegratedServerPlayerNetworkManager {
 
 		
 		for(int i = 0; i < recievedPacketBufferCounter; ++i) {
-			byte[] data = recievedPacketBuffer[i];
+			Object obj = recievedPacketBuffer[i];
+			if(obj instanceof Packet) {
+				recievedPacketBuffer[i] = null;
+				++debugPacketCounter;
+				Packet pkt = (Packet)obj;
+				try {
+					pkt.processPacket(nethandler);
+				}catch(Throwable t) {
+					logger.error("Failed to process {}! It'll be skipped for debug purposes.", pkt.getClass().getSimpleName());
+					logger.error(t);
+				}
+				continue;
+			}
+			byte[] data = (byte[])obj;
 			byte[] fullData;
 
 			if(enableSendCompression) {
@@ -222,6 +244,11 @@ public class IntegratedServerPlayerNetworkManager {
 			return;
 		}
 		
+		if(!enableSendCompression && ServerPlatformSingleplayer.isDirectPacketHandoff() && DirectPacketData.canSendDirect(pkt)) {
+			ServerPlatformSingleplayer.sendPacket(new DirectPacketData(playerChannel, pkt));
+			return;
+		}
+		
 		temporaryBuffer.clear();
 		temporaryBuffer.writeVarIntToBuffer(i);
 		try {
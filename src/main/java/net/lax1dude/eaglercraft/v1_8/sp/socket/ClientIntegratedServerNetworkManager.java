@@ -34,7 +34,7 @@ import net.minecraft.util.IChatComponent;
 public class ClientIntegratedServerNetworkManager extends EaglercraftNetworkManager {
 
 	private int debugPacketCounter = 0;
-	private byte[][] recievedPacketBuffer = new byte[16384][];
+	private Object[] recievedPacketBuffer = new Object[16384];
 	private int recievedPacketBufferCounter = 0;
 	public boolean isPlayerChannelOpen = false;
 
@@ -65,6 +65,14 @@ public class ClientIntegratedServerNetworkManager extends EaglercraftNetworkMana
 	}
 
 	public void addRecievedPacket(byte[] next) {
+		addRecievedPacket0(next);
+	}
+
+	public void addRecievedPacket(Packet next) {
+		addRecievedPacket0(next);
+	}
+
+	private void addRecievedPacket0(Object next) {
 		if(recievedPacketBufferCounter < recievedPacketBuffer.length - 1) {
 			recievedPacketBuffer[recievedPacketBufferCounter++] = next;
 		}else {
@@ -77,21 +85,27 @@ public class ClientIntegratedServerNetworkManager extends EaglercraftNetworkMana
 		if(nethandler == null) return;
 
 		for(int i = 0; i < recievedPacketBufferCounter; ++i) {
-			byte[] next = recievedPacketBuffer[i];
+			Object obj = recievedPacketBuffer[i];
 			recievedPacketBuffer[i] = null;
 			++debugPacketCounter;
+			if(obj instanceof Packet) {
+				Packet pkt = (Packet)obj;
+				try {
+					pkt.processPacket(nethandler);
+				}catch(Throwable t) {
+					logger.error("Failed to process {}! It'll be skipped for debug purposes.", pkt.getClass().getSimpleName());
+					logger.error(t);
+				}
+				continue;
+			}
+			byte[] next = (byte[])obj;
 			try {
 				ByteBuf nettyBuffer = Unpooled.buffer(next, next.length);
 				nettyBuffer.writerIndex(next.length);
 				PacketBuffer input = new PacketBuffer(nettyBuffer);
 				int pktId = input.readVarIntFromBuffer();
 				
-				Packet pkt;
-				try {
-					pkt = packetState.getPacket(EnumPacketDirection.CLIENTBOUND, pktId);
-				}catch(IllegalAccessException | InstantiationException ex) {
-					throw new IOException("Recieved a packet with type " + pktId + " which is invalid!");
-				}
+				Packet pkt = getRecievedPacketInstance(pktId);
 				
 				if(pkt == null) {
 					throw new IOException("Recieved packet type " + pktId + " which is undefined in state " + packetState);
@@ -133,6 +147,11 @@ public class ClientIntegratedServerNetworkManager extends EaglercraftNetworkMana
 			return;
 		}
 		
+		if(ClientPlatformSingleplayer.isDirectPacketHandoff() && DirectPacketData.canSendDirect(pkt)) {
+			ClientPlatformSingleplayer.sendPacket(new DirectPacketData(address, pkt));
+			return;
+		}
+		
 		temporaryBuffer.clear();
 		temporaryBuffer.writeVarIntToBuffer(i);
 		try {
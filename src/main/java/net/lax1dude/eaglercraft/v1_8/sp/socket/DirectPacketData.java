@@ -0,0 +1,51 @@
+package net.lax1dude.eaglercraft.v1_8.sp.socket;
+
+import net.lax1dude.eaglercraft.v1_8.internal.IPCPacketData;
+import net.minecraft.network.Packet;
+import net.minecraft.network.play.client.C17PacketCustomPayload;
+import net.minecraft.network.play.server.S0CPacketSpawnPlayer;
+import net.minecraft.network.play.server.S0FPacketSpawnMob;
+import net.minecraft.network.play.server.S3FPacketCustomPayload;
+
+/**
+ * Copyright (c) 2024 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class DirectPacketData extends IPCPacketData {
+
+	/**
+	 * Carries a game packet object between the client and the integrated server
+	 * on platforms where both run in the same heap, the packet is never
+	 * serialized so {@link #contents} is always null
+	 */
+	public final Packet packet;
+
+	public DirectPacketData(String channel, Packet packet) {
+		super(channel, null);
+		this.packet = packet;
+	}
+
+	/**
+	 * Custom payload packets hold a buffer that is consumed when they are
+	 * written or read, they are always serialized so they can't be shared.
+	 * The spawn mob and spawn player packets keep the server entity's live
+	 * DataWatcher and only read it when the client asks for the list, they
+	 * are serialized so that read happens on the server thread
+	 */
+	public static boolean canSendDirect(Packet pkt) {
+		return !(pkt instanceof S3FPacketCustomPayload) && !(pkt instanceof C17PacketCustomPayload)
+				&& !(pkt instanceof S0FPacketSpawnMob) && !(pkt instanceof S0CPacketSpawnPlayer);
+	}
+
+}
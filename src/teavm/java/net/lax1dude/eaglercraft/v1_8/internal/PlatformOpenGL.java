@@ -53,6 +53,8 @@ public class PlatformOpenGL {
 	static boolean hasOESTextureHalfFloat = false;
 	static boolean hasOESTextureHalfFloatLinear = false;
 	static boolean hasEXTTextureFilterAnisotropic = false;
+	static boolean hasEXTDisjointTimerQuery = false;
+	static boolean hasKHRParallelShaderCompile = false;
 	static boolean hasWEBGLDebugRendererInfo = false;
 
 	static WebGLANGLEInstancedArrays ANGLEInstancedArrays = null;
@@ -93,6 +95,8 @@ public class PlatformOpenGL {
 				hasOESTextureHalfFloat = glesVersIn == 200 && ctx.getExtension("OES_texture_half_float") != null;
 				hasOESTextureHalfFloatLinear = glesVersIn == 200 && ctx.getExtension("OES_texture_half_float_linear") != null;
 				hasEXTTextureFilterAnisotropic = ctx.getExtension("EXT_texture_filter_anisotropic") != null;
+				hasEXTDisjointTimerQuery = glesVersIn >= 300 && ctx.getExtension("EXT_disjoint_timer_query_webgl2") != null;
+				hasKHRParallelShaderCompile = ctx.getExtension("KHR_parallel_shader_compile") != null;
 			}else {
 				hasANGLEInstancedArrays = false;
 				hasEXTColorBufferFloat = false;
@@ -105,6 +109,8 @@ public class PlatformOpenGL {
 				hasOESTextureHalfFloat = false;
 				hasOESTextureHalfFloatLinear = false;
 				hasEXTTextureFilterAnisotropic = false;
+				hasEXTDisjointTimerQuery = false;
+				hasKHRParallelShaderCompile = false;
 			}
 			hasWEBGLDebugRendererInfo = ctx.getExtension("WEBGL_debug_renderer_info") != null;
 			
@@ -138,6 +144,8 @@ public class PlatformOpenGL {
 			hasOESTextureHalfFloat = false;
 			hasOESTextureHalfFloatLinear = false;
 			hasEXTTextureFilterAnisotropic = false;
+			hasEXTDisjointTimerQuery = false;
+			hasKHRParallelShaderCompile = false;
 			hasWEBGLDebugRendererInfo = false;
 			ANGLEInstancedArrays = null;
 			OESVertexArrayObject = null;
@@ -161,6 +169,8 @@ public class PlatformOpenGL {
 		if(hasOESTextureHalfFloat) exts.add("OES_texture_half_float");
 		if(hasOESTextureHalfFloatLinear) exts.add("OES_texture_half_float_linear");
 		if(hasEXTTextureFilterAnisotropic) exts.add("EXT_texture_filter_anisotropic");
+		if(hasEXTDisjointTimerQuery) exts.add("EXT_disjoint_timer_query_webgl2");
+		if(hasKHRParallelShaderCompile) exts.add("KHR_parallel_shader_compile");
 		if(hasWEBGLDebugRendererInfo) exts.add("WEBGL_debug_renderer_info");
 		return exts;
 	}
@@ -351,6 +361,18 @@ public class PlatformOpenGL {
 		ctx.deleteQuery(((OpenGLObjects.QueryGL)obj).ptr);
 	}
 	
+	public static final void _wglBeginQuery(int target, IQueryGL obj) {
+		ctx.beginQuery(target, ((OpenGLObjects.QueryGL)obj).ptr);
+	}
+	
+	public static final void _wglEndQuery(int target) {
+		ctx.endQuery(target);
+	}
+	
+	public static final int _wglGetQueryObjecti(IQueryGL obj, int param) {
+		return ctx.getQueryParameter(((OpenGLObjects.QueryGL)obj).ptr, param);
+	}
+	
 	public static final void _wglBindBuffer(int target, IBufferGL obj) {
 		ctx.bindBuffer(target, obj != null ? ((OpenGLObjects.BufferGL)obj).ptr : null);
 	}
@@ -558,6 +580,18 @@ public class PlatformOpenGL {
 		return ctx.getProgramInfoLog(obj == null ? null : ((OpenGLObjects.ProgramGL)obj).ptr);
 	}
 	
+	public static final void _wglProgramParameteri(IProgramGL obj, int param, int value) {
+		// WebGL does not have program binaries
+	}
+	
+	public static final byte[] _wglGetProgramBinary(IProgramGL obj, int[] formatOut) {
+		return null;
+	}
+	
+	public static final void _wglProgramBinary(IProgramGL obj, int format, byte[] data) {
+		throw new UnsupportedOperationException("Program binaries are not supported in WebGL");
+	}
+	
 	public static final void _wglBindAttribLocation(IProgramGL obj, int index, String name) {
 		ctx.bindAttribLocation(obj == null ? null : ((OpenGLObjects.ProgramGL)obj).ptr, index, name);
 	}
@@ -833,6 +867,18 @@ public class PlatformOpenGL {
 		return hasEXTTextureFilterAnisotropic;
 	}
 	
+	public static final boolean checkTimerQueryCapable() {
+		return hasEXTDisjointTimerQuery;
+	}
+	
+	public static final boolean checkParallelShaderCompileCapable() {
+		return hasKHRParallelShaderCompile;
+	}
+	
+	public static final boolean checkProgramBinaryCapable() {
+		return false;
+	}
+	
 	public static final boolean checkNPOTCapable() {
 		return glesVers >= 300;
 	}
@@ -1189,6 +1189,14 @@ public class PlatformRuntime {
 		BootMenuEntryPoint.setDisplayBootMenuNextRefresh(win, en);
 	}
 
+	public static int getAvailableWorkerThreads() {
+		return 0;
+	}
+
+	public static IWorkerThreadPool createWorkerThreadPool(String name, int threads) {
+		throw new UnsupportedOperationException("Worker threads are not supported in JavaScript");
+	}
+
 	static void beforeUnload() {
 		if(SingleplayerServerController.isWorldRunning()) {
 			SingleplayerServerController.autoSave();
@@ -5,6 +5,7 @@ import org.teavm.jso.dom.events.Event;
 import org.teavm.jso.dom.events.EventListener;
 import org.teavm.jso.dom.events.MessageEvent;
 import org.teavm.jso.typedarrays.ArrayBuffer;
+import org.teavm.jso.typedarrays.Int8Array;
 import org.teavm.jso.websocket.WebSocket;
 
 import net.lax1dude.eaglercraft.v1_8.EagUtils;
@@ -115,6 +116,9 @@ public class TeaVMWebSocketClient extends AbstractWebSocketClient {
 	@JSBody(params = { "sock", "buffer" }, script = "sock.send(buffer);")
 	protected static native void nativeBinarySend(WebSocket sock, ArrayBuffer buffer);
 
+	@JSBody(params = { "sock", "buffer", "off", "len" }, script = "sock.send(buffer.subarray(off, off + len));")
+	protected static native void nativeBinarySend(WebSocket sock, Int8Array buffer, int off, int len);
+
 	@Override
 	public void send(byte[] bytes) {
 		if(sockIsConnected) {
@@ -122,4 +126,11 @@ public class TeaVMWebSocketClient extends AbstractWebSocketClient {
 		}
 	}
 
+	@Override
+	public void send(byte[] bytes, int off, int len) {
+		if(sockIsConnected) {
+			nativeBinarySend(sock, TeaVMUtils.unwrapByteArray(bytes), off, len);
+		}
+	}
+
 }
@@ -303,6 +303,10 @@ public class ClientPlatformSingleplayer {
 		}
 	}
 
+	public static boolean isDirectPacketHandoff() {
+		return false;
+	}
+
 	public static boolean canKillWorker() {
 		return !isSingleThreadMode;
 	}
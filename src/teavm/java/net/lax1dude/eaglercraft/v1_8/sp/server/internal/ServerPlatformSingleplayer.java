@@ -174,6 +174,10 @@ public class ServerPlatformSingleplayer {
 		}
 	}
 
+	public static boolean isDirectPacketHandoff() {
+		return false;
+	}
+
 	public static IClientConfigAdapter getClientConfigAdapter() {
 		return TeaVMClientConfigAdapter.instance;
 	}